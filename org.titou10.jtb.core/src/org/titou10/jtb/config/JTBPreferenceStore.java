@@ -91,11 +91,18 @@ public class JTBPreferenceStore extends EventManager implements IPersistentPrefe
       setDefault(Constants.PREF_SHOW_SYSTEM_OBJECTS, Constants.PREF_SHOW_SYSTEM_OBJECTS_DEFAULT);
       setDefault(Constants.PREF_AUTO_RESIZE_COLS_BROWSER, Constants.PREF_AUTO_RESIZE_COLS_BROWSER_DEFAULT);
       setDefault(Constants.PREF_EDIT_MESSAGE_DND, Constants.PREF_EDIT_MESSAGE_DND_DEFAULT);
+      setDefault(Constants.PREF_MESSAGE_INDEX, Constants.PREF_MESSAGE_INDEX_DEFAULT);
+      setDefault(Constants.PREF_BROWSE_RELEASE_PAYLOADS, Constants.PREF_BROWSE_RELEASE_PAYLOADS_DEFAULT);
+      setDefault(Constants.PREF_Q_DEPTH_NB_THREADS, Constants.PREF_Q_DEPTH_NB_THREADS_DEFAULT);
+      setDefault(Constants.PREF_Q_DEPTH_TIMEOUT, Constants.PREF_Q_DEPTH_TIMEOUT_DEFAULT);
+      setDefault(Constants.PREF_Q_DEPTH_HISTORY_PERSIST, Constants.PREF_Q_DEPTH_HISTORY_PERSIST_DEFAULT);
       setDefault(Constants.PREF_SHOW_NON_BROWSABLE_Q, Constants.PREF_SHOW_NON_BROWSABLE_Q_DEFAULT);
       setDefault(Constants.PREF_TRUST_ALL_CERTIFICATES, Constants.PREF_TRUST_ALL_CERTIFICATES_DEFAULT);
       setDefault(Constants.PREF_CLEAR_LOGS_EXECUTION, Constants.PREF_CLEAR_LOGS_EXECUTION_DEFAULT);
       setDefault(Constants.PREF_MAX_MESSAGES_TOPIC, Constants.PREF_MAX_MESSAGES_TOPIC_DEFAULT);
+      setDefault(Constants.PREF_REMOVE_COMMIT_INTERVAL, Constants.PREF_REMOVE_COMMIT_INTERVAL_DEFAULT);
       setDefault(Constants.PREF_CONN_CLIENT_ID_PREFIX, Constants.PREF_CONN_CLIENT_ID_PREFIX_DEFAULT);
+      setDefault(Constants.PREF_CONN_SESSION_POOL_SIZE, Constants.PREF_CONN_SESSION_POOL_SIZE_DEFAULT);
       setDefault(Constants.PREF_XML_INDENT, Constants.PREF_XML_INDENT_DEFAULT);
       setDefault(Constants.PREF_SYNCHRONIZE_SESSIONS_MESSAGES, Constants.PREF_SYNCHRONIZE_SESSIONS_MESSAGES_DEFAULT);
       setDefault(Constants.PREF_MESSAGE_TAB_DISPLAY, Constants.PREF_MESSAGE_TAB_DISPLAY_DEFAULT);
@@ -33,6 +33,7 @@ import org.titou10.jtb.config.ConfigManager;
 import org.titou10.jtb.config.JTBPreferenceStore;
 import org.titou10.jtb.connector.ex.EmptyMessageException;
 import org.titou10.jtb.connector.ex.ExecutionException;
+import org.titou10.jtb.connector.ex.InvalidCursorException;
 import org.titou10.jtb.connector.ex.UnknownDestinationException;
 import org.titou10.jtb.connector.ex.UnknownQueueException;
 import org.titou10.jtb.connector.ex.UnknownSessionException;
@@ -136,7 +137,7 @@ public class ExternalConnectorManager {
       List<MessageOutput> messages = new ArrayList<>();
 
       try {
-         List<JTBMessage> jtbMessages = jtbConnection.browseQueue(jtbQueue, limit,"","");
+         List<JTBMessage> jtbMessages = jtbConnection.executeInPooledSession(s -> s.browseQueue(jtbQueue, limit));
          for (JTBMessage jtbMessage : jtbMessages) {
             messages.add(new MessageOutput(jtbMessage, null));
          }
@@ -167,7 +168,7 @@ public class ExternalConnectorManager {
       List<MessageOutput> messages = new ArrayList<>();
 
       try {
-         List<JTBMessage> jtbMessages = jtbConnection.removeFirstMessages(jtbQueue, limit);
+         List<JTBMessage> jtbMessages = jtbConnection.executeInPooledSession(s -> s.removeFirstMessages(jtbQueue, limit));
          for (JTBMessage jtbMessage : jtbMessages) {
             messages.add(new MessageOutput(jtbMessage, null));
          }
@@ -179,6 +180,48 @@ public class ExternalConnectorManager {
 
    }
 
+   // Streaming variants of browseMessages and removeMessages. The session and the queue are validated here, the messages are
+   // read when MessageStream.write() is called
+   public MessageStream browseMessagesStream(String sessionName,
+                                             String queueName,
+                                             int limit,
+                                             String cursor) throws ExecutionException, UnknownSessionException,
+                                                            UnknownDestinationException, UnknownQueueException,
+                                                            InvalidCursorException {
+
+      JTBConnection jtbConnection = getJTBConnection(sessionName);
+
+      try {
+         jtbConnection.connect();
+      } catch (Exception e) {
+         log.error("Exception when browsing messages in queue '{}::{}'", sessionName, queueName, e);
+         throw new ExecutionException(e);
+      }
+
+      JTBQueue jtbQueue = getJTBQueue(jtbConnection, queueName);
+
+      return MessageStream.browse(jtbConnection, jtbQueue, limit, cursor);
+   }
+
+   public MessageStream removeMessagesStream(String sessionName, String queueName, int limit) throws ExecutionException,
+                                                                                              UnknownSessionException,
+                                                                                              UnknownDestinationException,
+                                                                                              UnknownQueueException {
+
+      JTBConnection jtbConnection = getJTBConnection(sessionName);
+
+      try {
+         jtbConnection.connect();
+      } catch (Exception e) {
+         log.error("Exception when removing messages from queue '{}::{}'", sessionName, queueName, e);
+         throw new ExecutionException(e);
+      }
+
+      JTBQueue jtbQueue = getJTBQueue(jtbConnection, queueName);
+
+      return MessageStream.remove(jtbConnection, jtbQueue, limit);
+   }
+
    public void postMessage(String sessionName, String destinationName, MessageInput messageInput) throws ExecutionException,
                                                                                                   UnknownSessionException,
                                                                                                   UnknownDestinationException,
@@ -205,11 +248,14 @@ public class ExternalConnectorManager {
       JTBDestination jtbDestination = getJTBDestination(jtbConnection, destinationName);
 
       try {
-         // Create a JTBMessage from the MessageInput received
-         JTBMessage jtbMessage = messageInput.toJTBMessage(jtbConnection, jtbDestination);
-
-         // Post Message
-         jtbConnection.sendMessage(jtbMessage);
+         jtbConnection.executeInPooledSession(s -> {
+            // Create a JTBMessage from the MessageInput received
+            JTBMessage jtbMessage = messageInput.toJTBMessage(s, jtbDestination);
+
+            // Post Message
+            s.sendMessage(jtbMessage);
+            return null;
+         });
       } catch (Exception e) {
          log.error("Exception when posting message to destination '{}::{}'", sessionName, destinationName, e);
          throw new ExecutionException(e);
@@ -244,28 +290,30 @@ public class ExternalConnectorManager {
       JTBMessageTemplate jtbMessageTemplate = getJTBMessageTemplate(templateName);
 
       try {
-         Message m = jtbConnection.createJMSMessage(jtbMessageTemplate.getJtbMessageType());
-
-         // Resolve variables
-         byte[] payloadBytes = null;
-         switch (jtbMessageTemplate.getJtbMessageType()) {
-            case TEXT:
-               String payload = variablesManager.replaceTemplateVariables(jtbMessageTemplate.getPayloadText());
-               jtbMessageTemplate.setPayloadText(payload);
-               break;
-
-            case BYTES:
-               payloadBytes = jtbMessageTemplate.getPayloadBytes();
-               break;
-            default:
-               break;
-         }
-
-         // Send Message
-         JTBMessage jtbMessage = jtbMessageTemplate.toJTBMessage(jtbDestination, m);
-         jtbDestination.getJtbConnection().sendMessage(jtbMessage);
-
-         return new MessageOutput(jtbMessage, payloadBytes);
+         return jtbConnection.executeInPooledSession(s -> {
+            Message m = s.createJMSMessage(jtbMessageTemplate.getJtbMessageType());
+
+            // Resolve variables
+            byte[] payloadBytes = null;
+            switch (jtbMessageTemplate.getJtbMessageType()) {
+               case TEXT:
+                  String payload = variablesManager.replaceTemplateVariables(jtbMessageTemplate.getPayloadText());
+                  jtbMessageTemplate.setPayloadText(payload);
+                  break;
+
+               case BYTES:
+                  payloadBytes = jtbMessageTemplate.getPayloadBytes();
+                  break;
+               default:
+                  break;
+            }
+
+            // Send Message
+            JTBMessage jtbMessage = jtbMessageTemplate.toJTBMessage(jtbDestination, m);
+            s.sendMessage(jtbMessage);
+
+            return new MessageOutput(jtbMessage, payloadBytes);
+         });
       } catch (Exception e) {
          log.error("Exception when posting message to destination '{}::{}' with template",
                    sessionName,
@@ -285,13 +333,51 @@ public class ExternalConnectorManager {
       JTBDestination jtbDestination = getJTBQueue(jtbConnection, queueName);
 
       try {
-         return jtbConnection.emptyQueue(jtbDestination.getAsJTBQueue());
+         return jtbConnection.executeInPooledSession(s -> s.emptyQueue(jtbDestination.getAsJTBQueue()));
       } catch (JMSException e) {
          log.error("Exception when emptying queue '{}::{}'", sessionName, queueName, e);
          throw new ExecutionException(e);
       }
    }
 
+   // Remove the messages matching the selector. Returns -1 if the Q Manager did not tell how many were removed
+   public int removeMessages(String sessionName, String queueName, String selector) throws ExecutionException,
+                                                                                    UnknownSessionException,
+                                                                                    UnknownDestinationException,
+                                                                                    UnknownQueueException {
+      log.debug("removeMessages selector={}", selector);
+
+      JTBConnection jtbConnection = getJTBConnection(sessionName);
+      JTBQueue jtbQueue = getJTBQueue(jtbConnection, queueName);
+
+      try {
+         return jtbConnection.executeInPooledSession(s -> s.removeMessages(jtbQueue, selector));
+      } catch (JMSException e) {
+         log.error("Exception when removing messages from queue '{}::{}'", sessionName, queueName, e);
+         throw new ExecutionException(e);
+      }
+   }
+
+   // Move the messages matching the selector (all if null) to another queue. Returns -1 if the Q Manager did not tell how many
+   public int moveMessages(String sessionName,
+                           String queueName,
+                           String selector,
+                           String targetQueueName) throws ExecutionException, UnknownSessionException,
+                                                   UnknownDestinationException, UnknownQueueException {
+      log.debug("moveMessages selector={} target={}", selector, targetQueueName);
+
+      JTBConnection jtbConnection = getJTBConnection(sessionName);
+      JTBQueue jtbQueue = getJTBQueue(jtbConnection, queueName);
+      JTBQueue targetJtbQueue = getJTBQueue(jtbConnection, targetQueueName);
+
+      try {
+         return jtbConnection.executeInPooledSession(s -> s.moveMessages(jtbQueue, selector, targetJtbQueue));
+      } catch (JMSException e) {
+         log.error("Exception when moving messages from queue '{}::{}' to '{}'", sessionName, queueName, targetQueueName, e);
+         throw new ExecutionException(e);
+      }
+   }
+
    // ----------------------------
    // Services related to Scripts
    // ----------------------------
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.connector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.JMSRuntimeException;
+import javax.jms.Message;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.connector.ex.ExecutionException;
+import org.titou10.jtb.connector.ex.InvalidCursorException;
+import org.titou10.jtb.connector.transport.MessageOutput;
+import org.titou10.jtb.jms.model.JTBConnection;
+import org.titou10.jtb.jms.model.JTBMessage;
+import org.titou10.jtb.jms.model.JTBQueue;
+import org.titou10.jtb.jms.model.QueueBrowseListener;
+
+/**
+ * Messages of a queue, browsed or removed, and handed to a MessageOutputListener page by page as they are read
+ *
+ * Only one page of messages is kept in memory, whatever the number of messages read. The stream is prepared by
+ * ExternalConnectorManager, that validates the session and the queue, and executed later by write(), on a pooled JMS session
+ *
+ * A browse can be resumed with the cursor returned by getNextCursor(): "<JMSPriority>:<JMSTimestamp>:<JMSMessageID>" of the
+ * last message handed to the listener. The browse restarts with a selector on the messages with a lower priority, or with the same
+ * priority and a greater or equal timestamp, and the messages with the same priority and timestamp up to the cursor message are
+ * skipped. This assumes that the queue is browsed by decreasing priority then increasing timestamp. No cursor is returned when
+ * the messages read are not in that order (FIFO browse with mixed priorities, producers with different clocks...)
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class MessageStream {
+
+   private static final Logger log       = LoggerFactory.getLogger(MessageStream.class);
+
+   private static final int    PAGE_SIZE = 64;
+
+   private final JTBConnection jtbConnection;
+   private final JTBQueue      jtbQueue;
+   private final boolean       remove;
+   private final int           limit;
+   private final int           cursorPriority;
+   private final long          cursorTimestamp;
+   private final String        cursorMessageID;
+
+   private String              nextCursor;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   private MessageStream(JTBConnection jtbConnection,
+                         JTBQueue jtbQueue,
+                         boolean remove,
+                         int limit,
+                         int cursorPriority,
+                         long cursorTimestamp,
+                         String cursorMessageID) {
+      this.jtbConnection = jtbConnection;
+      this.jtbQueue = jtbQueue;
+      this.remove = remove;
+      this.limit = limit;
+      this.cursorPriority = cursorPriority;
+      this.cursorTimestamp = cursorTimestamp;
+      this.cursorMessageID = cursorMessageID;
+   }
+
+   static MessageStream browse(JTBConnection jtbConnection,
+                               JTBQueue jtbQueue,
+                               int limit,
+                               String cursor) throws InvalidCursorException {
+      if ((cursor == null) || (cursor.isEmpty())) {
+         return new MessageStream(jtbConnection, jtbQueue, false, limit, 0, 0, null);
+      }
+
+      // The JMSMessageID may itself contain ':'
+      int pos1 = cursor.indexOf(':');
+      int pos2 = pos1 < 0 ? -1 : cursor.indexOf(':', pos1 + 1);
+      if ((pos1 <= 0) || (pos2 <= pos1 + 1) || (pos2 == cursor.length() - 1)) {
+         throw new InvalidCursorException(cursor);
+      }
+      try {
+         int priority = Integer.parseInt(cursor.substring(0, pos1));
+         long timestamp = Long.parseLong(cursor.substring(pos1 + 1, pos2));
+         return new MessageStream(jtbConnection, jtbQueue, false, limit, priority, timestamp, cursor.substring(pos2 + 1));
+      } catch (NumberFormatException e) {
+         throw new InvalidCursorException(cursor);
+      }
+   }
+
+   static MessageStream remove(JTBConnection jtbConnection, JTBQueue jtbQueue, int limit) {
+      return new MessageStream(jtbConnection, jtbQueue, true, limit, 0, 0, null);
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Read the messages and hand them to the listener. Returns the number of messages handed to the listener
+   // When removing messages, the messages of a page are committed once the listener has received them
+   public int write(MessageOutputListener listener) throws ExecutionException, IOException {
+      log.debug("write {} remove={} limit={} cursor={}:{}:{}",
+                jtbQueue,
+                remove,
+                limit,
+                cursorPriority,
+                cursorTimestamp,
+                cursorMessageID);
+
+      PageListener pageListener = new PageListener(listener);
+      try {
+         jtbConnection.executeInPooledSession(s -> {
+            if (remove) {
+               return s.removeFirstMessages(jtbQueue, limit, PAGE_SIZE, pageListener);
+            }
+            String selector = cursorMessageID == null ? "" : buildCursorSelector();
+            return s.browseQueue(jtbQueue, 0, selector, PAGE_SIZE, pageListener);
+         });
+      } catch (JMSException | JMSRuntimeException e) {
+         throw new ExecutionException(e);
+      } catch (UncheckedIOException e) {
+         throw e.getCause();
+      }
+
+      return pageListener.nb;
+   }
+
+   // Cursor to resume the browse after the last message handed to the listener, if the limit has been reached. null otherwise
+   public String getNextCursor() {
+      return nextCursor;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private String buildCursorSelector() {
+      StringBuilder sb = new StringBuilder(96);
+      sb.append("JMSPriority < ").append(cursorPriority);
+      sb.append(" OR (JMSPriority = ").append(cursorPriority);
+      sb.append(" AND JMSTimestamp >= ").append(cursorTimestamp).append(")");
+      return sb.toString();
+   }
+
+   private final class PageListener implements QueueBrowseListener {
+
+      private final MessageOutputListener listener;
+      private boolean                     skipping;
+      private int                         nb;
+
+      // Position of the previous message read, to check that the messages are read in the order assumed by the cursor
+      private boolean                     ordered;
+      private int                         lastPriority;
+      private long                        lastTimestamp;
+
+      PageListener(MessageOutputListener listener) {
+         this.listener = listener;
+         this.skipping = cursorMessageID != null;
+         this.nb = 0;
+         this.ordered = true;
+         this.lastPriority = cursorMessageID == null ? Integer.MAX_VALUE : cursorPriority;
+         this.lastTimestamp = cursorMessageID == null ? Long.MIN_VALUE : cursorTimestamp;
+      }
+
+      @Override
+      public boolean onMessages(List<JTBMessage> jtbMessages) {
+         try {
+            List<MessageOutput> page = new ArrayList<>(jtbMessages.size());
+            Message last = null;
+            for (JTBMessage jtbMessage : jtbMessages) {
+               Message m = jtbMessage.getJmsMessage();
+               checkOrder(m);
+               if (skipping && isBeforeCursor(m)) {
+                  continue;
+               }
+               page.add(new MessageOutput(jtbMessage, null));
+               last = m;
+               nb++;
+               if ((!remove) && (nb == limit)) {
+                  break;
+               }
+            }
+
+            if (!page.isEmpty()) {
+               listener.onMessages(page);
+            }
+
+            if ((!remove) && (nb == limit)) {
+               if (ordered) {
+                  nextCursor = last.getJMSPriority() + ":" + last.getJMSTimestamp() + ":" + last.getJMSMessageID();
+               } else {
+                  log.warn("Messages of {} are not browsed by priority and timestamp. The browse can not be resumed", jtbQueue);
+               }
+               return false;
+            }
+            return true;
+
+         } catch (JMSException e) {
+            throw new JMSRuntimeException(e.getMessage(), e.getErrorCode(), e);
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+
+      private void checkOrder(Message m) throws JMSException {
+         int priority = m.getJMSPriority();
+         long timestamp = m.getJMSTimestamp();
+         if ((priority > lastPriority) || ((priority == lastPriority) && (timestamp < lastTimestamp))) {
+            ordered = false;
+         }
+         lastPriority = priority;
+         lastTimestamp = timestamp;
+      }
+
+      // Messages with the priority and timestamp of the cursor are skipped up to the message of the cursor. If that message is no
+      // longer in the queue, skipping stops with the first message that comes after it
+      private boolean isBeforeCursor(Message m) throws JMSException {
+         if ((m.getJMSPriority() < cursorPriority) || (m.getJMSTimestamp() > cursorTimestamp)) {
+            skipping = false;
+            return false;
+         }
+         if (cursorMessageID.equals(m.getJMSMessageID())) {
+            skipping = false;
+         }
+         return true;
+      }
+   }
+}
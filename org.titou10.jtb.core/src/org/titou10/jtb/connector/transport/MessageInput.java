@@ -25,10 +25,10 @@ import javax.jms.Message;
 import javax.jms.TextMessage;
 import javax.xml.bind.annotation.XmlRootElement;
 
-import org.titou10.jtb.jms.model.JTBConnection;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBMessage;
 import org.titou10.jtb.jms.model.JTBMessageType;
+import org.titou10.jtb.jms.model.PooledJMSSession;
 import org.titou10.jtb.jms.util.JTBDeliveryMode;
 
 /**
@@ -62,8 +62,8 @@ public class MessageInput {
    private Map<String, String> payloadMap;
    private Map<String, String> properties;
 
-   public JTBMessage toJTBMessage(JTBConnection jtbConnection, JTBDestination jtbDestination) throws JMSException {
-      Message jmsMessage = jtbConnection.createJMSMessage(JTBMessageType.valueOf(type.name()));
+   public JTBMessage toJTBMessage(PooledJMSSession pooledSession, JTBDestination jtbDestination) throws JMSException {
+      Message jmsMessage = pooledSession.createJMSMessage(JTBMessageType.valueOf(type.name()));
 
       JTBMessage jtbMessage = new JTBMessage(jtbDestination, jmsMessage);
       jtbMessage.setDeliveryMode(this.deliveryMode);
@@ -345,10 +345,15 @@ public class ColumnsSetsManager {
             return "";
          }
          switch (u.getType()) {
+            // Values are extracted concurrently by the threads that read the messages
             case LONG_TO_DATE:
-               return SDF_DATE.format(new Date(Long.parseLong(val)));
+               synchronized (SDF_DATE) {
+                  return SDF_DATE.format(new Date(Long.parseLong(val)));
+               }
             case LONG_TO_TS:
-               return SDF_TS.format(new Date(Long.parseLong(val)));
+               synchronized (SDF_TS) {
+                  return SDF_TS.format(new Date(Long.parseLong(val)));
+               }
             default:
                return val;
          }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.dialog;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.ProgressBar;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ *
+ * Modeless dialog that shows the progress of a background Job and allows to cancel it
+ *
+ * The dialog is the IProgressMonitor of the Job and may be called from the thread of the Job: the widgets are updated
+ * asynchronously in the UI thread. The Job polls isCanceled() and calls done() when finished, which closes the dialog
+ *
+ * @author Denis Forveille
+ *
+ */
+public class JobProgressDialog extends Dialog implements IProgressMonitor {
+
+   private final Display    display;
+   private final String     title;
+
+   private Label            lblTask;
+   private ProgressBar      progressBar;
+   private Label            lblSubTask;
+
+   private volatile boolean canceled;
+
+   public JobProgressDialog(Shell parentShell, String title) {
+      super(parentShell);
+      setShellStyle(SWT.BORDER | SWT.TITLE | SWT.MODELESS);
+      setBlockOnOpen(false);
+
+      this.display = parentShell.getDisplay();
+      this.title = title;
+      this.canceled = false;
+   }
+
+   @Override
+   protected void configureShell(Shell newShell) {
+      super.configureShell(newShell);
+      newShell.setText(title);
+   }
+
+   @Override
+   protected Point getInitialSize() {
+      Point p = super.getInitialSize();
+      return new Point(500, p.y);
+   }
+
+   @Override
+   protected Control createDialogArea(Composite parent) {
+      Composite container = (Composite) super.createDialogArea(parent);
+      container.setLayout(new GridLayout(1, false));
+
+      lblTask = new Label(container, SWT.NONE);
+      lblTask.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
+      lblTask.setText("Waiting for the other operations on the session to finish...");
+
+      progressBar = new ProgressBar(container, SWT.SMOOTH | SWT.HORIZONTAL);
+      progressBar.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
+
+      lblSubTask = new Label(container, SWT.NONE);
+      lblSubTask.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
+      lblSubTask.setText("");
+
+      return container;
+   }
+
+   @Override
+   protected void createButtonsForButtonBar(Composite parent) {
+      createButton(parent, IDialogConstants.CANCEL_ID, IDialogConstants.CANCEL_LABEL, true);
+   }
+
+   // The dialog is closed by the Job when it has stopped
+   @Override
+   protected void cancelPressed() {
+      setCanceled(true);
+      Button btnCancel = getButton(IDialogConstants.CANCEL_ID);
+      if (btnCancel != null) {
+         btnCancel.setEnabled(false);
+      }
+      lblSubTask.setText("Canceling...");
+   }
+
+   // ----------------
+   // IProgressMonitor
+   // ----------------
+
+   @Override
+   public void beginTask(String name, int totalWork) {
+      update(new Runnable() {
+         @Override
+         public void run() {
+            lblTask.setText(name);
+            progressBar.setMaximum(totalWork > 0 ? totalWork : 1);
+            progressBar.setSelection(0);
+         }
+      });
+   }
+
+   @Override
+   public void worked(int work) {
+      update(new Runnable() {
+         @Override
+         public void run() {
+            progressBar.setSelection(progressBar.getSelection() + work);
+         }
+      });
+   }
+
+   @Override
+   public void setTaskName(String name) {
+      update(new Runnable() {
+         @Override
+         public void run() {
+            lblTask.setText(name);
+         }
+      });
+   }
+
+   @Override
+   public void subTask(String name) {
+      update(new Runnable() {
+         @Override
+         public void run() {
+            if (!canceled) {
+               lblSubTask.setText(name);
+            }
+         }
+      });
+   }
+
+   @Override
+   public void done() {
+      update(new Runnable() {
+         @Override
+         public void run() {
+            close();
+         }
+      });
+   }
+
+   @Override
+   public void internalWorked(double work) {
+      // NOP
+   }
+
+   @Override
+   public boolean isCanceled() {
+      return canceled;
+   }
+
+   @Override
+   public void setCanceled(boolean canceled) {
+      this.canceled = canceled;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private void update(Runnable runnable) {
+      display.asyncExec(new Runnable() {
+         @Override
+         public void run() {
+            Shell shell = getShell();
+            if ((shell == null) || shell.isDisposed()) {
+               return;
+            }
+            runnable.run();
+         }
+      });
+   }
+}
@@ -62,15 +62,15 @@ public class MessageExportPayloadHandler {
          for (JTBMessage jtbMessage : selection) {
             switch (jtbMessage.getJtbMessageType()) {
                case TEXT:
-                  Utils.writePayloadToOS((TextMessage) jtbMessage.getJmsMessage(), shell);
+                  Utils.writePayloadToOS((TextMessage) jtbMessage.getJmsMessageWithPayload(), shell);
                   break;
 
                case BYTES:
-                  Utils.writePayloadToOS((BytesMessage) jtbMessage.getJmsMessage(), shell);
+                  Utils.writePayloadToOS((BytesMessage) jtbMessage.getJmsMessageWithPayload(), shell);
                   break;
 
                case MAP:
-                  Utils.writePayloadToOS((MapMessage) jtbMessage.getJmsMessage(), shell);
+                  Utils.writePayloadToOS((MapMessage) jtbMessage.getJmsMessageWithPayload(), shell);
                   break;
 
                default:
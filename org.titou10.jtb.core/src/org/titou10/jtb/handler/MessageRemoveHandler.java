@@ -29,11 +29,10 @@ import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuItem;
 import org.eclipse.e4.ui.services.IServiceConstants;
 import org.eclipse.jface.dialogs.MessageDialog;
-import org.eclipse.swt.custom.BusyIndicator;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.titou10.jtb.dialog.JobProgressDialog;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBMessage;
 import org.titou10.jtb.ui.JTBStatusReporter;
@@ -78,23 +77,12 @@ public class MessageRemoveHandler {
          // All messages are from the same Queue...
          JTBDestination jtbDestination = jtbMessage1.getJtbDestination();
 
-         // Remove Messages
-         BusyIndicator.showWhile(Display.getCurrent(), new Runnable() {
-
-            @Override
-            public void run() {
-               try {
-                  for (JTBMessage jtbMessage : selection) {
-                     jtbDestination.getJtbConnection().removeMessage(jtbMessage);
-                  }
-               } catch (JMSException e) {
-                  jtbStatusReporter.showError("Exception occurred when removing messages", e, "");
-               }
-            }
-         });
-
-         // Refresh List of Message
-         eventBroker.send(Constants.EVENT_REFRESH_QUEUE_MESSAGES, jtbDestination);
+         // Remove Messages in the background, by chunks. The Job refreshes the list of messages when done
+         String title = "Remove messages from '" + jtbDestination.getName() + "'";
+         JobProgressDialog progressDialog = new JobProgressDialog(shell, title);
+         progressDialog.open();
+
+         new MessageRemoveJob(eventBroker, jtbStatusReporter, jtbDestination, selection, progressDialog).schedule();
 
       } catch (JMSException e) {
          jtbStatusReporter.showError("Exception occurred when removing messages", e, "");
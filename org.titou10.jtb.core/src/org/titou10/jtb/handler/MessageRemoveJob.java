@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.JTBConnection;
+import org.titou10.jtb.jms.model.JTBDestination;
+import org.titou10.jtb.jms.model.JTBMessage;
+import org.titou10.jtb.ui.JTBConnectionRule;
+import org.titou10.jtb.ui.JTBStatusReporter;
+import org.titou10.jtb.util.Constants;
+import org.titou10.jtb.util.Utils;
+
+/**
+ * Job that removes a list of messages from a Queue in the background
+ *
+ * The messages are removed and committed by chunks, each chunk being selected by the IDs of its messages. The progress, rate and
+ * estimated time to completion are reported to a progress monitor that may also cancel the Job between two chunks
+ *
+ * @author Denis Forveille
+ *
+ */
+final class MessageRemoveJob extends Job {
+
+   private static final Logger     log               = LoggerFactory.getLogger(MessageRemoveJob.class);
+
+   // Number of messages removed per selector/commit
+   private static final int        REMOVE_CHUNK_SIZE = 100;
+
+   private final IEventBroker      eventBroker;
+   private final JTBStatusReporter jtbStatusReporter;
+   private final JTBDestination    jtbDestination;
+   private final List<JTBMessage>  jtbMessages;
+   private final IProgressMonitor  progress;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   MessageRemoveJob(IEventBroker eventBroker,
+                    JTBStatusReporter jtbStatusReporter,
+                    JTBDestination jtbDestination,
+                    List<JTBMessage> jtbMessages,
+                    IProgressMonitor progress) {
+      super("Remove messages from " + jtbDestination.getName());
+      this.setSystem(true);
+      this.setRule(new JTBConnectionRule(jtbDestination.getJtbConnection()));
+
+      this.eventBroker = eventBroker;
+      this.jtbStatusReporter = jtbStatusReporter;
+      this.jtbDestination = jtbDestination;
+      this.jtbMessages = new ArrayList<>(jtbMessages);
+      this.progress = progress;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   @Override
+   protected IStatus run(IProgressMonitor monitor) {
+      JTBConnection jtbConnection = jtbDestination.getJtbConnection();
+      int total = jtbMessages.size();
+      int nbRemoved = 0;
+      boolean canceled = false;
+      Session session = null;
+      try {
+         RemoveRate rate = new RemoveRate(total);
+         progress.beginTask("Removing " + total + " messages", total);
+
+         // The main session of the connection is used by the UI thread: the messages are removed with a session of the Job
+         session = jtbConnection.createSession();
+
+         for (int i = 0; i < total; i += REMOVE_CHUNK_SIZE) {
+            if (monitor.isCanceled() || progress.isCanceled()) {
+               canceled = true;
+               log.info("Removal of messages cancelled by user after {} messages", nbRemoved);
+               break;
+            }
+            List<JTBMessage> chunk = jtbMessages.subList(i, Math.min(i + REMOVE_CHUNK_SIZE, total));
+            nbRemoved += jtbConnection.removeMessages(session, chunk);
+            progress.worked(chunk.size());
+            progress.subTask(rate.format(nbRemoved));
+         }
+         if ((!canceled) && (nbRemoved < total)) {
+            log.warn("Only {} messages out of {} were removed", nbRemoved, total);
+         }
+      } catch (Throwable e) {
+         jtbStatusReporter.showError("Exception occurred when removing messages", Utils.getCause(e), "");
+      } finally {
+         // The messages not committed are rolled back when the session is closed
+         if (session != null) {
+            try {
+               session.close();
+            } catch (JMSException e) {
+               log.warn("Exception occurred when closing session. Ignoring: {}", e.getMessage());
+            }
+         }
+         progress.done();
+
+         // Refresh List of Message
+         eventBroker.post(Constants.EVENT_REFRESH_QUEUE_MESSAGES, jtbDestination);
+      }
+
+      return canceled ? Status.CANCEL_STATUS : Status.OK_STATUS;
+   }
+
+   @Override
+   public boolean belongsTo(Object family) {
+      if (family instanceof String) {
+         return Constants.JTB_JOBS_FAMILY.equals(family);
+      }
+      return false;
+   }
+}
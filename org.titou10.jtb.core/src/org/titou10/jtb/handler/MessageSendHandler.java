@@ -19,6 +19,7 @@ package org.titou10.jtb.handler;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -149,14 +150,14 @@ public class MessageSendHandler {
 
                      } else {
                         // else, blindly duplicate and post the messages
-                        JTBMessage newMessage;
+                        JTBConnection jtbConnection = jtbDestination.getJtbConnection();
+                        List<JTBMessage> newMessages = new ArrayList<>(jtbMessages.size());
                         for (JTBMessage jtbMessage : jtbMessages) {
                            // Create new Message to destination from old Message
-                           JTBConnection jtbConnection = jtbDestination.getJtbConnection();
-                           Message newJMSMessage = jtbConnection.cloneJMSMessage(jtbMessage.getJmsMessage());
-                           newMessage = new JTBMessage(jtbDestination, newJMSMessage);
-                           jtbDestination.getJtbConnection().sendMessage(newMessage, jtbDestination);
+                           Message newJMSMessage = jtbConnection.cloneJMSMessage(jtbMessage.getJmsMessageWithPayload());
+                           newMessages.add(new JTBMessage(jtbDestination, newJMSMessage));
                         }
+                        jtbConnection.sendMessages(newMessages);
                      }
 
                      // Refresh List if the destination is browsable
@@ -20,7 +20,6 @@ import java.util.List;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import javax.jms.JMSException;
 
 import org.eclipse.e4.core.di.annotations.CanExecute;
 import org.eclipse.e4.core.di.annotations.Execute;
@@ -29,11 +28,11 @@ import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenuItem;
 import org.eclipse.e4.ui.services.IServiceConstants;
 import org.eclipse.jface.dialogs.MessageDialog;
-import org.eclipse.swt.custom.BusyIndicator;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.titou10.jtb.config.JTBPreferenceStore;
+import org.titou10.jtb.dialog.JobProgressDialog;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBObject;
 import org.titou10.jtb.jms.model.JTBQueue;
@@ -58,6 +57,9 @@ public class QueueEmptyHandler {
    @Inject
    private JTBStatusReporter   jtbStatusReporter;
 
+   @Inject
+   private JTBPreferenceStore  ps;
+
    // This can be called in two contexts depending on parameter "queueOrMessage":
    // - right click on a session = QUEUE : -> use selection
    // - right click on message browser = MESSAGE : -> use tabJTBQueue
@@ -88,20 +90,12 @@ public class QueueEmptyHandler {
          return;
       }
 
-      BusyIndicator.showWhile(Display.getCurrent(), new Runnable() {
-
-         @Override
-         public void run() {
-            try {
-               jtbQueue.getJtbConnection().emptyQueue(jtbQueue);
-            } catch (JMSException e) {
-               jtbStatusReporter.showError("Problem occurred while pruning the queue", e, jtbQueue.getName());
-            }
-         }
-      });
+      // Remove the messages in the background. The Job refreshes the list of messages when done
+      JobProgressDialog progressDialog = new JobProgressDialog(shell, "Empty queue '" + jtbQueue.getName() + "'");
+      progressDialog.open();
 
-      // Rafraichissement de la liste
-      eventBroker.send(Constants.EVENT_REFRESH_QUEUE_MESSAGES, jtbQueue);
+      int commitInterval = ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL);
+      new QueueEmptyJob(eventBroker, jtbStatusReporter, jtbQueue, commitInterval, progressDialog).schedule();
    }
 
    @CanExecute
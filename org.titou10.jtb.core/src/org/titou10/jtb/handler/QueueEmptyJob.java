@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.handler;
+
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.JTBConnection;
+import org.titou10.jtb.jms.model.JTBQueue;
+import org.titou10.jtb.jms.model.RemoveProgressListener;
+import org.titou10.jtb.ui.JTBConnectionRule;
+import org.titou10.jtb.ui.JTBStatusReporter;
+import org.titou10.jtb.util.Constants;
+import org.titou10.jtb.util.Utils;
+
+/**
+ * Job that removes all the messages of a Queue in the background
+ *
+ * The messages are committed by batches, so a cancelled Job keeps the messages already removed. The progress, rate and estimated
+ * time to completion are reported to a progress monitor that may also cancel the Job
+ *
+ * @author Denis Forveille
+ *
+ */
+final class QueueEmptyJob extends Job {
+
+   private static final Logger     log = LoggerFactory.getLogger(QueueEmptyJob.class);
+
+   private final IEventBroker      eventBroker;
+   private final JTBStatusReporter jtbStatusReporter;
+   private final JTBQueue          jtbQueue;
+   private final int               commitInterval;
+   private final IProgressMonitor  progress;
+
+   private int                     nbReported;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   QueueEmptyJob(IEventBroker eventBroker,
+                 JTBStatusReporter jtbStatusReporter,
+                 JTBQueue jtbQueue,
+                 int commitInterval,
+                 IProgressMonitor progress) {
+      super("Empty queue " + jtbQueue.getName());
+      this.setSystem(true);
+      this.setRule(new JTBConnectionRule(jtbQueue.getJtbConnection()));
+
+      this.eventBroker = eventBroker;
+      this.jtbStatusReporter = jtbStatusReporter;
+      this.jtbQueue = jtbQueue;
+      this.commitInterval = commitInterval;
+      this.progress = progress;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   @Override
+   protected IStatus run(IProgressMonitor monitor) {
+      JTBConnection jtbConnection = jtbQueue.getJtbConnection();
+      boolean canceled = false;
+      Session session = null;
+      try {
+         Integer depth = jtbConnection.getQm().getQueueDepth(jtbConnection.getJmsConnection(), jtbQueue.getName());
+         int total = depth == null ? 0 : depth;
+         RemoveRate rate = new RemoveRate(total);
+
+         progress.beginTask("Removing all messages from queue '" + jtbQueue.getName() + "'",
+                            total > 0 ? total : IProgressMonitor.UNKNOWN);
+
+         // The main session of the connection is used by the UI thread: the messages are removed with a session of the Job
+         session = jtbConnection.createSession();
+
+         nbReported = 0;
+         int nb = jtbConnection.emptyQueue(session, jtbQueue, commitInterval, new RemoveProgressListener() {
+            @Override
+            public boolean onProgress(int nbRemoved) {
+               progress.worked(nbRemoved - nbReported);
+               progress.subTask(rate.format(nbRemoved));
+               nbReported = nbRemoved;
+               return !(monitor.isCanceled() || progress.isCanceled());
+            }
+         });
+
+         canceled = monitor.isCanceled() || progress.isCanceled();
+         if (canceled) {
+            log.info("Emptying of queue '{}' cancelled by user after {} messages", jtbQueue.getName(), nb);
+         } else {
+            log.info("{} messages removed from queue '{}'", nb, jtbQueue.getName());
+         }
+      } catch (Throwable e) {
+         jtbStatusReporter.showError("Problem occurred while pruning the queue", Utils.getCause(e), jtbQueue.getName());
+      } finally {
+         // The messages not committed are rolled back when the session is closed
+         if (session != null) {
+            try {
+               session.close();
+            } catch (JMSException e) {
+               log.warn("Exception occurred when closing session. Ignoring: {}", e.getMessage());
+            }
+         }
+         progress.done();
+
+         // Refresh List of Message
+         eventBroker.post(Constants.EVENT_REFRESH_QUEUE_MESSAGES, jtbQueue);
+      }
+
+      return canceled ? Status.CANCEL_STATUS : Status.OK_STATUS;
+   }
+
+   @Override
+   public boolean belongsTo(Object family) {
+      if (family instanceof String) {
+         return Constants.JTB_JOBS_FAMILY.equals(family);
+      }
+      return false;
+   }
+}
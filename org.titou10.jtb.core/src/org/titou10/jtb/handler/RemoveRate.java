@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.handler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate and estimated time to completion of a removal of messages, for progress reports
+ *
+ * @author Denis Forveille
+ *
+ */
+final class RemoveRate {
+
+   private final long startNanos;
+   private final int  total;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   // total <= 0: the number of messages to remove is unknown
+   RemoveRate(int total) {
+      this.startNanos = System.nanoTime();
+      this.total = total;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // ex: "12000 / 2000000 messages removed (8200 msg/s, ETA 4m03s)"
+   String format(int nbRemoved) {
+      double elapsedSecs = (System.nanoTime() - startNanos) / 1e9;
+      double rate = elapsedSecs > 0 ? nbRemoved / elapsedSecs : 0;
+
+      StringBuilder sb = new StringBuilder(64);
+      sb.append(nbRemoved);
+      if (total > 0) {
+         sb.append(" / ");
+         sb.append(total);
+      }
+      sb.append(" messages removed (");
+      sb.append(Math.round(rate));
+      sb.append(" msg/s");
+      if ((total > nbRemoved) && (rate > 0)) {
+         sb.append(", ETA ");
+         appendDuration(sb, (long) ((total - nbRemoved) / rate));
+      }
+      sb.append(")");
+      return sb.toString();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private static void appendDuration(StringBuilder sb, long secs) {
+      long hours = TimeUnit.SECONDS.toHours(secs);
+      long minutes = TimeUnit.SECONDS.toMinutes(secs) % 60;
+      long seconds = secs % 60;
+      if (hours > 0) {
+         sb.append(hours);
+         sb.append("h");
+      }
+      if ((hours > 0) || (minutes > 0)) {
+         sb.append(minutes < 10 && hours > 0 ? "0" : "");
+         sb.append(minutes);
+         sb.append("m");
+      }
+      sb.append(seconds < 10 && (hours > 0 || minutes > 0) ? "0" : "");
+      sb.append(seconds);
+      sb.append("s");
+   }
+}
@@ -29,6 +29,7 @@ import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.widgets.Display;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.DestinationsChange;
 import org.titou10.jtb.jms.model.JTBSession;
 import org.titou10.jtb.jms.model.JTBSessionClientType;
 import org.titou10.jtb.ui.JTBStatusReporter;
@@ -63,10 +64,12 @@ public class SessionRescanHandler {
          @Override
          public void run() {
             try {
-               jtbSession.getJTBConnection(JTBSessionClientType.GUI).rescanDestinations();
+               DestinationsChange change = jtbSession.getJTBConnection(JTBSessionClientType.GUI).rescanDestinations();
 
-               // Refresh Session Browser
-               eventBroker.send(Constants.EVENT_REFRESH_SESSION_BROWSER, true);
+               // Only update the folders of the Session Browser with destinations added or removed
+               if (!change.isEmpty()) {
+                  eventBroker.send(Constants.EVENT_DESTINATIONS_CHANGED, change);
+               }
 
             } catch (Throwable e) {
                jtbStatusReporter
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Filter on the names of destinations, compiled once from a pattern like "ABC*;X?Z*"
+ *
+ * Patterns are separated by ';' and use '*' and '?' as wildcards. The common forms are matched without regular expressions:
+ * names without wildcard with a hash set, "PREFIX*" with a sorted array of prefixes searched by dichotomy, and "*" matches all.
+ * The other patterns are combined in one regular expression, built as before from the pattern. Instances are immutable and
+ * thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class DestinationMatcher {
+
+   // Characters that make a pattern more than a literal or a prefix
+   private static final String REGEX_CHARS = "\\^$|?*+()[]{}";
+
+   private final String        filterPattern;
+   private final boolean       matchAll;
+   private final Set<String>   names;
+   private final String[]      prefixes;
+   private final Pattern       pattern;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   private DestinationMatcher(String filterPattern) {
+      this.filterPattern = filterPattern;
+
+      boolean all = false;
+      Set<String> literals = new HashSet<>();
+      List<String> prefixList = new ArrayList<>();
+      StringBuilder regex = new StringBuilder(64);
+
+      for (String p : filterPattern.split(";")) {
+         if (p.isEmpty()) {
+            continue;
+         }
+         if (p.equals("*")) {
+            all = true;
+         } else {
+            if (isLiteral(p, 0, p.length())) {
+               literals.add(p);
+            } else {
+               int last = p.length() - 1;
+               if ((p.charAt(last) == '*') && isLiteral(p, 0, last)) {
+                  prefixList.add(p.substring(0, last));
+               } else {
+                  if (regex.length() > 0) {
+                     regex.append('|');
+                  }
+                  regex.append(p.replaceAll("\\.", "\\\\.").replaceAll("\\?", ".").replaceAll("\\*", ".*"));
+               }
+            }
+         }
+      }
+
+      this.matchAll = all;
+      this.names = literals;
+      this.prefixes = buildPrefixes(prefixList);
+      this.pattern = regex.length() == 0 ? null : Pattern.compile(regex.toString());
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Returns null if there is no filter
+   public static DestinationMatcher compile(String filterPattern) {
+      if (filterPattern == null) {
+         return null;
+      }
+      return new DestinationMatcher(filterPattern);
+   }
+
+   public boolean matches(String name) {
+      if (matchAll || names.contains(name)) {
+         return true;
+      }
+      if ((prefixes.length > 0) && matchesPrefix(name)) {
+         return true;
+      }
+      return (pattern != null) && pattern.matcher(name).matches();
+   }
+
+   public String getFilterPattern() {
+      return filterPattern;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // As no prefix is the prefix of another one, the only prefix that may match is the greatest prefix lower or equal to the name
+   private boolean matchesPrefix(String name) {
+      int i = Arrays.binarySearch(prefixes, name);
+      if (i >= 0) {
+         return true;
+      }
+      int floor = -i - 2;
+      return (floor >= 0) && name.startsWith(prefixes[floor]);
+   }
+
+   // Sorted prefixes, without the prefixes that start with another prefix
+   private static String[] buildPrefixes(List<String> prefixList) {
+      String[] sorted = prefixList.toArray(new String[prefixList.size()]);
+      Arrays.sort(sorted);
+      List<String> result = new ArrayList<>(sorted.length);
+      for (String prefix : sorted) {
+         if (result.isEmpty() || !prefix.startsWith(result.get(result.size() - 1))) {
+            result.add(prefix);
+         }
+      }
+      return result.toArray(new String[result.size()]);
+   }
+
+   private static boolean isLiteral(String p, int start, int end) {
+      for (int i = start; i < end; i++) {
+         if (REGEX_CHARS.indexOf(p.charAt(i)) >= 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Destinations of a JTBConnection, sorted by name for display and indexed by name for lookups
+ *
+ * Lookups by name are done for every REST call, every script step and every destination discovered by a rescan, so they must
+ * not scan the sorted sets. The filtered sets are maintained as destinations are added or removed, and only rebuilt when the
+ * filter changes. Lookups by name may be done concurrently to modifications
+ *
+ * @author Denis Forveille
+ *
+ */
+final class DestinationRegistry {
+
+   private final SortedSet<JTBQueue>   queues;
+   private final SortedSet<JTBTopic>   topics;
+   private final SortedSet<JTBQueue>   queuesFiltered;
+   private final SortedSet<JTBTopic>   topicsFiltered;
+
+   private final Map<String, JTBQueue> queuesByName;
+   private final Map<String, JTBTopic> topicsByName;
+
+   // null = no filter
+   private DestinationMatcher          nameFilter;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   DestinationRegistry() {
+      this.queues = new TreeSet<>();
+      this.topics = new TreeSet<>();
+      this.queuesFiltered = new TreeSet<>();
+      this.topicsFiltered = new TreeSet<>();
+
+      this.queuesByName = new ConcurrentHashMap<>();
+      this.topicsByName = new ConcurrentHashMap<>();
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   void add(JTBQueue jtbQueue) {
+      queuesByName.put(jtbQueue.getName(), jtbQueue);
+      queues.add(jtbQueue);
+      if (isDisplayed(jtbQueue.getName())) {
+         queuesFiltered.add(jtbQueue);
+      }
+   }
+
+   void add(JTBTopic jtbTopic) {
+      topicsByName.put(jtbTopic.getName(), jtbTopic);
+      topics.add(jtbTopic);
+      if (isDisplayed(jtbTopic.getName())) {
+         topicsFiltered.add(jtbTopic);
+      }
+   }
+
+   void remove(JTBQueue jtbQueue) {
+      queuesByName.remove(jtbQueue.getName());
+      queues.remove(jtbQueue);
+      queuesFiltered.remove(jtbQueue);
+   }
+
+   void remove(JTBTopic jtbTopic) {
+      topicsByName.remove(jtbTopic.getName());
+      topics.remove(jtbTopic);
+      topicsFiltered.remove(jtbTopic);
+   }
+
+   JTBQueue getQueue(String name) {
+      return queuesByName.get(name);
+   }
+
+   JTBTopic getTopic(String name) {
+      return topicsByName.get(name);
+   }
+
+   // Queues first, as before
+   JTBDestination getDestination(String name) {
+      JTBQueue jtbQueue = queuesByName.get(name);
+      if (jtbQueue != null) {
+         return jtbQueue;
+      }
+      return topicsByName.get(name);
+   }
+
+   void setFilter(DestinationMatcher nameFilter) {
+      this.nameFilter = nameFilter;
+
+      queuesFiltered.clear();
+      topicsFiltered.clear();
+
+      for (JTBQueue jtbQueue : queues) {
+         if (isDisplayed(jtbQueue.getName())) {
+            queuesFiltered.add(jtbQueue);
+         }
+      }
+      for (JTBTopic jtbTopic : topics) {
+         if (isDisplayed(jtbTopic.getName())) {
+            topicsFiltered.add(jtbTopic);
+         }
+      }
+   }
+
+   void clear() {
+      queuesByName.clear();
+      topicsByName.clear();
+      queues.clear();
+      topics.clear();
+      queuesFiltered.clear();
+      topicsFiltered.clear();
+   }
+
+   // ------------------------
+   // Standard Getters/Setters
+   // ------------------------
+
+   SortedSet<JTBQueue> getQueues() {
+      return queues;
+   }
+
+   SortedSet<JTBTopic> getTopics() {
+      return topics;
+   }
+
+   SortedSet<JTBQueue> getQueuesFiltered() {
+      return queuesFiltered;
+   }
+
+   SortedSet<JTBTopic> getTopicsFiltered() {
+      return topicsFiltered;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private boolean isDisplayed(String name) {
+      return (nameFilter == null) || nameFilter.matches(name);
+   }
+}
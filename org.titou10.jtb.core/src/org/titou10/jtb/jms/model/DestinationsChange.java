@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Destinations added to or removed from a JTBConnection by a rescan of the destinations
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class DestinationsChange {
+
+   private final JTBConnection  jtbConnection;
+
+   private final List<JTBQueue> addedQueues;
+   private final List<JTBQueue> removedQueues;
+   private final List<JTBTopic> addedTopics;
+   private final List<JTBTopic> removedTopics;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   DestinationsChange(JTBConnection jtbConnection) {
+      this.jtbConnection = jtbConnection;
+      this.addedQueues = new ArrayList<>();
+      this.removedQueues = new ArrayList<>();
+      this.addedTopics = new ArrayList<>();
+      this.removedTopics = new ArrayList<>();
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   public boolean isEmpty() {
+      return addedQueues.isEmpty() && removedQueues.isEmpty() && addedTopics.isEmpty() && removedTopics.isEmpty();
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder builder = new StringBuilder(128);
+      builder.append("DestinationsChange [session=");
+      builder.append(jtbConnection.getSessionName());
+      builder.append(", addedQueues=");
+      builder.append(addedQueues.size());
+      builder.append(", removedQueues=");
+      builder.append(removedQueues.size());
+      builder.append(", addedTopics=");
+      builder.append(addedTopics.size());
+      builder.append(", removedTopics=");
+      builder.append(removedTopics.size());
+      builder.append("]");
+      return builder.toString();
+   }
+
+   // ------------------------
+   // Standard Getters/Setters
+   // ------------------------
+
+   public JTBConnection getJtbConnection() {
+      return jtbConnection;
+   }
+
+   public List<JTBQueue> getAddedQueues() {
+      return Collections.unmodifiableList(addedQueues);
+   }
+
+   public List<JTBQueue> getRemovedQueues() {
+      return Collections.unmodifiableList(removedQueues);
+   }
+
+   public List<JTBTopic> getAddedTopics() {
+      return Collections.unmodifiableList(addedTopics);
+   }
+
+   public List<JTBTopic> getRemovedTopics() {
+      return Collections.unmodifiableList(removedTopics);
+   }
+
+   void addQueue(JTBQueue jtbQueue) {
+      addedQueues.add(jtbQueue);
+   }
+
+   void removeQueue(JTBQueue jtbQueue) {
+      removedQueues.add(jtbQueue);
+   }
+
+   void addTopic(JTBTopic jtbTopic) {
+      addedTopics.add(jtbTopic);
+   }
+
+   void removeTopic(JTBTopic jtbTopic) {
+      removedTopics.add(jtbTopic);
+   }
+}
@@ -0,0 +1,415 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.MessageNotWriteableException;
+
+/**
+ * Read only copy of the headers and properties of a JMS Message, without its payload
+ *
+ * Used in place of the messages browsed when the payloads are not kept in memory. It does not depend on the JMS provider and
+ * does not hold a reference to the original message. The payload is read again from the queue when needed
+ *
+ * @author Denis Forveille
+ *
+ */
+final class HeaderOnlyMessage implements Message {
+
+   private final String              jmsMessageID;
+   private final long                jmsTimestamp;
+   private final byte[]              jmsCorrelationIDAsBytes;
+   private final String              jmsCorrelationID;
+   private final Destination         jmsReplyTo;
+   private final Destination         jmsDestination;
+   private final int                 jmsDeliveryMode;
+   private final boolean             jmsRedelivered;
+   private final String              jmsType;
+   private final long                jmsExpiration;
+   private final long                jmsDeliveryTime;
+   private final int                 jmsPriority;
+   private final Map<String, Object> properties;
+   private final JTBMessageType      jtbMessageType;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   HeaderOnlyMessage(Message m) throws JMSException {
+      this.jmsMessageID = m.getJMSMessageID();
+      this.jmsTimestamp = m.getJMSTimestamp();
+      this.jmsCorrelationID = m.getJMSCorrelationID();
+      this.jmsCorrelationIDAsBytes = jmsCorrelationID == null ? getCorrelationIDAsBytes(m) : null;
+      this.jmsReplyTo = m.getJMSReplyTo();
+      this.jmsDestination = m.getJMSDestination();
+      this.jmsDeliveryMode = m.getJMSDeliveryMode();
+      this.jmsRedelivered = m.getJMSRedelivered();
+      this.jmsType = m.getJMSType();
+      this.jmsExpiration = m.getJMSExpiration();
+      this.jmsDeliveryTime = getDeliveryTime(m);
+      this.jmsPriority = m.getJMSPriority();
+      this.jtbMessageType = JTBMessageType.fromJMSMessage(m);
+
+      Map<String, Object> props = new LinkedHashMap<>();
+      Enumeration<?> e = m.getPropertyNames();
+      while (e.hasMoreElements()) {
+         String name = (String) e.nextElement();
+         props.put(name, m.getObjectProperty(name));
+      }
+      this.properties = props;
+   }
+
+   // -------
+   // Headers
+   // -------
+
+   @Override
+   public String getJMSMessageID() {
+      return jmsMessageID;
+   }
+
+   @Override
+   public long getJMSTimestamp() {
+      return jmsTimestamp;
+   }
+
+   @Override
+   public byte[] getJMSCorrelationIDAsBytes() {
+      return jmsCorrelationIDAsBytes;
+   }
+
+   @Override
+   public String getJMSCorrelationID() {
+      return jmsCorrelationID;
+   }
+
+   @Override
+   public Destination getJMSReplyTo() {
+      return jmsReplyTo;
+   }
+
+   @Override
+   public Destination getJMSDestination() {
+      return jmsDestination;
+   }
+
+   @Override
+   public int getJMSDeliveryMode() {
+      return jmsDeliveryMode;
+   }
+
+   @Override
+   public boolean getJMSRedelivered() {
+      return jmsRedelivered;
+   }
+
+   @Override
+   public String getJMSType() {
+      return jmsType;
+   }
+
+   @Override
+   public long getJMSExpiration() {
+      return jmsExpiration;
+   }
+
+   @Override
+   public long getJMSDeliveryTime() {
+      return jmsDeliveryTime;
+   }
+
+   @Override
+   public int getJMSPriority() {
+      return jmsPriority;
+   }
+
+   // ----------
+   // Properties
+   // ----------
+
+   @Override
+   public boolean propertyExists(String name) {
+      return properties.containsKey(name);
+   }
+
+   @Override
+   public boolean getBooleanProperty(String name) throws JMSException {
+      Object o = properties.get(name);
+      if ((o == null) || (o instanceof String)) {
+         return Boolean.valueOf((String) o);
+      }
+      if (o instanceof Boolean) {
+         return (Boolean) o;
+      }
+      throw new MessageFormatException("Property '" + name + "' is not a boolean");
+   }
+
+   @Override
+   public byte getByteProperty(String name) throws JMSException {
+      return (byte) getLongProperty(name, Byte.class);
+   }
+
+   @Override
+   public short getShortProperty(String name) throws JMSException {
+      return (short) getLongProperty(name, Short.class);
+   }
+
+   @Override
+   public int getIntProperty(String name) throws JMSException {
+      return (int) getLongProperty(name, Integer.class);
+   }
+
+   @Override
+   public long getLongProperty(String name) throws JMSException {
+      return getLongProperty(name, Long.class);
+   }
+
+   @Override
+   public float getFloatProperty(String name) throws JMSException {
+      return (float) getDoubleProperty(name, Float.class);
+   }
+
+   @Override
+   public double getDoubleProperty(String name) throws JMSException {
+      return getDoubleProperty(name, Double.class);
+   }
+
+   @Override
+   public String getStringProperty(String name) {
+      Object o = properties.get(name);
+      return o == null ? null : o.toString();
+   }
+
+   @Override
+   public Object getObjectProperty(String name) {
+      return properties.get(name);
+   }
+
+   @Override
+   public Enumeration<?> getPropertyNames() {
+      return Collections.enumeration(properties.keySet());
+   }
+
+   // -------
+   // Payload
+   // -------
+
+   @Override
+   public <T> T getBody(Class<T> c) throws JMSException {
+      throw new MessageFormatException("The payload of message " + jmsMessageID + " has not been kept in memory");
+   }
+
+   @SuppressWarnings("rawtypes")
+   @Override
+   public boolean isBodyAssignableTo(Class c) {
+      return false;
+   }
+
+   // Type of the original message
+   JTBMessageType getJtbMessageType() {
+      return jtbMessageType;
+   }
+
+   // --------------------------------
+   // Read only: writes are not allowed
+   // --------------------------------
+
+   @Override
+   public void setJMSMessageID(String id) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSTimestamp(long timestamp) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSCorrelationIDAsBytes(byte[] correlationID) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSCorrelationID(String correlationID) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSReplyTo(Destination replyTo) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSDestination(Destination destination) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSDeliveryMode(int deliveryMode) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSRedelivered(boolean redelivered) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSType(String type) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSExpiration(long expiration) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSDeliveryTime(long deliveryTime) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setJMSPriority(int priority) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void clearProperties() throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setBooleanProperty(String name, boolean value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setByteProperty(String name, byte value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setShortProperty(String name, short value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setIntProperty(String name, int value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setLongProperty(String name, long value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setFloatProperty(String name, float value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setDoubleProperty(String name, double value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setStringProperty(String name, String value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void setObjectProperty(String name, Object value) throws JMSException {
+      throw readOnly();
+   }
+
+   @Override
+   public void acknowledge() throws JMSException {
+      // NOP: the message has not been consumed
+   }
+
+   @Override
+   public void clearBody() throws JMSException {
+      throw readOnly();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // Conversions allowed by the JMS specification
+   private long getLongProperty(String name, Class<? extends Number> type) throws JMSException {
+      Object o = properties.get(name);
+      if ((o == null) || (o instanceof String)) {
+         try {
+            return Long.parseLong((String) o);
+         } catch (NumberFormatException e) {
+            throw new MessageFormatException("Property '" + name + "' can not be converted to " + type.getSimpleName());
+         }
+      }
+      if ((o instanceof Byte) || (o instanceof Short) || (o instanceof Integer) || (o instanceof Long)) {
+         return ((Number) o).longValue();
+      }
+      throw new MessageFormatException("Property '" + name + "' can not be converted to " + type.getSimpleName());
+   }
+
+   private double getDoubleProperty(String name, Class<? extends Number> type) throws JMSException {
+      Object o = properties.get(name);
+      if ((o == null) || (o instanceof String)) {
+         try {
+            return Double.parseDouble((String) o);
+         } catch (NullPointerException | NumberFormatException e) {
+            throw new MessageFormatException("Property '" + name + "' can not be converted to " + type.getSimpleName());
+         }
+      }
+      if ((o instanceof Float) || (o instanceof Double)) {
+         return ((Number) o).doubleValue();
+      }
+      throw new MessageFormatException("Property '" + name + "' can not be converted to " + type.getSimpleName());
+   }
+
+   private static byte[] getCorrelationIDAsBytes(Message m) {
+      try {
+         return m.getJMSCorrelationIDAsBytes();
+      } catch (Throwable t) {
+         // Not supported by some Q Managers
+         return null;
+      }
+   }
+
+   private static long getDeliveryTime(Message m) {
+      try {
+         return m.getJMSDeliveryTime();
+      } catch (Throwable t) {
+         // JMS 2.0+ only..
+         return 0;
+      }
+   }
+
+   private MessageNotWriteableException readOnly() {
+      return new MessageNotWriteableException("Message " + jmsMessageID + " is read only");
+   }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of JMS sessions of a JTBConnection, for callers that work concurrently on the connection (REST connector..)
+ *
+ * JMS sessions are not thread safe. A session is borrowed for the duration of an operation and returned to the pool afterwards.
+ * Sessions are created on demand, up to the size of the pool. A session on which an operation failed is closed instead of being
+ * returned to the pool
+ *
+ * @author Denis Forveille
+ *
+ */
+final class JMSSessionPool {
+
+   private static final Logger           log = LoggerFactory.getLogger(JMSSessionPool.class);
+
+   private final JTBConnection           jtbConnection;
+   private final Connection              jmsConnection;
+   private final int                     size;
+   private final Semaphore               permits;
+
+   // Guarded by "this"
+   private final Deque<PooledJMSSession> idleSessions;
+   private boolean                       closed;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   JMSSessionPool(JTBConnection jtbConnection, Connection jmsConnection, int size) {
+      this.jtbConnection = jtbConnection;
+      this.jmsConnection = jmsConnection;
+      this.size = Math.max(1, size);
+      this.permits = new Semaphore(this.size, true);
+
+      this.idleSessions = new ArrayDeque<>(this.size);
+      this.closed = false;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   PooledJMSSession borrow(long maxWait) throws JMSException {
+      try {
+         if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+            throw new JMSException("All the " + size + " JMS sessions of '" + jtbConnection.getSessionName() + "' are in use");
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new JMSException("Interrupted while waiting for a JMS session of '" + jtbConnection.getSessionName() + "'");
+      }
+
+      synchronized (this) {
+         if (closed) {
+            permits.release();
+            throw new JMSException("Connection '" + jtbConnection.getSessionName() + "' has been closed");
+         }
+         PooledJMSSession pooledSession = idleSessions.pollFirst();
+         if (pooledSession != null) {
+            return pooledSession;
+         }
+      }
+
+      try {
+         log.debug("Creating a pooled JMS session for '{}'", jtbConnection.getSessionName());
+         Session session = jmsConnection.createSession(true, Session.SESSION_TRANSACTED);
+         return new PooledJMSSession(jtbConnection, this, session);
+      } catch (JMSException | RuntimeException e) {
+         permits.release();
+         throw e;
+      }
+   }
+
+   void release(PooledJMSSession pooledSession, boolean failed) {
+      boolean close = true;
+      synchronized (this) {
+         if ((!failed) && (!closed)) {
+            idleSessions.addFirst(pooledSession);
+            close = false;
+         }
+      }
+      if (close) {
+         pooledSession.close();
+      }
+      permits.release();
+   }
+
+   // Close the idle sessions. Sessions still in use are closed when they are returned
+   void close() {
+      List<PooledJMSSession> sessions;
+      synchronized (this) {
+         closed = true;
+         sessions = new ArrayList<>(idleSessions);
+         idleSessions.clear();
+      }
+      for (PooledJMSSession pooledSession : sessions) {
+         pooledSession.close();
+      }
+   }
+}
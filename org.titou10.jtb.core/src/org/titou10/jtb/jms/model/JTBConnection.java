@@ -22,10 +22,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 import javax.jms.BytesMessage;
 import javax.jms.Connection;
@@ -52,6 +54,7 @@ import org.titou10.jtb.config.JTBPreferenceStore;
 import org.titou10.jtb.config.gen.DestinationFilter;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
+import org.titou10.jtb.jms.qm.PayloadSearch;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QueueData;
 import org.titou10.jtb.jms.qm.TopicData;
@@ -71,6 +74,16 @@ public class JTBConnection {
 
    private static final Long    RECEIVE_MAX_WAIT_REMOVE       = 1 * 100L;                                    // 1 secs
    private static final Long    RECEIVE_MAX_WAIT_REMOVE_ID    = 30 * 1000L;                                  // 30 seconds
+   private static final Long    RECEIVE_MAX_WAIT_REMOVE_NEXT  = 1 * 1000L;                                   // 1 second
+
+   private static final int     BROWSE_PAGE_SIZE              = 256;
+   private static final long    BROWSE_PAGE_MAX_DELAY         = 250L;                                        // 1/4 second
+
+   private static final int     PRODUCERS_CACHE_MAX_SIZE      = 64;
+   private static final int     PAYLOADS_CACHE_MAX_SIZE       = 16;
+   private static final long    SESSION_POOL_MAX_WAIT         = 30 * 1000L;                                  // 30 seconds
+   private static final long    FETCH_PAYLOAD_MAX_WAIT        = 5 * 1000L;                                   // 5 seconds
+   private static final int     SEND_COMMIT_INTERVAL          = 100;
 
    private static final String  UNKNOWN                       = "Unknown";
    private static final String  JMSMESSAGEID_STD_PREFIX       = "ID:";
@@ -85,10 +98,13 @@ public class JTBConnection {
    private JTBPreferenceStore   ps;
 
    // JMS Provider Information
-   private boolean              connected;
+   private volatile boolean     connected;
    private Connection           jmsConnection;
    private Session              jmsSession;
    private Map<String, Session> jmsAsynchronousSessions       = new HashMap<>();
+   private ProducersCache       jmsProducers                  = new ProducersCache();
+   private PayloadsCache        payloads                      = new PayloadsCache();
+   private JMSSessionPool       sessionPool;
 
    // Connection Metadata
    private String               metaJMSVersion                = UNKNOWN;
@@ -97,16 +113,12 @@ public class JTBConnection {
    private String               metaProviderVersion           = UNKNOWN;
 
    // Children
-   private SortedSet<JTBQueue>  jtbQueues;
-   private SortedSet<JTBTopic>  jtbTopics;
-
-   private SortedSet<JTBQueue>  jtbQueuesFiltered;
-   private SortedSet<JTBTopic>  jtbTopicsFiltered;
+   private DestinationRegistry  destinations;
 
    // Destination filter
    private String               filterPattern;
    private boolean              apply;
-   private String               filterRegexPattern;
+   private DestinationMatcher   nameFilter;
 
    // ------------------------
    // Constructor
@@ -122,10 +134,7 @@ public class JTBConnection {
       this.sessionDef = sessionDef;
       this.qm = qm;
 
-      this.jtbQueues = new TreeSet<>();
-      this.jtbTopics = new TreeSet<>();
-      this.jtbQueuesFiltered = new TreeSet<>();
-      this.jtbTopicsFiltered = new TreeSet<>();
+      this.destinations = new DestinationRegistry();
 
       this.connected = false;
 
@@ -173,55 +182,34 @@ public class JTBConnection {
 
       if (filterPattern == null) {
          this.apply = false;
-         this.filterRegexPattern = null;
       } else {
          this.apply = apply;
-         filterRegexPattern = filterPattern.replaceAll(";", "|");
-         filterRegexPattern = filterRegexPattern.replaceAll("\\.", "\\\\.").replaceAll("\\?", ".").replaceAll("\\*", ".*");
       }
 
-      buildFilteredSortedSet();
-   }
-
-   private void buildFilteredSortedSet() {
-
-      jtbQueuesFiltered.clear();
-      jtbTopicsFiltered.clear();
-
-      if (filterRegexPattern == null) {
-         jtbQueuesFiltered.addAll(jtbQueues);
-         jtbTopicsFiltered.addAll(jtbTopics);
-         return;
-      }
-      for (JTBQueue jtbQueue : jtbQueues) {
-         if (jtbQueue.getName().matches(filterRegexPattern)) {
-            jtbQueuesFiltered.add(jtbQueue);
-         }
-      }
-
-      for (JTBTopic jtbTopic : jtbTopics) {
-         if (jtbTopic.getName().matches(filterRegexPattern)) {
-            jtbTopicsFiltered.add(jtbTopic);
-         }
+      // The filtered sets are only rebuilt when the pattern changes
+      String currentPattern = nameFilter == null ? null : nameFilter.getFilterPattern();
+      if ((filterPattern == null) ? (currentPattern != null) : !filterPattern.equals(currentPattern)) {
+         nameFilter = DestinationMatcher.compile(filterPattern);
+         destinations.setFilter(nameFilter);
       }
    }
 
    public SortedSet<JTBQueue> getJtbQueuesToDisplay() {
       if (jtbSessionClientType.isUseFiltering()) {
          if (apply) {
-            return jtbQueuesFiltered;
+            return destinations.getQueuesFiltered();
          }
       }
-      return jtbQueues;
+      return destinations.getQueues();
    }
 
    public SortedSet<JTBTopic> getJtbTopicsToDisplay() {
       if (jtbSessionClientType.isUseFiltering()) {
          if (apply) {
-            return jtbTopicsFiltered;
+            return destinations.getTopicsFiltered();
          }
       }
-      return jtbTopics;
+      return destinations.getTopics();
    }
 
    public String getFilterPattern() {
@@ -251,7 +239,7 @@ public class JTBConnection {
    // }
 
    @SuppressWarnings("unchecked")
-   public void connect() throws Exception {
+   public synchronized void connect() throws Exception {
       log.debug("connect '{}'", this);
       if (this.isConnected()) {
          return;
@@ -278,59 +266,90 @@ public class JTBConnection {
       for (QueueData qData : dd.getListQueueData()) {
          log.debug("jmsSession.createQueue '{}'", qData.getName());
          Queue jmsQ = jmsSession.createQueue(qData.getName());
-         jtbQueues.add(new JTBQueue(this, qData.getName(), jmsQ, qData.isBrowsable()));
+         destinations.add(new JTBQueue(this, qData.getName(), jmsQ, qData.isBrowsable()));
       }
 
       for (TopicData tData : dd.getListTopicData()) {
          log.debug("jmsSession.createTopic '{}'", tData.getName());
          Topic jmsTopic = jmsSession.createTopic(tData.getName());
-         jtbTopics.add(new JTBTopic(this, tData.getName(), jmsTopic));
+         destinations.add(new JTBTopic(this, tData.getName(), jmsTopic));
       }
 
-      buildFilteredSortedSet();
+      sessionPool = new JMSSessionPool(this, jmsConnection, ps.getInt(Constants.PREF_CONN_SESSION_POOL_SIZE));
 
       connected = true;
    }
 
-   public void rescanDestinations() throws Exception {
+   // Apply the differences between the destinations discovered and the destinations known. Returns the destinations added or
+   // removed
+   public DestinationsChange rescanDestinations() throws Exception {
       log.debug("rescanDestinations : '{}'", this);
+      DestinationsChange change = new DestinationsChange(this);
       if (!(this.isConnected())) {
          // Should never occur
-         return;
+         return change;
       }
 
       boolean showSystemObjects = ps.getBoolean(Constants.PREF_SHOW_SYSTEM_OBJECTS);
       DestinationData dd = qm.discoverDestinations(jmsConnection, showSystemObjects);
 
-      // Only process additions
+      Set<String> queueNames = new HashSet<>(dd.getListQueueData().size() * 2);
       for (QueueData qData : dd.getListQueueData()) {
-         JTBDestination dest = getJTBDestinationByName(qData.getName());
-         if (dest == null) {
+         queueNames.add(qData.getName());
+         if (destinations.getQueue(qData.getName()) == null) {
             log.debug("new Queue: jmsSession.createQueue '{}'", qData.getName());
             Queue jmsQ = jmsSession.createQueue(qData.getName());
-            jtbQueues.add(new JTBQueue(this, qData.getName(), jmsQ, qData.isBrowsable()));
+            JTBQueue jtbQueue = new JTBQueue(this, qData.getName(), jmsQ, qData.isBrowsable());
+            destinations.add(jtbQueue);
+            change.addQueue(jtbQueue);
+         }
+      }
+      for (JTBQueue jtbQueue : new ArrayList<>(destinations.getQueues())) {
+         if (!queueNames.contains(jtbQueue.getName())) {
+            log.debug("Queue removed: '{}'", jtbQueue.getName());
+            destinations.remove(jtbQueue);
+            change.removeQueue(jtbQueue);
          }
       }
 
+      Set<String> topicNames = new HashSet<>(dd.getListTopicData().size() * 2);
       for (TopicData tData : dd.getListTopicData()) {
-         JTBDestination dest = getJTBDestinationByName(tData.getName());
-         if (dest == null) {
+         topicNames.add(tData.getName());
+         if (destinations.getTopic(tData.getName()) == null) {
             log.debug("New Topic: jmsSession.createTopic '{}'", tData.getName());
             Topic jmsTopic = jmsSession.createTopic(tData.getName());
-            jtbTopics.add(new JTBTopic(this, tData.getName(), jmsTopic));
+            JTBTopic jtbTopic = new JTBTopic(this, tData.getName(), jmsTopic);
+            destinations.add(jtbTopic);
+            change.addTopic(jtbTopic);
+         }
+      }
+      for (JTBTopic jtbTopic : new ArrayList<>(destinations.getTopics())) {
+         if (!topicNames.contains(jtbTopic.getName())) {
+            log.debug("Topic removed: '{}'", jtbTopic.getName());
+            destinations.remove(jtbTopic);
+            change.removeTopic(jtbTopic);
          }
       }
 
-      buildFilteredSortedSet();
-
+      log.debug("rescanDestinations : {}", change);
+      return change;
    }
 
-   public void disconnect() throws JMSException {
+   public synchronized void disconnect() throws JMSException {
       log.debug("disconnect : '{}'", this);
       if (!(this.isConnected())) {
          return;
       }
 
+      // Sessions borrowed from the pool are closed when returned
+      if (sessionPool != null) {
+         sessionPool.close();
+         sessionPool = null;
+      }
+      synchronized (payloads) {
+         payloads.clear();
+      }
+
       // No need to close sessions, producers etc . They will be closed when closing connection
       try {
          jmsConnection.stop();
@@ -343,11 +362,11 @@ public class JTBConnection {
       // jmsSessionAsynchronous = null;
       jmsSession = null;
       jmsAsynchronousSessions.clear();
+      synchronized (jmsProducers) {
+         jmsProducers.clear();
+      }
 
-      jtbQueues.clear();
-      jtbQueuesFiltered.clear();
-      jtbTopics.clear();
-      jtbTopicsFiltered.clear();
+      destinations.clear();
 
       metaJMSVersion = UNKNOWN;
       metaJMSProviderName = UNKNOWN;
@@ -355,30 +374,82 @@ public class JTBConnection {
       metaJMSPropertyNames.clear();
    }
 
+   // JMS Sessions are not thread safe: callers that work concurrently to the main session must use their own session
+   public Session createSession() throws JMSException {
+      return jmsConnection.createSession(true, Session.SESSION_TRANSACTED);
+   }
+
+   // Borrow a session from the pool of sessions of the connection. It must be returned with returnSession()
+   // Waits at most SESSION_POOL_MAX_WAIT if all the sessions of the pool are in use
+   public PooledJMSSession borrowSession() throws JMSException {
+      return borrowSession(SESSION_POOL_MAX_WAIT);
+   }
+
+   private PooledJMSSession borrowSession(long maxWait) throws JMSException {
+      JMSSessionPool pool;
+      synchronized (this) {
+         pool = sessionPool;
+      }
+      if (pool == null) {
+         throw new JMSException("Connection '" + getSessionName() + "' is not connected");
+      }
+      return pool.borrow(maxWait);
+   }
+
+   // Return a session to the pool. A session on which an operation failed is closed and not reused
+   public void returnSession(PooledJMSSession pooledSession, boolean failed) {
+      pooledSession.getPool().release(pooledSession, failed);
+   }
+
+   // Execute some work with a session borrowed from the pool. The session is rolled back and discarded if the work fails
+   public <T> T executeInPooledSession(PooledJMSSessionWork<T> work) throws JMSException {
+      return executeInPooledSession(SESSION_POOL_MAX_WAIT, work);
+   }
+
+   private <T> T executeInPooledSession(long maxWait, PooledJMSSessionWork<T> work) throws JMSException {
+      PooledJMSSession pooledSession = borrowSession(maxWait);
+      boolean failed = true;
+      try {
+         T res = work.execute(pooledSession);
+         failed = false;
+         return res;
+      } finally {
+         if (failed) {
+            pooledSession.rollback();
+         }
+         returnSession(pooledSession, failed);
+      }
+   }
+
    // ----------------------
    // Create/Remove Messages
    // ----------------------
 
    public Message createJMSMessage(JTBMessageType jtbMessageType) throws JMSException {
       log.debug("createJMSMessage {}", jtbMessageType);
+      return createJMSMessage(jmsSession, jtbMessageType);
+   }
+
+   // Variant used by concurrent callers that own a session created with createSession()
+   public Message createJMSMessage(Session session, JTBMessageType jtbMessageType) throws JMSException {
       switch (jtbMessageType) {
          case TEXT:
-            return jmsSession.createTextMessage();
+            return session.createTextMessage();
 
          case BYTES:
-            return jmsSession.createBytesMessage();
+            return session.createBytesMessage();
 
          case MESSAGE:
-            return jmsSession.createMessage();
+            return session.createMessage();
 
          case MAP:
-            return jmsSession.createMapMessage();
+            return session.createMapMessage();
 
          case OBJECT:
-            return jmsSession.createObjectMessage();
+            return session.createObjectMessage();
 
          case STREAM:
-            return jmsSession.createStreamMessage();
+            return session.createStreamMessage();
       }
       return null; // Impossible
    }
@@ -512,13 +583,7 @@ public class JTBConnection {
       JTBDestination jtbDestination = jtbMessage.getJtbDestination();
 
       StringBuilder sb = new StringBuilder(128);
-      sb.append("JMSMessageID='");
-      if (qm.mustRemoveIDFromJMSMessageID()) {
-         sb.append(message.getJMSMessageID().substring(JMSMESSAGEID_STD_PREFIX_START));
-      } else {
-         sb.append(message.getJMSMessageID());
-      }
-      sb.append("'");
+      appendJMSMessageIDSelector(sb, message);
 
       try (MessageConsumer consumer = jmsSession.createConsumer(jtbDestination.getJmsDestination(), sb.toString());) {
          message = consumer.receive(RECEIVE_MAX_WAIT_REMOVE_ID);
@@ -530,14 +595,66 @@ public class JTBConnection {
       jmsSession.commit();
    }
 
+   // Remove a set of messages from the same destination with one consumer with the JMSMessageIDs OR'ed in the selector, and commit
+   // once. Callers must limit the number of messages passed to keep the selector to a reasonable size
+   // Returns the number of messages actually removed, messages may have been consumed by someone else in the meantime
+   // Called by background Jobs with their own session, so that the main session is not used concurrently to the UI thread
+   public int removeMessages(Session session, List<JTBMessage> jtbMessages) throws JMSException {
+      log.debug("Remove {} Messages", jtbMessages.size());
+
+      if (jtbMessages.isEmpty()) {
+         return 0;
+      }
+
+      JTBDestination jtbDestination = jtbMessages.get(0).getJtbDestination();
+
+      StringBuilder sb = new StringBuilder(jtbMessages.size() * 64);
+      for (JTBMessage jtbMessage : jtbMessages) {
+         if (sb.length() > 0) {
+            sb.append(" OR ");
+         }
+         appendJMSMessageIDSelector(sb, jtbMessage.getJmsMessage());
+      }
+
+      // Let the Q Manager remove the messages server side if it can
+      if (jtbDestination.isJTBQueue()) {
+         Integer nbQM = transferMessagesWithQM(jtbDestination.getAsJTBQueue(), sb.toString(), null);
+         if (nbQM != null) {
+            return nbQM < 0 ? jtbMessages.size() : nbQM;
+         }
+      }
+
+      int nb = 0;
+      try (MessageConsumer consumer = session.createConsumer(jtbDestination.getJmsDestination(), sb.toString());) {
+         long wait = RECEIVE_MAX_WAIT_REMOVE_ID;
+         while (nb < jtbMessages.size()) {
+            Message message = consumer.receive(wait);
+            if (message == null) {
+               break;
+            }
+            nb++;
+            wait = RECEIVE_MAX_WAIT_REMOVE_NEXT;
+         }
+      }
+
+      session.commit();
+
+      log.debug("{} Messages removed", nb);
+      return nb;
+   }
+
    public List<JTBMessage> removeFirstMessages(JTBDestination jtbDestination, int limit) throws JMSException {
+      return removeFirstMessages(jmsSession, jtbDestination, limit);
+   }
+
+   List<JTBMessage> removeFirstMessages(Session session, JTBDestination jtbDestination, int limit) throws JMSException {
       log.debug("Remove First {} Message from {}", limit, jtbDestination);
 
       List<JTBMessage> jtbMessages = new ArrayList<>(limit);
 
       Message message;
       int n = 0;
-      try (MessageConsumer consumer = jmsSession.createConsumer(jtbDestination.getJmsDestination());) {
+      try (MessageConsumer consumer = session.createConsumer(jtbDestination.getJmsDestination());) {
          while (n++ < limit) {
             message = consumer.receive(RECEIVE_MAX_WAIT_REMOVE); // Seems necessary for ActiveMQ instead of receiveNoWait()
             if (message != null) {
@@ -551,64 +668,291 @@ public class JTBConnection {
          }
       }
 
-      jmsSession.commit();
+      session.commit();
 
       return jtbMessages;
 
    }
 
+   // Streaming remove: messages are handed to the listener by pages of at most "pageSize" messages, and the session is
+   // committed after each page has been handed to the listener. If the listener fails, the current page is not committed
+   // Returns the number of messages removed
+   int removeFirstMessages(Session session,
+                           JTBDestination jtbDestination,
+                           int limit,
+                           int pageSize,
+                           QueueBrowseListener listener) throws JMSException {
+      log.debug("Remove First {} Message from {} pageSize={}", limit, jtbDestination, pageSize);
+
+      int max = limit == 0 ? Integer.MAX_VALUE : limit;
+      int n = 0;
+
+      List<JTBMessage> page = new ArrayList<>(pageSize);
+      Message message;
+      try (MessageConsumer consumer = session.createConsumer(jtbDestination.getJmsDestination());) {
+         do {
+            message = consumer.receive(RECEIVE_MAX_WAIT_REMOVE); // Seems necessary for ActiveMQ instead of receiveNoWait()
+            if (message != null) {
+               if (qm.manulAcknoledge()) {
+                  message.acknowledge();
+               }
+               page.add(new JTBMessage(jtbDestination, message));
+               n++;
+            }
+
+            if ((!page.isEmpty()) && ((message == null) || (page.size() >= pageSize) || (n >= max))) {
+               boolean more = listener.onMessages(page);
+               session.commit();
+               if (!more) {
+                  break;
+               }
+               page = new ArrayList<>(pageSize);
+            }
+         } while ((message != null) && (n < max) && (!listener.isCanceled()));
+      }
+
+      // Messages received after a cancel are not handed to the listener
+      session.rollback();
+
+      return n;
+   }
+
    public int emptyQueue(JTBQueue jtbQueue) throws JMSException {
+      return transferMessages(jmsSession, jtbQueue, null, null, ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL), null);
+   }
+
+   // Remove all the messages from the queue, committing every "commitInterval" messages.
+   // The listener is called after each commit and may stop the removal. Messages already committed stay removed
+   // Called by background Jobs with their own session, so that the main session is not used concurrently to the UI thread
+   public int emptyQueue(Session session,
+                         JTBQueue jtbQueue,
+                         int commitInterval,
+                         RemoveProgressListener listener) throws JMSException {
+      return transferMessages(session, jtbQueue, null, null, commitInterval, listener);
+   }
+
+   int emptyQueue(Session session, JTBQueue jtbQueue) throws JMSException {
+      return transferMessages(session, jtbQueue, null, null, ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL), null);
+   }
+
+   // Remove the messages matching the selector from the queue. Returns -1 if the Q Manager did not tell how many were removed
+   public int removeMessages(JTBQueue jtbQueue, String selector) throws JMSException {
+      return removeMessages(jmsSession, jtbQueue, selector);
+   }
+
+   int removeMessages(Session session, JTBQueue jtbQueue, String selector) throws JMSException {
+      return transferMessages(session, jtbQueue, selector, null, ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL), null);
+   }
+
+   // Move the messages matching the selector (all the messages if null) to another queue of the same session
+   // Returns -1 if the Q Manager did not tell how many were moved
+   public int moveMessages(JTBQueue jtbQueue, String selector, JTBQueue targetJtbQueue) throws JMSException {
+      return moveMessages(jmsSession, jtbQueue, selector, targetJtbQueue);
+   }
+
+   int moveMessages(Session session, JTBQueue jtbQueue, String selector, JTBQueue targetJtbQueue) throws JMSException {
+      int commitInterval = ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL);
+      return transferMessages(session, jtbQueue, selector, targetJtbQueue, commitInterval, null);
+   }
+
+   // Remove the messages matching the selector (all the messages if null) from the queue, or move them to "targetJtbQueue" if
+   // not null. The administration API of the Q Manager is used when possible, it does it server side in one call. Otherwise the
+   // messages are consumed (and sent to the target queue) with JMS, committing every "commitInterval" messages
+   private int transferMessages(Session session,
+                                JTBQueue jtbQueue,
+                                String selector,
+                                JTBQueue targetJtbQueue,
+                                int commitInterval,
+                                RemoveProgressListener listener) throws JMSException {
+
+      String messageSelector = Utils.isEmpty(selector) ? null : selector;
+
+      Integer nbQM = transferMessagesWithQM(jtbQueue, messageSelector, targetJtbQueue);
+      if (nbQM != null) {
+         if (listener != null) {
+            listener.onProgress(Math.max(0, nbQM));
+         }
+         return nbQM;
+      }
+
+      int interval = Math.max(1, commitInterval);
       Message message = null;
-      Integer nb = 0;
-      try (MessageConsumer consumer = jmsSession.createConsumer(jtbQueue.getJmsDestination());) {
+      int nb = 0;
+      int nbUncommitted = 0;
+      MessageProducer producer = null;
+      try (MessageConsumer consumer = messageSelector == null ? session.createConsumer(jtbQueue.getJmsDestination())
+               : session.createConsumer(jtbQueue.getJmsDestination(), messageSelector);) {
+         if (targetJtbQueue != null) {
+            producer = session.createProducer(targetJtbQueue.getJmsDestination());
+         }
          do {
             message = consumer.receive(RECEIVE_MAX_WAIT_REMOVE); // Seems necessary for ActiveMQ instead of receiveNoWait()
             if (message != null) {
+               if (producer != null) {
+                  sendMovedMessage(producer, message);
+               }
                if (qm.manulAcknoledge()) {
                   message.acknowledge();
                }
                nb++;
+               if (++nbUncommitted >= interval) {
+                  session.commit();
+                  nbUncommitted = 0;
+                  if ((listener != null) && (!listener.onProgress(nb))) {
+                     log.debug("Removal of messages from '{}' stopped after {} messages", jtbQueue.getName(), nb);
+                     return nb;
+                  }
+               }
             }
          } while (message != null);
+      } finally {
+         if (producer != null) {
+            try {
+               producer.close();
+            } catch (JMSException e) {
+               log.warn("Exception occurred while closing producer. Ignore it. Msg={}", e.getMessage());
+            }
+         }
+      }
+      session.commit();
+      if ((listener != null) && (nbUncommitted > 0)) {
+         listener.onProgress(nb);
       }
-      jmsSession.commit();
 
       return nb;
    }
 
+   // Returns null if the Q Manager can not remove/move the messages server side
+   private Integer transferMessagesWithQM(JTBQueue jtbQueue, String selector, JTBQueue targetJtbQueue) {
+      String queueName = jtbQueue.getName();
+      try {
+         if (targetJtbQueue != null) {
+            if (qm.supportsMoveMessages()) {
+               int nb = qm.moveMessages(jmsConnection, queueName, selector, targetJtbQueue.getName());
+               log.debug("{} messages moved from '{}' to '{}' by the Q Manager", nb, queueName, targetJtbQueue.getName());
+               return nb;
+            }
+         } else if (selector != null) {
+            if (qm.supportsRemoveMessages()) {
+               int nb = qm.removeMessages(jmsConnection, queueName, selector);
+               log.debug("{} messages removed from '{}' by the Q Manager", nb, queueName);
+               return nb;
+            }
+         } else if (qm.supportsPurgeQueue()) {
+            Integer depth = qm.getQueueDepth(jmsConnection, queueName);
+            int nb = qm.purgeQueue(jmsConnection, queueName);
+            if ((nb < 0) && (depth != null)) {
+               nb = depth;
+            }
+            log.debug("Queue '{}' purged by the Q Manager. {} messages removed", queueName, nb);
+            return nb;
+         }
+      } catch (UnsupportedOperationException e) {
+         log.debug("Q Manager can not process queue '{}' server side: {}. Using JMS", queueName, e.getMessage());
+      } catch (Exception e) {
+         log.warn("Server side operation on queue '{}' failed. Using JMS", queueName, e);
+      }
+      return null;
+   }
+
+   // Send a message received from a queue to another queue, keeping its delivery mode, priority and remaining time to live
+   private void sendMovedMessage(MessageProducer producer, Message message) throws JMSException {
+      long timeToLive = Message.DEFAULT_TIME_TO_LIVE;
+      long expiration = message.getJMSExpiration();
+      if (expiration > 0) {
+         timeToLive = Math.max(1, expiration - System.currentTimeMillis());
+      }
+      producer.send(message, message.getJMSDeliveryMode(), message.getJMSPriority(), timeToLive);
+   }
+
    public void sendMessage(JTBMessage jtbMessage, JTBDestination jtbDestination) throws JMSException {
       log.debug("sendMessage {} to {}", jtbMessage, jtbDestination);
-      Message m = jtbMessage.getJmsMessage();
-      Destination d = jtbDestination.getJmsDestination();
 
-      try (MessageProducer p = jmsSession.createProducer(d);) {
-         if (jtbMessage.getDeliveryMode() != null) {
-            p.setDeliveryMode(jtbMessage.getDeliveryMode().intValue());
-         }
-         if (jtbMessage.getPriority() != null) {
-            p.setPriority(jtbMessage.getPriority());
-         }
-         if (jtbMessage.getTimeToLive() != null) {
-            p.setTimeToLive(jtbMessage.getTimeToLive());
-         }
-         if (jtbMessage.getReplyToDestinationName() != null) {
-            // Destination replyToDest = jmsSession.createTemporaryQueue();
-            Destination replyToDest = jmsSession.createQueue(jtbMessage.getReplyToDestinationName());
-            m.setJMSReplyTo(replyToDest);
+      sendMessageNoCommit(jtbMessage, jtbDestination);
+
+      jmsSession.commit();
+      log.debug("Message sent");
+   }
+
+   public void sendMessages(List<JTBMessage> jtbMessages) throws JMSException {
+      sendMessages(jtbMessages, SEND_COMMIT_INTERVAL);
+   }
+
+   // Send a list of messages, each one to its own destination, and commit the session every 'commitInterval' messages
+   public void sendMessages(List<JTBMessage> jtbMessages, int commitInterval) throws JMSException {
+      log.debug("sendMessages {} messages. commitInterval={}", jtbMessages.size(), commitInterval);
+
+      int nb = 0;
+      for (JTBMessage jtbMessage : jtbMessages) {
+         sendMessageNoCommit(jtbMessage, jtbMessage.getJtbDestination());
+         if (++nb % commitInterval == 0) {
+            jmsSession.commit();
          }
-         if (jtbMessage.getDeliveryDelay() != null) {
-            try {
-               p.setDeliveryDelay(jtbMessage.getDeliveryDelay());
-            } catch (Throwable t) {
-               log.warn("JMS 2.0 feature 'setDeliveryDelay' failed. ignoring. Msg: {}", t.getMessage());
-            }
+      }
+      if (nb % commitInterval != 0) {
+         jmsSession.commit();
+      }
+      log.debug("{} Messages sent", nb);
+   }
+
+   // Send a message as part of a batch. The caller is responsible to call commit()
+   public void sendMessageNoCommit(JTBMessage jtbMessage, JTBDestination jtbDestination) throws JMSException {
+      sendMessageNoCommit(jmsSession, jmsProducers, jtbMessage, jtbDestination);
+   }
+
+   void sendMessageNoCommit(Session session,
+                            ProducersCache producers,
+                            JTBMessage jtbMessage,
+                            JTBDestination jtbDestination) throws JMSException {
+      MessageProducer p = getProducer(session, producers, jtbDestination);
+
+      try {
+         sendMessageNoCommit(session, p, jtbMessage);
+      } catch (JMSException e) {
+         // The producer may be in a bad state, do not reuse it
+         closeProducer(producers, jtbDestination);
+         throw e;
+      }
+   }
+
+   // Variant used by concurrent callers that own a session created with createSession() and a producer created from it
+   // The producer may be reused for other messages. The caller is responsible to commit the session
+   public void sendMessageNoCommit(Session session, MessageProducer p, JTBMessage jtbMessage) throws JMSException {
+      Message m = jtbMessage.getJmsMessage();
+
+      if (jtbMessage.getReplyToDestinationName() != null) {
+         // Destination replyToDest = session.createTemporaryQueue();
+         Destination replyToDest = session.createQueue(jtbMessage.getReplyToDestinationName());
+         m.setJMSReplyTo(replyToDest);
+      }
+
+      // The producer is reused: always set the delivery delay, even to its default value, if it has been set before
+      boolean deliveryDelaySet = false;
+      if (jtbMessage.getDeliveryDelay() != null) {
+         try {
+            p.setDeliveryDelay(jtbMessage.getDeliveryDelay());
+            deliveryDelaySet = true;
+         } catch (Throwable t) {
+            log.warn("JMS 2.0 feature 'setDeliveryDelay' failed. ignoring. Msg: {}", t.getMessage());
          }
+      }
 
-         p.send(m);
+      p.send(m,
+             jtbMessage.getDeliveryMode() == null ? Message.DEFAULT_DELIVERY_MODE : jtbMessage.getDeliveryMode().intValue(),
+             jtbMessage.getPriority() == null ? Message.DEFAULT_PRIORITY : jtbMessage.getPriority(),
+             jtbMessage.getTimeToLive() == null ? Message.DEFAULT_TIME_TO_LIVE : jtbMessage.getTimeToLive());
+
+      if (deliveryDelaySet) {
+         p.setDeliveryDelay(Message.DEFAULT_DELIVERY_DELAY);
       }
+   }
 
+   public void commit() throws JMSException {
       jmsSession.commit();
-      log.debug("Message sent");
+   }
+
+   public void rollback() throws JMSException {
+      jmsSession.rollback();
    }
 
    public void sendMessage(JTBMessage jtbMessage) throws JMSException {
@@ -651,17 +995,23 @@ public class JTBConnection {
    // Browse/Search Messages
    // ------------------------
    public Date getFirstMessageTimestamp(JTBQueue jtbQueue) throws JMSException {
-      try (QueueBrowser browser = jmsSession.createBrowser(jtbQueue.getJmsQueue());) {
+      return getFirstMessageTimestamp(jmsSession, jtbQueue);
+   }
+
+   // Variant used by concurrent callers that own a session created with createSession()
+   public Date getFirstMessageTimestamp(Session session, JTBQueue jtbQueue) throws JMSException {
+      Date firstMessageTimestamp = null;
+      try (QueueBrowser browser = session.createBrowser(jtbQueue.getJmsQueue());) {
          Enumeration<?> msgs = browser.getEnumeration();
-         while (msgs.hasMoreElements()) {
+         if (msgs.hasMoreElements()) {
             Message firstMessage = (Message) msgs.nextElement();
-            return new Date(firstMessage.getJMSTimestamp());
+            firstMessageTimestamp = new Date(firstMessage.getJMSTimestamp());
          }
       }
 
-      jmsSession.commit();
+      session.commit();
 
-      return null;
+      return firstMessageTimestamp;
    }
 
    public List<JTBMessage> browseQueue(JTBQueue jtbQueue, int maxMessages) throws JMSException {
@@ -672,91 +1022,240 @@ public class JTBConnection {
                                        int maxMessages,
                                        String payloadSearchText,
                                        String selectorsSearchText) throws JMSException {
-      log.debug("browseQueue {} maxMessages={}, payloadSearchText='{}' selectorsSearchText='{}'",
+      return browseQueue(jmsSession, jtbQueue, maxMessages, payloadSearchText, selectorsSearchText);
+   }
+
+   List<JTBMessage> browseQueue(Session session,
+                                JTBQueue jtbQueue,
+                                int maxMessages,
+                                String payloadSearchText,
+                                String selectorsSearchText) throws JMSException {
+
+      List<JTBMessage> jtbMessages = new ArrayList<>(Math.min(256, maxMessages));
+
+      browseQueue(session,
+                  jtbQueue,
+                  maxMessages,
+                  payloadSearchText,
+                  selectorsSearchText,
+                  BROWSE_PAGE_SIZE,
+                  new QueueBrowseListener() {
+                     @Override
+                     public boolean onMessages(List<JTBMessage> page) {
+                        jtbMessages.addAll(page);
+                        return true;
+                     }
+                  });
+
+      return jtbMessages;
+   }
+
+   // Streaming browse: messages are handed to the listener by pages of at most "pageSize" messages, or sooner if
+   // BROWSE_PAGE_MAX_DELAY has elapsed since the first message of the page was read, without keeping them
+   // Returns the number of messages handed to the listener
+   public int browseQueue(JTBQueue jtbQueue,
+                          int maxMessages,
+                          String payloadSearchText,
+                          String selectorsSearchText,
+                          int pageSize,
+                          QueueBrowseListener listener) throws JMSException {
+      return browseQueue(jmsSession, jtbQueue, maxMessages, payloadSearchText, selectorsSearchText, pageSize, listener);
+   }
+
+   int browseQueue(Session session,
+                   JTBQueue jtbQueue,
+                   int maxMessages,
+                   String payloadSearchText,
+                   String selectorsSearchText,
+                   int pageSize,
+                   QueueBrowseListener listener) throws JMSException {
+      log.debug("browseQueue {} maxMessages={}, payloadSearchText='{}' selectorsSearchText='{}' pageSize={}",
                 jtbQueue,
                 maxMessages,
                 payloadSearchText,
-                selectorsSearchText);
+                selectorsSearchText,
+                pageSize);
 
       int limit = maxMessages == 0 ? Integer.MAX_VALUE : maxMessages;
+      int n = 0;
 
-      List<JTBMessage> jtbMessages = new ArrayList<>(Math.min(256, maxMessages));
+      // Search on payload: pushed down to the server as a selector if the Q Manager supports it, otherwise matched locally
+      String selector = selectorsSearchText;
+      PayloadMatcher payloadMatcher = null;
+      PayloadSearch payloadSearch = PayloadSearch.parse(payloadSearchText);
+      if (payloadSearch != null) {
+         String payloadSelector = qm.buildPayloadSearchSelector(payloadSearch);
+         if (payloadSelector == null) {
+            payloadMatcher = new PayloadMatcher(payloadSearch);
+         } else {
+            log.debug("browseQueue {} payload search pushed down as selector '{}'", jtbQueue, payloadSelector);
+            if ((selector == null) || (selector.trim().isEmpty())) {
+               selector = payloadSelector;
+            } else {
+               selector = "(" + selector + ") AND (" + payloadSelector + ")";
+            }
+         }
+      }
+
+      List<JTBMessage> page = new ArrayList<>(pageSize);
+      long pageStart = 0;
 
       // JMS Browser with selector
-      try (QueueBrowser browser = jmsSession.createBrowser(jtbQueue.getJmsQueue(), selectorsSearchText);) {
-         int n = 0;
+      try (QueueBrowser browser = session.createBrowser(jtbQueue.getJmsQueue(), selector);
+               PayloadSearchEngine engine = payloadMatcher == null ? null : new PayloadSearchEngine(payloadMatcher);) {
 
          Enumeration<?> msgs = browser.getEnumeration();
-         loopOnMessages: while (msgs.hasMoreElements()) {
-            Message message = (Message) msgs.nextElement();
+         boolean stop = false;
+         while (!stop) {
+            if (listener.isCanceled()) {
+               log.debug("browseQueue {} canceled after {} messages", jtbQueue, n);
+               page.clear();
+               break;
+            }
 
-            // No filter on payload, keep all messages
-            if (payloadSearchText.isEmpty()) {
-               jtbMessages.add(new JTBMessage(jtbQueue, message));
-               if (++n >= limit) {
-                  break loopOnMessages;
-               }
-               continue loopOnMessages;
+            // Messages read and matching the payload search, if any
+            List<Message> messages;
+            if (msgs.hasMoreElements()) {
+               Message message = (Message) msgs.nextElement();
+               messages = engine == null ? Collections.singletonList(message) : engine.add(message);
+            } else {
+               messages = engine == null ? Collections.emptyList() : engine.flush();
+               stop = true;
             }
 
-            // Search on text payload of Text Messages
-            if (message instanceof TextMessage) {
-               String text = ((TextMessage) message).getText();
-               if (text != null) {
-                  if (text.contains(payloadSearchText)) {
-                     jtbMessages.add(new JTBMessage(jtbQueue, message));
-                     if (++n >= limit) {
-                        break loopOnMessages;
-                     }
-                  }
+            for (Message message : messages) {
+               if (page.isEmpty()) {
+                  pageStart = System.currentTimeMillis();
                }
-               continue loopOnMessages;
-            }
+               page.add(new JTBMessage(jtbQueue, message));
 
-            // Search on "values" of Map Message content
-            if (message instanceof MapMessage) {
-               MapMessage mm = (MapMessage) message;
-               Enumeration<?> mapNames = mm.getMapNames();
-               while (mapNames.hasMoreElements()) {
-                  Object value = mm.getObject((String) mapNames.nextElement());
-                  if (value != null) {
-                     if (value.toString().contains(payloadSearchText)) {
-                        jtbMessages.add(new JTBMessage(jtbQueue, message));
-                        if (++n >= limit) {
-                           break loopOnMessages;
-                        }
-                     }
-                  }
+               if (++n >= limit) {
+                  stop = true;
+                  break;
                }
 
-               continue loopOnMessages;
+               if ((page.size() >= pageSize) || ((System.currentTimeMillis() - pageStart) >= BROWSE_PAGE_MAX_DELAY)) {
+                  if (!listener.onMessages(page)) {
+                     log.debug("browseQueue {} stopped by listener after {} messages", jtbQueue, n);
+                     page = new ArrayList<>(0);
+                     stop = true;
+                     break;
+                  }
+                  page = new ArrayList<>(pageSize);
+               }
             }
          }
       }
 
-      jmsSession.commit();
+      session.commit();
 
-      return jtbMessages;
+      if (!page.isEmpty()) {
+         listener.onMessages(page);
+      }
+
+      return n;
    }
 
-   // ------------------------
-   // Helpers
-   // ------------------------
+   // Read again from the queue the message with its payload, for a message whose payload has been released. The messages read
+   // are kept in a small LRU cache, as the same message is often displayed several times. A pooled session is used, so that the
+   // payload may be fetched while a browse is running on the main session. As it may be called from the UI thread (export, drag
+   // and drop...), it waits at most FETCH_PAYLOAD_MAX_WAIT for a session
+   Message fetchPayload(JTBMessage jtbMessage) throws JMSException {
+      Message headers = jtbMessage.getJmsMessage();
+      JTBDestination jtbDestination = jtbMessage.getJtbDestination();
+      String key = jtbDestination.getName() + "|" + headers.getJMSMessageID();
 
-   public JTBDestination getJTBDestinationByName(String destinationName) {
-      for (JTBQueue jtbQueue : jtbQueues) {
-         if (jtbQueue.getName().equals(destinationName)) {
-            return jtbQueue;
+      Message message;
+      synchronized (payloads) {
+         message = payloads.get(key);
+      }
+      if (message != null) {
+         return message;
+      }
+
+      if (!jtbDestination.isJTBQueue()) {
+         throw new JMSException("The payload of message " + headers.getJMSMessageID() + " is no longer available");
+      }
+
+      StringBuilder sb = new StringBuilder(64);
+      appendJMSMessageIDSelector(sb, headers);
+      String selector = sb.toString();
+      JTBQueue jtbQueue = jtbDestination.getAsJTBQueue();
+
+      log.debug("Fetching payload of message {} from {}", headers.getJMSMessageID(), jtbQueue);
+      message = executeInPooledSession(FETCH_PAYLOAD_MAX_WAIT, s -> s.browseMessage(jtbQueue, selector));
+      if (message == null) {
+         throw new JMSException("Message " + headers.getJMSMessageID() + " is no longer in queue '" + jtbQueue.getName() + "'");
+      }
+
+      synchronized (payloads) {
+         payloads.put(key, message);
+      }
+      return message;
+   }
+
+   // Browse the first message matching the selector, null if none
+   Message browseMessage(Session session, JTBQueue jtbQueue, String selector) throws JMSException {
+      Message message = null;
+      try (QueueBrowser browser = session.createBrowser(jtbQueue.getJmsQueue(), selector);) {
+         Enumeration<?> msgs = browser.getEnumeration();
+         if (msgs.hasMoreElements()) {
+            message = (Message) msgs.nextElement();
          }
       }
+      session.commit();
+      return message;
+   }
 
-      for (JTBTopic jtbTopic : jtbTopics) {
-         if (jtbTopic.getName().equals(destinationName)) {
-            return jtbTopic;
+   // Producers are cached per destination as creating a producer is a round trip to the server for some Q Managers
+   private MessageProducer getProducer(Session session,
+                                       ProducersCache producers,
+                                       JTBDestination jtbDestination) throws JMSException {
+      String key = buildProducerKey(jtbDestination);
+      synchronized (producers) {
+         MessageProducer p = producers.get(key);
+         if (p == null) {
+            p = session.createProducer(jtbDestination.getJmsDestination());
+            producers.put(key, p);
          }
+         return p;
       }
+   }
 
-      return null;
+   private void closeProducer(ProducersCache producers, JTBDestination jtbDestination) {
+      MessageProducer p;
+      synchronized (producers) {
+         p = producers.remove(buildProducerKey(jtbDestination));
+      }
+      if (p != null) {
+         try {
+            p.close();
+         } catch (JMSException e) {
+            log.warn("Exception occurred when closing producer. Ignoring: {}", e.getMessage());
+         }
+      }
+   }
+
+   private String buildProducerKey(JTBDestination jtbDestination) {
+      return (jtbDestination.isJTBQueue() ? "Q:" : "T:") + jtbDestination.getName();
+   }
+
+   private void appendJMSMessageIDSelector(StringBuilder sb, Message message) throws JMSException {
+      sb.append("JMSMessageID='");
+      if (qm.mustRemoveIDFromJMSMessageID()) {
+         sb.append(message.getJMSMessageID().substring(JMSMESSAGEID_STD_PREFIX_START));
+      } else {
+         sb.append(message.getJMSMessageID());
+      }
+      sb.append("'");
+   }
+
+   // ------------------------
+   // Helpers
+   // ------------------------
+
+   public JTBDestination getJTBDestinationByName(String destinationName) {
+      return destinations.getDestination(destinationName);
    }
 
    // ------------------------
@@ -764,11 +1263,11 @@ public class JTBConnection {
    // ------------------------
 
    public SortedSet<JTBQueue> getJtbQueues() {
-      return jtbQueues;
+      return destinations.getQueues();
    }
 
    public SortedSet<JTBTopic> getJtbTopics() {
-      return jtbTopics;
+      return destinations.getTopics();
    }
 
    public String getMetaJMSVersion() {
@@ -788,11 +1287,11 @@ public class JTBConnection {
    }
 
    public SortedSet<JTBQueue> getJtbQueuesFiltered() {
-      return jtbQueuesFiltered;
+      return destinations.getQueuesFiltered();
    }
 
    public SortedSet<JTBTopic> getJtbTopicsFiltered() {
-      return jtbTopicsFiltered;
+      return destinations.getTopicsFiltered();
    }
 
    public QManager getQm() {
@@ -811,4 +1310,44 @@ public class JTBConnection {
       return sessionDef;
    }
 
+   // --------------
+   // Helper Classes
+   // --------------
+
+   // LRU cache of the messages whose payload has been fetched again. Guarded by itself
+   private static final class PayloadsCache extends LinkedHashMap<String, Message> {
+      private static final long serialVersionUID = 1L;
+
+      PayloadsCache() {
+         super(16, 0.75f, true);
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Message> eldest) {
+         return size() > PAYLOADS_CACHE_MAX_SIZE;
+      }
+   }
+
+   // LRU cache of MessageProducers, closing the producers evicted
+   // A get() changes the order of the entries: all the accesses must be synchronized on the cache
+   static final class ProducersCache extends LinkedHashMap<String, MessageProducer> {
+      private static final long serialVersionUID = 1L;
+
+      ProducersCache() {
+         super(16, 0.75f, true);
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, MessageProducer> eldest) {
+         if (size() <= PRODUCERS_CACHE_MAX_SIZE) {
+            return false;
+         }
+         try {
+            eldest.getValue().close();
+         } catch (JMSException e) {
+            log.warn("Exception occurred when closing producer. Ignoring: {}", e.getMessage());
+         }
+         return true;
+      }
+   }
 }
@@ -30,8 +30,10 @@ import org.titou10.jtb.util.Utils;
  */
 public class JTBMessage {
 
-   // JMS Object
+   // JMS Object. Only the headers and properties once the payload has been released
    private Message         jmsMessage;
+   private boolean         payloadReleased;
+   private int             payloadSize;
 
    // Owner Destination
    private JTBDestination  jtbDestination;
@@ -58,6 +60,29 @@ public class JTBMessage {
       this.replyToDestinationName = Utils.getDestinationName(jmsMessage.getJMSReplyTo());
    }
 
+   // ------------------------
+   // Business Interface
+   // ------------------------
+
+   // Replace the JMS message by a copy of its headers and properties, to save memory in lists of messages browsed. The payload is
+   // read again from the queue by getJmsMessageWithPayload() when needed
+   public void releasePayload() throws JMSException {
+      if (payloadReleased) {
+         return;
+      }
+      this.payloadSize = MessageIndex.Entry.getPayloadSize(jmsMessage);
+      this.jmsMessage = new HeaderOnlyMessage(jmsMessage);
+      this.payloadReleased = true;
+   }
+
+   // The JMS message with its payload, read again from the queue if it has been released
+   public Message getJmsMessageWithPayload() throws JMSException {
+      if (!payloadReleased) {
+         return jmsMessage;
+      }
+      return jtbDestination.getJtbConnection().fetchPayload(this);
+   }
+
    // ------------------------
    // Helpers
    // ------------------------
@@ -92,10 +117,19 @@ public class JTBMessage {
    // Standard Getters/Setters
    // ------------------------
 
+   // Only the headers and properties are available if the payload has been released. Use getJmsMessageWithPayload() to get it
    public Message getJmsMessage() {
       return jmsMessage;
    }
 
+   public boolean isPayloadReleased() {
+      return payloadReleased;
+   }
+
+   public int getPayloadSize() {
+      return payloadSize;
+   }
+
    public JTBDeliveryMode getDeliveryMode() {
       return deliveryMode;
    }
@@ -106,6 +140,7 @@ public class JTBMessage {
 
    public void setJmsMessage(Message jmsMessage) {
       this.jmsMessage = jmsMessage;
+      this.payloadReleased = false;
    }
 
    public JTBDestination getJtbDestination() {
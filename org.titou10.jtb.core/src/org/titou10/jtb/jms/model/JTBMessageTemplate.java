@@ -16,10 +16,6 @@
  */
 package org.titou10.jtb.jms.model;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -115,7 +111,7 @@ public class JTBMessageTemplate implements Serializable {
    }
 
    public JTBMessageTemplate(JTBMessage jtbMessage) throws JMSException {
-      Message message = jtbMessage.getJmsMessage();
+      Message message = jtbMessage.getJmsMessageWithPayload();
 
       this.jtbMessageType = jtbMessage.getJtbMessageType();
       this.replyToDestinationName = jtbMessage.getReplyToDestinationName();
@@ -345,18 +341,45 @@ public class JTBMessageTemplate implements Serializable {
 
    }
 
+   // Structural copy of a template. Immutable attributes are shared, collections are copied
+   // payloadBytes and payloadObject are shared: the arrays/objects are never modified in place, only replaced via their setters
    public static JTBMessageTemplate deepClone(JTBMessageTemplate object) {
-      try {
-         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-         ObjectOutputStream oos = new ObjectOutputStream(baos);
-         oos.writeObject(object);
-         ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-         ObjectInputStream ois = new ObjectInputStream(bais);
-         return (JTBMessageTemplate) ois.readObject();
-      } catch (Exception e) {
-         e.printStackTrace();
-         return null;
+      JTBMessageTemplate t = new JTBMessageTemplate();
+
+      t.jmsType = object.jmsType;
+      t.jmsCorrelationID = object.jmsCorrelationID;
+
+      t.jmsMessageID = object.jmsMessageID;
+      t.jmsTimestamp = object.jmsTimestamp;
+      t.jmsDeliveryTime = object.jmsDeliveryTime;
+      t.jmsExpiration = object.jmsExpiration;
+
+      t.deliveryMode = object.deliveryMode;
+      t.priority = object.priority;
+      t.timeToLive = object.timeToLive;
+      t.deliveryDelay = object.deliveryDelay;
+
+      t.jtbMessageType = object.jtbMessageType;
+      t.replyToDestinationName = object.replyToDestinationName;
+
+      t.payloadText = object.payloadText;
+      t.payloadBytes = object.payloadBytes;
+      t.payloadObject = object.payloadObject;
+      if (object.payloadMap != null) {
+         t.payloadMap = new HashMap<>(object.payloadMap);
       }
+
+      if (object.jtbProperties != null) {
+         t.jtbProperties = new ArrayList<>(object.jtbProperties.size());
+         for (JTBProperty p : object.jtbProperties) {
+            t.jtbProperties.add(new JTBProperty(p.getName(), p.getValue(), p.getKind()));
+         }
+      }
+      if (object.properties != null) {
+         t.properties = new HashMap<>(object.properties);
+      }
+
+      return t;
    }
 
    public boolean hasPayload() {
@@ -72,6 +72,10 @@ public enum JTBMessageType {
    }
 
    public static JTBMessageType fromJMSMessage(Message message) {
+      // The type of a message whose payload has been released is the type of the original message
+      if (message instanceof HeaderOnlyMessage) {
+         return ((HeaderOnlyMessage) message).getJtbMessageType();
+      }
       if (message instanceof TextMessage) {
          return JTBMessageType.TEXT;
       }
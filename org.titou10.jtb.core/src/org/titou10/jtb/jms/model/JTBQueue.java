@@ -27,7 +27,9 @@ import javax.jms.Queue;
  */
 public class JTBQueue extends JTBDestination implements Comparable<JTBQueue> {
 
-   private boolean browsable;
+   private boolean                 browsable;
+
+   private final QueueDepthHistory depthHistory = new QueueDepthHistory();
 
    // ------------------------
    // Constructor
@@ -64,4 +66,8 @@ public class JTBQueue extends JTBDestination implements Comparable<JTBQueue> {
    public boolean isBrowsable() {
       return browsable;
    }
+
+   public QueueDepthHistory getDepthHistory() {
+      return depthHistory;
+   }
 }
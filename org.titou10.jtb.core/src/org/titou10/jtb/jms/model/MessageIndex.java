@@ -0,0 +1,461 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local index of the messages of a queue, keyed by JMSMessageID, kept in memory and saved on disk
+ *
+ * Each entry records the headers, the properties and a SHA-256 digest of the payload of a message browsed. When the index is
+ * "complete", ie it holds all the messages of the queue as of the last browse, a refresh only has to read the messages that
+ * have been added since, and the index tells which messages are new or gone since the previous browse, even after a restart.
+ * The file is loaded lazily by the first caller that needs it. Instances are thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class MessageIndex {
+
+   private static final Logger      log          = LoggerFactory.getLogger(MessageIndex.class);
+
+   private static final int         FILE_MAGIC   = 0x4A544249;                                   // "JTBI"
+   private static final int         FILE_VERSION = 1;
+   private static final char[]      HEX          = "0123456789abcdef".toCharArray();
+
+   private final Path               file;
+
+   // Guarded by "this"
+   private final Map<String, Entry> entries;
+   private boolean                  loaded;
+   private boolean                  complete;
+   private long                     newestTimestamp;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   public MessageIndex(Path file) {
+      this.file = file;
+      this.entries = new LinkedHashMap<>();
+      this.loaded = false;
+      this.complete = false;
+      this.newestTimestamp = 0;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // True if the index holds all the messages of the queue as of the last browse. Never loads the file
+   public synchronized boolean isComplete() {
+      return loaded && complete;
+   }
+
+   public synchronized long getNewestTimestamp() {
+      load();
+      return newestTimestamp;
+   }
+
+   public synchronized int size() {
+      load();
+      return entries.size();
+   }
+
+   public synchronized boolean contains(String jmsMessageID) {
+      load();
+      return entries.containsKey(jmsMessageID);
+   }
+
+   public synchronized Entry getEntry(String jmsMessageID) {
+      load();
+      return entries.get(jmsMessageID);
+   }
+
+   // Replace the content of the index by the messages of a full browse. Returns the number of messages of the previous content
+   // that are no longer in the queue
+   public synchronized int rebuild(Collection<JTBMessage> jtbMessages, boolean complete) throws JMSException {
+      load();
+      Map<String, Entry> previous = new HashMap<>(entries);
+      entries.clear();
+      newestTimestamp = 0;
+      for (JTBMessage jtbMessage : jtbMessages) {
+         String id = jtbMessage.getJmsMessage().getJMSMessageID();
+         Entry entry = previous.remove(id);
+         put(entry == null ? new Entry(jtbMessage) : entry);
+      }
+      this.complete = complete;
+      return previous.size();
+   }
+
+   // Add the messages read since the last browse
+   public synchronized void addAll(Collection<JTBMessage> jtbMessages) throws JMSException {
+      load();
+      for (JTBMessage jtbMessage : jtbMessages) {
+         if (!entries.containsKey(jtbMessage.getJmsMessage().getJMSMessageID())) {
+            put(new Entry(jtbMessage));
+         }
+      }
+   }
+
+   // Count the messages that are not in the index
+   public synchronized int countNew(Collection<JTBMessage> jtbMessages) throws JMSException {
+      load();
+      int nb = 0;
+      for (JTBMessage jtbMessage : jtbMessages) {
+         if (!entries.containsKey(jtbMessage.getJmsMessage().getJMSMessageID())) {
+            nb++;
+         }
+      }
+      return nb;
+   }
+
+   public synchronized void save() {
+      try {
+         Files.createDirectories(file.getParent());
+         Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+         try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))) {
+            dos.writeInt(FILE_MAGIC);
+            dos.writeInt(FILE_VERSION);
+            dos.writeBoolean(complete);
+            dos.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+               entry.write(dos);
+            }
+         }
+         Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+         log.warn("Exception occurred when saving message index '{}'. Ignoring: {}", file, e.getMessage());
+      }
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private void put(Entry entry) {
+      entries.put(entry.jmsMessageID, entry);
+      newestTimestamp = Math.max(newestTimestamp, entry.jmsTimestamp);
+   }
+
+   private void load() {
+      if (loaded) {
+         return;
+      }
+      loaded = true;
+      if (!Files.exists(file)) {
+         return;
+      }
+
+      try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+         if ((dis.readInt() != FILE_MAGIC) || (dis.readInt() != FILE_VERSION)) {
+            log.warn("Message index '{}' has an unknown format. Ignoring it", file);
+            return;
+         }
+         boolean c = dis.readBoolean();
+         int nb = dis.readInt();
+         for (int i = 0; i < nb; i++) {
+            put(Entry.read(dis));
+         }
+         complete = c;
+         log.debug("Message index '{}' loaded: {} messages", file, nb);
+      } catch (IOException e) {
+         log.warn("Exception occurred when loading message index '{}'. Ignoring it: {}", file, e.getMessage());
+         entries.clear();
+         newestTimestamp = 0;
+      }
+   }
+
+   private static void writeString(DataOutputStream dos, String s) throws IOException {
+      if (s == null) {
+         dos.writeInt(-1);
+         return;
+      }
+      byte[] b = s.getBytes(StandardCharsets.UTF_8);
+      dos.writeInt(b.length);
+      dos.write(b);
+   }
+
+   private static String readString(DataInputStream dis) throws IOException {
+      int length = dis.readInt();
+      if (length < 0) {
+         return null;
+      }
+      byte[] b = new byte[length];
+      dis.readFully(b);
+      return new String(b, StandardCharsets.UTF_8);
+   }
+
+   // --------------
+   // Helper Classes
+   // --------------
+
+   public static final class Entry {
+      private final String              jmsMessageID;
+      private final long                jmsTimestamp;
+      private final long                jmsExpiration;
+      private final int                 jmsPriority;
+      private final int                 jmsDeliveryMode;
+      private final String              jmsType;
+      private final String              jmsCorrelationID;
+      private final Map<String, String> properties;
+      private final int                 payloadSize;
+      private final String              payloadDigest;
+
+      private Entry(String jmsMessageID,
+                    long jmsTimestamp,
+                    long jmsExpiration,
+                    int jmsPriority,
+                    int jmsDeliveryMode,
+                    String jmsType,
+                    String jmsCorrelationID,
+                    Map<String, String> properties,
+                    int payloadSize,
+                    String payloadDigest) {
+         this.jmsMessageID = jmsMessageID;
+         this.jmsTimestamp = jmsTimestamp;
+         this.jmsExpiration = jmsExpiration;
+         this.jmsPriority = jmsPriority;
+         this.jmsDeliveryMode = jmsDeliveryMode;
+         this.jmsType = jmsType;
+         this.jmsCorrelationID = jmsCorrelationID;
+         this.properties = properties;
+         this.payloadSize = payloadSize;
+         this.payloadDigest = payloadDigest;
+      }
+
+      // The digest of the payload is unknown if it has been released from the message
+      @SuppressWarnings("unchecked")
+      private Entry(JTBMessage jtbMessage) throws JMSException {
+         Message m = jtbMessage.getJmsMessage();
+         this.jmsMessageID = m.getJMSMessageID();
+         this.jmsTimestamp = m.getJMSTimestamp();
+         this.jmsExpiration = m.getJMSExpiration();
+         this.jmsPriority = m.getJMSPriority();
+         this.jmsDeliveryMode = m.getJMSDeliveryMode();
+         this.jmsType = m.getJMSType();
+         this.jmsCorrelationID = m.getJMSCorrelationID();
+
+         Map<String, String> props = new TreeMap<>();
+         Enumeration<String> e = m.getPropertyNames();
+         while (e.hasMoreElements()) {
+            String key = e.nextElement();
+            props.put(key, m.getStringProperty(key));
+         }
+         this.properties = Collections.unmodifiableMap(props);
+
+         if (jtbMessage.isPayloadReleased()) {
+            this.payloadSize = jtbMessage.getPayloadSize();
+            this.payloadDigest = null;
+         } else {
+            byte[] payload = getPayload(m);
+            this.payloadSize = payload.length;
+            this.payloadDigest = digest(payload);
+         }
+      }
+
+      public String getJmsMessageID() {
+         return jmsMessageID;
+      }
+
+      public long getJmsTimestamp() {
+         return jmsTimestamp;
+      }
+
+      public long getJmsExpiration() {
+         return jmsExpiration;
+      }
+
+      public int getJmsPriority() {
+         return jmsPriority;
+      }
+
+      public int getJmsDeliveryMode() {
+         return jmsDeliveryMode;
+      }
+
+      public String getJmsType() {
+         return jmsType;
+      }
+
+      public String getJmsCorrelationID() {
+         return jmsCorrelationID;
+      }
+
+      public Map<String, String> getProperties() {
+         return properties;
+      }
+
+      public int getPayloadSize() {
+         return payloadSize;
+      }
+
+      public String getPayloadDigest() {
+         return payloadDigest;
+      }
+
+      private void write(DataOutputStream dos) throws IOException {
+         writeString(dos, jmsMessageID);
+         dos.writeLong(jmsTimestamp);
+         dos.writeLong(jmsExpiration);
+         dos.writeInt(jmsPriority);
+         dos.writeInt(jmsDeliveryMode);
+         writeString(dos, jmsType);
+         writeString(dos, jmsCorrelationID);
+         dos.writeInt(properties.size());
+         for (Map.Entry<String, String> e : properties.entrySet()) {
+            writeString(dos, e.getKey());
+            writeString(dos, e.getValue());
+         }
+         dos.writeInt(payloadSize);
+         writeString(dos, payloadDigest);
+      }
+
+      private static Entry read(DataInputStream dis) throws IOException {
+         String jmsMessageID = readString(dis);
+         long jmsTimestamp = dis.readLong();
+         long jmsExpiration = dis.readLong();
+         int jmsPriority = dis.readInt();
+         int jmsDeliveryMode = dis.readInt();
+         String jmsType = readString(dis);
+         String jmsCorrelationID = readString(dis);
+         int nb = dis.readInt();
+         Map<String, String> props = new TreeMap<>();
+         for (int i = 0; i < nb; i++) {
+            props.put(readString(dis), readString(dis));
+         }
+         int payloadSize = dis.readInt();
+         String payloadDigest = readString(dis);
+         return new Entry(jmsMessageID,
+                          jmsTimestamp,
+                          jmsExpiration,
+                          jmsPriority,
+                          jmsDeliveryMode,
+                          jmsType,
+                          jmsCorrelationID,
+                          Collections.unmodifiableMap(props),
+                          payloadSize,
+                          payloadDigest);
+      }
+
+      static byte[] getPayload(Message m) throws JMSException {
+         if (m instanceof TextMessage) {
+            String text = ((TextMessage) m).getText();
+            return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+         }
+         if (m instanceof BytesMessage) {
+            BytesMessage bm = (BytesMessage) m;
+            byte[] b = new byte[(int) bm.getBodyLength()];
+            bm.reset();
+            bm.readBytes(b);
+            bm.reset();
+            return b;
+         }
+         if (m instanceof MapMessage) {
+            MapMessage mm = (MapMessage) m;
+            List<String> names = new ArrayList<>();
+            Enumeration<?> e = mm.getMapNames();
+            while (e.hasMoreElements()) {
+               names.add((String) e.nextElement());
+            }
+            Collections.sort(names);
+            StringBuilder sb = new StringBuilder(256);
+            for (String name : names) {
+               sb.append(name).append('=').append(mm.getObject(name)).append('\n');
+            }
+            return sb.toString().getBytes(StandardCharsets.UTF_8);
+         }
+         return new byte[0];
+      }
+
+      // Same as getPayload(m).length, without copying the payload of text and bytes messages
+      static int getPayloadSize(Message m) throws JMSException {
+         if (m instanceof TextMessage) {
+            String text = ((TextMessage) m).getText();
+            return text == null ? 0 : utf8Length(text);
+         }
+         if (m instanceof BytesMessage) {
+            return (int) ((BytesMessage) m).getBodyLength();
+         }
+         return getPayload(m).length;
+      }
+
+      // Unpaired surrogates are encoded as '?' by String.getBytes()
+      private static int utf8Length(String s) {
+         int length = 0;
+         for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+               length++;
+            } else if (c < 0x800) {
+               length += 2;
+            } else if (!Character.isSurrogate(c)) {
+               length += 3;
+            } else if (Character.isHighSurrogate(c) && (i + 1 < s.length()) && Character.isLowSurrogate(s.charAt(i + 1))) {
+               length += 4;
+               i++;
+            } else {
+               length++;
+            }
+         }
+         return length;
+      }
+
+      private static String digest(byte[] payload) {
+         try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(payload);
+            char[] c = new char[d.length * 2];
+            for (int i = 0; i < d.length; i++) {
+               c[i * 2] = HEX[(d[i] >> 4) & 0x0F];
+               c[(i * 2) + 1] = HEX[d[i] & 0x0F];
+            }
+            return new String(c);
+         } catch (NoSuchAlgorithmException e) {
+            // Every JVM must support SHA-256
+            throw new IllegalStateException(e);
+         }
+      }
+   }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.titou10.jtb.jms.qm.PayloadSearch;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Compiled PayloadSearch, used to match the payload of messages read from the server
+ *
+ * Text and map messages are searched on their text and the values of their map, bytes messages on their body, either decoded
+ * as UTF-8 or as raw bytes for "hex:" searches. JSON paths have the form "$.a.b[0].c[*]", optionally followed by "=value" to
+ * compare the value found, otherwise the path must exist. XPath expressions are evaluated as booleans. Messages that can not be
+ * parsed do not match. Instances are thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+final class PayloadMatcher {
+
+   private static final String           WILDCARD = "*";
+
+   private final PayloadSearch.Kind      kind;
+   private final String                  text;
+   private final byte[]                  bytes;
+   private final int[]                   bytesShifts;
+   private final Pattern                 pattern;
+   private final List<String>            jsonPath;
+   private final String                  jsonValue;
+   private final ThreadLocal<XPathState> xpathState;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   // IllegalArgumentException if the expression of the search is invalid
+   PayloadMatcher(PayloadSearch payloadSearch) {
+      this.kind = payloadSearch.getKind();
+      String expression = payloadSearch.getExpression();
+
+      String t = null;
+      byte[] b = null;
+      Pattern p = null;
+      List<String> path = null;
+      String value = null;
+      ThreadLocal<XPathState> xs = null;
+
+      switch (kind) {
+         case TEXT:
+            t = expression;
+            b = expression.getBytes(StandardCharsets.UTF_8);
+            break;
+
+         case REGEX:
+            p = Pattern.compile(expression);
+            break;
+
+         case JSON_PATH:
+            int pos = expression.indexOf('=');
+            path = parseJsonPath(pos < 0 ? expression.trim() : expression.substring(0, pos).trim());
+            value = pos < 0 ? null : expression.substring(pos + 1).trim();
+            break;
+
+         case XPATH:
+            // Validate the expression
+            new XPathState(expression);
+            xs = ThreadLocal.withInitial(() -> new XPathState(expression));
+            break;
+
+         case BYTES:
+            b = parseHex(expression);
+            break;
+      }
+
+      this.text = t;
+      this.bytes = b;
+      this.bytesShifts = b == null ? null : buildShifts(b);
+      this.pattern = p;
+      this.jsonPath = path;
+      this.jsonValue = value;
+      this.xpathState = xs;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   boolean matches(Message message) throws JMSException {
+      if (message instanceof TextMessage) {
+         String payload = ((TextMessage) message).getText();
+         if (payload == null) {
+            return false;
+         }
+         if (kind == PayloadSearch.Kind.BYTES) {
+            return contains(payload.getBytes(StandardCharsets.UTF_8));
+         }
+         return matchesText(payload);
+      }
+
+      if (message instanceof BytesMessage) {
+         BytesMessage bm = (BytesMessage) message;
+         byte[] payload = new byte[(int) bm.getBodyLength()];
+         bm.reset();
+         bm.readBytes(payload);
+         bm.reset();
+         if ((kind == PayloadSearch.Kind.TEXT) || (kind == PayloadSearch.Kind.BYTES)) {
+            return contains(payload);
+         }
+         return matchesText(new String(payload, StandardCharsets.UTF_8));
+      }
+
+      // Search on "values" of Map Message content
+      if ((message instanceof MapMessage) && ((kind == PayloadSearch.Kind.TEXT) || (kind == PayloadSearch.Kind.REGEX))) {
+         MapMessage mm = (MapMessage) message;
+         Enumeration<?> mapNames = mm.getMapNames();
+         while (mapNames.hasMoreElements()) {
+            Object value = mm.getObject((String) mapNames.nextElement());
+            if ((value != null) && (matchesText(value.toString()))) {
+               return true;
+            }
+         }
+      }
+
+      return false;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private boolean matchesText(String payload) {
+      switch (kind) {
+         case TEXT:
+            return payload.contains(text);
+
+         case REGEX:
+            return pattern.matcher(payload).find();
+
+         case JSON_PATH:
+            return matchesJsonPath(payload);
+
+         case XPATH:
+            return xpathState.get().matches(payload);
+
+         default:
+            return false;
+      }
+   }
+
+   private boolean matchesJsonPath(String payload) {
+      try (JsonReader reader = Json.createReader(new StringReader(payload))) {
+         return matchesJsonPath(reader.read(), 0);
+      } catch (JsonException e) {
+         return false;
+      }
+   }
+
+   private boolean matchesJsonPath(JsonValue node, int index) {
+      if (index == jsonPath.size()) {
+         if (jsonValue == null) {
+            return node.getValueType() != JsonValue.ValueType.NULL;
+         }
+         String s = node.getValueType() == JsonValue.ValueType.STRING ? ((JsonString) node).getString() : node.toString();
+         return jsonValue.equals(s);
+      }
+
+      String segment = jsonPath.get(index);
+      switch (node.getValueType()) {
+         case OBJECT:
+            JsonObject o = (JsonObject) node;
+            if (segment.equals(WILDCARD)) {
+               for (JsonValue child : o.values()) {
+                  if (matchesJsonPath(child, index + 1)) {
+                     return true;
+                  }
+               }
+               return false;
+            }
+            JsonValue child = o.get(segment);
+            return (child != null) && (matchesJsonPath(child, index + 1));
+
+         case ARRAY:
+            JsonArray a = (JsonArray) node;
+            if (segment.equals(WILDCARD)) {
+               for (JsonValue item : a) {
+                  if (matchesJsonPath(item, index + 1)) {
+                     return true;
+                  }
+               }
+               return false;
+            }
+            try {
+               int i = Integer.parseInt(segment);
+               return (i >= 0) && (i < a.size()) && (matchesJsonPath(a.get(i), index + 1));
+            } catch (NumberFormatException e) {
+               return false;
+            }
+
+         default:
+            return false;
+      }
+   }
+
+   // "$.a.b[0].c[*]" -> [a, b, 0, c, *]
+   private static List<String> parseJsonPath(String path) {
+      if (!path.startsWith("$")) {
+         throw new IllegalArgumentException("JSON path must start with '$': " + path);
+      }
+      List<String> segments = new ArrayList<>();
+      int i = 1;
+      while (i < path.length()) {
+         char c = path.charAt(i);
+         int end;
+         if (c == '.') {
+            end = i + 1;
+            while ((end < path.length()) && (path.charAt(end) != '.') && (path.charAt(end) != '[')) {
+               end++;
+            }
+            segments.add(path.substring(i + 1, end));
+            i = end;
+         } else if (c == '[') {
+            end = path.indexOf(']', i);
+            if (end < 0) {
+               throw new IllegalArgumentException("Missing ']' in JSON path: " + path);
+            }
+            String s = path.substring(i + 1, end).trim();
+            if ((s.length() >= 2) && (s.startsWith("'")) && (s.endsWith("'"))) {
+               s = s.substring(1, s.length() - 1);
+            }
+            segments.add(s);
+            i = end + 1;
+         } else {
+            throw new IllegalArgumentException("Invalid JSON path: " + path);
+         }
+         if (segments.get(segments.size() - 1).isEmpty()) {
+            throw new IllegalArgumentException("Empty segment in JSON path: " + path);
+         }
+      }
+      return segments;
+   }
+
+   private static byte[] parseHex(String hex) {
+      String s = hex.replaceAll("\\s", "");
+      if (s.startsWith("0x") || s.startsWith("0X")) {
+         s = s.substring(2);
+      }
+      if ((s.isEmpty()) || (s.length() % 2 != 0)) {
+         throw new IllegalArgumentException("Invalid hex pattern: " + hex);
+      }
+      byte[] res = new byte[s.length() / 2];
+      for (int i = 0; i < res.length; i++) {
+         int hi = Character.digit(s.charAt(i * 2), 16);
+         int lo = Character.digit(s.charAt((i * 2) + 1), 16);
+         if ((hi < 0) || (lo < 0)) {
+            throw new IllegalArgumentException("Invalid hex pattern: " + hex);
+         }
+         res[i] = (byte) ((hi << 4) + lo);
+      }
+      return res;
+   }
+
+   // Boyer-Moore-Horspool search of "bytes" in data
+   private boolean contains(byte[] data) {
+      int n = bytes.length;
+      int i = 0;
+      while (i <= data.length - n) {
+         int j = n - 1;
+         while ((j >= 0) && (data[i + j] == bytes[j])) {
+            j--;
+         }
+         if (j < 0) {
+            return true;
+         }
+         i += bytesShifts[data[i + n - 1] & 0xFF];
+      }
+      return false;
+   }
+
+   private static int[] buildShifts(byte[] search) {
+      int n = search.length;
+      int[] shifts = new int[256];
+      for (int i = 0; i < 256; i++) {
+         shifts[i] = n;
+      }
+      for (int i = 0; i < n - 1; i++) {
+         shifts[search[i] & 0xFF] = n - 1 - i;
+      }
+      return shifts;
+   }
+
+   // XPath and DOM objects are not thread safe: one per matching thread
+   private static final class XPathState {
+      private final DocumentBuilder builder;
+      private final XPathExpression expression;
+
+      XPathState(String xpath) {
+         try {
+            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+            dbf.setNamespaceAware(false);
+            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            this.builder = dbf.newDocumentBuilder();
+            this.builder.setErrorHandler(new DefaultHandler()); // Do not print parsing errors
+            this.expression = XPathFactory.newInstance().newXPath().compile(xpath);
+         } catch (ParserConfigurationException | XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath expression: " + xpath, e);
+         }
+      }
+
+      boolean matches(String payload) {
+         try {
+            Document doc = builder.parse(new InputSource(new StringReader(payload)));
+            return (Boolean) expression.evaluate(doc, XPathConstants.BOOLEAN);
+         } catch (Exception e) {
+            return false;
+         }
+      }
+   }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Matching stage of a browse with a payload search, pipelined with the reading of the messages
+ *
+ * The messages read from the QueueBrowser are grouped in batches that are matched in parallel by a pool of workers, while the
+ * browser reads the next messages. Matching messages are returned in the order of the browser. The number of pending batches is
+ * bounded, so the browser does not read ahead of the workers more than necessary, and reading can stop as soon as the limit is
+ * reached. The pool of workers is shared by all the searches and its threads end when they are idle
+ *
+ * @author Denis Forveille
+ *
+ */
+final class PayloadSearchEngine implements AutoCloseable {
+
+   private static final int                   BATCH_SIZE      = 32;
+   private static final long                  BATCH_MAX_DELAY = 100L; // 1/10 second
+   private static final int                   MAX_THREADS     = 16;
+   private static final long                  IDLE_TIMEOUT    = 60L;  // seconds
+
+   private static final AtomicInteger         WORKER_NUMBER   = new AtomicInteger(0);
+
+   private static final ThreadPoolExecutor    EXECUTOR        = createExecutor();
+
+   private final PayloadMatcher               matcher;
+   private final int                          maxPending;
+
+   private final Deque<Future<List<Message>>> pending;
+   private List<Message>                      batch;
+   private long                               batchStart;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   PayloadSearchEngine(PayloadMatcher matcher) {
+      this.matcher = matcher;
+      this.maxPending = EXECUTOR.getMaximumPoolSize() * 2;
+
+      this.pending = new ArrayDeque<>(maxPending + 1);
+      this.batch = new ArrayList<>(BATCH_SIZE);
+      this.batchStart = 0;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Add a message read from the browser. Returns the matching messages of the batches already matched, in the order of the
+   // browser. Waits for the oldest batch if too many batches are pending
+   List<Message> add(Message message) throws JMSException {
+      if (batch.isEmpty()) {
+         batchStart = System.currentTimeMillis();
+      }
+      batch.add(message);
+      if ((batch.size() >= BATCH_SIZE) || ((System.currentTimeMillis() - batchStart) >= BATCH_MAX_DELAY)) {
+         submitBatch();
+      }
+      return collect(false);
+   }
+
+   // No more messages to read: returns the matching messages of all the pending batches
+   List<Message> flush() throws JMSException {
+      submitBatch();
+      return collect(true);
+   }
+
+   // The batches not matched yet are cancelled. The workers are kept for the next searches
+   @Override
+   public void close() {
+      for (Future<List<Message>> f : pending) {
+         f.cancel(true);
+      }
+      pending.clear();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private static ThreadPoolExecutor createExecutor() {
+      int nbThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS));
+      ThreadFactory threadFactory = r -> {
+         Thread t = new Thread(r, "JTB Payload Search Worker-" + WORKER_NUMBER.incrementAndGet());
+         t.setDaemon(true);
+         return t;
+      };
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads,
+                                                           nbThreads,
+                                                           IDLE_TIMEOUT,
+                                                           TimeUnit.SECONDS,
+                                                           new LinkedBlockingQueue<>(),
+                                                           threadFactory);
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+   }
+
+   private void submitBatch() {
+      if (batch.isEmpty()) {
+         return;
+      }
+      final List<Message> messages = batch;
+      pending.addLast(EXECUTOR.submit(() -> {
+         List<Message> res = new ArrayList<>(messages.size());
+         for (Message m : messages) {
+            if (matcher.matches(m)) {
+               res.add(m);
+            }
+         }
+         return res;
+      }));
+      batch = new ArrayList<>(BATCH_SIZE);
+   }
+
+   private List<Message> collect(boolean all) throws JMSException {
+      List<Message> res = Collections.emptyList();
+      while (!pending.isEmpty()) {
+         Future<List<Message>> f = pending.peekFirst();
+         if ((!all) && (!f.isDone()) && (pending.size() <= maxPending)) {
+            break;
+         }
+         List<Message> matched = get(f);
+         pending.pollFirst();
+         if (!matched.isEmpty()) {
+            if (res.isEmpty()) {
+               res = new ArrayList<>(matched.size());
+            }
+            res.addAll(matched);
+         }
+      }
+      return res;
+   }
+
+   private List<Message> get(Future<List<Message>> f) throws JMSException {
+      try {
+         return f.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new JMSException("Interrupted while matching payloads");
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof JMSException) {
+            throw (JMSException) cause;
+         }
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         throw new IllegalStateException(cause);
+      }
+   }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.List;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.JTBConnection.ProducersCache;
+
+/**
+ *
+ * JMS session borrowed from the pool of sessions of a JTBConnection, with its own cache of producers
+ *
+ * Exposes the operations of JTBConnection that are executed on the main session of the connection, so that concurrent callers
+ * (REST connector, background Jobs..) do not share the main session. An instance must only be used by one thread at a time, between
+ * JTBConnection.borrowSession() and JTBConnection.returnSession()
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class PooledJMSSession {
+
+   private static final Logger  log = LoggerFactory.getLogger(PooledJMSSession.class);
+
+   private final JTBConnection  jtbConnection;
+   private final JMSSessionPool pool;
+   private final Session        session;
+   private final ProducersCache producers;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   PooledJMSSession(JTBConnection jtbConnection, JMSSessionPool pool, Session session) {
+      this.jtbConnection = jtbConnection;
+      this.pool = pool;
+      this.session = session;
+      this.producers = new ProducersCache();
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   public Message createJMSMessage(JTBMessageType jtbMessageType) throws JMSException {
+      return jtbConnection.createJMSMessage(session, jtbMessageType);
+   }
+
+   public List<JTBMessage> browseQueue(JTBQueue jtbQueue, int maxMessages) throws JMSException {
+      return jtbConnection.browseQueue(session, jtbQueue, maxMessages, "", "");
+   }
+
+   public List<JTBMessage> removeFirstMessages(JTBDestination jtbDestination, int limit) throws JMSException {
+      return jtbConnection.removeFirstMessages(session, jtbDestination, limit);
+   }
+
+   // Streaming variants, see JTBConnection
+   public int browseQueue(JTBQueue jtbQueue,
+                          int maxMessages,
+                          String selectorsSearchText,
+                          int pageSize,
+                          QueueBrowseListener listener) throws JMSException {
+      return jtbConnection.browseQueue(session, jtbQueue, maxMessages, "", selectorsSearchText, pageSize, listener);
+   }
+
+   public int browseQueue(JTBQueue jtbQueue,
+                          int maxMessages,
+                          String payloadSearchText,
+                          String selectorsSearchText,
+                          int pageSize,
+                          QueueBrowseListener listener) throws JMSException {
+      return jtbConnection.browseQueue(session, jtbQueue, maxMessages, payloadSearchText, selectorsSearchText, pageSize, listener);
+   }
+
+   public int removeFirstMessages(JTBDestination jtbDestination,
+                                  int limit,
+                                  int pageSize,
+                                  QueueBrowseListener listener) throws JMSException {
+      return jtbConnection.removeFirstMessages(session, jtbDestination, limit, pageSize, listener);
+   }
+
+   Message browseMessage(JTBQueue jtbQueue, String selector) throws JMSException {
+      return jtbConnection.browseMessage(session, jtbQueue, selector);
+   }
+
+   public int emptyQueue(JTBQueue jtbQueue) throws JMSException {
+      return jtbConnection.emptyQueue(session, jtbQueue);
+   }
+
+   public int removeMessages(JTBQueue jtbQueue, String selector) throws JMSException {
+      return jtbConnection.removeMessages(session, jtbQueue, selector);
+   }
+
+   public int moveMessages(JTBQueue jtbQueue, String selector, JTBQueue targetJtbQueue) throws JMSException {
+      return jtbConnection.moveMessages(session, jtbQueue, selector, targetJtbQueue);
+   }
+
+   public void sendMessage(JTBMessage jtbMessage) throws JMSException {
+      log.debug("sendMessage {} to {}", jtbMessage, jtbMessage.getJtbDestination());
+
+      jtbConnection.sendMessageNoCommit(session, producers, jtbMessage, jtbMessage.getJtbDestination());
+      session.commit();
+   }
+
+   public JTBConnection getJtbConnection() {
+      return jtbConnection;
+   }
+
+   // ----------------
+   // Pool Management
+   // ----------------
+
+   JMSSessionPool getPool() {
+      return pool;
+   }
+
+   void rollback() {
+      try {
+         session.rollback();
+      } catch (JMSException e) {
+         log.warn("Exception occurred when rolling back pooled session. Ignoring: {}", e.getMessage());
+      }
+   }
+
+   // Also closes the producers of the session
+   void close() {
+      synchronized (producers) {
+         producers.clear();
+      }
+      try {
+         session.close();
+      } catch (JMSException e) {
+         log.warn("Exception occurred when closing pooled session. Ignoring: {}", e.getMessage());
+      }
+   }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+import java.util.List;
+
+/**
+ *
+ * Receives the messages read by a streaming browse of a Queue, one page at a time
+ *
+ * @author Denis Forveille
+ *
+ */
+public interface QueueBrowseListener {
+
+   // Called with each page of messages read from the QueueBrowser. Return false to stop browsing
+   boolean onMessages(List<JTBMessage> jtbMessages);
+
+   // Polled between each message read from the QueueBrowser. Return true to stop browsing
+   default boolean isCanceled() {
+      return false;
+   }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2015-2017 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.model;
+
+/**
+ * History of the depths collected for a Queue, used to show the trend of the queue in the "Queue Depth" browser
+ *
+ * The samples are kept in a ring buffer made of primitive arrays, so that the memory used per queue is bounded and allocated once.
+ * When the buffer is full, the oldest sample is replaced by the new one
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class QueueDepthHistory {
+
+   public static final int  CAPACITY     = 120;
+
+   // Number of samples used to compute the rates
+   private static final int RATE_SAMPLES = 6;
+
+   private final long[]     timestamps   = new long[CAPACITY];
+   private final int[]      depths       = new int[CAPACITY];
+
+   // Index of the slot for the next sample and number of samples held. Guarded by "this"
+   private int              next         = 0;
+   private int              size         = 0;
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Samples must be added in chronological order. Samples older than the last one are ignored
+   public synchronized void add(long timestamp, int depth) {
+      if ((size > 0) && (timestamp <= timestamps[indexOf(size - 1)])) {
+         return;
+      }
+      timestamps[next] = timestamp;
+      depths[next] = depth;
+      next = (next + 1) % CAPACITY;
+      if (size < CAPACITY) {
+         size++;
+      }
+   }
+
+   public synchronized int size() {
+      return size;
+   }
+
+   // Depths from the oldest to the most recent sample
+   public synchronized int[] getDepths() {
+      int[] result = new int[size];
+      for (int i = 0; i < size; i++) {
+         result[i] = depths[indexOf(i)];
+      }
+      return result;
+   }
+
+   public synchronized long getLastTimestamp() {
+      return size == 0 ? 0 : timestamps[indexOf(size - 1)];
+   }
+
+   public synchronized int getLastDepth() {
+      return size == 0 ? 0 : depths[indexOf(size - 1)];
+   }
+
+   // Rate of the messages added to the queue, in msgs/s, over the last samples. null if there are less than 2 samples
+   public synchronized Double getRateIn() {
+      return computeRate(true);
+   }
+
+   // Rate of the messages removed from the queue, in msgs/s, over the last samples. null if there are less than 2 samples
+   public synchronized Double getRateOut() {
+      return computeRate(false);
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // Index in the arrays of the i-th sample, 0 being the oldest one
+   private int indexOf(int i) {
+      return (next - size + i + CAPACITY) % CAPACITY;
+   }
+
+   // Only the variations of the depth are known: the messages added and removed between two samples cancel out, so the rates are
+   // lower bounds of the real throughput
+   private Double computeRate(boolean in) {
+      if (size < 2) {
+         return null;
+      }
+
+      int first = Math.max(0, size - RATE_SAMPLES);
+      long total = 0;
+      for (int i = first + 1; i < size; i++) {
+         int delta = depths[indexOf(i)] - depths[indexOf(i - 1)];
+         if (in ? delta > 0 : delta < 0) {
+            total += Math.abs(delta);
+         }
+      }
+
+      long elapsed = timestamps[indexOf(size - 1)] - timestamps[indexOf(first)];
+      if (elapsed <= 0) {
+         return null;
+      }
+      return total * 1000d / elapsed;
+   }
+}
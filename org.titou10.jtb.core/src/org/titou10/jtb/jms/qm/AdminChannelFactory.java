@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+import javax.jms.JMSException;
+
+/**
+ *
+ * Create and close the admin channels of an AdminChannelPool
+ *
+ * @author Denis Forveille
+ *
+ */
+public interface AdminChannelFactory<T> {
+
+   T create() throws Exception;
+
+   // Exceptions are logged and ignored
+   void close(T channel);
+
+   // Whether a channel can still be used after a request failed with this exception. By default only JMSExceptions, thrown when
+   // the request could not be sent or its reply received, break the channel. Other exceptions are errors returned for the request
+   default boolean isBroken(Exception e) {
+      return e instanceof JMSException;
+   }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.JMSException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Small pool of the channels used by a Q Manager to send management requests for one JMS connection (PCF agents, QueueRequestors,
+ * admin connections...)
+ *
+ * Those channels are usually not thread safe and process one request at a time. A channel is borrowed for the duration of a
+ * request, so that the requests sent by different jobs run concurrently. Channels are created on demand, up to the size of the
+ * pool. The pool is itself the ManagementContext of Q Managers that only need admin channels
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class AdminChannelPool<T> implements ManagementContext {
+
+   private static final Logger          log          = LoggerFactory.getLogger(AdminChannelPool.class);
+
+   public static final int              DEFAULT_SIZE = 4;
+
+   private static final long            MAX_WAIT     = 30 * 1000L;                                         // 30 seconds
+
+   private final String                 name;
+   private final AdminChannelFactory<T> factory;
+   private final int                    size;
+   private final Semaphore              permits;
+
+   // Guarded by "this"
+   private final Deque<T>               idleChannels;
+   private boolean                      closed;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   public AdminChannelPool(String name, int size, AdminChannelFactory<T> factory) {
+      this.name = name;
+      this.factory = factory;
+      this.size = Math.max(1, size);
+      this.permits = new Semaphore(this.size, true);
+
+      this.idleChannels = new ArrayDeque<>(this.size);
+      this.closed = false;
+   }
+
+   // The first channel is usually created by connect() to check the connection parameters
+   public AdminChannelPool(String name, int size, AdminChannelFactory<T> factory, T firstChannel) {
+      this(name, size, factory);
+      this.idleChannels.add(firstChannel);
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Execute a request with a channel borrowed from the pool. Waits at most MAX_WAIT if all the channels are in use
+   // A channel whose request has been interrupted or failed on the transport is discarded: a reply may still be pending on it.
+   // A channel whose request has been rejected by the server (unknown destination, not authorized..) is returned to the pool
+   public <R> R execute(AdminChannelWork<T, R> work) throws Exception {
+      T channel = borrow();
+      boolean broken = true;
+      try {
+         R res = work.execute(channel);
+         broken = false;
+         return res;
+      } catch (Exception e) {
+         broken = (e instanceof InterruptedException) || Thread.currentThread().isInterrupted() || factory.isBroken(e);
+         throw e;
+      } finally {
+         if (broken) {
+            discard(channel);
+         } else {
+            release(channel);
+         }
+      }
+   }
+
+   // Close the idle channels. Channels still in use are closed when they are returned
+   @Override
+   public void close() {
+      List<T> channels;
+      synchronized (this) {
+         closed = true;
+         channels = new ArrayList<>(idleChannels);
+         idleChannels.clear();
+      }
+      for (T channel : channels) {
+         factory.close(channel);
+      }
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private T borrow() throws Exception {
+      try {
+         if (!permits.tryAcquire(MAX_WAIT, TimeUnit.MILLISECONDS)) {
+            throw new JMSException("All the " + size + " admin channels of '" + name + "' are in use");
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new JMSException("Interrupted while waiting for an admin channel of '" + name + "'");
+      }
+
+      synchronized (this) {
+         if (closed) {
+            permits.release();
+            throw new JMSException("Connection '" + name + "' has been closed");
+         }
+         T channel = idleChannels.pollFirst();
+         if (channel != null) {
+            return channel;
+         }
+      }
+
+      try {
+         log.debug("Creating an admin channel for '{}'", name);
+         return factory.create();
+      } catch (Exception | Error e) {
+         permits.release();
+         throw e;
+      }
+   }
+
+   private void release(T channel) {
+      boolean close = true;
+      synchronized (this) {
+         if (!closed) {
+            idleChannels.addFirst(channel);
+            close = false;
+         }
+      }
+      if (close) {
+         factory.close(channel);
+      }
+      permits.release();
+   }
+
+   private void discard(T channel) {
+      log.debug("Discarding an admin channel of '{}'", name);
+      try {
+         factory.close(channel);
+      } finally {
+         permits.release();
+      }
+   }
+}
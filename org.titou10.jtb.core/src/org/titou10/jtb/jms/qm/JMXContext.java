@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+import java.io.IOException;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ManagementContext of the Q Managers that send their management requests through JMX
+ *
+ * The JMX connection is thread safe and is shared by the concurrent management requests
+ *
+ * @author Denis Forveille
+ *
+ */
+public class JMXContext implements ManagementContext {
+
+   private static final Logger         log = LoggerFactory.getLogger(JMXContext.class);
+
+   private final JMXConnector          jmxc;
+   private final MBeanServerConnection mbsc;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   public JMXContext(JMXConnector jmxc, MBeanServerConnection mbsc) {
+      this.jmxc = jmxc;
+      this.mbsc = mbsc;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   @Override
+   public void close() {
+      if (jmxc != null) {
+         try {
+            jmxc.close();
+         } catch (IOException e) {
+            log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
+   // ------------------------
+   // Standard Getters/Setters
+   // ------------------------
+
+   public JMXConnector getJmxc() {
+      return jmxc;
+   }
+
+   public MBeanServerConnection getMbsc() {
+      return mbsc;
+   }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+/**
+ *
+ * Management objects kept by a Q Manager for one JMS connection, from connect() to close(): admin channels, JMX connections,
+ * names of the MBeans...
+ *
+ * The methods of a Q Manager are called concurrently by the jobs that collect the queue depths, the REST connector, the scripts
+ * etc. A context must be thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+public interface ManagementContext {
+
+   // Release the resources held by the context. Exceptions are logged and ignored
+   void close();
+}
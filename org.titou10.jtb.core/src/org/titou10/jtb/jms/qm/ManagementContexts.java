@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.jms.Connection;
+
+/**
+ * Management contexts of the JMS connections opened by a Q Manager. Thread safe
+ *
+ * The contexts are keyed by the JMS connection itself, not by its hash code that two connections may share
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class ManagementContexts<C extends ManagementContext> {
+
+   private final Map<Connection, C> contexts = Collections.synchronizedMap(new IdentityHashMap<>());
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   public void put(Connection jmsConnection, C context) {
+      contexts.put(jmsConnection, context);
+   }
+
+   // The context of the connection. Throws an IllegalStateException if the connection has been closed
+   public C get(Connection jmsConnection) {
+      C context = contexts.get(jmsConnection);
+      if (context == null) {
+         throw new IllegalStateException("The connection has been closed");
+      }
+      return context;
+   }
+
+   // Remove the context of the connection and close it
+   public void close(Connection jmsConnection) {
+      C context = contexts.remove(jmsConnection);
+      if (context != null) {
+         context.close();
+      }
+   }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015-2017 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.jms.qm;
+
+/**
+ * Search on the payload of messages, as entered in the message browser
+ * 
+ * The kind of search is given by a prefix: "regex:", "jsonpath:", "xpath:" or "hex:". Without prefix, the payload must contain
+ * the text
+ * 
+ * @author Denis Forveille
+ *
+ */
+public final class PayloadSearch {
+
+   public enum Kind {
+                     TEXT(""),
+                     REGEX("regex:"),
+                     JSON_PATH("jsonpath:"),
+                     XPATH("xpath:"),
+                     BYTES("hex:");
+
+      private final String prefix;
+
+      private Kind(String prefix) {
+         this.prefix = prefix;
+      }
+
+      public String getPrefix() {
+         return prefix;
+      }
+   }
+
+   private final Kind   kind;
+   private final String expression;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   public PayloadSearch(Kind kind, String expression) {
+      this.kind = kind;
+      this.expression = expression;
+   }
+
+   // Returns null if there is nothing to search
+   public static PayloadSearch parse(String payloadSearchText) {
+      if ((payloadSearchText == null) || (payloadSearchText.isEmpty())) {
+         return null;
+      }
+      for (Kind k : Kind.values()) {
+         if ((!k.prefix.isEmpty()) && (payloadSearchText.regionMatches(true, 0, k.prefix, 0, k.prefix.length()))) {
+            String expression = payloadSearchText.substring(k.prefix.length()).trim();
+            return expression.isEmpty() ? null : new PayloadSearch(k, expression);
+         }
+      }
+      return new PayloadSearch(Kind.TEXT, payloadSearchText);
+   }
+
+   @Override
+   public String toString() {
+      return kind.prefix + expression;
+   }
+
+   // ------------------------
+   // Standard Getters/Setters
+   // ------------------------
+
+   public Kind getKind() {
+      return kind;
+   }
+
+   public String getExpression() {
+      return expression;
+   }
+
+}
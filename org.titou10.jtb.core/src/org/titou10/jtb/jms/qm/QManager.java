@@ -10,6 +10,7 @@
  * <http://www.gnu.org/licenses/>. */
 package org.titou10.jtb.jms.qm;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -77,6 +78,44 @@ public abstract class QManager implements JTBObject, Comparable<QManager> {
       return null;
    }
 
+   // Returns the depth of a set of queues, per queue name. A null or missing value means the depth is unknown
+   // Q Managers that are able to get the depths of all queues in one call should override this method and supportsBulkQueueDepths()
+   public Map<String, Integer> getQueueDepths(Connection jmsConnection, Collection<String> queueNames) {
+      Map<String, Integer> depths = new HashMap<>(queueNames.size());
+      for (String queueName : queueNames) {
+         depths.put(queueName, getQueueDepth(jmsConnection, queueName));
+      }
+      return depths;
+   }
+
+   // Returns the age in ms of the oldest message of a queue, as maintained by the Q Manager
+   // null if the age is unknown or if the queue is empty
+   // Q Managers that override this method must also override supportsOldestMessageAge(). Otherwise the first message of the queue
+   // is browsed to read its JMSTimestamp
+   public Long getOldestMessageAge(Connection jmsConnection, String queueName) {
+      return null;
+   }
+
+   // Server side operations on the messages of a queue, done with the administration API of the Q Manager in one call
+   // They return the number of messages removed/moved or -1 if unknown
+   // Q Managers that override those methods must also override the corresponding supportsXXX() method. They may throw an
+   // UnsupportedOperationException when the operation is not available for a given connection (no JMX..): the messages are then
+   // removed/moved with JMS
+
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      throw new UnsupportedOperationException("Purging a queue is not supported by this Q Manager");
+   }
+
+   // "selector" is a JMS message selector
+   public int removeMessages(Connection jmsConnection, String queueName, String selector) throws Exception {
+      throw new UnsupportedOperationException("Removing messages is not supported by this Q Manager");
+   }
+
+   // "selector" is a JMS message selector
+   public int moveMessages(Connection jmsConnection, String queueName, String selector, String targetQueueName) throws Exception {
+      throw new UnsupportedOperationException("Moving messages is not supported by this Q Manager");
+   }
+
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
       return Collections.emptyMap();
    }
@@ -100,6 +139,37 @@ public abstract class QManager implements JTBObject, Comparable<QManager> {
       return false;
    }
 
+   // True if getQueueDepths() gets the depths of all the queues in one call instead of calling getQueueDepth() for each queue
+   public boolean supportsBulkQueueDepths() {
+      return false;
+   }
+
+   // True if getOldestMessageAge() is implemented
+   public boolean supportsOldestMessageAge() {
+      return false;
+   }
+
+   // True if getQueueDepth(), getQueueDepths() and getOldestMessageAge() may be called concurrently for the same connection
+   // Otherwise they are called by one thread at a time
+   public boolean supportsConcurrentManagement() {
+      return false;
+   }
+
+   // True if purgeQueue() is implemented. Otherwise the messages are removed by consuming them with JMS
+   public boolean supportsPurgeQueue() {
+      return false;
+   }
+
+   // True if removeMessages() is implemented. Otherwise the messages are removed by consuming them with JMS
+   public boolean supportsRemoveMessages() {
+      return false;
+   }
+
+   // True if moveMessages() is implemented. Otherwise the messages are consumed and sent to the target queue with JMS
+   public boolean supportsMoveMessages() {
+      return false;
+   }
+
    // UniversalMessaging shows JMSMessagesID with the "ID:" prefix but does not store it internally
    // It has to be removed for selectors
    public boolean mustRemoveIDFromJMSMessageID() {
@@ -111,6 +181,12 @@ public abstract class QManager implements JTBObject, Comparable<QManager> {
       return true;
    }
 
+   // Q Managers able to filter messages on their payload on the server return the JMS selector that implements the search
+   // null: the search is not supported by the server, and the payloads are matched locally
+   public String buildPayloadSearchSelector(PayloadSearch payloadSearch) {
+      return null;
+   }
+
    // -------------------------
    // Comparator
    // -------------------------
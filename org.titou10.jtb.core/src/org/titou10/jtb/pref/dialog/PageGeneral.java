@@ -65,11 +65,18 @@ final class PageGeneral extends PreferencePage {
    private Button              showSystemObject;
    private Button              autoResizeColumnsWidth;
    private Button              editMessageOnDragAndDrop;
+   private Button              messageIndex;
+   private Button              releasePayloads;
    private Button              showNonBrowsableQueue;
+   private Spinner             spinnerQDepthNbThreads;
+   private Spinner             spinnerQDepthTimeout;
+   private Button              persistQDepthHistory;
    private Button              trustAllCertificates;
    private Button              clearScriptLogsOnExecution;
    private Spinner             spinnerMaxMessagesTopic;
+   private Spinner             spinnerRemoveCommitInterval;
    private Text                textConnectionClientId;
+   private Spinner             spinnerSessionPoolSize;
    private Spinner             spinnerXMLindent;
    private Button              synchronizeSessionBrowser;
    private Combo               comboMessageTabDisplay;
@@ -113,6 +120,14 @@ final class PageGeneral extends PreferencePage {
                .setText("Show message editing dialog before posting when dropping a single message on message browser");
       editMessageOnDragAndDrop.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 3, 1));
 
+      messageIndex = new Button(gBrowser, SWT.CHECK);
+      messageIndex.setText("Keep a local index of the messages browsed in queues to only read new messages on refresh");
+      messageIndex.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 3, 1));
+
+      releasePayloads = new Button(gBrowser, SWT.CHECK);
+      releasePayloads.setText("Keep only the headers of the messages browsed in memory. Payloads are read again when needed");
+      releasePayloads.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 3, 1));
+
       Label lbl1 = new Label(gBrowser, SWT.LEFT);
       lbl1.setText("Limit messages displayed to");
       lbl1.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 1, 1));
@@ -152,6 +167,19 @@ final class PageGeneral extends PreferencePage {
       Label lbl10 = new Label(gBrowser, SWT.LEFT);
       lbl10.setText("messages (0 = no limit)");
 
+      Label lbl34 = new Label(gBrowser, SWT.LEFT);
+      lbl34.setText("When emptying a queue, commit every");
+      lbl34.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 1, 1));
+      spinnerRemoveCommitInterval = new Spinner(gBrowser, SWT.BORDER);
+      spinnerRemoveCommitInterval.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 1, 1));
+      spinnerRemoveCommitInterval.setMinimum(1);
+      spinnerRemoveCommitInterval.setMaximum(99999);
+      spinnerRemoveCommitInterval.setIncrement(100);
+      spinnerRemoveCommitInterval.setPageIncrement(1000);
+      spinnerRemoveCommitInterval.setTextLimit(5);
+      Label lbl35 = new Label(gBrowser, SWT.LEFT);
+      lbl35.setText("messages");
+
       Label lbl24 = new Label(gBrowser, SWT.LEFT);
       lbl24.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 1, 1));
       lbl24.setText("Default Columns Set:");
@@ -173,10 +201,41 @@ final class PageGeneral extends PreferencePage {
       Group qQDepth = new Group(composite, SWT.SHADOW_ETCHED_IN);
       qQDepth.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 1, 1));
       qQDepth.setText("Queue depth browsers");
-      qQDepth.setLayout(new GridLayout(1, false));
+      qQDepth.setLayout(new GridLayout(3, false));
 
       showNonBrowsableQueue = new Button(qQDepth, SWT.CHECK);
       showNonBrowsableQueue.setText("Show 'non browsable' queues in the 'Queue depth' browser");
+      showNonBrowsableQueue.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 3, 1));
+
+      Label lbl30 = new Label(qQDepth, SWT.LEFT);
+      lbl30.setText("Collect queue depths with");
+      lbl30.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 1, 1));
+      spinnerQDepthNbThreads = new Spinner(qQDepth, SWT.BORDER);
+      spinnerQDepthNbThreads.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 1, 1));
+      spinnerQDepthNbThreads.setMinimum(1);
+      spinnerQDepthNbThreads.setMaximum(32);
+      spinnerQDepthNbThreads.setIncrement(1);
+      spinnerQDepthNbThreads.setPageIncrement(4);
+      spinnerQDepthNbThreads.setTextLimit(2);
+      Label lbl31 = new Label(qQDepth, SWT.LEFT);
+      lbl31.setText("parallel workers");
+
+      Label lbl32 = new Label(qQDepth, SWT.LEFT);
+      lbl32.setText("Give up on a queue after");
+      lbl32.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 1, 1));
+      spinnerQDepthTimeout = new Spinner(qQDepth, SWT.BORDER);
+      spinnerQDepthTimeout.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false, 1, 1));
+      spinnerQDepthTimeout.setMinimum(1);
+      spinnerQDepthTimeout.setMaximum(600);
+      spinnerQDepthTimeout.setIncrement(1);
+      spinnerQDepthTimeout.setPageIncrement(5);
+      spinnerQDepthTimeout.setTextLimit(3);
+      Label lbl33 = new Label(qQDepth, SWT.LEFT);
+      lbl33.setText("seconds");
+
+      persistQDepthHistory = new Button(qQDepth, SWT.CHECK);
+      persistQDepthHistory.setText("Save the history of the queue depths to a file, and reload it when the browser is opened");
+      persistQDepthHistory.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, true, false, 3, 1));
 
       // Message Viewer
 
@@ -242,6 +301,17 @@ final class PageGeneral extends PreferencePage {
       textConnectionClientId = new Text(gConnection, SWT.BORDER);
       textConnectionClientId.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
 
+      Label lbl15 = new Label(gConnection, SWT.LEFT);
+      lbl15.setText("Max JMS sessions per connection for REST clients: ");
+      spinnerSessionPoolSize = new Spinner(gConnection, SWT.BORDER);
+      spinnerSessionPoolSize.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 1, 1));
+      spinnerSessionPoolSize.setToolTipText("Effective on the next connection");
+      spinnerSessionPoolSize.setMinimum(1);
+      spinnerSessionPoolSize.setMaximum(64);
+      spinnerSessionPoolSize.setIncrement(1);
+      spinnerSessionPoolSize.setPageIncrement(4);
+      spinnerSessionPoolSize.setTextLimit(2);
+
       trustAllCertificates = new Button(gConnection, SWT.CHECK);
       trustAllCertificates.setText("Trust all server certificates. Do not check/validate servers certificate authenticity !!!");
       trustAllCertificates.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
@@ -252,11 +322,18 @@ final class PageGeneral extends PreferencePage {
       showSystemObject.setSelection(ps.getBoolean(Constants.PREF_SHOW_SYSTEM_OBJECTS));
       autoResizeColumnsWidth.setSelection(ps.getBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER));
       editMessageOnDragAndDrop.setSelection(ps.getBoolean(Constants.PREF_EDIT_MESSAGE_DND));
+      messageIndex.setSelection(ps.getBoolean(Constants.PREF_MESSAGE_INDEX));
+      releasePayloads.setSelection(ps.getBoolean(Constants.PREF_BROWSE_RELEASE_PAYLOADS));
       showNonBrowsableQueue.setSelection(ps.getBoolean(Constants.PREF_SHOW_NON_BROWSABLE_Q));
+      spinnerQDepthNbThreads.setSelection(ps.getInt(Constants.PREF_Q_DEPTH_NB_THREADS));
+      spinnerQDepthTimeout.setSelection(ps.getInt(Constants.PREF_Q_DEPTH_TIMEOUT));
+      persistQDepthHistory.setSelection(ps.getBoolean(Constants.PREF_Q_DEPTH_HISTORY_PERSIST));
       trustAllCertificates.setSelection(ps.getBoolean(Constants.PREF_TRUST_ALL_CERTIFICATES));
       clearScriptLogsOnExecution.setSelection(ps.getBoolean(Constants.PREF_CLEAR_LOGS_EXECUTION));
       spinnerMaxMessagesTopic.setSelection(ps.getInt(Constants.PREF_MAX_MESSAGES_TOPIC));
+      spinnerRemoveCommitInterval.setSelection(ps.getInt(Constants.PREF_REMOVE_COMMIT_INTERVAL));
       textConnectionClientId.setText(ps.getString(Constants.PREF_CONN_CLIENT_ID_PREFIX));
+      spinnerSessionPoolSize.setSelection(ps.getInt(Constants.PREF_CONN_SESSION_POOL_SIZE));
       spinnerXMLindent.setSelection(ps.getInt(Constants.PREF_XML_INDENT));
       synchronizeSessionBrowser.setSelection(ps.getBoolean(Constants.PREF_SYNCHRONIZE_SESSIONS_MESSAGES));
 
@@ -306,11 +383,18 @@ final class PageGeneral extends PreferencePage {
       showSystemObject.setSelection(ps.getDefaultBoolean(Constants.PREF_SHOW_SYSTEM_OBJECTS));
       autoResizeColumnsWidth.setSelection(ps.getDefaultBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER));
       editMessageOnDragAndDrop.setSelection(ps.getDefaultBoolean(Constants.PREF_EDIT_MESSAGE_DND));
+      messageIndex.setSelection(ps.getDefaultBoolean(Constants.PREF_MESSAGE_INDEX));
+      releasePayloads.setSelection(ps.getDefaultBoolean(Constants.PREF_BROWSE_RELEASE_PAYLOADS));
       showNonBrowsableQueue.setSelection(ps.getDefaultBoolean(Constants.PREF_SHOW_NON_BROWSABLE_Q));
+      spinnerQDepthNbThreads.setSelection(ps.getDefaultInt(Constants.PREF_Q_DEPTH_NB_THREADS));
+      spinnerQDepthTimeout.setSelection(ps.getDefaultInt(Constants.PREF_Q_DEPTH_TIMEOUT));
+      persistQDepthHistory.setSelection(ps.getDefaultBoolean(Constants.PREF_Q_DEPTH_HISTORY_PERSIST));
       trustAllCertificates.setSelection(ps.getDefaultBoolean(Constants.PREF_TRUST_ALL_CERTIFICATES));
       clearScriptLogsOnExecution.setSelection(ps.getDefaultBoolean(Constants.PREF_CLEAR_LOGS_EXECUTION));
       spinnerMaxMessagesTopic.setSelection(ps.getDefaultInt(Constants.PREF_MAX_MESSAGES_TOPIC));
+      spinnerRemoveCommitInterval.setSelection(ps.getDefaultInt(Constants.PREF_REMOVE_COMMIT_INTERVAL));
       textConnectionClientId.setText(ps.getDefaultString(Constants.PREF_CONN_CLIENT_ID_PREFIX));
+      spinnerSessionPoolSize.setSelection(ps.getDefaultInt(Constants.PREF_CONN_SESSION_POOL_SIZE));
       spinnerXMLindent.setSelection(ps.getDefaultInt(Constants.PREF_XML_INDENT));
       synchronizeSessionBrowser.setSelection(ps.getDefaultBoolean(Constants.PREF_SYNCHRONIZE_SESSIONS_MESSAGES));
 
@@ -336,11 +420,18 @@ final class PageGeneral extends PreferencePage {
       ps.setValue(Constants.PREF_SHOW_SYSTEM_OBJECTS, showSystemObject.getSelection());
       ps.setValue(Constants.PREF_AUTO_RESIZE_COLS_BROWSER, autoResizeColumnsWidth.getSelection());
       ps.setValue(Constants.PREF_EDIT_MESSAGE_DND, editMessageOnDragAndDrop.getSelection());
+      ps.setValue(Constants.PREF_MESSAGE_INDEX, messageIndex.getSelection());
+      ps.setValue(Constants.PREF_BROWSE_RELEASE_PAYLOADS, releasePayloads.getSelection());
       ps.setValue(Constants.PREF_SHOW_NON_BROWSABLE_Q, showNonBrowsableQueue.getSelection());
+      ps.setValue(Constants.PREF_Q_DEPTH_NB_THREADS, spinnerQDepthNbThreads.getSelection());
+      ps.setValue(Constants.PREF_Q_DEPTH_TIMEOUT, spinnerQDepthTimeout.getSelection());
+      ps.setValue(Constants.PREF_Q_DEPTH_HISTORY_PERSIST, persistQDepthHistory.getSelection());
       ps.setValue(Constants.PREF_TRUST_ALL_CERTIFICATES, trustAllCertificates.getSelection());
       ps.setValue(Constants.PREF_CLEAR_LOGS_EXECUTION, clearScriptLogsOnExecution.getSelection());
       ps.setValue(Constants.PREF_MAX_MESSAGES_TOPIC, spinnerMaxMessagesTopic.getSelection());
+      ps.setValue(Constants.PREF_REMOVE_COMMIT_INTERVAL, spinnerRemoveCommitInterval.getSelection());
       ps.setValue(Constants.PREF_CONN_CLIENT_ID_PREFIX, textConnectionClientId.getText());
+      ps.setValue(Constants.PREF_CONN_SESSION_POOL_SIZE, spinnerSessionPoolSize.getSelection());
       ps.setValue(Constants.PREF_XML_INDENT, spinnerXMLindent.getSelection());
       ps.setValue(Constants.PREF_SYNCHRONIZE_SESSIONS_MESSAGES, synchronizeSessionBrowser.getSelection());
 
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.script;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming reader of the lines of a script data file, in one pass
+ *
+ * The file is read through large NIO buffers and decoded incrementally. Each line is split on the delimiter into a values array
+ * reused from one line to the next. Lines are terminated by "\n", "\r" or "\r\n", as with BufferedReader.readLine()
+ *
+ * Progress is computed from the number of bytes consumed, so the file does not have to be read beforehand to count its lines.
+ * Reading can start at a byte offset, in which case the line that contains the offset is skipped unless the offset is the start
+ * of a line. The offset must be on a character boundary
+ *
+ * @author Denis Forveille
+ *
+ */
+final class DataFileReader implements Closeable {
+
+   private static final int     BYTE_BUFFER_SIZE = 1024 * 1024;
+   private static final int     CHAR_BUFFER_SIZE = 256 * 1024;
+
+   private final FileChannel    channel;
+   private final long           startOffset;
+   private final long           size;
+
+   private final CharsetDecoder decoder;
+   private final ByteBuffer     bytes;
+   private final CharBuffer     chars;
+   private final char[]         charArray;
+
+   private final String         delimiter;
+   private final String[]       values;
+   private final StringBuilder  line;
+
+   private boolean              flushed;
+   private boolean              skipLF;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   DataFileReader(Path path, Charset charset, String delimiter, int nbValues, long startOffset) throws IOException {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+      this.size = channel.size();
+      this.startOffset = Math.min(Math.max(0, startOffset), size);
+
+      this.decoder = charset.newDecoder()
+               .onMalformedInput(CodingErrorAction.REPORT)
+               .onUnmappableCharacter(CodingErrorAction.REPORT);
+      this.bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+      this.chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+      this.chars.flip();
+      this.charArray = chars.array();
+
+      this.delimiter = delimiter;
+      this.values = new String[nbValues];
+      this.line = new StringBuilder(256);
+
+      this.flushed = false;
+      this.skipLF = false;
+
+      try {
+         if (this.startOffset > 0) {
+            channel.position(this.startOffset);
+            if (!isStartOfLine(this.startOffset)) {
+               readLine();
+            }
+         }
+      } catch (IOException e) {
+         channel.close();
+         throw e;
+      }
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Read and split the next line. Returns false at the end of the file
+   boolean nextLine() throws IOException {
+      if (!readLine()) {
+         return false;
+      }
+      split();
+      return true;
+   }
+
+   // Values of the current line. Missing values are set to an empty string. The array is reused for the next line
+   String[] getValues() {
+      return values;
+   }
+
+   // Number of bytes consumed so far, from the beginning of the file
+   long getPosition() throws IOException {
+      return channel.position() - bytes.position();
+   }
+
+   // Between 0 and 1
+   double getProgress() throws IOException {
+      long total = size - startOffset;
+      if (total <= 0) {
+         return 1d;
+      }
+      return Math.min(1d, (getPosition() - startOffset) / (double) total);
+   }
+
+   @Override
+   public void close() throws IOException {
+      channel.close();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // An offset between the '\r' and the '\n' of a "\r\n" is in the middle of a line: the '\n' ends the previous line
+   private boolean isStartOfLine(long offset) throws IOException {
+      ByteBuffer bb = ByteBuffer.allocate(2);
+      channel.read(bb, offset - 1);
+      byte previous = bb.get(0);
+      if (previous == '\n') {
+         return true;
+      }
+      if (previous == '\r') {
+         return (bb.position() < 2) || (bb.get(1) != '\n');
+      }
+      return false;
+   }
+
+   // Read the next line into "line". Returns false at the end of the file
+   private boolean readLine() throws IOException {
+      line.setLength(0);
+      boolean hasData = false;
+      while (true) {
+         if (!chars.hasRemaining()) {
+            if (!fill()) {
+               return hasData;
+            }
+         }
+
+         int pos = chars.position();
+         int limit = chars.limit();
+
+         if (skipLF) {
+            skipLF = false;
+            if (charArray[pos] == '\n') {
+               pos++;
+            }
+         }
+
+         int start = pos;
+         while (pos < limit) {
+            char c = charArray[pos];
+            if ((c == '\n') || (c == '\r')) {
+               line.append(charArray, start, pos - start);
+               skipLF = c == '\r';
+               chars.position(pos + 1);
+               return true;
+            }
+            pos++;
+         }
+         line.append(charArray, start, pos - start);
+         chars.position(pos);
+         hasData = line.length() > 0;
+      }
+   }
+
+   // Decode the next chunk of the file into "chars". Returns false at the end of the file
+   private boolean fill() throws IOException {
+      chars.clear();
+      while ((chars.position() == 0) && (!flushed)) {
+         boolean endOfInput = channel.read(bytes) < 0;
+         bytes.flip();
+         CoderResult cr = decoder.decode(bytes, chars, endOfInput);
+         bytes.compact();
+         if (cr.isError()) {
+            cr.throwException();
+         }
+         if (endOfInput && cr.isUnderflow()) {
+            decoder.flush(chars);
+            flushed = true;
+         }
+      }
+      chars.flip();
+      return chars.hasRemaining();
+   }
+
+   // Same result as line.split(Pattern.quote(delimiter)) mapped to the values array, without regex nor intermediate arrays
+   private void split() {
+      int nb = 0;
+      int start = 0;
+      int length = line.length();
+      if (values.length == 0) {
+         return;
+      }
+      if (delimiter.isEmpty()) {
+         values[nb++] = line.toString();
+      } else {
+         while (nb < values.length) {
+            int end = line.indexOf(delimiter, start);
+            if (end < 0) {
+               values[nb++] = line.substring(start, length);
+               break;
+            }
+            values[nb++] = line.substring(start, end);
+            start = end + delimiter.length();
+         }
+      }
+      while (nb < values.length) {
+         values[nb++] = "";
+      }
+   }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by the workers of a step to limit the global rate of messages posted
+ *
+ * Permits are scheduled with a nanosecond resolution. Permits not used while the workers are slower than the target rate are
+ * accumulated up to BURST_NANOS worth of permits, so that short hiccups (GC, slow send..) are caught up without bursting
+ *
+ * @author Denis Forveille
+ *
+ */
+final class RateLimiter {
+
+   private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+   private final long        nanosPerPermit;
+   private final long        maxCredit;
+
+   // Time at which the next permit is available. Guarded by "this"
+   private long              nextPermitNanos;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   RateLimiter(int permitsPerSecond) {
+      this.nanosPerPermit = Math.max(1, TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+      this.maxCredit = Math.max(nanosPerPermit, BURST_NANOS);
+      this.nextPermitNanos = System.nanoTime();
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Wait until a permit is available
+   void acquire() throws InterruptedException {
+      long waitNanos;
+      synchronized (this) {
+         long now = System.nanoTime();
+         if (now - nextPermitNanos > maxCredit) {
+            nextPermitNanos = now - maxCredit;
+         }
+         waitNanos = nextPermitNanos - now;
+         nextPermitNanos += nanosPerPermit;
+      }
+      if (waitNanos > 0) {
+         TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+   }
+}
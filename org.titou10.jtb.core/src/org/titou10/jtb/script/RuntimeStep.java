@@ -77,6 +77,20 @@ public class RuntimeStep {
             sb.append(step.getPayloadDirectory());
             sb.append("'");
          }
+         if (isConcurrent()) {
+            sb.append(". Workers: ");
+            sb.append(step.getNbWorkers() == null ? 1 : step.getNbWorkers());
+            if ((step.getMessagesPerSecond() != null) && (step.getMessagesPerSecond() > 0)) {
+               sb.append(", ");
+               sb.append(step.getMessagesPerSecond());
+               sb.append(" msg/s");
+            }
+            if ((step.getDurationSecs() != null) && (step.getDurationSecs() > 0)) {
+               sb.append(", for ");
+               sb.append(step.getDurationSecs());
+               sb.append(" seconds");
+            }
+         }
       } else {
          sb.append("Pause for");
          sb.append(step.getPauseSecsAfter());
@@ -86,6 +100,13 @@ public class RuntimeStep {
       return sb.toString();
    }
 
+   // Steps with more than one worker, a target rate or a duration are executed by concurrent workers
+   public boolean isConcurrent() {
+      return ((step.getNbWorkers() != null) && (step.getNbWorkers() > 1))
+             || ((step.getMessagesPerSecond() != null) && (step.getMessagesPerSecond() > 0))
+             || ((step.getDurationSecs() != null) && (step.getDurationSecs() > 0));
+   }
+
    public void setJtbMessageTemplate(JTBMessageTemplate jtbMessageTemplate, String templateName) {
       this.jtbMessageTemplate = jtbMessageTemplate;
       this.templateName = templateName;
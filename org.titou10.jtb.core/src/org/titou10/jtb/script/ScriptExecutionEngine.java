@@ -16,9 +16,7 @@
  */
 package org.titou10.jtb.script;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
@@ -26,19 +24,28 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.jms.JMSException;
 import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -70,6 +77,7 @@ import org.titou10.jtb.template.TemplatesManager;
 import org.titou10.jtb.template.TemplatesManager.TemplateNameStructure;
 import org.titou10.jtb.util.Constants;
 import org.titou10.jtb.util.Utils;
+import org.titou10.jtb.variable.VariableTemplate;
 import org.titou10.jtb.variable.VariablesManager;
 import org.titou10.jtb.variable.gen.Variable;
 
@@ -89,6 +97,9 @@ public class ScriptExecutionEngine {
    private static final String MAX_MESSAGES_REACHED    = "MAX_MESSAGES_REACHED";
    private static final int    NB_TICKS_VALIDATION     = 7;
    private static final int    NB_TICKS_PER_STEP       = 100000;
+   private static final int    COMMIT_INTERVAL         = 100;
+   private static final long   POLL_DELAY              = 250L;
+   private static final long   STATS_REPORT_INTERVAL   = TimeUnit.SECONDS.toNanos(5);
 
    @Inject
    private IEventBroker        eventBroker;
@@ -108,6 +119,9 @@ public class ScriptExecutionEngine {
    @Inject
    private ScriptsManager      scriptsManager;
 
+   @Inject
+   private ScriptExecutionLog  executionLog;
+
    public void executeScript(Script script, final boolean simulation, boolean doShowPostLogs, int nbMessagesMax) {
       log.debug("executeScript '{}'. simulation? {}", script.getName(), simulation);
 
@@ -234,13 +248,7 @@ public class ScriptExecutionEngine {
 
                // Parse the template to replace variables names by global variables values
                JTBMessageTemplate t = runtimeStep.getJtbMessageTemplate();
-               String payload = t.getPayloadText();
-               if (payload != null) {
-                  for (Entry<String, String> v : globalVariablesValues.entrySet()) {
-                     payload = payload.replaceAll(variablesManager.buildVariableReplaceName(v.getKey()), v.getValue());
-                  }
-                  t.setPayloadText(payload);
-               }
+               t.setPayloadText(variablesManager.replaceDataFileVariables(globalVariablesValues, t.getPayloadText()));
 
                try {
 
@@ -261,12 +269,65 @@ public class ScriptExecutionEngine {
       }
    }
 
+   // Messages are posted in batches: the session is committed every COMMIT_INTERVAL messages, before a pause and at the end of
+   // the step, including when the script is cancelled or the max number of messages is reached
+   // On failure, the messages not committed yet are rolled back and removed from the number of messages posted
    private void executeRegular(SubMonitor subMonitor,
                                boolean simulation,
                                boolean doShowPostLogs,
                                int nbMessagesMax,
                                AtomicInteger nbMessagePost,
                                RuntimeStep runtimeStep) throws JMSException, InterruptedException, IOException {
+      // Concurrent workers use their own sessions
+      if (runtimeStep.isConcurrent()) {
+         executeConcurrent(subMonitor, simulation, doShowPostLogs, nbMessagesMax, nbMessagePost, runtimeStep);
+         return;
+      }
+
+      AtomicInteger nbUncommitted = new AtomicInteger(0);
+      if (simulation) {
+         executeRegular1(subMonitor, simulation, doShowPostLogs, nbMessagesMax, nbMessagePost, nbUncommitted, runtimeStep);
+         return;
+      }
+
+      JTBConnection jtbConnection = runtimeStep.getJtbConnection();
+      InterruptedException interrupted = null;
+      try {
+         try {
+            executeRegular1(subMonitor, simulation, doShowPostLogs, nbMessagesMax, nbMessagePost, nbUncommitted, runtimeStep);
+         } catch (InterruptedException e) {
+            interrupted = e;
+         }
+         jtbConnection.commit();
+      } catch (JMSException | IOException | RuntimeException e) {
+         try {
+            jtbConnection.rollback();
+         } catch (JMSException e2) {
+            log.warn("Exception occurred when rolling back the session. Ignoring: {}", e2.getMessage());
+         }
+         reportRollback(doShowPostLogs, nbMessagePost, nbUncommitted.get());
+         throw e;
+      }
+      if (interrupted != null) {
+         throw interrupted;
+      }
+   }
+
+   private void reportRollback(boolean doShowPostLogs, AtomicInteger nbMessagePost, int nbUncommitted) {
+      if (nbUncommitted > 0) {
+         log.warn("{} messages not committed have been rolled back", nbUncommitted);
+         nbMessagePost.addAndGet(-nbUncommitted);
+         updateLog(doShowPostLogs, ScriptStepResult.createStepRollback(nbUncommitted));
+      }
+   }
+
+   private void executeRegular1(SubMonitor subMonitor,
+                                boolean simulation,
+                                boolean doShowPostLogs,
+                                int nbMessagesMax,
+                                AtomicInteger nbMessagePost,
+                                AtomicInteger nbUncommitted,
+                                RuntimeStep runtimeStep) throws JMSException, InterruptedException, IOException {
       log.debug("executeRegular. Simulation? {}", simulation);
 
       Map<String, String> dataFileVariables = new HashMap<>();
@@ -285,8 +346,10 @@ public class ScriptExecutionEngine {
                             doShowPostLogs,
                             nbMessagesMax,
                             nbMessagePost,
+                            nbUncommitted,
                             runtimeStep,
                             jtbMessageTemplate,
+                            variablesManager.compileTemplate(jtbMessageTemplate.getPayloadText(), dataFileVariables.keySet()),
                             templateName,
                             dataFileVariables);
             return;
@@ -314,8 +377,10 @@ public class ScriptExecutionEngine {
                             doShowPostLogs,
                             nbMessagesMax,
                             nbMessagePost,
+                            nbUncommitted,
                             runtimeStep,
                             jtbMessageTemplate,
+                            variablesManager.compileTemplate(jtbMessageTemplate.getPayloadText(), dataFileVariables.keySet()),
                             templateName,
                             dataFileVariables);
          }
@@ -334,44 +399,45 @@ public class ScriptExecutionEngine {
          charset = Charset.forName(dataFile.getCharset());
       }
 
-      // Count nbOfLines for progressMonitor
-      int nbLines = 0;
-      try (BufferedReader reader = new BufferedReader(new FileReader(dataFile.getFileName()));) {
-         while (reader.readLine() != null)
-            nbLines++;
-      }
-      int nbTicks = nbLines > NB_TICKS_PER_STEP ? 1 : NB_TICKS_PER_STEP / nbLines;
-      log.debug("nbLines: {} nbTicksPerLine: {}", nbLines, nbTicks);
-
-      try (BufferedReader reader = Files.newBufferedReader(Paths.get(dataFile.getFileName()), charset);) {
-         String line = null;
-         while ((line = reader.readLine()) != null) {
+      // The payload is the same for all the lines, parse it only once
+      VariableTemplate payloadTemplate = variablesManager.compileTemplate(jtbMessageTemplate.getPayloadText(),
+                                                                          Arrays.asList(varNames));
+
+      // Progress is computed from the position in the file
+      int ticksDone = 0;
+      try (DataFileReader reader = new DataFileReader(Paths.get(dataFile.getFileName()),
+                                                      charset,
+                                                      dataFile.getDelimiter(),
+                                                      varNames.length,
+                                                      0);) {
+         while (reader.nextLine()) {
             dataFileVariables.clear();
 
-            // Parse and setup line Variables
-            String[] values = line.split(Pattern.quote(dataFile.getDelimiter()));
-            String value;
+            // Setup line Variables
+            String[] values = reader.getValues();
             for (int i = 0; i < varNames.length; i++) {
-               String varName = varNames[i];
-               if (i < values.length) {
-                  value = values[i];
-               } else {
-                  value = "";
-               }
-               dataFileVariables.put(varName, value);
+               dataFileVariables.put(varNames[i], values[i]);
             }
 
             // Execute Step
             executeRegular2(subMonitor,
-                            nbTicks,
+                            0,
                             simulation,
                             doShowPostLogs,
                             nbMessagesMax,
                             nbMessagePost,
+                            nbUncommitted,
                             runtimeStep,
                             jtbMessageTemplate,
+                            payloadTemplate,
                             templateName,
                             dataFileVariables);
+
+            int ticks = (int) (reader.getProgress() * NB_TICKS_PER_STEP);
+            if (ticks > ticksDone) {
+               subMonitor.worked(ticks - ticksDone);
+               ticksDone = ticks;
+            }
          }
       }
    }
@@ -382,8 +448,10 @@ public class ScriptExecutionEngine {
                                 boolean doShowPostLogs,
                                 int nbMessagesMax,
                                 AtomicInteger nbMessagePost,
+                                AtomicInteger nbUncommitted,
                                 RuntimeStep runtimeStep,
                                 JTBMessageTemplate t,
+                                VariableTemplate payloadTemplate,
                                 String templateName,
                                 Map<String, String> dataFileVariables) throws JMSException, InterruptedException {
 
@@ -391,20 +459,20 @@ public class ScriptExecutionEngine {
       JTBConnection jtbConnection = runtimeStep.getJtbConnection();
       JTBDestination jtbDestination = runtimeStep.getJtbDestination();
 
-      int nbTickWorkePerIteration = step.getIterations() > nbTicks ? 1 : nbTicks / step.getIterations();
+      // nbTicks = 0: progress is reported by the caller
+      int nbTickWorkePerIteration;
+      if (nbTicks == 0) {
+         nbTickWorkePerIteration = 0;
+      } else {
+         nbTickWorkePerIteration = step.getIterations() > nbTicks ? 1 : nbTicks / step.getIterations();
+      }
 
       for (int i = 0; i < step.getIterations(); i++) {
 
          JTBMessageTemplate jtbMessageTemplate = JTBMessageTemplate.deepClone(t);
 
-         // If we use a data file, replace the dataFileVariables
-         if (!(dataFileVariables.isEmpty())) {
-            jtbMessageTemplate.setPayloadText(variablesManager.replaceDataFileVariables(dataFileVariables,
-                                                                                        jtbMessageTemplate.getPayloadText()));
-         }
-
-         // Generate local variables for each iteration
-         jtbMessageTemplate.setPayloadText(variablesManager.replaceTemplateVariables(jtbMessageTemplate.getPayloadText()));
+         // Replace the dataFileVariables if we use a data file and generate local variables for each iteration
+         jtbMessageTemplate.setPayloadText(payloadTemplate.render(dataFileVariables));
 
          updateLog(doShowPostLogs, ScriptStepResult.createPostStart(jtbMessageTemplate, templateName));
 
@@ -412,7 +480,8 @@ public class ScriptExecutionEngine {
          if (!simulation) {
             Message m = jtbConnection.createJMSMessage(jtbMessageTemplate.getJtbMessageType());
             JTBMessage jtbMessage = jtbMessageTemplate.toJTBMessage(jtbDestination, m);
-            jtbDestination.getJtbConnection().sendMessage(jtbMessage);
+            jtbConnection.sendMessageNoCommit(jtbMessage, jtbDestination);
+            nbUncommitted.incrementAndGet();
          }
 
          updateLog(doShowPostLogs, ScriptStepResult.createPostSuccess());
@@ -422,6 +491,10 @@ public class ScriptExecutionEngine {
          if (nbMessagePost.get() >= nbMessagesMax) {
             throw new InterruptedException(MAX_MESSAGES_REACHED);
          }
+         if ((!simulation) && (nbMessagePost.get() % COMMIT_INTERVAL == 0)) {
+            jtbConnection.commit();
+            nbUncommitted.set(0);
+         }
 
          // Eventually pause after...
          Integer pause = step.getPauseSecsAfter();
@@ -429,6 +502,8 @@ public class ScriptExecutionEngine {
             updateLog(doShowPostLogs, ScriptStepResult.createStepPauseStart(pause));
 
             if (!simulation) {
+               jtbConnection.commit();
+               nbUncommitted.set(0);
                try {
                   TimeUnit.SECONDS.sleep(step.getPauseSecsAfter());
                } catch (InterruptedException e) {
@@ -446,6 +521,107 @@ public class ScriptExecutionEngine {
       }
    }
 
+   // Execute a step with concurrent workers, each one with its own JMS session and producer
+   // The step ends when its duration has expired or, if no duration is set, when "iterations" messages have been posted
+   // "pauseSecsAfter" is not used, the rate of messages is controlled by "messagesPerSecond"
+   private void executeConcurrent(SubMonitor subMonitor,
+                                  boolean simulation,
+                                  boolean doShowPostLogs,
+                                  int nbMessagesMax,
+                                  AtomicInteger nbMessagePost,
+                                  RuntimeStep runtimeStep) throws JMSException, InterruptedException {
+
+      ConcurrentStep cs = new ConcurrentStep(simulation, doShowPostLogs, nbMessagesMax, nbMessagePost, runtimeStep);
+      log.debug("executeConcurrent. Simulation? {} workers: {} rate: {} msg/s duration: {}s",
+                simulation,
+                cs.nbWorkers,
+                cs.step.getMessagesPerSecond(),
+                cs.step.getDurationSecs());
+
+      AtomicInteger workerNumber = new AtomicInteger(0);
+      ExecutorService executor = Executors.newFixedThreadPool(cs.nbWorkers, r -> {
+         Thread t = new Thread(r, "JTB Script Worker-" + workerNumber.incrementAndGet());
+         t.setDaemon(true);
+         return t;
+      });
+      CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+      for (int i = 0; i < cs.nbWorkers; i++) {
+         completionService.submit(cs::runWorker);
+      }
+
+      Throwable failure = null;
+      int nbRunning = cs.nbWorkers;
+      int ticksDone = 0;
+      long nextReport = System.nanoTime() + STATS_REPORT_INTERVAL;
+      try {
+         while (nbRunning > 0) {
+
+            // Wait for terminated workers
+            Future<Void> f = completionService.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+            while (f != null) {
+               nbRunning--;
+               try {
+                  f.get();
+               } catch (ExecutionException e) {
+                  if (failure == null) {
+                     failure = e.getCause();
+                     cs.stop();
+                  }
+               }
+               f = completionService.poll();
+            }
+
+            if (subMonitor.isCanceled()) {
+               cs.stop();
+            }
+
+            int ticks = (int) (cs.getProgress() * NB_TICKS_PER_STEP);
+            if (ticks > ticksDone) {
+               subMonitor.worked(ticks - ticksDone);
+               ticksDone = ticks;
+            }
+
+            // Live statistics
+            long now = System.nanoTime();
+            if ((nbRunning > 0) && (now >= nextReport)) {
+               updateLog(doShowPostLogs, ScriptStepResult.createStepStatistics(cs.stats.format()));
+               nextReport = now + STATS_REPORT_INTERVAL;
+            }
+         }
+      } finally {
+         cs.stop();
+         executor.shutdownNow();
+      }
+
+      updateLog(doShowPostLogs, ScriptStepResult.createStepStatistics(cs.stats.format()));
+
+      if (failure != null) {
+         if (failure instanceof JMSException) {
+            throw (JMSException) failure;
+         }
+         if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+         }
+         if (failure instanceof Error) {
+            throw (Error) failure;
+         }
+         if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+         }
+         JMSException e = new JMSException(failure.getMessage());
+         e.setLinkedException((Exception) failure);
+         throw e;
+      }
+
+      if (cs.maxReached) {
+         throw new InterruptedException(MAX_MESSAGES_REACHED);
+      }
+      if (subMonitor.isCanceled()) {
+         subMonitor.done();
+         throw new InterruptedException();
+      }
+   }
+
    private void executePause(SubMonitor subMonitor, boolean simulation, RuntimeStep runtimeStep) throws InterruptedException {
 
       Step step = runtimeStep.getStep();
@@ -474,8 +650,7 @@ public class ScriptExecutionEngine {
          log.debug(ssr.getData().toString());
       }
       if (ssr.isAlwaysShow() || doShowPostLogs) {
-         // eventBroker.post(Constants.EVENT_REFRESH_EXECUTION_LOG, ssr);
-         eventBroker.send(Constants.EVENT_REFRESH_EXECUTION_LOG, ssr);
+         executionLog.append(ssr);
       }
    }
 
@@ -525,6 +700,13 @@ public class ScriptExecutionEngine {
                throw new ScriptValidationException(ssr);
             }
             runtimeStep.setJtbMessageTemplate(t, tns.getSyntheticName());
+
+            // Concurrent workers post the template, data files and payload directories are read sequentially
+            if (runtimeStep.isConcurrent() && ((step.getVariablePrefix() != null) || (step.getPayloadDirectory() != null))) {
+               ScriptStepResult ssr = ScriptStepResult.createValidationConcurrencyFail(tns.getSyntheticName());
+               updateLog(doShowPostLogs, ssr);
+               throw new ScriptValidationException(ssr);
+            }
          }
 
          subMonitor.worked(1);
@@ -814,4 +996,171 @@ public class ScriptExecutionEngine {
          return nbMessagePost.get();
       }
    }
+
+   // State shared by the workers of a step executed concurrently
+   private final class ConcurrentStep {
+
+      private final boolean          simulation;
+      private final boolean          doShowPostLogs;
+      private final int              nbMessagesMax;
+      private final AtomicInteger    nbMessagePost;
+      private final RuntimeStep      runtimeStep;
+      private final Step             step;
+
+      private final int              nbWorkers;
+      private final long             startNanos;
+      private final long             durationNanos;
+      private final AtomicLong       remaining;
+      private final RateLimiter      rateLimiter;
+      private final VariableTemplate payloadTemplate;
+      private final StepStatistics   stats;
+
+      private volatile boolean       stopped;
+      private volatile boolean       maxReached;
+
+      ConcurrentStep(boolean simulation,
+                     boolean doShowPostLogs,
+                     int nbMessagesMax,
+                     AtomicInteger nbMessagePost,
+                     RuntimeStep runtimeStep) {
+         this.simulation = simulation;
+         this.doShowPostLogs = doShowPostLogs;
+         this.nbMessagesMax = nbMessagesMax;
+         this.nbMessagePost = nbMessagePost;
+         this.runtimeStep = runtimeStep;
+         this.step = runtimeStep.getStep();
+
+         Integer workers = step.getNbWorkers();
+         Integer durationSecs = step.getDurationSecs();
+         Integer messagesPerSecond = step.getMessagesPerSecond();
+
+         this.nbWorkers = workers == null ? 1 : Math.max(1, workers);
+         this.startNanos = System.nanoTime();
+         if ((durationSecs != null) && (durationSecs > 0)) {
+            this.durationNanos = TimeUnit.SECONDS.toNanos(durationSecs);
+            this.remaining = new AtomicLong(Long.MAX_VALUE);
+         } else {
+            this.durationNanos = 0;
+            this.remaining = new AtomicLong(step.getIterations());
+         }
+         if ((messagesPerSecond != null) && (messagesPerSecond > 0)) {
+            this.rateLimiter = new RateLimiter(messagesPerSecond);
+         } else {
+            this.rateLimiter = null;
+         }
+
+         JTBMessageTemplate t = runtimeStep.getJtbMessageTemplate();
+         this.payloadTemplate = variablesManager.compileTemplate(t.getPayloadText(), Collections.emptyList());
+         this.stats = new StepStatistics();
+      }
+
+      void stop() {
+         stopped = true;
+      }
+
+      // Between 0 and 1
+      double getProgress() {
+         if (durationNanos > 0) {
+            return Math.min(1d, (System.nanoTime() - startNanos) / (double) durationNanos);
+         }
+         return Math.min(1d, stats.getCount() / (double) Math.max(1, step.getIterations()));
+      }
+
+      Void runWorker() throws JMSException, InterruptedException {
+         JTBConnection jtbConnection = runtimeStep.getJtbConnection();
+         JTBDestination jtbDestination = runtimeStep.getJtbDestination();
+         JTBMessageTemplate t = runtimeStep.getJtbMessageTemplate();
+         String templateName = runtimeStep.getTemplateName();
+
+         Session session = null;
+         MessageProducer producer = null;
+         int nbUncommitted = 0;
+         try {
+            if (!simulation) {
+               session = jtbConnection.createSession();
+               producer = session.createProducer(jtbDestination.getJmsDestination());
+            }
+
+            while (acquire()) {
+
+               JTBMessageTemplate jtbMessageTemplate = JTBMessageTemplate.deepClone(t);
+               jtbMessageTemplate.setPayloadText(payloadTemplate.render());
+
+               updateLog(doShowPostLogs, ScriptStepResult.createPostStart(jtbMessageTemplate, templateName));
+
+               long start = System.nanoTime();
+               if (!simulation) {
+                  // Counted as posted by acquire()
+                  nbUncommitted++;
+                  Message m = jtbConnection.createJMSMessage(session, jtbMessageTemplate.getJtbMessageType());
+                  JTBMessage jtbMessage = jtbMessageTemplate.toJTBMessage(jtbDestination, m);
+                  jtbConnection.sendMessageNoCommit(session, producer, jtbMessage);
+                  if (nbUncommitted == COMMIT_INTERVAL) {
+                     session.commit();
+                     nbUncommitted = 0;
+                  }
+               }
+               stats.record(System.nanoTime() - start);
+
+               updateLog(doShowPostLogs, ScriptStepResult.createPostSuccess());
+            }
+
+            if (nbUncommitted > 0) {
+               session.commit();
+            }
+         } catch (JMSException | InterruptedException | RuntimeException e) {
+            // The messages not committed are rolled back when the session is closed
+            reportRollback(doShowPostLogs, nbMessagePost, nbUncommitted);
+            throw e;
+         } finally {
+            // Closing the session also closes the producer and rollbacks the messages not committed
+            if (session != null) {
+               try {
+                  session.close();
+               } catch (JMSException e) {
+                  log.warn("Exception occurred when closing session. Ignoring: {}", e.getMessage());
+               }
+            }
+         }
+         return null;
+      }
+
+      // Reserve the right to post one more message. Returns false when the step is over
+      private boolean acquire() throws InterruptedException {
+         if (isOver() || (remaining.decrementAndGet() < 0)) {
+            return false;
+         }
+         if (rateLimiter != null) {
+            rateLimiter.acquire();
+            if (isOver()) {
+               return false;
+            }
+         }
+         return reserveMessage();
+      }
+
+      // Count the message in the maximum number of messages of the script before it is posted, so that the workers never post
+      // more messages than allowed
+      private boolean reserveMessage() {
+         int n;
+         do {
+            n = nbMessagePost.get();
+            if (n >= nbMessagesMax) {
+               maxReached = true;
+               stop();
+               return false;
+            }
+         } while (!nbMessagePost.compareAndSet(n, n + 1));
+
+         if ((n + 1) >= nbMessagesMax) {
+            maxReached = true;
+            stop();
+         }
+         return true;
+      }
+
+      private boolean isOver() {
+         return stopped || ((durationNanos > 0) && ((System.nanoTime() - startNanos) >= durationNanos));
+      }
+   }
 }
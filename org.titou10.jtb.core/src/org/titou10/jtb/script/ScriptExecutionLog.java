@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.script;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.config.ConfigManager;
+import org.titou10.jtb.jms.model.JTBMessageTemplate;
+import org.titou10.jtb.util.Constants;
+
+/**
+ * Execution log of the scripts, shared by the ScriptExecutionEngine and the ScriptExecutionLogViewPart
+ *
+ * The engine and the workers of the steps executed concurrently append the results to a lock-free queue and never wait for the
+ * UI. The view drains the queue by batches a few times per second. When more than MAX_PENDING results are waiting (the view is
+ * closed or does not keep up), the oldest ones are written to a rolling file, as are the rows removed from the view when it holds
+ * too many of them. The file is written by a background Job
+ *
+ * @author Denis Forveille
+ *
+ */
+@Creatable
+@Singleton
+public class ScriptExecutionLog {
+
+   private static final Logger                           log               = LoggerFactory.getLogger(ScriptExecutionLog.class);
+
+   private static final int                              MAX_PENDING       = 10000;
+   private static final long                             SPILL_DELAY       = 500;                                  // ms
+   private static final String                           LOG_FILE_NAME     = "script-execution.log";
+   private static final long                             LOG_FILE_MAX_SIZE = 10 * 1024 * 1024;
+
+   @Inject
+   private ConfigManager                                 cm;
+
+   private final ConcurrentLinkedQueue<ScriptStepResult> pending           = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger                           nbPending         = new AtomicInteger(0);
+
+   private final ConcurrentLinkedQueue<ScriptStepResult> spilled           = new ConcurrentLinkedQueue<>();
+   private final AtomicBoolean                           spillScheduled    = new AtomicBoolean(false);
+   private final SpillJob                                spillJob          = new SpillJob();
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Append a result to the log. Never blocks
+   public void append(ScriptStepResult ssr) {
+      pending.offer(ssr);
+      if (nbPending.incrementAndGet() > MAX_PENDING) {
+         ScriptStepResult oldest = pending.poll();
+         if (oldest != null) {
+            nbPending.decrementAndGet();
+            spilled.offer(oldest);
+            scheduleSpill();
+         }
+      }
+   }
+
+   // Move at most max results appended since the last call to the list. Returns the number of results moved
+   public int drain(List<ScriptStepResult> results, int max) {
+      int n = 0;
+      ScriptStepResult ssr;
+      while ((n < max) && ((ssr = pending.poll()) != null)) {
+         nbPending.decrementAndGet();
+         results.add(ssr);
+         n++;
+      }
+      return n;
+   }
+
+   // Write results no longer displayed to the rolling file
+   public void spill(Collection<ScriptStepResult> results) {
+      if (results.isEmpty()) {
+         return;
+      }
+      spilled.addAll(results);
+      scheduleSpill();
+   }
+
+   // Discard the results not yet displayed
+   public void clear() {
+      while (pending.poll() != null) {
+         nbPending.decrementAndGet();
+      }
+   }
+
+   public Path getLogFile() {
+      return Paths.get(cm.getJtbProject().getLocation().toOSString(), Constants.JTB_LOGS_FOLDER_NAME, LOG_FILE_NAME);
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // Schedule one write of the file for all the results spilled in the next SPILL_DELAY ms
+   private void scheduleSpill() {
+      if (spillScheduled.compareAndSet(false, true)) {
+         spillJob.schedule(SPILL_DELAY);
+      }
+   }
+
+   private final class SpillJob extends Job {
+
+      private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+      SpillJob() {
+         super("Write script execution log");
+         this.setSystem(true);
+      }
+
+      @Override
+      protected IStatus run(IProgressMonitor monitor) {
+         spillScheduled.set(false);
+
+         Path file = getLogFile();
+         try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file) && (Files.size(file) > LOG_FILE_MAX_SIZE)) {
+               Files.move(file, file.resolveSibling(LOG_FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            int n = 0;
+            try (BufferedWriter w = Files.newBufferedWriter(file,
+                                                            StandardCharsets.UTF_8,
+                                                            StandardOpenOption.CREATE,
+                                                            StandardOpenOption.APPEND)) {
+               ScriptStepResult ssr;
+               while ((ssr = spilled.poll()) != null) {
+                  w.write(format(ssr));
+                  w.newLine();
+                  n++;
+               }
+            }
+            log.debug("{} script execution results written to '{}'", n, file);
+         } catch (IOException e) {
+            log.error("Exception occurred while writing the script execution log to '{}'", file, e);
+            spilled.clear();
+         }
+
+         return Status.OK_STATUS;
+      }
+
+      private String format(ScriptStepResult ssr) {
+         StringBuilder sb = new StringBuilder(128);
+         sb.append(sdf.format(ssr.getTs().getTime()));
+         sb.append(" ");
+         sb.append(ssr.getAction().name());
+         sb.append(" ");
+         sb.append(ssr.getReturnCode().name());
+         if (ssr.getData() instanceof JTBMessageTemplate) {
+            if (ssr.getTemplateName() != null) {
+               sb.append(" Generated from template '");
+               sb.append(ssr.getTemplateName());
+               sb.append("'");
+            }
+         } else {
+            if (ssr.getData() != null) {
+               sb.append(" ");
+               sb.append(ssr.getData());
+            }
+         }
+         return sb.toString();
+      }
+   }
+}
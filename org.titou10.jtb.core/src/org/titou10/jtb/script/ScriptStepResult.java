@@ -42,6 +42,8 @@ public final class ScriptStepResult {
    private static final String STEP_FAILED                     = "Step to destination %s failed : %s";
    private static final String STEP_PAUSE_RUNNING              = "Pause for %d seconds after post ...";
    private static final String STEP_PAUSE_SUCCESS              = "Pause terminated.";
+   private static final String STEP_STATISTICS                 = "Statistics: %s";
+   private static final String STEP_ROLLBACK                   = "%d messages not committed have been rolled back";
 
    private static final String PAUSE_RUNNING                   = "Pause for %d seconds ...";
    private static final String PAUSE_SUCCESS                   = "Pause terminated.";
@@ -65,6 +67,8 @@ public final class ScriptStepResult {
    private static final String VALIDATION_PAYLOAD_DIR_FAIL     = "Payload directory '%s' does not exist";
    private static final String VALIDATION_PAYLOAD_DIR2_FAIL    = "Payload directory '%s' does not contain any file";
    private static final String VALIDATION_VARIABLE_FAIL        = "Global Variable '%s' does not exist";
+   private static final String VALIDATION_CONCURRENCY_FAIL     = "Step with template '%s': concurrent workers, rate or duration "
+                                                                 + "can not be used with a data file or a payload directory";
 
    private static final String EXCEPTION_FAIL                  = "%s : %s";
 
@@ -244,6 +248,20 @@ public final class ScriptStepResult {
       return new ScriptStepResult(ExectionActionCode.STEP, ExectionReturnCode.SUCCESS, String.format(STEP_PAUSE_SUCCESS), true);
    }
 
+   public static ScriptStepResult createStepStatistics(String statistics) {
+      return new ScriptStepResult(ExectionActionCode.STEP,
+                                  ExectionReturnCode.START,
+                                  String.format(STEP_STATISTICS, statistics),
+                                  true);
+   }
+
+   public static ScriptStepResult createStepRollback(int nbMessages) {
+      return new ScriptStepResult(ExectionActionCode.STEP,
+                                  ExectionReturnCode.FAILED,
+                                  String.format(STEP_ROLLBACK, nbMessages),
+                                  true);
+   }
+
    // Post
 
    public static ScriptStepResult createPostStart(JTBMessageTemplate jtbMessageTemplate, String templateName) {
@@ -305,6 +323,13 @@ public final class ScriptStepResult {
                                   true);
    }
 
+   public static ScriptStepResult createValidationConcurrencyFail(String templateName) {
+      return new ScriptStepResult(ExectionActionCode.STEP,
+                                  ExectionReturnCode.FAILED,
+                                  String.format(VALIDATION_CONCURRENCY_FAIL, templateName),
+                                  true);
+   }
+
    public static ScriptStepResult createValidationDataFileFail(String dataFileName) {
       return new ScriptStepResult(ExectionActionCode.DATAFILE,
                                   ExectionReturnCode.FAILED,
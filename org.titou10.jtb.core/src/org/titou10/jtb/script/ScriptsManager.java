@@ -323,6 +323,9 @@ public class ScriptsManager {
          newStep.setKind(step.getKind());
          newStep.setIterations(step.getIterations());
          newStep.setPauseSecsAfter(step.getPauseSecsAfter());
+         newStep.setNbWorkers(step.getNbWorkers());
+         newStep.setMessagesPerSecond(step.getMessagesPerSecond());
+         newStep.setDurationSecs(step.getDurationSecs());
          steps.add(newStep);
       }
       newScript.getStep().addAll(steps);
@@ -343,6 +346,9 @@ public class ScriptsManager {
       step.setPayloadDirectory(baseStep.getPayloadDirectory());
       step.setIterations(baseStep.getIterations());
       step.setPauseSecsAfter(baseStep.getPauseSecsAfter());
+      step.setNbWorkers(baseStep.getNbWorkers());
+      step.setMessagesPerSecond(baseStep.getMessagesPerSecond());
+      step.setDurationSecs(baseStep.getDurationSecs());
 
       String templateDirectory = baseStep.getTemplateDirectory();
       step.setTemplateDirectory(templateDirectory == null || templateDirectory.isEmpty() ? Constants.JTB_TEMPLATE_CONFIG_FOLDER_NAME
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.script;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Throughput and latency statistics of a step executed by concurrent workers
+ *
+ * Latencies are recorded in microseconds in a log-linear histogram (32 sub-buckets per power of 2, ie a precision of ~3%), so
+ * recording is lock free and does not allocate
+ *
+ * @author Denis Forveille
+ *
+ */
+final class StepStatistics {
+
+   private static final String   FORMAT       = "%d messages in %.1fs: %.1f msg/s (current: %.1f msg/s). "
+                                               + "Latency (ms): p50=%.2f p90=%.2f p99=%.2f max=%.2f";
+
+   private static final int      LINEAR_LIMIT = 64;
+   private static final int      SUB_BUCKETS  = 32;
+   private static final int      SUB_BITS     = 5;
+   private static final int      NB_BUCKETS   = LINEAR_LIMIT + ((63 - 6) * SUB_BUCKETS);
+
+   private final long            startNanos;
+   private final AtomicLongArray buckets;
+   private final AtomicLong      count;
+   private final AtomicLong      maxMicros;
+
+   // Used by format() to compute the current rate. Only accessed by the thread that reports the statistics
+   private long                  lastCount;
+   private long                  lastNanos;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   StepStatistics() {
+      this.startNanos = System.nanoTime();
+      this.buckets = new AtomicLongArray(NB_BUCKETS);
+      this.count = new AtomicLong();
+      this.maxMicros = new AtomicLong();
+
+      this.lastCount = 0;
+      this.lastNanos = startNanos;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   void record(long latencyNanos) {
+      long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+      buckets.incrementAndGet(bucketIndex(micros));
+      count.incrementAndGet();
+      maxMicros.accumulateAndGet(micros, Math::max);
+   }
+
+   // Latency in ms of the given percentile (0-100)
+   double getPercentile(double percentile) {
+      long total = count.get();
+      if (total == 0) {
+         return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil((percentile / 100) * total));
+      long n = 0;
+      for (int i = 0; i < NB_BUCKETS; i++) {
+         n += buckets.get(i);
+         if (n >= rank) {
+            return Math.min(bucketValue(i), maxMicros.get()) / 1000d;
+         }
+      }
+      return maxMicros.get() / 1000d;
+   }
+
+   long getCount() {
+      return count.get();
+   }
+
+   String format() {
+      long now = System.nanoTime();
+      long total = count.get();
+
+      double elapsedSecs = (now - startNanos) / 1e9;
+      double rate = elapsedSecs > 0 ? total / elapsedSecs : 0;
+      double intervalSecs = (now - lastNanos) / 1e9;
+      double currentRate = intervalSecs > 0 ? (total - lastCount) / intervalSecs : 0;
+
+      lastCount = total;
+      lastNanos = now;
+
+      return String.format(FORMAT,
+                           total,
+                           elapsedSecs,
+                           rate,
+                           currentRate,
+                           getPercentile(50),
+                           getPercentile(90),
+                           getPercentile(99),
+                           maxMicros.get() / 1000d);
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private static int bucketIndex(long micros) {
+      if (micros < LINEAR_LIMIT) {
+         return (int) micros;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(micros);
+      return LINEAR_LIMIT + ((exponent - 6) * SUB_BUCKETS) + (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+   }
+
+   // Upper bound of the values of a bucket
+   private static long bucketValue(int index) {
+      if (index < LINEAR_LIMIT) {
+         return index;
+      }
+      int exponent = ((index - LINEAR_LIMIT) / SUB_BUCKETS) + 6;
+      long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+      return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+   }
+}
@@ -100,6 +100,9 @@ public class ScriptNewStepDialog extends Dialog {
    private Label                 lblPayloadDirectory;
    private Spinner               delaySpinner;
    private Spinner               iterationsSpinner;
+   private Spinner               nbWorkersSpinner;
+   private Spinner               rateSpinner;
+   private Spinner               durationSpinner;
 
    private Button                btnChooseDestination;
 
@@ -405,6 +408,68 @@ public class ScriptNewStepDialog extends Dialog {
       Label lbl8 = new Label(pauseComposite, SWT.NONE);
       lbl8.setText(" second(s) after this step");
 
+      // Concurrency
+
+      Label lbl9 = new Label(container, SWT.NONE);
+      lbl9.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 2, 1));
+      lbl9.setText("Post with");
+
+      Composite workersComposite = new Composite(container, SWT.NONE);
+      workersComposite.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 2, 1));
+      GridLayout glWorkersComposite = new GridLayout(2, false);
+      glWorkersComposite.marginWidth = 0;
+      workersComposite.setLayout(glWorkersComposite);
+
+      nbWorkersSpinner = new Spinner(workersComposite, SWT.BORDER);
+      nbWorkersSpinner.setMinimum(1);
+      nbWorkersSpinner.setMaximum(256);
+      nbWorkersSpinner.setPageIncrement(4);
+      nbWorkersSpinner.setTextLimit(3);
+      nbWorkersSpinner.setSelection(1);
+
+      Label lbl10 = new Label(workersComposite, SWT.NONE);
+      lbl10.setText(" concurrent producer(s), each one with its own JMS session");
+
+      Label lbl11 = new Label(container, SWT.NONE);
+      lbl11.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 2, 1));
+      lbl11.setText("Limit rate to");
+
+      Composite rateComposite = new Composite(container, SWT.NONE);
+      rateComposite.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 2, 1));
+      GridLayout glRateComposite = new GridLayout(2, false);
+      glRateComposite.marginWidth = 0;
+      rateComposite.setLayout(glRateComposite);
+
+      rateSpinner = new Spinner(rateComposite, SWT.BORDER);
+      rateSpinner.setMinimum(0);
+      rateSpinner.setMaximum(999999);
+      rateSpinner.setPageIncrement(100);
+      rateSpinner.setTextLimit(6);
+      rateSpinner.setSelection(0);
+
+      Label lbl12 = new Label(rateComposite, SWT.NONE);
+      lbl12.setText(" message(s) per second for all the producers (0 = no limit)");
+
+      Label lbl13 = new Label(container, SWT.NONE);
+      lbl13.setLayoutData(new GridData(SWT.RIGHT, SWT.CENTER, false, false, 2, 1));
+      lbl13.setText("Run for");
+
+      Composite durationComposite = new Composite(container, SWT.NONE);
+      durationComposite.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 2, 1));
+      GridLayout glDurationComposite = new GridLayout(2, false);
+      glDurationComposite.marginWidth = 0;
+      durationComposite.setLayout(glDurationComposite);
+
+      durationSpinner = new Spinner(durationComposite, SWT.BORDER);
+      durationSpinner.setMinimum(0);
+      durationSpinner.setMaximum(999999);
+      durationSpinner.setPageIncrement(60);
+      durationSpinner.setTextLimit(6);
+      durationSpinner.setSelection(0);
+
+      Label lbl14 = new Label(durationComposite, SWT.NONE);
+      lbl14.setText(" second(s) instead of repeating the step (0 = use the repeat count)");
+
       // Populate Fields
       tns = templatesManager.buildTemplateNameStructure(step.getTemplateDirectory(), step.getTemplateName());
       sessionName = step.getSessionName();
@@ -426,6 +491,15 @@ public class ScriptNewStepDialog extends Dialog {
       }
       delaySpinner.setSelection(delay);
       iterationsSpinner.setSelection(iterations);
+      if (step.getNbWorkers() != null) {
+         nbWorkersSpinner.setSelection(step.getNbWorkers());
+      }
+      if (step.getMessagesPerSecond() != null) {
+         rateSpinner.setSelection(step.getMessagesPerSecond());
+      }
+      if (step.getDurationSecs() != null) {
+         durationSpinner.setSelection(step.getDurationSecs());
+      }
 
       if (Utils.isNotEmpty(sessionName)) {
          btnChooseDestination.setEnabled(true);
@@ -476,6 +550,18 @@ public class ScriptNewStepDialog extends Dialog {
          }
       }
 
+      // Concurrent producers post the template as is
+      int nbWorkers = nbWorkersSpinner.getSelection();
+      int rate = rateSpinner.getSelection();
+      int duration = durationSpinner.getSelection();
+      boolean concurrent = (nbWorkers > 1) || (rate > 0) || (duration > 0);
+      if (concurrent && ((variablePrefix != null) || (payloadDirectory != null))) {
+         MessageDialog.openError(getShell(),
+                                 "Error",
+                                 "Concurrent producers, rate limit and duration can not be used with a data file or a payload directory");
+         return;
+      }
+
       // Populate fields
 
       step.setTemplateName(tns.getTemplateRelativeFileName());
@@ -486,6 +572,9 @@ public class ScriptNewStepDialog extends Dialog {
       step.setPayloadDirectory(payloadDirectory);
       step.setPauseSecsAfter(delaySpinner.getSelection());
       step.setIterations(iterationsSpinner.getSelection());
+      step.setNbWorkers(nbWorkers > 1 ? nbWorkers : null);
+      step.setMessagesPerSecond(rate > 0 ? rate : null);
+      step.setDurationSecs(duration > 0 ? duration : null);
 
       super.okPressed();
    }
@@ -47,7 +47,8 @@ import org.titou10.jtb.util.Constants;
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "step",
          propOrder = { "kind", "templateName", "templateDirectory", "sessionName", "destinationName", "variablePrefix",
-                       "payloadDirectory", "pauseSecsAfter", "iterations" })
+                       "payloadDirectory", "pauseSecsAfter", "iterations", "nbWorkers", "messagesPerSecond",
+                       "durationSecs" })
 public class Step {
 
    @XmlElement(required = true)
@@ -65,6 +66,9 @@ public class Step {
    protected String   payloadDirectory;
    protected Integer  pauseSecsAfter;
    protected int      iterations;
+   protected Integer  nbWorkers;
+   protected Integer  messagesPerSecond;
+   protected Integer  durationSecs;
 
    // Set templateDirectory for script < v4.1.0
    public String getTemplateDirectory() {
@@ -248,4 +252,28 @@ public class Step {
       this.iterations = value;
    }
 
+   public Integer getNbWorkers() {
+      return nbWorkers;
+   }
+
+   public void setNbWorkers(Integer value) {
+      this.nbWorkers = value;
+   }
+
+   public Integer getMessagesPerSecond() {
+      return messagesPerSecond;
+   }
+
+   public void setMessagesPerSecond(Integer value) {
+      this.messagesPerSecond = value;
+   }
+
+   public Integer getDurationSecs() {
+      return durationSecs;
+   }
+
+   public void setDurationSecs(Integer value) {
+      this.durationSecs = value;
+   }
+
 }
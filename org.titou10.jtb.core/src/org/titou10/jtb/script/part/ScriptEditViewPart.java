@@ -494,7 +494,18 @@ public class ScriptEditViewPart {
          public String getText(Object element) {
             Step s = (Step) element;
             if (s.getKind() == StepKind.REGULAR) {
-               return String.valueOf(s.getIterations());
+               StringBuilder sb = new StringBuilder(32);
+               if ((s.getDurationSecs() != null) && (s.getDurationSecs() > 0)) {
+                  sb.append(s.getDurationSecs());
+                  sb.append("s");
+               } else {
+                  sb.append(s.getIterations());
+               }
+               if ((s.getNbWorkers() != null) && (s.getNbWorkers() > 1)) {
+                  sb.append(" x");
+                  sb.append(s.getNbWorkers());
+               }
+               return sb.toString();
             } else {
                return "";
             }
@@ -32,12 +32,13 @@ import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.ui.di.UIEventTopic;
 import org.eclipse.e4.ui.services.EMenuService;
 import org.eclipse.jface.layout.TableColumnLayout;
-import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.ColumnPixelData;
 import org.eclipse.jface.viewers.ColumnWeightData;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.TableEditor;
@@ -57,6 +58,7 @@ import org.eclipse.wb.swt.SWTResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.jms.model.JTBMessageTemplate;
+import org.titou10.jtb.script.ScriptExecutionLog;
 import org.titou10.jtb.script.ScriptStepResult;
 import org.titou10.jtb.ui.dnd.DNDData;
 import org.titou10.jtb.util.Constants;
@@ -64,17 +66,23 @@ import org.titou10.jtb.util.Constants;
 /**
  * Display the execution log of a Script
  * 
+ * The results appended to the ScriptExecutionLog are drained by batches every FRAME_INTERVAL ms into a virtual table. When the
+ * table holds more than MAX_ROWS results, the oldest ones are removed from the table and written to the log file
+ * 
  * @author Denis Forveille
  * 
  */
 @SuppressWarnings("restriction")
 public class ScriptExecutionLogViewPart {
 
-   private static final Logger           log           = LoggerFactory.getLogger(ScriptExecutionLogViewPart.class);
+   private static final Logger           log            = LoggerFactory.getLogger(ScriptExecutionLogViewPart.class);
 
-   private static final SimpleDateFormat SDF           = new SimpleDateFormat("HH:mm:ss.SSS");
-   private static final int              BUTTON_HEIGHT = 20;                                                       // Hard Coded!!
-   private static final int              ROW_HEIGHT    = BUTTON_HEIGHT + 4;                                        // Hard Coded!!
+   private static final SimpleDateFormat SDF            = new SimpleDateFormat("HH:mm:ss.SSS");
+   private static final int              BUTTON_HEIGHT  = 20;                                                      // Hard Coded!!
+   private static final int              ROW_HEIGHT     = BUTTON_HEIGHT + 4;                                       // Hard Coded!!
+   private static final int              FRAME_INTERVAL = 100;                                                     // ms
+   private static final int              MAX_ROWS       = 5000;
+   private static final int              TRIM_ROWS      = 500;
 
    @Inject
    private ECommandService               commandService;
@@ -85,6 +93,9 @@ public class ScriptExecutionLogViewPart {
    @Inject
    private EMenuService                  menuService;
 
+   @Inject
+   private ScriptExecutionLog            executionLog;
+
    // JFaces components
    private Composite                     compositeLog;
    private TableViewer                   tableViewer;
@@ -93,36 +104,21 @@ public class ScriptExecutionLogViewPart {
    // Business Data
    private List<ScriptStepResult>        logExecution;
 
-   private Map<Object, Button>           buttons       = new HashMap<>();
-
-   @Inject
-   @Optional
-   public void getNotified(@UIEventTopic(Constants.EVENT_REFRESH_EXECUTION_LOG) ScriptStepResult ssr) {
-      log.debug("ScriptExecutionLogViewPart refresh");
+   private Map<Object, Button>           buttons        = new HashMap<>();
 
-      logExecution.add(ssr);
-      tableViewer.refresh();
-      tableViewer.reveal(ssr);
-      // compositeLog.layout();
-   }
+   private final Runnable                drainRunnable  = this::drain;
 
    @Inject
    @Optional
    public void clearLogs(@UIEventTopic(Constants.EVENT_CLEAR_EXECUTION_LOG) String noUse) {
       log.debug("clearLogs");
 
+      executionLog.clear();
       logExecution.clear();
 
-      // Dispose buttons
-      if ((logTable != null) && (logTable.getChildren() != null)) {
-         for (Control item : logTable.getChildren()) {
-            if ((item != null) && (!item.isDisposed())) {
-               item.dispose();
-            }
-         }
-      }
-      buttons = new HashMap<Object, Button>();
+      disposeButtons();
 
+      logTable.setItemCount(0);
       tableViewer.refresh();
       compositeLog.layout();
 
@@ -137,7 +133,7 @@ public class ScriptExecutionLogViewPart {
       TableColumnLayout tcl = new TableColumnLayout();
       compositeLog.setLayout(tcl);
 
-      tableViewer = new TableViewer(compositeLog, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI);
+      tableViewer = new TableViewer(compositeLog, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.VIRTUAL);
       logTable = tableViewer.getTable();
       logTable.setHeaderVisible(true);
       logTable.setLinesVisible(true);
@@ -214,13 +210,76 @@ public class ScriptExecutionLogViewPart {
       logTable.addListener(SWT.MeasureItem, (event) -> event.height = ROW_HEIGHT);
 
       logExecution = new ArrayList<>();
-      tableViewer.setContentProvider(ArrayContentProvider.getInstance());
+      tableViewer.setUseHashlookup(true);
+      tableViewer.setContentProvider(new LogContentProvider());
       tableViewer.setInput(logExecution);
+
+      logTable.getDisplay().timerExec(FRAME_INTERVAL, drainRunnable);
    }
 
    // ------
    // Helper
    // ------
+
+   // Append the results logged since the last call to the table, then schedule the next call
+   private void drain() {
+      if (logTable.isDisposed()) {
+         return;
+      }
+
+      List<ScriptStepResult> results = new ArrayList<>();
+      if (executionLog.drain(results, MAX_ROWS) > 0) {
+         logExecution.addAll(results);
+
+         if (logExecution.size() > MAX_ROWS) {
+            List<ScriptStepResult> oldest = logExecution.subList(0, logExecution.size() - MAX_ROWS + TRIM_ROWS);
+            log.debug("Removing {} results from the execution log", oldest.size());
+            executionLog.spill(new ArrayList<>(oldest));
+            oldest.clear();
+
+            // The rows have moved, the buttons are created again for the rows displayed
+            disposeButtons();
+            logTable.setItemCount(logExecution.size());
+            tableViewer.refresh();
+         } else {
+            logTable.setItemCount(logExecution.size());
+         }
+         logTable.showItem(logTable.getItem(logExecution.size() - 1));
+      }
+
+      logTable.getDisplay().timerExec(FRAME_INTERVAL, drainRunnable);
+   }
+
+   private void disposeButtons() {
+      if ((logTable != null) && (logTable.getChildren() != null)) {
+         for (Control item : logTable.getChildren()) {
+            if ((item != null) && (!item.isDisposed())) {
+               item.dispose();
+            }
+         }
+      }
+      buttons = new HashMap<Object, Button>();
+   }
+
+   private class LogContentProvider implements ILazyContentProvider {
+
+      @Override
+      public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+         // NOP
+      }
+
+      @Override
+      public void updateElement(int index) {
+         if (index < logExecution.size()) {
+            tableViewer.replace(logExecution.get(index), index);
+         }
+      }
+
+      @Override
+      public void dispose() {
+         // NOP
+      }
+   }
    private class LogDataColumnProvider extends ColumnLabelProvider {
 
       @Override
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015-2017 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.ui;
+
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.titou10.jtb.jms.model.JTBConnection;
+
+/**
+ * Scheduling rule that serializes the background work done with the JMS Session of a JTBConnection
+ * 
+ * The JMS Session of a JTBConnection can not be used by two threads simultaneously: a browse or a removal must be finished before
+ * the next one starts
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class JTBConnectionRule implements ISchedulingRule {
+
+   private final JTBConnection jtbConnection;
+
+   public JTBConnectionRule(JTBConnection jtbConnection) {
+      this.jtbConnection = jtbConnection;
+   }
+
+   @Override
+   public boolean contains(ISchedulingRule rule) {
+      return rule == this;
+   }
+
+   @Override
+   public boolean isConflicting(ISchedulingRule rule) {
+      return (rule instanceof JTBConnectionRule) && (((JTBConnectionRule) rule).jtbConnection == jtbConnection);
+   }
+}
@@ -76,6 +76,10 @@ public class NodeFolder<T extends NodeAbstract> extends NodeAbstract {
       childrenNodes.add(child);
    }
 
+   public boolean removeChild(T child) {
+      return childrenNodes.remove(child);
+   }
+
    @Override
    public String getName() {
       return folderName;
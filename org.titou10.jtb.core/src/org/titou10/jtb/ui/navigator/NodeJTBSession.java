@@ -16,9 +16,12 @@
  */
 package org.titou10.jtb.ui.navigator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import org.titou10.jtb.jms.model.DestinationsChange;
 import org.titou10.jtb.jms.model.JTBConnection;
 import org.titou10.jtb.jms.model.JTBQueue;
 import org.titou10.jtb.jms.model.JTBSession;
@@ -88,4 +91,48 @@ public class NodeJTBSession extends NodeAbstract {
       return true;
    }
 
+   // Apply the destinations added or removed by a rescan to the folders already built. Returns the folders that changed
+   @SuppressWarnings("unchecked")
+   public List<NodeFolder<?>> applyDestinationsChange(DestinationsChange change) {
+      List<NodeFolder<?>> changedFolders = new ArrayList<>(2);
+      if (folders == null) {
+         // Folders are built when the node is expanded
+         return changedFolders;
+      }
+
+      JTBConnection jtbConnection = change.getJtbConnection();
+      for (NodeFolder<?> folder : folders) {
+         boolean changed = false;
+         if (folder.getName().equals(Constants.NODE_FOLDER_QUEUES_NAME)) {
+            NodeFolder<NodeJTBQueue> folderQueues = (NodeFolder<NodeJTBQueue>) folder;
+            for (JTBQueue jtbQueue : change.getRemovedQueues()) {
+               changed |= folderQueues.removeChild(new NodeJTBQueue(jtbQueue, this));
+            }
+            SortedSet<JTBQueue> queuesToDisplay = jtbConnection.getJtbQueuesToDisplay();
+            for (JTBQueue jtbQueue : change.getAddedQueues()) {
+               if (queuesToDisplay.contains(jtbQueue)) {
+                  folderQueues.addChild(new NodeJTBQueue(jtbQueue, this));
+                  changed = true;
+               }
+            }
+         } else {
+            NodeFolder<NodeJTBTopic> folderTopics = (NodeFolder<NodeJTBTopic>) folder;
+            for (JTBTopic jtbTopic : change.getRemovedTopics()) {
+               changed |= folderTopics.removeChild(new NodeJTBTopic(jtbTopic, this));
+            }
+            SortedSet<JTBTopic> topicsToDisplay = jtbConnection.getJtbTopicsToDisplay();
+            for (JTBTopic jtbTopic : change.getAddedTopics()) {
+               if (topicsToDisplay.contains(jtbTopic)) {
+                  folderTopics.addChild(new NodeJTBTopic(jtbTopic, this));
+                  changed = true;
+               }
+            }
+         }
+         if (changed) {
+            changedFolders.add(folder);
+         }
+      }
+      return changedFolders;
+   }
+
 }
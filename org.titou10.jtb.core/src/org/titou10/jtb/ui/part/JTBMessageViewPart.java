@@ -34,8 +34,13 @@ import javax.jms.Message;
 import javax.jms.ObjectMessage;
 import javax.jms.TextMessage;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.e4.ui.di.UISynchronize;
 import org.eclipse.e4.ui.services.EMenuService;
 import org.eclipse.e4.ui.workbench.modeling.ESelectionService;
 import org.eclipse.jface.layout.TableColumnLayout;
@@ -95,8 +100,12 @@ public class JTBMessageViewPart {
 
    private static final String CR  = "\n";
 
+   @Inject
    private JTBStatusReporter   jtbStatusReporter;
 
+   @Inject
+   private UISynchronize       sync;
+
    private TabFolder           tabFolder;
    private TableViewer         tableJMSHeadersViewer;
    private TableViewer         tablePropertiesViewer;
@@ -317,8 +326,40 @@ public class JTBMessageViewPart {
       }
 
       // OK, time to populate the part
+      if (!jtbMessage.isPayloadReleased()) {
+         showMessage(jtbMessage, jtbMessage.getJmsMessage());
+         return;
+      }
+
+      // The payload is read again from the queue in background, to not block the UI thread
+      Job job = new Job("Read payload of message") {
+         @Override
+         protected IStatus run(IProgressMonitor monitor) {
+            try {
+               Message m = jtbMessage.getJmsMessageWithPayload();
+               sync.asyncExec(() -> {
+                  // Another message may have been selected meanwhile
+                  if ((currentJtbMessage == jtbMessage) && (!tabFolder.isDisposed())) {
+                     showMessage(jtbMessage, m);
+                  }
+               });
+            } catch (JMSException e) {
+               sync.asyncExec(() -> jtbStatusReporter.showError("Problem while reading the payload of the Message", e, ""));
+            }
+            return Status.OK_STATUS;
+         }
+      };
+      job.setSystem(true);
+      job.schedule();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private void showMessage(JTBMessage jtbMessage, Message m) {
       try {
-         populateFields(jtbMessage);
+         populateFields(jtbMessage, m);
 
          tableJMSHeadersViewer.getTable().deselectAll();
          tablePropertiesViewer.getTable().deselectAll();
@@ -326,17 +367,9 @@ public class JTBMessageViewPart {
       } catch (JMSException e) {
          jtbStatusReporter.showError("Problem while showing Message", e, "");
       }
-
    }
 
-   // -------
-   // Helpers
-   // -------
-
-   private void populateFields(JTBMessage jtbMessage) throws JMSException {
-
-      // Populate fields
-      Message m = jtbMessage.getJmsMessage();
+   private void populateFields(JTBMessage jtbMessage, Message m) throws JMSException {
 
       // JMS Headers
       Map<String, Object> headers = new LinkedHashMap<>();
@@ -55,6 +55,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.ConfigManager;
 import org.titou10.jtb.config.JTBPreferenceStore;
+import org.titou10.jtb.jms.model.DestinationsChange;
+import org.titou10.jtb.jms.model.JTBConnection;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBSession;
 import org.titou10.jtb.jms.model.JTBSessionClientType;
@@ -259,6 +261,23 @@ public class JTBSessionsBrowserViewPart {
       treeViewer.refresh(nodeJTBSession);
    }
 
+   @Inject
+   @Optional
+   @SuppressWarnings("unchecked")
+   // Destinations added or removed by a rescan: only refresh the folders of the session that changed
+   public void refreshSessionBrowserDestinations(@UIEventTopic(Constants.EVENT_DESTINATIONS_CHANGED) DestinationsChange change) {
+      log.debug("refreshSessionBrowserDestinations. {}", change);
+
+      NodeJTBSession nodeJTBSession = findNodeJTBSession((SortedSet<? extends NodeAbstract>) treeViewer.getInput(),
+                                                         change.getJtbConnection());
+      if (nodeJTBSession == null) {
+         return;
+      }
+      for (NodeFolder<?> folder : nodeJTBSession.applyDestinationsChange(change)) {
+         treeViewer.refresh(folder);
+      }
+   }
+
    @Inject
    @Optional
    @SuppressWarnings("unchecked")
@@ -334,6 +353,26 @@ public class JTBSessionsBrowserViewPart {
       return null;
    }
 
+   // Find the Node of the JTBSession that owns the JTBConnection
+   private NodeJTBSession findNodeJTBSession(SortedSet<? extends NodeAbstract> listNodesSession, JTBConnection jtbConnection) {
+      for (NodeAbstract nodeAbstract : listNodesSession) {
+         if (nodeAbstract instanceof NodeJTBSession) {
+            JTBSession jtbSession = (JTBSession) nodeAbstract.getBusinessObject();
+            if (jtbSession.getJTBConnection(JTBSessionClientType.GUI) == jtbConnection) {
+               return (NodeJTBSession) nodeAbstract;
+            }
+         } else {
+            if ((nodeAbstract instanceof NodeFolder) && (nodeAbstract.getChildren() != null)) {
+               NodeJTBSession n = findNodeJTBSession(nodeAbstract.getChildren(), jtbConnection);
+               if (n != null) {
+                  return n;
+               }
+            }
+         }
+      }
+      return null;
+   }
+
    // Find a Node given a JTBDestination or JTBSession
    private NodeAbstract findNodeDestination(SortedSet<? extends NodeAbstract> listNodesSession, JTBDestination jtbDestination) {
       for (NodeAbstract nodeAbstract : listNodesSession) {
@@ -0,0 +1,390 @@
+/*
+ * Copyright (C) 2015-2017 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.ui.part.content;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.JMSException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.wb.swt.SWTResourceManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.JTBConnection;
+import org.titou10.jtb.jms.model.JTBMessage;
+import org.titou10.jtb.jms.model.JTBQueue;
+import org.titou10.jtb.jms.model.MessageIndex;
+import org.titou10.jtb.jms.model.PooledJMSSession;
+import org.titou10.jtb.jms.model.QueueBrowseListener;
+import org.titou10.jtb.ui.JTBConnectionRule;
+import org.titou10.jtb.ui.JTBStatusReporter;
+import org.titou10.jtb.util.Constants;
+import org.titou10.jtb.util.Utils;
+
+/**
+ * Job that asynchronously browse the messages of a Queue and progressively fill the table of messages, page by page
+ *
+ * The values displayed in the columns are extracted from the messages by the Job, so the UI thread only appends the rows
+ *
+ * With a local MessageIndex that holds all the messages displayed, only the messages posted since the newest message of the index
+ * are read and appended, provided the depth of the queue shows that no message has been removed since. Otherwise the queue is
+ * browsed again and the index rebuilt
+ *
+ * @author Denis Forveille
+ *
+ */
+final class BrowseQueueJob extends Job {
+
+   private static final Logger          log       = LoggerFactory.getLogger(BrowseQueueJob.class);
+
+   private static final int             PAGE_SIZE = 100;
+
+   private final UISynchronize          sync;
+   private final JTBStatusReporter      jtbStatusReporter;
+
+   private final JTBQueue               jtbQueue;
+   private final TableViewer            tableViewer;
+   private final MessageContentProvider contentProvider;
+   private final CTabItem               tabItem;
+   private final List<JTBMessage>       messages;
+
+   private final int                    maxMessages;
+   private final String                 payloadSearchText;
+   private final String                 selectorsSearchText;
+   private final boolean                autoResizeColumns;
+   private final boolean                releasePayloads;
+   private final MessageIndex           messageIndex;
+   private final boolean                incremental;
+   private final int                    nbPreviousMessages;
+
+   private int                          nbMessagesDisplayed;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   BrowseQueueJob(UISynchronize sync,
+                  JTBStatusReporter jtbStatusReporter,
+                  JTBQueue jtbQueue,
+                  TableViewer tableViewer,
+                  MessageContentProvider contentProvider,
+                  CTabItem tabItem,
+                  List<JTBMessage> messages,
+                  int maxMessages,
+                  String payloadSearchText,
+                  String selectorsSearchText,
+                  boolean autoResizeColumns,
+                  boolean releasePayloads,
+                  MessageIndex messageIndex,
+                  boolean incremental) {
+      super("Browse messages of " + jtbQueue.getName());
+      this.setSystem(true);
+      this.setRule(new JTBConnectionRule(jtbQueue.getJtbConnection()));
+      this.sync = sync;
+      this.jtbStatusReporter = jtbStatusReporter;
+
+      this.jtbQueue = jtbQueue;
+      this.tableViewer = tableViewer;
+      this.contentProvider = contentProvider;
+      this.tabItem = tabItem;
+      this.messages = messages;
+
+      this.maxMessages = maxMessages;
+      this.payloadSearchText = payloadSearchText;
+      this.selectorsSearchText = selectorsSearchText;
+      this.autoResizeColumns = autoResizeColumns;
+      this.releasePayloads = releasePayloads;
+      this.messageIndex = messageIndex;
+      this.incremental = incremental;
+      this.nbPreviousMessages = incremental ? messages.size() : 0;
+
+      this.nbMessagesDisplayed = 0;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   @Override
+   protected IStatus run(IProgressMonitor monitor) {
+
+      JTBConnection jtbConnection = jtbQueue.getJtbConnection();
+
+      // The main session of the connection is used by the UI thread: the queue is browsed with a session of the pool
+      PooledJMSSession pooledSession = null;
+      boolean failed = true;
+      try {
+         pooledSession = jtbConnection.borrowSession();
+         IStatus status = browse(monitor, jtbConnection, pooledSession);
+         failed = false;
+         return status;
+      } catch (Throwable e) {
+         if (!monitor.isCanceled()) {
+            jtbStatusReporter.showError("Problem while browsing queue", Utils.getCause(e), "");
+         }
+         return Status.OK_STATUS;
+      } finally {
+         if (pooledSession != null) {
+            jtbConnection.returnSession(pooledSession, failed);
+         }
+      }
+   }
+
+   @Override
+   protected void canceling() {
+      log.debug("Canceling '{}'", getName());
+      super.canceling();
+   }
+
+   @Override
+   public boolean belongsTo(Object family) {
+      if (family instanceof String) {
+         return Constants.JTB_JOBS_FAMILY.equals(family);
+      }
+      return false;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private IStatus browse(IProgressMonitor monitor,
+                          JTBConnection jtbConnection,
+                          PooledJMSSession pooledSession) throws Exception {
+
+      int totalMessages;
+      String indexChanges = null;
+      Integer depth = jtbConnection.getQm().getQueueDepth(jtbConnection.getJmsConnection(), jtbQueue.getName());
+
+      if (incremental) {
+         List<JTBMessage> newMessages = readNewMessages(monitor, pooledSession, depth);
+         if (newMessages != null) {
+            contentProvider.getCache().computeValues(newMessages);
+            releasePayloads(newMessages);
+            nbMessagesDisplayed = nbPreviousMessages;
+            displayPage(monitor, newMessages);
+            messageIndex.addAll(newMessages);
+            messageIndex.save();
+            totalMessages = nbPreviousMessages + newMessages.size();
+            indexChanges = newMessages.size() + " new message(s) since previous browse";
+            return displayTotal(monitor, depth, totalMessages, indexChanges);
+         }
+         if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+         }
+
+         // The index can not be used: browse the whole queue again
+         log.debug("Messages of '{}' have been removed since previous browse. Browsing the whole queue", jtbQueue.getName());
+         sync.asyncExec(new Runnable() {
+            @Override
+            public void run() {
+               if (monitor.isCanceled() || tableViewer.getControl().isDisposed()) {
+                  return;
+               }
+               messages.clear();
+               contentProvider.refresh();
+            }
+         });
+      }
+
+      // Keep the messages to rebuild the index, only when the messages are not filtered
+      boolean indexed = (messageIndex != null) && payloadSearchText.isEmpty() && selectorsSearchText.isEmpty();
+      List<JTBMessage> browsedMessages = indexed ? new ArrayList<>(Math.min(256, maxMessages)) : null;
+
+      totalMessages = pooledSession.browseQueue(jtbQueue,
+                                                maxMessages,
+                                                payloadSearchText,
+                                                selectorsSearchText,
+                                                PAGE_SIZE,
+                                                new QueueBrowseListener() {
+
+                                                   @Override
+                                                   public boolean onMessages(List<JTBMessage> page) {
+                                                      if (monitor.isCanceled()) {
+                                                         return false;
+                                                      }
+                                                      contentProvider.getCache().computeValues(page);
+                                                      releasePayloads(page);
+                                                      if (browsedMessages != null) {
+                                                         browsedMessages.addAll(page);
+                                                      }
+                                                      displayPage(monitor, page);
+                                                      return true;
+                                                   }
+
+                                                   @Override
+                                                   public boolean isCanceled() {
+                                                      return monitor.isCanceled();
+                                                   }
+                                                });
+
+      if ((browsedMessages != null) && (!monitor.isCanceled())) {
+         boolean hadMessages = messageIndex.size() > 0;
+         int nbNew = messageIndex.countNew(browsedMessages);
+         int nbRemoved = messageIndex.rebuild(browsedMessages, totalMessages < maxMessages);
+         messageIndex.save();
+         if (hadMessages) {
+            indexChanges = nbNew + " new, " + nbRemoved + " removed message(s) since previous browse";
+         }
+      }
+
+      return displayTotal(monitor, depth, totalMessages, indexChanges);
+   }
+
+   // Read the messages posted since the newest message of the index. Returns null if the index can not be used
+   private List<JTBMessage> readNewMessages(IProgressMonitor monitor,
+                                            PooledJMSSession pooledSession,
+                                            Integer depth) throws JMSException {
+      if (depth == null) {
+         return null;
+      }
+
+      // Messages with the same timestamp as the newest message of the index are read again
+      List<JTBMessage> readMessages = new ArrayList<>();
+      String selector = "JMSTimestamp >= " + messageIndex.getNewestTimestamp();
+      pooledSession.browseQueue(jtbQueue, maxMessages, "", selector, PAGE_SIZE, new QueueBrowseListener() {
+
+         @Override
+         public boolean onMessages(List<JTBMessage> page) {
+            if (monitor.isCanceled()) {
+               return false;
+            }
+            readMessages.addAll(page);
+            return true;
+         }
+
+         @Override
+         public boolean isCanceled() {
+            return monitor.isCanceled();
+         }
+      });
+
+      if (monitor.isCanceled()) {
+         return null;
+      }
+
+      List<JTBMessage> newMessages = new ArrayList<>(readMessages.size());
+      for (JTBMessage jtbMessage : readMessages) {
+         if (!messageIndex.contains(jtbMessage.getJmsMessage().getJMSMessageID())) {
+            newMessages.add(jtbMessage);
+         }
+      }
+
+      // If messages have been removed from the queue, the depth is lower than the number of messages known
+      int nbMessages = messageIndex.size() + newMessages.size();
+      if ((depth.intValue() != nbMessages) || (nbMessages > maxMessages)) {
+         return null;
+      }
+      return newMessages;
+   }
+
+   private IStatus displayTotal(IProgressMonitor monitor, Integer depth, int totalMessages, String indexChanges) {
+      if (monitor.isCanceled()) {
+         log.debug("Browsing of '{}' has been canceled", jtbQueue.getName());
+         return Status.CANCEL_STATUS;
+      }
+
+      log.debug("Q Depth : {} Max : {} Nb msg displayed : {}", depth, maxMessages, totalMessages);
+
+      // Display # messages in tab title
+      sync.asyncExec(new Runnable() {
+         @Override
+         public void run() {
+            if (monitor.isCanceled() || tableViewer.getControl().isDisposed()) {
+               return;
+            }
+
+            StringBuilder sb = new StringBuilder(64);
+            sb.append(jtbQueue.getName());
+            sb.append(" (");
+            sb.append(totalMessages);
+            if (totalMessages >= maxMessages) {
+               if (depth != null) {
+                  sb.append(" / ");
+                  sb.append(depth);
+               } else {
+                  sb.append("+");
+               }
+            }
+            sb.append(")");
+            tabItem.setText(sb.toString());
+
+            if (totalMessages >= maxMessages) {
+               tabItem.setImage(SWTResourceManager.getImage(this.getClass(), "icons/error.png"));
+            } else {
+               if (payloadSearchText.isEmpty() && selectorsSearchText.isEmpty()) {
+                  tabItem.setImage(null);
+               } else {
+                  tabItem.setImage(SWTResourceManager.getImage(this.getClass(), "icons/filter.png"));
+               }
+            }
+
+            tabItem.setToolTipText(indexChanges);
+
+            if (autoResizeColumns) {
+               contentProvider.resizeColumns();
+            }
+         }
+      });
+
+      return Status.OK_STATUS;
+   }
+
+   // Append the page to the table without refreshing the rows already displayed
+   private void displayPage(IProgressMonitor monitor, List<JTBMessage> page) {
+      sync.asyncExec(new Runnable() {
+         @Override
+         public void run() {
+            // Ignore pages still in the UI queue for a browse that has been superseded
+            if (monitor.isCanceled()) {
+               return;
+            }
+            if (tableViewer.getControl().isDisposed()) {
+               cancel();
+               return;
+            }
+
+            messages.addAll(page);
+            contentProvider.add(page);
+
+            nbMessagesDisplayed += page.size();
+            tabItem.setText(jtbQueue.getName() + " (" + nbMessagesDisplayed + "..)");
+         }
+      });
+   }
+
+   // Keep only the headers and properties of the messages. The payloads are read again from the queue when needed
+   private void releasePayloads(List<JTBMessage> page) {
+      if (!releasePayloads) {
+         return;
+      }
+      for (JTBMessage jtbMessage : page) {
+         try {
+            jtbMessage.releasePayload();
+         } catch (JMSException e) {
+            log.warn("Exception occurred while releasing the payload of a message. Keeping it", e);
+         }
+      }
+   }
+}
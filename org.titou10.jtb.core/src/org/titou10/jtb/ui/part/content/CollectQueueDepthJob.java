@@ -16,12 +16,34 @@
  */
 package org.titou10.jtb.ui.part.content;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.JMSException;
+import javax.jms.Session;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -32,8 +54,10 @@ import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.swt.custom.CTabItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.titou10.jtb.config.JTBPreferenceStore;
 import org.titou10.jtb.jms.model.JTBConnection;
 import org.titou10.jtb.jms.model.JTBQueue;
+import org.titou10.jtb.jms.model.QueueDepthHistory;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.util.Constants;
 import org.titou10.jtb.util.Utils;
@@ -41,37 +65,64 @@ import org.titou10.jtb.util.Utils;
 /**
  * Job that asynchronously collect Queue Depth data
  * 
+ * The depth and first message timestamp of the queues are collected in parallel by a bounded pool of workers, each one with its
+ * own JMS session. There is only one worker if the Q Manager can not be called concurrently. When the Q Manager supports it, the
+ * depths of all the queues are first read in one call. The timestamp of the first message is computed from the age of the oldest
+ * message maintained by the Q Manager when available, otherwise the first message of the queue is browsed. Results are pushed to
+ * the table as they arrive
+ * 
+ * Each depth collected is added to the history of the queue. If set in the preferences, the samples are also appended to a file
+ * per session, read back on the first run of the job
+ * 
  * @author Denis Forveille
  *
  */
 public class CollectQueueDepthJob extends Job {
 
-   private static final Logger log = LoggerFactory.getLogger(CollectQueueDepthJob.class);
+   private static final Logger         log                = LoggerFactory.getLogger(CollectQueueDepthJob.class);
+
+   private static final long           POLL_DELAY         = 250L;                                             // 1/4 second
+   private static final long           HISTORY_MAX_SIZE   = 10 * 1024 * 1024;
+   private static final String         HISTORY_SEPARATOR  = ";";
+
+   private static final AtomicInteger  WORKER_NUMBER      = new AtomicInteger(0);
 
-   private final UISynchronize sync;
+   private final UISynchronize         sync;
+   private final JTBPreferenceStore    ps;
 
-   private final JTBConnection jtbConnection;
-   private final QManager      qm;
+   private final JTBConnection         jtbConnection;
+   private final QManager              qm;
 
-   private final TableViewer   tableViewer;
-   private final CTabItem      tabItem;
-   private final String        title;
+   private final TableViewer           tableViewer;
+   private final CTabItem              tabItem;
+   private final String                title;
+   private final Path                  historyFile;
 
-   private SortedSet<JTBQueue> jtbQueuesFiltered;
+   private SortedSet<JTBQueue>         jtbQueuesFiltered;
+   private boolean                     historyLoaded      = false;
+
+   // Timestamp of the samples of the current run
+   private volatile long               sampleTimestamp;
+
+   // Rows currently displayed, per queue name. Only accessed from the UI thread
+   private Map<String, QueueWithDepth> rows               = new HashMap<>();
 
    // ------------
    // Constructors
    // ------------
 
    public CollectQueueDepthJob(UISynchronize sync,
+                               JTBPreferenceStore ps,
                                String name,
                                JTBConnection jtbConnection,
                                TableViewer tableViewer,
                                CTabItem tabItem,
-                               String title) {
+                               String title,
+                               Path historyFile) {
       super(name);
       this.setSystem(true);
       this.sync = sync;
+      this.ps = ps;
 
       this.jtbConnection = jtbConnection;
       this.qm = jtbConnection.getQm();
@@ -79,6 +130,7 @@ public class CollectQueueDepthJob extends Job {
       this.tableViewer = tableViewer;
       this.tabItem = tabItem;
       this.title = title;
+      this.historyFile = historyFile;
    }
 
    // ---------------
@@ -96,21 +148,134 @@ public class CollectQueueDepthJob extends Job {
    @Override
    protected IStatus run(IProgressMonitor monitor) {
 
-      List<QueueWithDepth> list = new ArrayList<QueueWithDepth>(jtbConnection.getJtbQueues().size());
+      List<JTBQueue> jtbQueues = new ArrayList<>(jtbQueuesFiltered);
 
-      Date firstMessageTimestamp;
-      for (JTBQueue jtbQueue : jtbQueuesFiltered) {
+      // The queues are collected one at a time when the Q Manager can not be called concurrently
+      int nbThreads = qm.supportsConcurrentManagement() ? Math.max(1, ps.getInt(Constants.PREF_Q_DEPTH_NB_THREADS)) : 1;
+      long timeout = TimeUnit.SECONDS.toMillis(Math.max(1, ps.getInt(Constants.PREF_Q_DEPTH_TIMEOUT)));
 
-         try {
-            firstMessageTimestamp = jtbConnection.getFirstMessageTimestamp(jtbQueue);
-         } catch (JMSException e) {
-            firstMessageTimestamp = null;
-            log.error("JMSException occurred when calling jtbConnection.getFirstMessageTimestamp", e);
+      log.debug("Collecting depth of {} queues with {} workers, timeout {}ms", jtbQueues.size(), nbThreads, timeout);
+
+      boolean persistHistory = ps.getBoolean(Constants.PREF_Q_DEPTH_HISTORY_PERSIST);
+      if (persistHistory && !historyLoaded) {
+         loadHistory(jtbQueues);
+         historyLoaded = true;
+      }
+      sampleTimestamp = System.currentTimeMillis();
+
+      // Show the rows for the current list of queues, keeping the last known values until new ones are collected
+      sync.asyncExec(new Runnable() {
+         @Override
+         public void run() {
+            if (tableViewer.getControl().isDisposed()) {
+               cancel();
+               return;
+            }
+
+            Map<String, QueueWithDepth> newRows = new HashMap<>(jtbQueues.size());
+            for (JTBQueue jtbQueue : jtbQueues) {
+               QueueWithDepth qwd = rows.get(jtbQueue.getName());
+               newRows.put(jtbQueue.getName(), qwd == null ? new QueueWithDepth(jtbQueue, null, null) : qwd);
+            }
+            rows = newRows;
+            tableViewer.setInput(new ArrayList<>(rows.values()));
+         }
+      });
+
+      // Sessions created by the workers, reused from one queue to the next
+      ConcurrentLinkedQueue<Session> idleSessions = new ConcurrentLinkedQueue<>();
+      List<Session> allSessions = new ArrayList<>(nbThreads);
+
+      ExecutorService executor = Executors.newFixedThreadPool(nbThreads, r -> {
+         Thread t = new Thread(r, "JTB Queue Depth Worker-" + WORKER_NUMBER.incrementAndGet());
+         t.setDaemon(true);
+         return t;
+      });
+      CompletionService<QueueWithDepth> completionService = new ExecutorCompletionService<>(executor);
+
+      // Get the depths of all the queues in one call if the Q Manager supports it. Workers will only read the first message
+      Map<String, Integer> depths = null;
+      if (qm.supportsBulkQueueDepths()) {
+         List<String> queueNames = new ArrayList<>(jtbQueues.size());
+         for (JTBQueue jtbQueue : jtbQueues) {
+            queueNames.add(jtbQueue.getName());
          }
+         depths = qm.getQueueDepths(jtbConnection.getJmsConnection(), queueNames);
 
-         list.add(new QueueWithDepth(jtbQueue,
-                                     qm.getQueueDepth(jtbConnection.getJmsConnection(), jtbQueue.getName()),
-                                     firstMessageTimestamp));
+         List<QueueWithDepth> results = new ArrayList<>(jtbQueues.size());
+         for (JTBQueue jtbQueue : jtbQueues) {
+            QueueWithDepth qwd = new QueueWithDepth(jtbQueue, depths.get(jtbQueue.getName()), null);
+            results.add(qwd);
+         }
+         updateRows(results, false);
+      }
+
+      Map<Future<QueueWithDepth>, QueueDepthTask> pending = new HashMap<>(jtbQueues.size());
+      for (JTBQueue jtbQueue : jtbQueues) {
+         QueueDepthTask task = new QueueDepthTask(jtbQueue, depths, idleSessions, allSessions);
+         pending.put(completionService.submit(task), task);
+      }
+
+      try {
+         List<QueueWithDepth> results = new ArrayList<>();
+         while (!pending.isEmpty()) {
+            if (monitor.isCanceled()) {
+               log.debug("Queue Depth data collection canceled. {} queues not processed", pending.size());
+               return Status.CANCEL_STATUS;
+            }
+
+            // Wait for completed tasks
+            Future<QueueWithDepth> f = completionService.poll(POLL_DELAY, TimeUnit.MILLISECONDS);
+            while (f != null) {
+               QueueDepthTask task = pending.remove(f);
+               if ((task != null) && (!f.isCancelled())) {
+                  try {
+                     results.add(f.get());
+                  } catch (ExecutionException e) {
+                     log.error("Exception occurred when collecting depth of queue '{}'", task.jtbQueue.getName(), e.getCause());
+                     results.add(new QueueWithDepth(task.jtbQueue, task.getKnownDepth(), null));
+                  }
+               }
+               f = completionService.poll();
+            }
+
+            // Give up on the tasks that exceed the timeout
+            long now = System.currentTimeMillis();
+            for (Iterator<Map.Entry<Future<QueueWithDepth>, QueueDepthTask>> it = pending.entrySet().iterator(); it.hasNext();) {
+               Map.Entry<Future<QueueWithDepth>, QueueDepthTask> e = it.next();
+               QueueDepthTask task = e.getValue();
+               if ((task.startTime > 0) && ((now - task.startTime) > timeout)) {
+                  log.warn("Collecting depth of queue '{}' took more than {}ms. Giving up", task.jtbQueue.getName(), timeout);
+                  e.getKey().cancel(true);
+                  results.add(new QueueWithDepth(task.jtbQueue, task.getKnownDepth(), null));
+                  it.remove();
+               }
+            }
+
+            // Push partial results to the table
+            if (!results.isEmpty()) {
+               updateRows(results, true);
+               results = new ArrayList<>();
+            }
+         }
+      } catch (InterruptedException e) {
+         log.debug("Queue Depth data collection interrupted");
+         return Status.CANCEL_STATUS;
+      } finally {
+         executor.shutdownNow();
+         synchronized (allSessions) {
+            for (Session session : allSessions) {
+               try {
+                  session.close();
+               } catch (Exception e) {
+                  log.warn("Exception occurred when closing session. Ignoring: {}", e.getMessage());
+               }
+            }
+         }
+      }
+
+      if (persistHistory) {
+         saveHistory(jtbQueues);
       }
 
       // Update UI
@@ -122,7 +287,7 @@ public class CollectQueueDepthJob extends Job {
                return;
             }
 
-            tableViewer.setInput(list);
+            tableViewer.refresh();
             Utils.resizeTableViewerAll(tableViewer);
             tabItem.setText(title);
          }
@@ -145,4 +310,166 @@ public class CollectQueueDepthJob extends Job {
       return false;
    }
 
+   // -------
+   // Helpers
+   // -------
+
+   private void updateRows(List<QueueWithDepth> results, boolean withFirstMessageTimestamp) {
+      sync.asyncExec(new Runnable() {
+         @Override
+         public void run() {
+            if (tableViewer.getControl().isDisposed()) {
+               cancel();
+               return;
+            }
+
+            List<QueueWithDepth> updated = new ArrayList<>(results.size());
+            for (QueueWithDepth result : results) {
+               QueueWithDepth qwd = rows.get(result.jtbQueue.getName());
+               if (qwd != null) {
+                  qwd.depth = result.depth;
+                  if (withFirstMessageTimestamp) {
+                     qwd.firstMessageTimestamp = result.firstMessageTimestamp;
+                  }
+                  updated.add(qwd);
+               }
+            }
+            tableViewer.update(updated.toArray(), null);
+            tabItem.setText(title + " (Refreshing..)");
+         }
+      });
+   }
+
+   // Append the samples of the current run to the history file. The file is rolled when it becomes too large
+   private void saveHistory(List<JTBQueue> jtbQueues) {
+      try {
+         Files.createDirectories(historyFile.getParent());
+         if (Files.exists(historyFile) && (Files.size(historyFile) > HISTORY_MAX_SIZE)) {
+            Path rolled = historyFile.resolveSibling(historyFile.getFileName() + ".1");
+            Files.move(historyFile, rolled, StandardCopyOption.REPLACE_EXISTING);
+         }
+
+         try (BufferedWriter w = Files.newBufferedWriter(historyFile,
+                                                         StandardCharsets.UTF_8,
+                                                         StandardOpenOption.CREATE,
+                                                         StandardOpenOption.APPEND)) {
+            for (JTBQueue jtbQueue : jtbQueues) {
+               QueueDepthHistory history = jtbQueue.getDepthHistory();
+               if (history.getLastTimestamp() == sampleTimestamp) {
+                  w.write(sampleTimestamp + HISTORY_SEPARATOR + history.getLastDepth() + HISTORY_SEPARATOR + jtbQueue.getName());
+                  w.newLine();
+               }
+            }
+         }
+      } catch (IOException e) {
+         log.error("Exception occurred while writing the queue depth history to '{}'", historyFile, e);
+      }
+   }
+
+   // Feed the history of the queues with the samples saved in the history file. The histories keep only the most recent samples
+   private void loadHistory(List<JTBQueue> jtbQueues) {
+      if (!Files.exists(historyFile)) {
+         return;
+      }
+
+      Map<String, JTBQueue> queuesByName = new HashMap<>(jtbQueues.size());
+      for (JTBQueue jtbQueue : jtbQueues) {
+         queuesByName.put(jtbQueue.getName(), jtbQueue);
+      }
+
+      int n = 0;
+      try (BufferedReader r = Files.newBufferedReader(historyFile, StandardCharsets.UTF_8)) {
+         String line;
+         while ((line = r.readLine()) != null) {
+            // Queue names may contain the separator
+            String[] parts = line.split(HISTORY_SEPARATOR, 3);
+            if (parts.length != 3) {
+               continue;
+            }
+            JTBQueue jtbQueue = queuesByName.get(parts[2]);
+            if (jtbQueue != null) {
+               try {
+                  jtbQueue.getDepthHistory().add(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+                  n++;
+               } catch (NumberFormatException e) {
+                  log.warn("Invalid line in queue depth history: '{}'. Ignoring", line);
+               }
+            }
+         }
+      } catch (IOException e) {
+         log.error("Exception occurred while reading the queue depth history from '{}'", historyFile, e);
+      }
+      log.debug("{} queue depth samples read from '{}'", n, historyFile);
+   }
+
+   // Collect the data for one Queue
+   private final class QueueDepthTask implements Callable<QueueWithDepth> {
+
+      private final JTBQueue                       jtbQueue;
+      private final Map<String, Integer>           depths;
+      private final ConcurrentLinkedQueue<Session> idleSessions;
+      private final List<Session>                  allSessions;
+
+      private volatile long                        startTime;
+
+      QueueDepthTask(JTBQueue jtbQueue,
+                     Map<String, Integer> depths,
+                     ConcurrentLinkedQueue<Session> idleSessions,
+                     List<Session> allSessions) {
+         this.jtbQueue = jtbQueue;
+         this.depths = depths;
+         this.idleSessions = idleSessions;
+         this.allSessions = allSessions;
+      }
+
+      @Override
+      public QueueWithDepth call() throws Exception {
+         startTime = System.currentTimeMillis();
+
+         Integer depth;
+         if (depths == null) {
+            depth = qm.getQueueDepth(jtbConnection.getJmsConnection(), jtbQueue.getName());
+         } else {
+            depth = depths.get(jtbQueue.getName());
+         }
+
+         if (depth != null) {
+            jtbQueue.getDepthHistory().add(sampleTimestamp, depth);
+         }
+
+         // An empty queue has no first message
+         if ((depth != null) && (depth.intValue() == 0)) {
+            return new QueueWithDepth(jtbQueue, depth, null);
+         }
+
+         if (qm.supportsOldestMessageAge()) {
+            Long age = qm.getOldestMessageAge(jtbConnection.getJmsConnection(), jtbQueue.getName());
+            if (age != null) {
+               return new QueueWithDepth(jtbQueue, depth, new Date(System.currentTimeMillis() - age));
+            }
+         }
+
+         Date firstMessageTimestamp = null;
+         Session session = idleSessions.poll();
+         try {
+            if (session == null) {
+               session = jtbConnection.createSession();
+               synchronized (allSessions) {
+                  allSessions.add(session);
+               }
+            }
+            firstMessageTimestamp = jtbConnection.getFirstMessageTimestamp(session, jtbQueue);
+            idleSessions.add(session);
+         } catch (JMSException e) {
+            log.error("JMSException occurred when calling jtbConnection.getFirstMessageTimestamp", e);
+         }
+
+         return new QueueWithDepth(jtbQueue, depth, firstMessageTimestamp);
+      }
+
+      // Depth already collected in bulk, if any
+      Integer getKnownDepth() {
+         return depths == null ? null : depths.get(jtbQueue.getName());
+      }
+   }
 }
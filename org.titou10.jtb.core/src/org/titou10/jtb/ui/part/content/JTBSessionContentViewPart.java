@@ -17,6 +17,8 @@
 package org.titou10.jtb.ui.part.content;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -25,7 +27,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -59,13 +60,14 @@ import org.eclipse.jface.viewers.IDoubleClickListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.OwnerDrawLabelProvider;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
 import org.eclipse.swt.dnd.DND;
@@ -84,6 +86,7 @@ import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -103,10 +106,12 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.wb.swt.SWTResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.titou10.jtb.config.ConfigManager;
 import org.titou10.jtb.config.JTBPreferenceStore;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.cs.ColumnSystemHeader;
@@ -115,6 +120,7 @@ import org.titou10.jtb.cs.gen.Column;
 import org.titou10.jtb.cs.gen.ColumnKind;
 import org.titou10.jtb.cs.gen.ColumnsSet;
 import org.titou10.jtb.cs.gen.UserProperty;
+import org.titou10.jtb.jms.model.DestinationMatcher;
 import org.titou10.jtb.jms.model.JTBConnection;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBMessage;
@@ -122,11 +128,14 @@ import org.titou10.jtb.jms.model.JTBQueue;
 import org.titou10.jtb.jms.model.JTBSession;
 import org.titou10.jtb.jms.model.JTBSessionClientType;
 import org.titou10.jtb.jms.model.JTBTopic;
+import org.titou10.jtb.jms.model.MessageIndex;
+import org.titou10.jtb.jms.model.QueueDepthHistory;
 import org.titou10.jtb.sessiontype.SessionTypeManager;
 import org.titou10.jtb.template.TemplatesManager;
 import org.titou10.jtb.ui.JTBStatusReporter;
 import org.titou10.jtb.ui.dnd.TransferJTBMessage;
 import org.titou10.jtb.ui.dnd.TransferTemplate;
+import org.titou10.jtb.ui.part.content.RefreshScheduler.RefreshEntry;
 import org.titou10.jtb.ui.part.content.TabData.TabDataType;
 import org.titou10.jtb.util.Constants;
 import org.titou10.jtb.util.Utils;
@@ -146,8 +155,12 @@ public class JTBSessionContentViewPart {
    private static final int     DECORATOR_WIDTH          = 6;
    private static final int     DECORATOR_HEIGHT         = 16;
    private static final int     CLEAR_BUTTON_SIZE        = 28;
-   private static final String  PAYLOAD_SEARCH_TOOLTIP   = "Filter messages with payload containing this text";
+   private static final String  PAYLOAD_SEARCH_TOOLTIP   = "Filter messages with payload containing this text\n"
+                                                          + "Prefix with 'regex:', 'jsonpath:' ($.a.b[0]=value), 'xpath:'"
+                                                          + " or 'hex:' to search with a regular expression, a JSON path, an XPath"
+                                                          + " expression or a byte pattern";
    private static final String  SELECTORS_SEARCH_TOOLTIP = "Filter messages with JMS selectors";
+   private static final String  MESSAGES_FILTER_TOOLTIP  = "Show only the messages displayed with a column containing this text";
 
    @Inject
    private UISynchronize        sync;
@@ -182,6 +195,12 @@ public class JTBSessionContentViewPart {
    @Inject
    private SessionTypeManager   sessionTypeManager;
 
+   @Inject
+   private ConfigManager        cm;
+
+   @Inject
+   private RefreshScheduler     refreshScheduler;
+
    private String               mySessionName;
    private String               currentCTabItemName;
    private SessionDef           sessionDef;
@@ -190,8 +209,6 @@ public class JTBSessionContentViewPart {
 
    private CTabFolder           tabFolder;
 
-   private Integer              nbMessage                = 0;
-
    private IEclipseContext      windowContext;
 
    // Create the TabFolder
@@ -239,6 +256,7 @@ public class JTBSessionContentViewPart {
             td.tableViewer.getTable().setFocus();
 
             log.debug("CTabItem got focus: {}", td.type);
+            updateAutoRefreshVisibility();
             // log.debug("CTabItem got focus: {}",td..);
 
             if (td.type == TabDataType.JTBDESTINATION) {
@@ -266,6 +284,16 @@ public class JTBSessionContentViewPart {
       }));
    }
 
+   // Tabs not visible are refreshed less often
+   private void updateAutoRefreshVisibility() {
+      CTabItem selectedTab = tabFolder.getSelection();
+      for (TabData td : mapTabData.values()) {
+         if (td.autoRefresh != null) {
+            refreshScheduler.setVisible(td.autoRefresh, td.tabItem == selectedTab);
+         }
+      }
+   }
+
    private void addContextMenu() {
 
       Menu contextMenu = new Menu(tabFolder);
@@ -599,6 +627,9 @@ public class JTBSessionContentViewPart {
             selectorsSearchTextCombo.setText("");
          }));
 
+         // Filter on the messages displayed
+         createMessagesFilter(searchBoxesComposite, td);
+
          // Refresh Button
          final Button btnRefresh = new Button(leftComposite, SWT.NONE);
          btnRefresh.setImage(SWTResourceManager.getImage(this.getClass(), "icons/arrow_refresh.png"));
@@ -622,17 +653,9 @@ public class JTBSessionContentViewPart {
             final CTabItem selectedTab = tabFolder.getSelection();
 
             if (selectedTab != null) {
-               AutoRefreshJob job = td.autoRefreshJob;
-               log.debug("job name={} state={}  auto refresh={}", job.getName(), job.getState(), td.autoRefreshActive);
-               if (job.getState() == Job.RUNNING) {
-                  job.cancel();
-                  try {
-                     if (!job.cancel()) {
-                        job.join();
-                     }
-                  } catch (InterruptedException ex) {
-                     log.warn("InterruptedException occurred", ex);
-                  }
+               log.debug("auto refresh={} active={}", td.autoRefresh, td.autoRefreshActive);
+               if (td.autoRefreshActive) {
+                  refreshScheduler.stop(td.autoRefresh);
                   td.autoRefreshActive = false;
                   btnAutoRefresh.setToolTipText("Set auto refresh");
                   btnAutoRefresh.setSelection(false);
@@ -647,9 +670,8 @@ public class JTBSessionContentViewPart {
                      btnAutoRefresh.setSelection(false);
                      return;
                   }
-                  job.setDelay(Long.valueOf(popup.getDelay()));
                   td.autoRefreshActive = true;
-                  job.schedule();
+                  refreshScheduler.start(td.autoRefresh, popup.getDelay(), selectedTab == td.tabItem);
                   btnAutoRefresh.setSelection(true);
                   btnAutoRefresh.setToolTipText("Refreshing every " + popup.getDelay() + " seconds");
                }
@@ -712,10 +734,11 @@ public class JTBSessionContentViewPart {
          // -------------------
          // Table with Messages
          // -------------------
-         final TableViewer tableViewer = new TableViewer(composite, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI);
+         final TableViewer tableViewer = new TableViewer(composite, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.VIRTUAL);
+         final MessageContentProvider contentProvider = new MessageContentProvider(new MessageRowCache(csManager, cs));
 
          // Create Columns
-         List<TableViewerColumn> cols = createColumns(tableViewer, true, cs);
+         List<TableViewerColumn> cols = createColumns(tableViewer, contentProvider, true, cs);
 
          Table table = tableViewer.getTable();
          table.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 3, 1));
@@ -777,10 +800,7 @@ public class JTBSessionContentViewPart {
             }
 
             if (e.keyCode == 'a' && (e.stateMask & SWT.MODIFIER_MASK) == SWT.CTRL) {
-               @SuppressWarnings("unchecked")
-               List<JTBMessage> messages = (List<JTBMessage>) tableViewer.getInput();
-               IStructuredSelection selection = new StructuredSelection(messages);
-               tableViewer.setSelection(selection);
+               selectAllMessages(td);
                return;
             }
 
@@ -796,12 +816,13 @@ public class JTBSessionContentViewPart {
             }
          }));
 
-         // Create periodic refresh Job
-         AutoRefreshJob job = new AutoRefreshJob(sync,
-                                                 eventBroker,
-                                                 "Auto refresh job. Messages for " + jtbQueueName,
-                                                 ps.getInt(Constants.PREF_AUTO_REFRESH_DELAY),
-                                                 jtbQueue);
+         // Create periodic refresh. Done by the shared scheduler with the other tabs of the session
+         RefreshEntry autoRefresh = refreshScheduler.createRefresh("Messages for " + jtbQueueName,
+                                                                   jtbQueue.getJtbConnection(),
+                                                                   () -> {
+                                                                      refreshQueueMessageBrowser(shell, jtbQueue);
+                                                                      return td.browseQueueJob;
+                                                                   });
 
          // Intercept closing/hiding CTabItem : Remove the CTabItem for all the lists and cancel running job when closed
          tabItemQueue.addDisposeListener(new DisposeListener() {
@@ -809,15 +830,17 @@ public class JTBSessionContentViewPart {
             @Override
             public void widgetDisposed(DisposeEvent event) {
                log.debug("dispose CTabItem for Queue '{}'", jtbQueueName);
-               AutoRefreshJob job = td.autoRefreshJob;
-               job.cancel();
+               refreshScheduler.stop(td.autoRefresh);
+               if (td.browseQueueJob != null) {
+                  td.browseQueueJob.cancel();
+               }
 
                mapTabData.remove(computeCTabItemName(jtbQueue));
             }
          });
 
          // Kind of content
-         tableViewer.setContentProvider(ArrayContentProvider.getInstance());
+         tableViewer.setContentProvider(contentProvider);
 
          int maxMessages = ps.getInt(Constants.PREF_MAX_MESSAGES);
          spinnerMaxMessages.setSelection(maxMessages);
@@ -833,7 +856,8 @@ public class JTBSessionContentViewPart {
 
          td.tabItem = tabItemQueue;
          td.tableViewer = tableViewer;
-         td.autoRefreshJob = job;
+         td.contentProvider = contentProvider;
+         td.autoRefresh = autoRefresh;
          td.autoRefreshActive = false; // Auto refresh = false on creation
          td.payloadSearchText = payloadSearchTextCombo;
          td.payloadSearchItemsHistory = new ArrayList<String>();
@@ -842,9 +866,13 @@ public class JTBSessionContentViewPart {
          td.maxMessages = maxMessages;
          td.tableViewerColumns = cols;
          td.columnsSet = cs;
+         if (ps.getBoolean(Constants.PREF_MESSAGE_INDEX)) {
+            td.messageIndex = new MessageIndex(buildMessageIndexPath(jtbQueue));
+         }
 
          tabItemQueue.setData(td);
          mapTabData.put(currentCTabItemName, td);
+         updateAutoRefreshVisibility();
       }
 
       TabData td = mapTabData.get(computeCTabItemName(jtbQueue));
@@ -856,10 +884,6 @@ public class JTBSessionContentViewPart {
                        td.payloadSearchItemsHistory,
                        td.selectorsSearchTextCombo,
                        td.selectorsSearchItemsHistory);
-
-      if (ps.getBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER)) {
-         Utils.resizeTableViewer(td.tableViewer);
-      }
    }
 
    private void loadQueueContent(final JTBQueue jtbQueue,
@@ -889,62 +913,54 @@ public class JTBSessionContentViewPart {
          selectorsSearchTextCombo.select(0);
       }
 
-      // G
-      BusyIndicator.showWhile(Display.getCurrent(), new Runnable() {
-         @Override
-         public void run() {
-            TabData td = mapTabData.get(computeCTabItemName(jtbQueue));
-
-            int maxMessages = td.maxMessages == 0 ? Integer.MAX_VALUE : td.maxMessages;
-
-            JTBConnection jtbConnection = jtbQueue.getJtbConnection();
-            Integer depth = jtbConnection.getQm().getQueueDepth(jtbConnection.getJmsConnection(), jtbQueue.getName());
+      TabData td = mapTabData.get(computeCTabItemName(jtbQueue));
 
-            nbMessage = 0;
+      // Cancel the browsing still in progress, if any
+      if (td.browseQueueJob != null) {
+         td.browseQueueJob.cancel();
+      }
 
-            try {
-               List<JTBMessage> messages = new ArrayList<>(256);
-               messages = jtbQueue.getJtbConnection().browseQueue(jtbQueue, maxMessages, payloadSearchText, selectorsSearchText);
-
-               // Display # messages in tab title
-
-               Integer totalMessages = messages.size();
-               log.debug("Q Depth : {} Max : {} Nb msg to display : {}", depth, maxMessages, totalMessages);
-
-               StringBuilder sb = new StringBuilder(64);
-               sb.append(jtbQueue.getName());
-               sb.append(" (");
-               sb.append(totalMessages);
-               if (totalMessages >= maxMessages) {
-                  if (depth != null) {
-                     sb.append(" / ");
-                     sb.append(depth);
-                  } else {
-                     sb.append("+");
-                  }
-               }
-               sb.append(")");
-               CTabItem tabItem = td.tabItem;
-               tabItem.setText(sb.toString());
+      int maxMessages = td.maxMessages == 0 ? Integer.MAX_VALUE : td.maxMessages;
 
-               if (totalMessages >= maxMessages) {
-                  tabItem.setImage(SWTResourceManager.getImage(this.getClass(), "icons/error.png"));
-               } else {
-                  if (payloadSearchText.isEmpty() && selectorsSearchText.isEmpty()) {
-                     tabItem.setImage(null);
-                  } else {
-                     tabItem.setImage(SWTResourceManager.getImage(this.getClass(), "icons/filter.png"));
-                  }
-               }
+      // If the local index holds all the messages displayed, only the messages posted since the previous browse are read
+      @SuppressWarnings("unchecked")
+      List<JTBMessage> messages = (List<JTBMessage>) tableViewer.getInput();
+      boolean incremental = (td.messageIndex != null) && (messages != null) && payloadSearchText.isEmpty()
+                            && selectorsSearchText.isEmpty() && td.messageIndex.isComplete()
+                            && (messages.size() == td.messageIndex.size());
 
-               tableViewer.setInput(messages);
+      // Messages are browsed in background and added to the table as they are read
+      if (!incremental) {
+         messages = new ArrayList<>(Math.min(256, maxMessages));
+         tableViewer.setInput(messages);
+      }
+      td.tabItem.setText(jtbQueue.getName() + " (Browsing..)");
+
+      td.browseQueueJob = new BrowseQueueJob(sync,
+                                             jtbStatusReporter,
+                                             jtbQueue,
+                                             tableViewer,
+                                             td.contentProvider,
+                                             td.tabItem,
+                                             messages,
+                                             maxMessages,
+                                             payloadSearchText,
+                                             selectorsSearchText,
+                                             ps.getBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER),
+                                             ps.getBoolean(Constants.PREF_BROWSE_RELEASE_PAYLOADS),
+                                             td.messageIndex,
+                                             incremental);
+      td.browseQueueJob.schedule();
+   }
 
-            } catch (Throwable e) {
-               jtbStatusReporter.showError("Problem while browsing queue", Utils.getCause(e), "");
-               return;
-            }
-         }
-      });
+   // <workspace>/.index/<session name>/<queue name>-<hash>.idx. The hash distinguishes names that differ only by characters
+   // that are not allowed in file names
+   private Path buildMessageIndexPath(JTBQueue jtbQueue) {
+      String queueName = jtbQueue.getName();
+      String fileName = queueName.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(queueName.hashCode())
+                        + Constants.JTB_INDEX_FILE_EXTENSION;
+      String sessionName = jtbQueue.getJtbConnection().getSessionName().replaceAll("[^A-Za-z0-9._-]", "_");
+      return Paths.get(cm.getJtbProject().getLocation().toOSString(), Constants.JTB_INDEX_FOLDER_NAME, sessionName, fileName);
    }
 
    @SuppressWarnings("unchecked")
@@ -967,7 +983,7 @@ public class JTBSessionContentViewPart {
 
       TabData td = mapTabData.get(computeCTabItemName(jtbTopic));
       td.topicMessages.clear();
-      td.tableViewer.refresh();
+      td.contentProvider.refresh();
    }
 
    // Called whenever a Topic is browsed
@@ -999,7 +1015,7 @@ public class JTBSessionContentViewPart {
          // -----------
          // Search Line
          // -----------
-         GridLayout glSearch = new GridLayout(5, false);
+         GridLayout glSearch = new GridLayout(8, false);
          glSearch.marginWidth = 0;
          glSearch.marginHeight = 0;
 
@@ -1024,6 +1040,9 @@ public class JTBSessionContentViewPart {
             selectorsSearchText.setText("");
          }));
 
+         // Filter on the messages displayed
+         createMessagesFilter(leftComposite, td);
+
          // Stop/Start Subscription
          final Button btnStopStartSub = new Button(leftComposite, SWT.TOGGLE);
          btnStopStartSub.setImage(SWTResourceManager.getImage(this.getClass(), "icons/topics/pause-16.png"));
@@ -1077,7 +1096,7 @@ public class JTBSessionContentViewPart {
                   while (td.topicMessages.size() > td.maxMessages) {
                      td.topicMessages.pollLast();
                   }
-                  td.tableViewer.refresh();
+                  td.contentProvider.refresh();
                }
             }
          });
@@ -1107,10 +1126,12 @@ public class JTBSessionContentViewPart {
          // -------------------
          // Table with Messages
          // -------------------
-         final TableViewer tableViewer = new TableViewer(composite, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI);
+         final TableViewer tableViewer = new TableViewer(composite, SWT.BORDER | SWT.FULL_SELECTION | SWT.MULTI | SWT.VIRTUAL);
+         final MessageContentProvider contentProvider = new MessageContentProvider(new MessageRowCache(csManager, cs));
+         td.contentProvider = contentProvider;
 
          // Create Columns
-         td.tableViewerColumns = createColumns(tableViewer, false, cs);
+         td.tableViewerColumns = createColumns(tableViewer, contentProvider, false, cs);
 
          Table table = tableViewer.getTable();
          table.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 3, 1));
@@ -1119,7 +1140,7 @@ public class JTBSessionContentViewPart {
          tabItemTopic.setControl(composite);
 
          // Manage Content
-         tableViewer.setContentProvider(ArrayContentProvider.getInstance());
+         tableViewer.setContentProvider(contentProvider);
          final Deque<JTBMessage> messages = new ArrayDeque<>();
          tableViewer.setInput(messages);
          spinnerMaxMessages.setSelection(ps.getInt(Constants.PREF_MAX_MESSAGES_TOPIC));
@@ -1170,9 +1191,7 @@ public class JTBSessionContentViewPart {
          // Keyboard Shortcuts on the Message table
          table.addKeyListener(KeyListener.keyReleasedAdapter(e -> {
             if (e.keyCode == 'a' && (e.stateMask & SWT.MODIFIER_MASK) == SWT.CTRL) {
-               // Selection MUST be a List<>
-               IStructuredSelection selection = new StructuredSelection(new ArrayList<JTBMessage>(td.topicMessages));
-               tableViewer.setSelection(selection);
+               selectAllMessages(td);
                return;
             }
 
@@ -1185,6 +1204,7 @@ public class JTBSessionContentViewPart {
                for (JTBMessage m : (List<JTBMessage>) selection.toList()) {
                   td.topicMessages.remove(m);
                }
+               contentProvider.refresh();
                return;
             }
          }));
@@ -1280,6 +1300,7 @@ public class JTBSessionContentViewPart {
 
          tabItemTopic.setData(td);
          mapTabData.put(currentCTabItemName, td);
+         updateAutoRefreshVisibility();
 
          // Create Subscriber
          try {
@@ -1299,10 +1320,10 @@ public class JTBSessionContentViewPart {
       }
 
       TabData td = mapTabData.get(computeCTabItemName(jtbTopic));
-      td.tableViewer.refresh();
+      td.contentProvider.refresh();
 
       if (ps.getBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER)) {
-         Utils.resizeTableViewer(td.tableViewer);
+         td.contentProvider.resizeColumns();
       }
    }
 
@@ -1317,6 +1338,7 @@ public class JTBSessionContentViewPart {
                                            jtbTopic,
                                            messages,
                                            tableViewer,
+                                           (MessageContentProvider) tableViewer.getContentProvider(),
                                            tabItemTopic,
                                            maxMessages,
                                            !Utils.isEmpty(selector));
@@ -1421,17 +1443,9 @@ public class JTBSessionContentViewPart {
             final CTabItem selectedTab = tabFolder.getSelection();
 
             if (selectedTab != null) {
-               AutoRefreshJob job = td.autoRefreshJob;
-               log.debug("job name={} state={}  auto refresh={}", job.getName(), job.getState(), td.autoRefreshActive);
-               if (job.getState() == Job.RUNNING) {
-                  job.cancel();
-                  try {
-                     if (!job.cancel()) {
-                        job.join();
-                     }
-                  } catch (InterruptedException ex) {
-                     log.warn("InterruptedException occurred", e);
-                  }
+               log.debug("auto refresh={} active={}", td.autoRefresh, td.autoRefreshActive);
+               if (td.autoRefreshActive) {
+                  refreshScheduler.stop(td.autoRefresh);
                   td.autoRefreshActive = false;
                   btnAutoRefresh.setToolTipText("Set auto refresh");
                   btnAutoRefresh.setSelection(false);
@@ -1446,9 +1460,8 @@ public class JTBSessionContentViewPart {
                      btnAutoRefresh.setSelection(false);
                      return;
                   }
-                  job.setDelay(Long.valueOf(popup.getDelay()));
                   td.autoRefreshActive = true;
-                  job.schedule();
+                  refreshScheduler.start(td.autoRefresh, popup.getDelay(), selectedTab == td.tabItem);
                   btnAutoRefresh.setSelection(true);
                   btnAutoRefresh.setToolTipText("Refreshing every " + popup.getDelay() + " seconds");
                }
@@ -1517,6 +1530,44 @@ public class JTBSessionContentViewPart {
             }
          });
 
+         col = createTableViewerColumn(tableViewer, "In / Out (msgs/s)", 110, SWT.RIGHT);
+         tabCol = col.getColumn();
+         tabCol.setToolTipText("Messages added / removed per second, computed from the variations of the depth");
+         tabCol.addSelectionListener(buildQueueDepthSelectionAdapter(tableViewer, viewerComparator, tabCol, 3));
+         col.setLabelProvider(new ColumnLabelProvider() {
+            @Override
+            public String getText(Object element) {
+               QueueWithDepth p = (QueueWithDepth) element;
+               QueueDepthHistory history = p.jtbQueue.getDepthHistory();
+               Double rateIn = history.getRateIn();
+               Double rateOut = history.getRateOut();
+               if ((rateIn == null) || (rateOut == null)) {
+                  return "-";
+               }
+               return String.format("%.1f / %.1f", rateIn, rateOut);
+            }
+         });
+
+         col = createTableViewerColumn(tableViewer, "Trend", 120, SWT.LEFT);
+         col.setLabelProvider(new OwnerDrawLabelProvider() {
+            @Override
+            protected void measure(Event event, Object element) {
+               // Keep the size of the cell
+            }
+
+            @Override
+            protected void paint(Event event, Object element) {
+               QueueWithDepth p = (QueueWithDepth) element;
+               int[] depths = p.jtbQueue.getDepthHistory().getDepths();
+               if (depths.length < 2) {
+                  return;
+               }
+               Rectangle bounds = ((TableItem) event.item).getBounds(event.index);
+               event.gc.setForeground(event.display.getSystemColor(SWT.COLOR_DARK_BLUE));
+               event.gc.drawPolyline(buildSparkline(depths, bounds));
+            }
+         });
+
          // Manage selections
          tableViewer.addSelectionChangedListener(new ISelectionChangedListener() {
             public void selectionChanged(SelectionChangedEvent event) {
@@ -1558,20 +1609,23 @@ public class JTBSessionContentViewPart {
          // Attach the Popup Menu
          menuService.registerContextMenu(table, Constants.SYNTHETIC_VIEW_POPUP_MENU);
 
-         // Create periodic refresh Job
-         AutoRefreshJob job = new AutoRefreshJob(sync,
-                                                 eventBroker,
-                                                 "Auto refresh job. Queue Depth for " + jtbSessionName,
-                                                 ps.getInt(Constants.PREF_AUTO_REFRESH_DELAY),
-                                                 jtbSession);
+         // Create periodic refresh. Done by the shared scheduler with the other tabs of the session
+         RefreshEntry autoRefresh = refreshScheduler.createRefresh("Queue Depth for " + jtbSessionName,
+                                                                   jtbSession.getJTBConnection(JTBSessionClientType.GUI),
+                                                                   () -> {
+                                                                      refreshSyntheticView(shell, jtbSession);
+                                                                      return td.collectQueueDepthJob;
+                                                                   });
 
          // Create Queue Depth collection Job
          CollectQueueDepthJob cqdj = new CollectQueueDepthJob(sync,
+                                                              ps,
                                                               "Collect Queue Depth job for " + jtbSessionName,
                                                               jtbSession.getJTBConnection(JTBSessionClientType.GUI),
                                                               tableViewer,
                                                               tabItemSynthetic,
-                                                              tabItemSynthetic.getText());
+                                                              tabItemSynthetic.getText(),
+                                                              buildQueueDepthHistoryFile(jtbSessionName));
 
          // Intercept closing/hiding CTabItem : Remove the CTabItem for all the lists and cancel running job when closed
          tabItemSynthetic.addDisposeListener(new DisposeListener() {
@@ -1579,8 +1633,7 @@ public class JTBSessionContentViewPart {
             @Override
             public void widgetDisposed(DisposeEvent event) {
                log.debug("dispose CTabItem for Synthetic View for Session '{}'", jtbSessionName);
-               AutoRefreshJob job = td.autoRefreshJob;
-               job.cancel();
+               refreshScheduler.stop(td.autoRefresh);
 
                mapTabData.remove(computeCTabItemName(jtbSession));
             }
@@ -1603,13 +1656,14 @@ public class JTBSessionContentViewPart {
 
          td.tabItem = tabItemSynthetic;
          td.tableViewer = tableViewer;
-         td.autoRefreshJob = job;
+         td.autoRefresh = autoRefresh;
          td.autoRefreshActive = false; // Auto refresh = false on creation
          td.collectQueueDepthJob = cqdj;
          td.filterText = filterText;
 
          tabItemSynthetic.setData(td);
          mapTabData.put(currentCTabItemName, td);
+         updateAutoRefreshVisibility();
 
       }
 
@@ -1626,13 +1680,15 @@ public class JTBSessionContentViewPart {
          baseQueues = jtbConnection.getJtbQueues();
       }
 
-      // Filter Queue names based on local filter
-      SortedSet<JTBQueue> jtbQueuesFiltered = new TreeSet<>(baseQueues);
+      // Filter Queue names based on local filter, and hide non browsable Queue if set in preference
       String filter = td.filterText.getText().trim();
-      if (!(filter.isEmpty())) {
-         String filterRegexPattern = filter.replaceAll("\\.", "\\\\.").replaceAll("\\?", ".").replaceAll("\\*", ".*");
-         jtbQueuesFiltered = jtbQueuesFiltered.stream().filter(q -> q.getName().matches(filterRegexPattern))
-                  .collect(Collectors.toCollection(() -> new TreeSet<>()));
+      DestinationMatcher matcher = filter.isEmpty() ? null : DestinationMatcher.compile(filter);
+      boolean showNonBrowsable = ps.getBoolean(Constants.PREF_SHOW_NON_BROWSABLE_Q);
+      SortedSet<JTBQueue> jtbQueuesFiltered = new TreeSet<>();
+      for (JTBQueue jtbQueue : baseQueues) {
+         if (((matcher == null) || matcher.matches(jtbQueue.getName())) && (showNonBrowsable || jtbQueue.isBrowsable())) {
+            jtbQueuesFiltered.add(jtbQueue);
+         }
       }
 
       // Save filter in preferences
@@ -1648,12 +1704,6 @@ public class JTBSessionContentViewPart {
          log.error("IOException when saving preferences", e);
       }
 
-      // Hide non browsable Queue if set in preference
-      if (!(ps.getBoolean(Constants.PREF_SHOW_NON_BROWSABLE_Q))) {
-         jtbQueuesFiltered = jtbQueuesFiltered.stream().filter(q -> q.isBrowsable())
-                  .collect(Collectors.toCollection(() -> new TreeSet<>()));
-      }
-
       // Collect data asynchronously
       CollectQueueDepthJob collectQueueDepthJob = td.collectQueueDepthJob;
 
@@ -1690,7 +1740,10 @@ public class JTBSessionContentViewPart {
       return "S:" + jtbSession.getName();
    }
 
-   private List<TableViewerColumn> createColumns(TableViewer tv, boolean showNb, ColumnsSet columnSet) {
+   private List<TableViewerColumn> createColumns(TableViewer tv,
+                                                 MessageContentProvider contentProvider,
+                                                 boolean showNb,
+                                                 ColumnsSet columnSet) {
 
       List<TableViewerColumn> tvcList = new ArrayList<>();
 
@@ -1702,42 +1755,26 @@ public class JTBSessionContentViewPart {
          col.setLabelProvider(new ColumnLabelProvider() {
 
             @Override
-            public String getText(Object element) {
-               nbMessage++;
-               return nbMessage.toString();
+            public void update(ViewerCell cell) {
+               TableItem item = (TableItem) cell.getItem();
+               Object rowNumber = item.getData(MessageContentProvider.ROW_NUMBER);
+               cell.setText(String.valueOf(rowNumber == null ? item.getParent().indexOf(item) + 1 : rowNumber));
             }
          });
+         final TableColumn tc = col.getColumn();
+         tc.addSelectionListener(SelectionListener.widgetSelectedAdapter(e -> contentProvider.sortOn(tc, -1)));
       }
 
+      // Values are read from the cache of the content provider, in the order of the ColumnsSet
+      int index = 0;
       for (Column c : columnSet.getColumn()) {
+         final int valueIndex = index++;
          if (c.getColumnKind().equals(ColumnKind.SYSTEM_HEADER)) {
             ColumnSystemHeader h = ColumnSystemHeader.fromHeaderName(c.getSystemHeaderName());
             col = createTableViewerColumn(tv, h.getDisplayName(), h.getDisplayWidth(), SWT.NONE);
-            tvcList.add(col);
-            col.setLabelProvider(new ColumnLabelProvider() {
-
-               @Override
-               public String getText(Object element) {
-                  JTBMessage jtbMessage = (JTBMessage) element;
-                  Object o = h.getColumnSystemValue(jtbMessage.getJmsMessage(), false);
-                  return o == null ? "" : o.toString();
-               }
-            });
          } else {
-
             UserProperty u = c.getUserProperty();
-            col =
-
-                     createTableViewerColumn(tv, csManager.getUserPropertyDisplayName(u, true), u.getDisplayWidth(), SWT.NONE);
-            tvcList.add(col);
-
-            col.setLabelProvider(new ColumnLabelProvider() {
-               @Override
-               public String getText(Object element) {
-                  JTBMessage jtbMessage = (JTBMessage) element;
-                  return csManager.getColumnUserPropertyValue(jtbMessage.getJmsMessage(), c);
-               }
-            });
+            col = createTableViewerColumn(tv, csManager.getUserPropertyDisplayName(u, true), u.getDisplayWidth(), SWT.NONE);
 
             col.getColumn().addControlListener(new ControlAdapter() {
                @Override
@@ -1755,7 +1792,18 @@ public class JTBSessionContentViewPart {
                }
             });
          }
+         tvcList.add(col);
 
+         col.setLabelProvider(new ColumnLabelProvider() {
+            @Override
+            public String getText(Object element) {
+               JTBMessage jtbMessage = (JTBMessage) element;
+               return contentProvider.getCache().getValues(jtbMessage)[valueIndex];
+            }
+         });
+
+         final TableColumn tc = col.getColumn();
+         tc.addSelectionListener(SelectionListener.widgetSelectedAdapter(e -> contentProvider.sortOn(tc, valueIndex)));
       }
       return tvcList;
    }
@@ -1778,10 +1826,9 @@ public class JTBSessionContentViewPart {
       for (TableViewerColumn c : td.tableViewerColumns) {
          c.getColumn().dispose();
       }
-      nbMessage = 0;
       td.columnsSet = cs;
-      td.tableViewerColumns = createColumns(td.tableViewer, true, td.columnsSet);
-      td.tableViewer.refresh();
+      td.contentProvider.setCache(new MessageRowCache(csManager, cs));
+      td.tableViewerColumns = createColumns(td.tableViewer, td.contentProvider, true, td.columnsSet);
 
       windowContext.set(Constants.CURRENT_COLUMNSSET, cs);
 
@@ -1789,7 +1836,7 @@ public class JTBSessionContentViewPart {
       td.tableViewer.setSelection(null);
 
       if (ps.getBoolean(Constants.PREF_AUTO_RESIZE_COLS_BROWSER)) {
-         Utils.resizeTableViewer(td.tableViewer);
+         td.contentProvider.resizeColumns();
       }
 
       // Clear Message part
@@ -1797,6 +1844,42 @@ public class JTBSessionContentViewPart {
 
    }
 
+   // Select all the messages without materializing the rows of the table
+   private void selectAllMessages(TabData td) {
+      td.tableViewer.getTable().selectAll();
+
+      List<JTBMessage> jtbMessagesSelected = new ArrayList<>(td.contentProvider.getRows());
+      selectionService.setSelection(jtbMessagesSelected);
+
+      td.selectedJTBMessage = jtbMessagesSelected.isEmpty() ? null : jtbMessagesSelected.get(0);
+      eventBroker.post(Constants.EVENT_JTBMESSAGE_PART_REFRESH, td.selectedJTBMessage);
+   }
+
+   // Filter on the values displayed in the table of messages
+   private void createMessagesFilter(Composite parent, TabData td) {
+      Label lblFilter = new Label(parent, SWT.NONE);
+      lblFilter.setText("Filter:");
+      lblFilter.setToolTipText(MESSAGES_FILTER_TOOLTIP);
+
+      final Text filterText = new Text(parent, SWT.BORDER);
+      filterText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 1, 1));
+      filterText.setToolTipText(MESSAGES_FILTER_TOOLTIP);
+      filterText.addModifyListener(new ModifyListener() {
+         @Override
+         public void modifyText(ModifyEvent e) {
+            td.contentProvider.setFilter(filterText.getText());
+         }
+      });
+
+      final Button clearFilterButton = new Button(parent, SWT.NONE);
+      clearFilterButton.setLayoutData(new GridData(CLEAR_BUTTON_SIZE, CLEAR_BUTTON_SIZE));
+      clearFilterButton.setImage(SWTResourceManager.getImage(this.getClass(), "icons/cross-script.png"));
+      clearFilterButton.setToolTipText("Clear filter box");
+      clearFilterButton.addSelectionListener(SelectionListener.widgetSelectedAdapter(e -> {
+         filterText.setText("");
+      }));
+   }
+
    private SelectionAdapter buildQueueDepthSelectionAdapter(final TableViewer tableViewer,
                                                             final QueueDepthViewerComparator viewerComparator,
                                                             final TableColumn column,
@@ -1815,6 +1898,35 @@ public class JTBSessionContentViewPart {
       return selectionAdapter;
    }
 
+   // One history file per session, in the logs folder of the project
+   private Path buildQueueDepthHistoryFile(String jtbSessionName) {
+      String fileName = "queue-depth-" + jtbSessionName.replaceAll("[^A-Za-z0-9._-]", "_") + ".log";
+      return Paths.get(cm.getJtbProject().getLocation().toOSString(), Constants.JTB_LOGS_FOLDER_NAME, fileName);
+   }
+
+   // Points of the polyline that draws the depths in the cell, scaled between the lowest and the highest depth
+   private int[] buildSparkline(int[] depths, Rectangle bounds) {
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      for (int depth : depths) {
+         min = Math.min(min, depth);
+         max = Math.max(max, depth);
+      }
+
+      int width = bounds.width - 4;
+      int height = bounds.height - 4;
+      int[] points = new int[depths.length * 2];
+      for (int i = 0; i < depths.length; i++) {
+         points[i * 2] = bounds.x + 2 + (i * width) / (depths.length - 1);
+         if (max == min) {
+            points[(i * 2) + 1] = bounds.y + 2 + (height / 2);
+         } else {
+            points[(i * 2) + 1] = bounds.y + 2 + (int) (((long) (max - depths[i]) * height) / (max - min));
+         }
+      }
+      return points;
+   }
+
    private Color getBackGroundColor() {
       return sessionTypeManager.getBackgroundColorForSessionTypeName(sessionDef.getSessionType());
    }
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.ui.part.content;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.titou10.jtb.jms.model.JTBMessage;
+
+/**
+ * Lazy content provider for the SWT.VIRTUAL tables of messages
+ *
+ * The input is the collection of messages browsed or captured. The rows displayed are the messages of the input that match the
+ * filter, sorted on the column selected, both computed on the values cached in a MessageRowCache. Only the rows visible in the
+ * table are materialized, and only those are cleared when the rows change. Must be called from the UI thread, except getCache()
+ *
+ * @author Denis Forveille
+ *
+ */
+final class MessageContentProvider implements ILazyContentProvider {
+
+   // Key of the data of the TableItems holding the row number, set when the row is materialized
+   static final String                    ROW_NUMBER         = "jtb.rowNumber";
+
+   private static final int               RESIZE_SAMPLE_SIZE = 200;
+   private static final int               RESIZE_MARGIN      = 16;
+
+   private volatile MessageRowCache       cache;
+
+   private TableViewer                    tableViewer;
+   private Collection<JTBMessage>         messages;
+   private List<JTBMessage>               rows;
+
+   // Index of the column in the cached values, -1 = order of the input
+   private int                            sortColumn;
+   private int                            sortDirection;
+   private String                         filter;
+
+   // Highest index of the rows materialized since the rows have been cleared, -1 = none
+   private int                            maxMaterialized;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   MessageContentProvider(MessageRowCache cache) {
+      this.cache = cache;
+      this.messages = Collections.emptyList();
+      this.rows = new ArrayList<>();
+      this.sortColumn = -1;
+      this.sortDirection = SWT.NONE;
+      this.filter = "";
+      this.maxMaterialized = -1;
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+      this.tableViewer = (TableViewer) viewer;
+      this.messages = newInput == null ? Collections.emptyList() : (Collection<JTBMessage>) newInput;
+      this.rows = buildRows();
+      displayRows(Collections.emptyList());
+   }
+
+   @Override
+   public void updateElement(int index) {
+      if (index < rows.size()) {
+         tableViewer.getTable().getItem(index).setData(ROW_NUMBER, index + 1);
+         tableViewer.replace(rows.get(index), index);
+         maxMaterialized = Math.max(maxMaterialized, index);
+      }
+   }
+
+   @Override
+   public void dispose() {
+      // NOP
+   }
+
+   // Called after the messages have been appended to the input
+   void add(List<JTBMessage> newMessages) {
+      List<JTBMessage> selected = sortColumn < 0 ? null : getSelectedRows();
+
+      for (JTBMessage jtbMessage : newMessages) {
+         if (filter.isEmpty() || matchesFilter(cache.getValues(jtbMessage))) {
+            rows.add(jtbMessage);
+         }
+      }
+
+      if (sortColumn < 0) {
+         // Rows already displayed do not move
+         tableViewer.getTable().setItemCount(rows.size());
+      } else {
+         // The rows are already sorted, so this only sorts the new rows and merges them
+         rows.sort(buildComparator());
+         displayRows(selected);
+      }
+   }
+
+   // Called after the new messages have been added to the head of the input, the last one first, and the oldest messages removed
+   // from its tail. Only the messages added and removed are processed, the rows are not rebuilt from the input
+   void addFirst(List<JTBMessage> newMessages, List<JTBMessage> removedMessages) {
+      List<JTBMessage> selected = getSelectedRows();
+
+      if (!removedMessages.isEmpty()) {
+         Map<JTBMessage, Boolean> removed = new IdentityHashMap<>(removedMessages.size());
+         for (JTBMessage jtbMessage : removedMessages) {
+            removed.put(jtbMessage, Boolean.TRUE);
+         }
+         if (sortColumn < 0) {
+            // The messages removed are the last rows
+            int size = rows.size();
+            while ((size > 0) && (removed.containsKey(rows.get(size - 1)))) {
+               size--;
+            }
+            rows.subList(size, rows.size()).clear();
+         } else {
+            rows.removeIf(removed::containsKey);
+         }
+      }
+
+      List<JTBMessage> added = new ArrayList<>(newMessages.size());
+      for (int i = newMessages.size() - 1; i >= 0; i--) {
+         JTBMessage jtbMessage = newMessages.get(i);
+         if (filter.isEmpty() || matchesFilter(cache.getValues(jtbMessage))) {
+            added.add(jtbMessage);
+         }
+      }
+
+      if (sortColumn < 0) {
+         rows.addAll(0, added);
+      } else {
+         // The rows are already sorted, so this only sorts the new rows and merges them
+         rows.addAll(added);
+         rows.sort(buildComparator());
+      }
+      displayRows(selected);
+   }
+
+   // Rebuild the rows from the input, keeping the selection
+   void refresh() {
+      List<JTBMessage> selected = getSelectedRows();
+      rows = buildRows();
+      displayRows(selected);
+   }
+
+   // Messages displayed, in the order of the table
+   List<JTBMessage> getRows() {
+      return Collections.unmodifiableList(rows);
+   }
+
+   MessageRowCache getCache() {
+      return cache;
+   }
+
+   // New ColumnsSet: the values are extracted again and the sort is reset
+   void setCache(MessageRowCache cache) {
+      this.cache = cache;
+      this.sortColumn = -1;
+      this.sortDirection = SWT.NONE;
+      tableViewer.getTable().setSortColumn(null);
+      tableViewer.getTable().setSortDirection(SWT.NONE);
+      refresh();
+   }
+
+   void setFilter(String filter) {
+      String f = filter == null ? "" : filter.trim();
+      if (f.equals(this.filter)) {
+         return;
+      }
+      this.filter = f;
+      refresh();
+   }
+
+   // Sort on the column: ascending, descending, then back to the order of the input. column < 0 : order of the input
+   void sortOn(TableColumn tableColumn, int column) {
+      if ((column < 0) || ((column == sortColumn) && (sortDirection == SWT.DOWN))) {
+         sortColumn = -1;
+         sortDirection = SWT.NONE;
+      } else {
+         if (column == sortColumn) {
+            sortDirection = SWT.DOWN;
+         } else {
+            sortColumn = column;
+            sortDirection = SWT.UP;
+         }
+      }
+
+      Table table = tableViewer.getTable();
+      table.setSortColumn(sortColumn < 0 ? null : tableColumn);
+      table.setSortDirection(sortDirection);
+      refresh();
+   }
+
+   // Resize the columns, except the last one, to the width of the header and of the cached values of the first rows
+   void resizeColumns() {
+      Table table = tableViewer.getTable();
+      TableColumn[] tableColumns = table.getColumns();
+      int firstValueColumn = tableColumns.length - cache.getNbColumns();
+      int nbRows = Math.min(rows.size(), RESIZE_SAMPLE_SIZE);
+
+      GC gc = new GC(table);
+      try {
+         for (int c = 0; c < tableColumns.length - 1; c++) {
+            int width = gc.textExtent(tableColumns[c].getText()).x;
+            if (c < firstValueColumn) {
+               // Row number
+               width = Math.max(width, gc.textExtent(String.valueOf(rows.size())).x);
+            } else {
+               for (int i = 0; i < nbRows; i++) {
+                  width = Math.max(width, gc.textExtent(cache.getValues(rows.get(i))[c - firstValueColumn]).x);
+               }
+            }
+            tableColumns[c].setWidth(width + RESIZE_MARGIN);
+         }
+      } finally {
+         gc.dispose();
+      }
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private List<JTBMessage> getSelectedRows() {
+      List<JTBMessage> selected = new ArrayList<>();
+      for (int i : tableViewer.getTable().getSelectionIndices()) {
+         if (i < rows.size()) {
+            selected.add(rows.get(i));
+         }
+      }
+      return selected;
+   }
+
+   private void displayRows(List<JTBMessage> selected) {
+      Table table = tableViewer.getTable();
+      table.setItemCount(rows.size());
+
+      // The other rows have never been materialized, or have been cleared already
+      int last = Math.min(maxMaterialized, rows.size() - 1);
+      if (last >= 0) {
+         table.clear(0, last);
+      }
+      maxMaterialized = -1;
+
+      if (!selected.isEmpty()) {
+         Map<JTBMessage, Boolean> selectedMessages = new IdentityHashMap<>(selected.size());
+         for (JTBMessage jtbMessage : selected) {
+            selectedMessages.put(jtbMessage, Boolean.TRUE);
+         }
+         int[] indices = new int[selected.size()];
+         int nb = 0;
+         for (int i = 0; (i < rows.size()) && (nb < indices.length); i++) {
+            if (selectedMessages.containsKey(rows.get(i))) {
+               indices[nb++] = i;
+            }
+         }
+         int[] newIndices = new int[nb];
+         System.arraycopy(indices, 0, newIndices, 0, nb);
+         table.setSelection(newIndices);
+      }
+   }
+
+   private List<JTBMessage> buildRows() {
+      List<JTBMessage> list = new ArrayList<>(messages.size());
+      if (filter.isEmpty()) {
+         list.addAll(messages);
+      } else {
+         for (JTBMessage jtbMessage : messages) {
+            if (matchesFilter(cache.getValues(jtbMessage))) {
+               list.add(jtbMessage);
+            }
+         }
+      }
+
+      if (sortColumn >= 0) {
+         list.sort(buildComparator());
+      }
+      return list;
+   }
+
+   private Comparator<JTBMessage> buildComparator() {
+      final MessageRowCache c = cache;
+      final int col = sortColumn;
+      Comparator<JTBMessage> comparator = (m1, m2) -> compareValues(c.getValues(m1)[col], c.getValues(m2)[col]);
+      return sortDirection == SWT.DOWN ? comparator.reversed() : comparator;
+   }
+
+   private boolean matchesFilter(String[] values) {
+      for (String value : values) {
+         if (containsIgnoreCase(value, filter)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static boolean containsIgnoreCase(String value, String part) {
+      int max = value.length() - part.length();
+      for (int i = 0; i <= max; i++) {
+         if (value.regionMatches(true, i, part, 0, part.length())) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   // Integers are compared numerically and come first, other values are compared alphabetically
+   private static int compareValues(String v1, String v2) {
+      boolean i1 = isInteger(v1);
+      boolean i2 = isInteger(v2);
+      if (i1 && i2) {
+         return Long.compare(Long.parseLong(v1), Long.parseLong(v2));
+      }
+      if (i1 != i2) {
+         return i1 ? -1 : 1;
+      }
+      return v1.compareTo(v2);
+   }
+
+   private static boolean isInteger(String value) {
+      int length = value.length();
+      if ((length == 0) || (length > 18)) {
+         return false;
+      }
+      int start = value.charAt(0) == '-' ? 1 : 0;
+      if (start == length) {
+         return false;
+      }
+      for (int i = start; i < length; i++) {
+         char c = value.charAt(i);
+         if ((c < '0') || (c > '9')) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.ui.part.content;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.jms.Message;
+
+import org.titou10.jtb.cs.ColumnSystemHeader;
+import org.titou10.jtb.cs.ColumnsSetsManager;
+import org.titou10.jtb.cs.gen.Column;
+import org.titou10.jtb.cs.gen.ColumnKind;
+import org.titou10.jtb.cs.gen.ColumnsSet;
+import org.titou10.jtb.jms.model.JTBMessage;
+
+/**
+ * Values displayed in the columns of a table of messages, extracted once per message for a ColumnsSet
+ *
+ * Extracting the values from the JMS message (headers, properties, formatted timestamps..) is costly. The values are extracted
+ * by the thread that reads the messages, and the table, the sort and the filter only use the cached values. Entries are weakly
+ * referenced by the messages and disappear when the messages are no longer displayed. Instances are thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+final class MessageRowCache {
+
+   private final ColumnsSetsManager        csManager;
+   private final Column[]                  columns;
+   private final ColumnSystemHeader[]      headers;
+
+   private final Map<JTBMessage, String[]> rows;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   MessageRowCache(ColumnsSetsManager csManager, ColumnsSet columnsSet) {
+      this.csManager = csManager;
+
+      List<Column> list = columnsSet.getColumn();
+      this.columns = list.toArray(new Column[list.size()]);
+      this.headers = new ColumnSystemHeader[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+         if (columns[i].getColumnKind().equals(ColumnKind.SYSTEM_HEADER)) {
+            headers[i] = ColumnSystemHeader.fromHeaderName(columns[i].getSystemHeaderName());
+         }
+      }
+
+      this.rows = Collections.synchronizedMap(new WeakHashMap<>());
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Values of the columns of the message, in the order of the ColumnsSet. Extracted if not already cached
+   String[] getValues(JTBMessage jtbMessage) {
+      String[] values = rows.get(jtbMessage);
+      if (values == null) {
+         values = extractValues(jtbMessage.getJmsMessage());
+         rows.put(jtbMessage, values);
+      }
+      return values;
+   }
+
+   // Extract the values of the messages that are not already cached
+   void computeValues(Collection<JTBMessage> jtbMessages) {
+      for (JTBMessage jtbMessage : jtbMessages) {
+         getValues(jtbMessage);
+      }
+   }
+
+   int getNbColumns() {
+      return columns.length;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private String[] extractValues(Message m) {
+      String[] values = new String[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+         if (headers[i] != null) {
+            Object o = headers[i].getColumnSystemValue(m, false);
+            values[i] = o == null ? "" : o.toString();
+         } else {
+            values[i] = csManager.getColumnUserPropertyValue(m, columns[i]);
+         }
+      }
+      return values;
+   }
+}
@@ -19,6 +19,7 @@ package org.titou10.jtb.ui.part.content;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.swt.SWT;
+import org.titou10.jtb.jms.model.QueueDepthHistory;
 
 /**
  * ViewerComparator for sorting of Queue Depth table content on clicking on the column header
@@ -69,6 +70,12 @@ public class QueueDepthViewerComparator extends ViewerComparator {
             rc = qwd1.firstMessageTimestamp == null ? -1
                      : qwd2.firstMessageTimestamp == null ? 1 : qwd1.firstMessageTimestamp.compareTo(qwd2.firstMessageTimestamp);
             break;
+         case 3:
+            // Net rate: messages added minus messages removed per second
+            Double net1 = netRate(qwd1);
+            Double net2 = netRate(qwd2);
+            rc = net1 == null ? -1 : net2 == null ? 1 : net1.compareTo(net2);
+            break;
          default:
             rc = 0;
       }
@@ -79,4 +86,10 @@ public class QueueDepthViewerComparator extends ViewerComparator {
       return rc;
    }
 
+   private Double netRate(QueueWithDepth qwd) {
+      QueueDepthHistory history = qwd.jtbQueue.getDepthHistory();
+      Double rateIn = history.getRateIn();
+      Double rateOut = history.getRateOut();
+      return (rateIn == null) || (rateOut == null) ? null : rateIn - rateOut;
+   }
 }
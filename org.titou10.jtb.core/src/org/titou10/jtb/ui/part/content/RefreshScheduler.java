@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.ui.part.content;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.e4.core.di.annotations.Creatable;
+import org.eclipse.e4.ui.di.UISynchronize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.jms.model.JTBConnection;
+import org.titou10.jtb.util.Constants;
+
+/**
+ * Schedule the auto refreshes of all the tabs of the JTBSessionContentViewPart
+ *
+ * All the refreshes are kept in one queue ordered by due time and are started by a single Job. Only one refresh runs at a time
+ * for a connection: the refreshes of the tabs of the same connection wait for each other instead of running concurrently. A
+ * refresh taking longer than its period has its period doubled (up to MAX_BACKOFF times the requested period), and the tabs not
+ * visible are refreshed HIDDEN_FACTOR times less often. A refresh still running after MAX_DURATION is considered done, so that a
+ * Job that never ends does not block the other refreshes of its connection
+ *
+ * @author Denis Forveille
+ *
+ */
+@Creatable
+@Singleton
+public class RefreshScheduler {
+
+   private static final Logger                   log           = LoggerFactory.getLogger(RefreshScheduler.class);
+
+   private static final int                      HIDDEN_FACTOR = 4;
+   private static final int                      MAX_BACKOFF   = 8;
+   private static final long                     MAX_DURATION  = 5 * 60 * 1000L;                    // 5 minutes
+
+   private static final Comparator<RefreshEntry> BY_NEXT_DUE   = Comparator.comparingLong(RefreshEntry::getNextDue);
+
+   @Inject
+   private UISynchronize                         sync;
+
+   private final PriorityQueue<RefreshEntry>     pending       = new PriorityQueue<>(BY_NEXT_DUE);
+   private final Set<RefreshEntry>               inProgress    = new HashSet<>();
+   private final Set<JTBConnection>              busy          = new HashSet<>();
+   private final DispatchJob                     dispatchJob   = new DispatchJob();
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   // Create a refresh. The refresher is called in the UI thread and returns the Job doing the refresh, or null if done already
+   public RefreshEntry createRefresh(String name, JTBConnection jtbConnection, Supplier<Job> refresher) {
+      return new RefreshEntry(name, jtbConnection, refresher);
+   }
+
+   // Start refreshing now, then every periodSeconds
+   public synchronized void start(RefreshEntry re, int periodSeconds, boolean visible) {
+      log.debug("Starting auto refresh '{}' every {}s", re.name, periodSeconds);
+      pending.remove(re);
+      re.period = periodSeconds * 1000L;
+      re.effectivePeriod = re.period;
+      re.visible = visible;
+      re.active = true;
+      re.nextDue = System.currentTimeMillis();
+      if (!re.running) {
+         pending.add(re);
+      }
+      wakeUp();
+   }
+
+   public synchronized void stop(RefreshEntry re) {
+      log.debug("Stopping auto refresh '{}'", re.name);
+      re.active = false;
+      pending.remove(re);
+
+      // The Job of the refresh, if any, is cancelled with the tab. Do not wait for it to release the connection
+      if (re.running) {
+         release(re);
+         wakeUp();
+      }
+   }
+
+   public synchronized void setVisible(RefreshEntry re, boolean visible) {
+      if (re.visible == visible) {
+         return;
+      }
+      re.visible = visible;
+      if (pending.remove(re)) {
+         re.nextDue = re.lastStart + re.currentPeriod();
+         pending.add(re);
+         wakeUp();
+      }
+   }
+
+   // Refreshes waiting to be started, the next one first
+   public synchronized List<RefreshEntry> getPendingRefreshes() {
+      List<RefreshEntry> res = new ArrayList<>(pending);
+      res.sort(BY_NEXT_DUE);
+      return res;
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // schedule() has no effect on a Job that is sleeping
+   private void wakeUp() {
+      if (dispatchJob.getState() == Job.SLEEPING) {
+         dispatchJob.wakeUp();
+      } else {
+         dispatchJob.schedule();
+      }
+   }
+
+   private void release(RefreshEntry re) {
+      busy.remove(re.jtbConnection);
+      inProgress.remove(re);
+      re.running = false;
+   }
+
+   // Start the refreshes that are due and whose connection is not busy, then sleep until the next one is due
+   private synchronized void dispatchDueRefreshes() {
+      long now = System.currentTimeMillis();
+
+      long nextCheck = Long.MAX_VALUE;
+      for (RefreshEntry re : new ArrayList<>(inProgress)) {
+         if ((now - re.lastStart) >= MAX_DURATION) {
+            log.warn("Auto refresh '{}' still running after {}ms. Considered as done", re.name, now - re.lastStart);
+            refreshDone(re, re.run);
+         } else {
+            nextCheck = Math.min(nextCheck, re.lastStart + MAX_DURATION);
+         }
+      }
+
+      List<RefreshEntry> waiting = new ArrayList<>();
+      RefreshEntry re;
+      while (((re = pending.peek()) != null) && (re.nextDue <= now)) {
+         pending.poll();
+         if (busy.add(re.jtbConnection)) {
+            re.running = true;
+            re.run++;
+            re.lastStart = now;
+            inProgress.add(re);
+            nextCheck = Math.min(nextCheck, now + MAX_DURATION);
+            sync.asyncExec(new RefreshRunner(re, re.run));
+         } else {
+            waiting.add(re);
+         }
+      }
+
+      // The refreshes waiting for their connection are started when the refresh in progress is done
+      if (re != null) {
+         nextCheck = Math.min(nextCheck, re.nextDue);
+      }
+      if (nextCheck != Long.MAX_VALUE) {
+         dispatchJob.schedule(Math.max(0, nextCheck - now));
+      }
+      pending.addAll(waiting);
+   }
+
+   // Also called when the Job of a refresh already considered as done (stopped or too long) ends later: nothing to do then
+   private synchronized void refreshDone(RefreshEntry re, int run) {
+      if ((!re.running) || (re.run != run)) {
+         return;
+      }
+      long now = System.currentTimeMillis();
+      release(re);
+      re.lastDuration = now - re.lastStart;
+
+      // Back off when the refresh can not keep up with its period, come back progressively to the requested period otherwise
+      if (re.lastDuration > re.effectivePeriod) {
+         re.effectivePeriod = Math.min(Math.max(re.lastDuration, re.effectivePeriod) * 2, re.period * MAX_BACKOFF);
+         log.debug("Auto refresh '{}' took {}ms. Period set to {}ms", re.name, re.lastDuration, re.effectivePeriod);
+      } else {
+         re.effectivePeriod = Math.max(re.effectivePeriod / 2, re.period);
+      }
+
+      if (re.active) {
+         re.nextDue = Math.max(re.lastStart + re.currentPeriod(), now);
+         pending.add(re);
+      }
+      wakeUp();
+   }
+
+   private final class RefreshRunner implements Runnable {
+
+      private final RefreshEntry re;
+      private final int          run;
+
+      RefreshRunner(RefreshEntry re, int run) {
+         this.re = re;
+         this.run = run;
+      }
+
+      @Override
+      public void run() {
+         Job job = null;
+         if (re.active) {
+            try {
+               job = re.refresher.get();
+            } catch (Exception e) {
+               log.error("Exception occurred during auto refresh '{}'", re.name, e);
+            }
+         }
+         if ((job == null) || (job.getState() == Job.NONE)) {
+            refreshDone(re, run);
+            return;
+         }
+
+         // The Job may have finished before the listener is added
+         CompletionListener cl = new CompletionListener(re, run);
+         job.addJobChangeListener(cl);
+         if (job.getState() == Job.NONE) {
+            job.removeJobChangeListener(cl);
+            cl.complete();
+         }
+      }
+   }
+
+   private final class CompletionListener extends JobChangeAdapter {
+
+      private final RefreshEntry  re;
+      private final int           run;
+      private final AtomicBoolean completed = new AtomicBoolean(false);
+
+      CompletionListener(RefreshEntry re, int run) {
+         this.re = re;
+         this.run = run;
+      }
+
+      @Override
+      public void done(IJobChangeEvent event) {
+         event.getJob().removeJobChangeListener(this);
+         complete();
+      }
+
+      void complete() {
+         if (completed.compareAndSet(false, true)) {
+            refreshDone(re, run);
+         }
+      }
+   }
+
+   private final class DispatchJob extends Job {
+
+      DispatchJob() {
+         super("Auto refresh scheduler");
+         this.setSystem(true);
+      }
+
+      @Override
+      protected IStatus run(IProgressMonitor monitor) {
+         dispatchDueRefreshes();
+         return Status.OK_STATUS;
+      }
+
+      @Override
+      public boolean belongsTo(Object family) {
+         if (family instanceof String) {
+            return Constants.JTB_JOBS_FAMILY.equals(family);
+         }
+         return false;
+      }
+   }
+
+   /**
+    * A refresh managed by the RefreshScheduler. State is guarded by the RefreshScheduler
+    */
+   public static final class RefreshEntry {
+
+      private final String        name;
+      private final JTBConnection jtbConnection;
+      private final Supplier<Job> refresher;
+
+      private volatile boolean    active;
+      private boolean             visible;
+      private boolean             running;
+      private int                 run;
+      private long                period;
+      private long                effectivePeriod;
+      private long                nextDue;
+      private long                lastStart;
+      private long                lastDuration;
+
+      private RefreshEntry(String name, JTBConnection jtbConnection, Supplier<Job> refresher) {
+         this.name = name;
+         this.jtbConnection = jtbConnection;
+         this.refresher = refresher;
+      }
+
+      private long currentPeriod() {
+         return visible ? effectivePeriod : effectivePeriod * HIDDEN_FACTOR;
+      }
+
+      @Override
+      public String toString() {
+         StringBuilder builder = new StringBuilder(256);
+         builder.append("RefreshEntry [name=");
+         builder.append(name);
+         builder.append(", active=");
+         builder.append(active);
+         builder.append(", visible=");
+         builder.append(visible);
+         builder.append(", period=");
+         builder.append(period);
+         builder.append(", effectivePeriod=");
+         builder.append(effectivePeriod);
+         builder.append(", lastDuration=");
+         builder.append(lastDuration);
+         builder.append("]");
+         return builder.toString();
+      }
+
+      // -------------------------
+      // Standard Getters/Setters
+      // -------------------------
+
+      public String getName() {
+         return name;
+      }
+
+      public boolean isActive() {
+         return active;
+      }
+
+      public boolean isVisible() {
+         return visible;
+      }
+
+      public boolean isRunning() {
+         return running;
+      }
+
+      public long getPeriod() {
+         return period;
+      }
+
+      public long getEffectivePeriod() {
+         return effectivePeriod;
+      }
+
+      public long getNextDue() {
+         return nextDue;
+      }
+
+      public long getLastDuration() {
+         return lastDuration;
+      }
+
+   }
+}
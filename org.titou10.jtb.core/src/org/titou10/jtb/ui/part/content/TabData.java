@@ -30,6 +30,8 @@ import org.titou10.jtb.cs.gen.ColumnsSet;
 import org.titou10.jtb.jms.model.JTBDestination;
 import org.titou10.jtb.jms.model.JTBMessage;
 import org.titou10.jtb.jms.model.JTBSession;
+import org.titou10.jtb.jms.model.MessageIndex;
+import org.titou10.jtb.ui.part.content.RefreshScheduler.RefreshEntry;
 
 /**
  * Hold all information to the destination shown in a tab in the JTBSEssionContentViewPart
@@ -50,6 +52,7 @@ final class TabData {
 
    CTabItem                tabItem;
    TableViewer             tableViewer;
+   MessageContentProvider  contentProvider;
    List<TableViewerColumn> tableViewerColumns;
    ColumnsSet              columnsSet;
    Combo                   payloadSearchText;
@@ -59,8 +62,10 @@ final class TabData {
    List<String>            selectorsSearchItemsHistory;
 
    // Queues specifics
-   AutoRefreshJob          autoRefreshJob;
+   RefreshEntry            autoRefresh;
    boolean                 autoRefreshActive;
+   BrowseQueueJob          browseQueueJob;
+   MessageIndex            messageIndex;
 
    CollectQueueDepthJob    collectQueueDepthJob;
 
@@ -101,8 +106,8 @@ final class TabData {
       builder.append(tabItem);
       builder.append(", tableViewer=");
       builder.append(tableViewer);
-      builder.append(", autoRefreshJob=");
-      builder.append(autoRefreshJob);
+      builder.append(", autoRefresh=");
+      builder.append(autoRefresh);
       builder.append(", autoRefreshActive=");
       builder.append(autoRefreshActive);
       builder.append(", topicMessages=");
@@ -16,7 +16,12 @@
  */
 package org.titou10.jtb.ui.part.content;
 
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -25,6 +30,7 @@ import javax.jms.MessageListener;
 import org.eclipse.e4.ui.di.UISynchronize;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.wb.swt.SWTResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,26 +40,47 @@ import org.titou10.jtb.jms.model.JTBTopic;
 /**
  * MessageListener to capture messages published to a topic
  * 
+ * Messages received are stored in a ring buffer by the JMS thread. The table is updated at most every FLUSH_DELAY ms by the UI
+ * thread with the messages received since the last update. When more messages are received between two updates than the ring
+ * can hold, the oldest ones are dropped. The values displayed in the columns are extracted by the JMS thread
+ * 
  * @author Denis Forveille
  *
  */
 final class TopicListener implements MessageListener {
 
-   private static final Logger     log = LoggerFactory.getLogger(TopicListener.class);
+   private static final Logger                      log               = LoggerFactory.getLogger(TopicListener.class);
+
+   private static final int                         FLUSH_DELAY       = 100;                                         // ms
+   private static final int                         RING_MAX_CAPACITY = 4096;
+
+   private UISynchronize                            sync;
 
-   private UISynchronize           sync;
+   private final JTBTopic                           jtbTopic;
+   private final TableViewer                        tableViewer;
+   private final MessageContentProvider             contentProvider;
+   private final CTabItem                           tabItemTopic;
+   private final Deque<JTBMessage>                  messages;
+   private int                                      maxSize;
+   private boolean                                  selectorInUse;
 
-   private final JTBTopic          jtbTopic;
-   private final TableViewer       tableViewer;
-   private final CTabItem          tabItemTopic;
-   private final Deque<JTBMessage> messages;
-   private int                     maxSize;
-   private boolean                 selectorInUse;
+   // Ring buffer filled by the JMS thread. Message #n is stored in slot n % capacity
+   private final AtomicReferenceArray<JTBMessage>   ring;
+   private final int                                capacity;
+   private final AtomicLong                         nbReceived        = new AtomicLong(0);
+   private final AtomicBoolean                      flushScheduled    = new AtomicBoolean(false);
+   private final Runnable                           flushRunnable     = this::flush;
+
+   // Only accessed from the UI thread
+   private long                                     nbFlushed;
+   private long                                     nbDropped;
+   private Image                                    currentImage;
 
    public TopicListener(UISynchronize sync,
                         JTBTopic jtbTopic,
                         Deque<JTBMessage> messages,
                         TableViewer tableViewer,
+                        MessageContentProvider contentProvider,
                         CTabItem tabItemTopic,
                         int maxSize,
                         boolean selectorInUse) {
@@ -62,9 +89,13 @@ final class TopicListener implements MessageListener {
       this.messages = messages;
       this.jtbTopic = jtbTopic;
       this.tableViewer = tableViewer;
+      this.contentProvider = contentProvider;
       this.tabItemTopic = tabItemTopic;
       this.maxSize = maxSize;
       this.selectorInUse = selectorInUse;
+
+      this.capacity = Math.max(1, Math.min(maxSize, RING_MAX_CAPACITY));
+      this.ring = new AtomicReferenceArray<>(capacity);
    };
 
    public void setMaxSize(int maxSize) {
@@ -73,33 +104,94 @@ final class TopicListener implements MessageListener {
 
    @Override
    public void onMessage(final Message jmsMessage) {
-      sync.asyncExec(new Runnable() {
-         @Override
-         public void run() {
-            try {
-               log.debug("{} : Received message with id '{}'", jtbTopic, jmsMessage.getJMSMessageID());
-               messages.addFirst(new JTBMessage(jtbTopic, jmsMessage));
-               if (messages.size() > maxSize) {
-                  messages.pollLast();
-                  tabItemTopic.setImage(SWTResourceManager.getImage(this.getClass(), "icons/topics/warning-16.png"));
-               } else {
-                  if (selectorInUse) {
-                     tabItemTopic.setImage(SWTResourceManager.getImage(this.getClass(), "icons/filter.png"));
-                  } else {
-                     tabItemTopic.setImage(SWTResourceManager.getImage(this.getClass(), "icons/topics/play-2-16.png"));
-                  }
+      JTBMessage jtbMessage;
+      try {
+         log.debug("{} : Received message with id '{}'", jtbTopic, jmsMessage.getJMSMessageID());
+         jtbMessage = new JTBMessage(jtbTopic, jmsMessage);
+         contentProvider.getCache().getValues(jtbMessage);
+      } catch (JMSException e) {
+         // TODO : Notify end user?
+         log.error("Exception occurred when receiving a message", e);
+         return;
+      }
 
+      // Messages are delivered to the listener one at a time, so there is only one writer
+      long n = nbReceived.get();
+      ring.set((int) (n % capacity), jtbMessage);
+      nbReceived.set(n + 1);
+
+      // Schedule one update of the table for all the messages received in the next FLUSH_DELAY ms
+      if (flushScheduled.compareAndSet(false, true)) {
+         sync.asyncExec(new Runnable() {
+            @Override
+            public void run() {
+               if (tableViewer.getTable().isDisposed()) {
+                  return;
                }
-            } catch (JMSException e) {
-               // TODO : Notify end user?
-               log.error("Exception occurred when receiving a message", e);
+               tableViewer.getTable().getDisplay().timerExec(FLUSH_DELAY, flushRunnable);
             }
+         });
+      }
+   }
 
-            // Send event to refresh list of messages
-            if (!(tableViewer.getTable().isDisposed())) {
-               tableViewer.refresh();
-            }
+   // -------
+   // Helpers
+   // -------
+
+   // Move the messages received since the last update from the ring to the table. Called from the UI thread
+   private void flush() {
+      flushScheduled.set(false);
+
+      if (tableViewer.getTable().isDisposed()) {
+         return;
+      }
+
+      long received = nbReceived.get();
+      long from = Math.max(nbFlushed, received - Math.min(capacity, maxSize));
+
+      List<JTBMessage> newMessages = new ArrayList<>((int) (received - from));
+      for (long n = from; n < received; n++) {
+         newMessages.add(ring.get((int) (n % capacity)));
+      }
+
+      // The JMS thread may have overwritten the first slots while they were read. It writes the slot of the next message before
+      // incrementing the counter
+      long overwritten = nbReceived.get() + 1 - capacity - from;
+      if (overwritten > 0) {
+         newMessages = newMessages.subList((int) Math.min(overwritten, newMessages.size()), newMessages.size());
+         from += overwritten;
+      }
+
+      nbDropped += Math.min(from, received) - nbFlushed;
+      nbFlushed = received;
+
+      // Newest messages first. Only the rows visible in the table are redrawn
+      for (JTBMessage jtbMessage : newMessages) {
+         messages.addFirst(jtbMessage);
+      }
+      List<JTBMessage> removedMessages = new ArrayList<>();
+      while (messages.size() > maxSize) {
+         removedMessages.add(messages.pollLast());
+      }
+      boolean overflow = !removedMessages.isEmpty();
+      contentProvider.addFirst(newMessages, removedMessages);
+
+      log.debug("{} : Displayed {} new messages. Received: {} Dropped: {}", jtbTopic, newMessages.size(), received, nbDropped);
+
+      Image image;
+      if (overflow || (nbDropped > 0)) {
+         image = SWTResourceManager.getImage(this.getClass(), "icons/topics/warning-16.png");
+      } else {
+         if (selectorInUse) {
+            image = SWTResourceManager.getImage(this.getClass(), "icons/filter.png");
+         } else {
+            image = SWTResourceManager.getImage(this.getClass(), "icons/topics/play-2-16.png");
          }
-      });
+      }
+      if (image != currentImage) {
+         tabItemTopic.setImage(image);
+         currentImage = image;
+      }
+      tabItemTopic.setToolTipText("Received: " + received + " Dropped: " + nbDropped);
    }
 };
@@ -65,6 +65,11 @@ public final class Constants {
    public static final String   JTB_SCRIPT_CONFIG_FILE_NAME                = "scripts.xml";
    public static final String   JTB_SCRIPT_CONFIG_FILE_EXTENSION           = "*.xml";
 
+   public static final String   JTB_INDEX_FOLDER_NAME                      = ".index";
+   public static final String   JTB_INDEX_FILE_EXTENSION                   = ".idx";
+
+   public static final String   JTB_LOGS_FOLDER_NAME                       = ".logs";
+
    public static final String   JTB_VISUALIZER_CONFIG_FILE_NAME            = "visualizers.xml";
    public static final String   JTB_VISUALIZER_CONFIG_FILE_EXTENSION       = "*.xml";
 
@@ -88,6 +93,8 @@ public final class Constants {
    public static final boolean  PREF_CLEAR_LOGS_EXECUTION_DEFAULT          = false;
    public static final String   PREF_MAX_MESSAGES_TOPIC                    = "max.messages.topic";
    public static final int      PREF_MAX_MESSAGES_TOPIC_DEFAULT            = 100;
+   public static final String   PREF_REMOVE_COMMIT_INTERVAL                = "message.remove.commit.interval";
+   public static final int      PREF_REMOVE_COMMIT_INTERVAL_DEFAULT        = 500;
    public static final String   PREF_CONN_CLIENT_ID_PREFIX                 = "connection.client.id.prefix";
    public static final String   PREF_CONN_CLIENT_ID_PREFIX_DEFAULT         = "JMSToolBox";
    public static final String   PREF_XML_INDENT                            = "xml.indent";
@@ -100,6 +107,18 @@ public final class Constants {
    public static final boolean  PREF_AUTO_RESIZE_COLS_BROWSER_DEFAULT      = false;
    public static final String   PREF_EDIT_MESSAGE_DND                      = "message.browser.edit.message.dnd";
    public static final boolean  PREF_EDIT_MESSAGE_DND_DEFAULT              = false;
+   public static final String   PREF_MESSAGE_INDEX                         = "message.browser.local.index";
+   public static final boolean  PREF_MESSAGE_INDEX_DEFAULT                 = false;
+   public static final String   PREF_BROWSE_RELEASE_PAYLOADS               = "message.browser.release.payloads";
+   public static final boolean  PREF_BROWSE_RELEASE_PAYLOADS_DEFAULT       = false;
+   public static final String   PREF_Q_DEPTH_NB_THREADS                    = "queue.depth.nb.threads";
+   public static final int      PREF_Q_DEPTH_NB_THREADS_DEFAULT            = 4;
+   public static final String   PREF_Q_DEPTH_TIMEOUT                       = "queue.depth.timeout";
+   public static final int      PREF_Q_DEPTH_TIMEOUT_DEFAULT               = 15;
+   public static final String   PREF_Q_DEPTH_HISTORY_PERSIST               = "queue.depth.history.persist";
+   public static final boolean  PREF_Q_DEPTH_HISTORY_PERSIST_DEFAULT       = false;
+   public static final String   PREF_CONN_SESSION_POOL_SIZE                = "connection.session.pool.size";
+   public static final int      PREF_CONN_SESSION_POOL_SIZE_DEFAULT        = 8;
    public static final String   PREF_COLUMNSSET_DEFAULT_NAME               = "columnsset.default.name";
 
    public static final String   PREF_COLUMNSSET_DEFAULT_DEST_PREFIX        = "columnsset.default.dest.prefix.";
@@ -135,6 +154,7 @@ public final class Constants {
    // E4 Events
    public static final String   EVENT_BASE                                 = "org/titou10/jtb/event/";
    public static final String   EVENT_REFRESH_SESSION_BROWSER              = EVENT_BASE + "refresh_session_browser";
+   public static final String   EVENT_DESTINATIONS_CHANGED                 = EVENT_BASE + "destinations_changed";
    public static final String   EVENT_REFRESH_TEMPLATES_BROWSER            = EVENT_BASE + "refresh_templates_browser";
    public static final String   EVENT_REFRESH_SCRIPTS_BROWSER              = EVENT_BASE + "scripts_browser";
    public static final String   EVENT_JTBMESSAGE_PART_REFRESH              = EVENT_BASE + "jtbmessage_refresh";
@@ -142,7 +162,6 @@ public final class Constants {
    public static final String   EVENT_REFRESH_QUEUE_MESSAGES               = EVENT_BASE + "refresh_queue_messages";
    public static final String   EVENT_REFRESH_TOPIC_SHOW_MESSAGES          = EVENT_BASE + "refresh_topic_show_messages";
    public static final String   EVENT_TOPIC_CLEAR_MESSAGES                 = EVENT_BASE + "topic_clear_messages";
-   public static final String   EVENT_REFRESH_EXECUTION_LOG                = EVENT_BASE + "refresh_execution_log";
    public static final String   EVENT_CLEAR_EXECUTION_LOG                  = EVENT_BASE + "clear_execution_log";
    public static final String   EVENT_ADD_SELECTOR_CLAUSE                  = EVENT_BASE + "add_selector_clause";
    public static final String   EVENT_REBUILD_VIEW_NEW_CS                  = EVENT_BASE + "rebuild_view_new_cs";
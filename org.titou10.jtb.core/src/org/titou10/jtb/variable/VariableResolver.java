@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.variable;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+
+import org.titou10.jtb.variable.gen.Variable;
+
+/**
+ * Generates values for a Variable
+ *
+ * Everything that can be computed from the definition of the variable (date format, bounds, characters set..) is computed once
+ * when the resolver is built. A resolver is thread safe
+ *
+ * @author Denis Forveille
+ *
+ */
+final class VariableResolver {
+
+   private static final String                 CHARS_1                = "abcdefghijklmnopqrstuvwxyz";
+   private static final String                 CHARS_2                = CHARS_1.toUpperCase();
+   private static final String                 CHARS_3                = "0123456789";
+
+   private static final String                 CHARS_ALPHABETIC       = CHARS_1 + CHARS_2;
+   private static final String                 CHARS_ALPHANUMERIC     = CHARS_ALPHABETIC + CHARS_3;
+   private static final String                 CHARS_NUMERIC          = CHARS_3;
+
+   private final Variable                      variable;
+
+   // DATE
+   private final ThreadLocal<SimpleDateFormat> sdf;
+   private long                                minDate;
+   private long                                diffDate;
+   private int                                 offsetField;
+   private int                                 offset;
+
+   // INT
+   private int                                 minInt;
+   private int                                 diffInt;
+
+   // LIST
+   private List<String>                        listValues;
+
+   // STRING
+   private String                              chars;
+   private int                                 charsLength;
+   private int                                 stringLength;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   VariableResolver(Variable variable) {
+      this.variable = variable;
+
+      switch (variable.getKind()) {
+         case DATE:
+            String pattern = variable.getDateTimePattern();
+            this.sdf = ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+            switch (variable.getDateTimeKind()) {
+               case STANDARD:
+                  break;
+
+               case RANGE:
+                  this.minDate = variable.getDateTimeMin().toGregorianCalendar().getTime().getTime();
+                  long maxDate = variable.getDateTimeMax().toGregorianCalendar().getTime().getTime();
+                  this.diffDate = maxDate - minDate;
+                  break;
+
+               case OFFSET:
+                  this.offset = variable.getDateTimeOffset();
+                  switch (variable.getDateTimeOffsetTU()) {
+                     case DAYS:
+                        this.offsetField = Calendar.DAY_OF_MONTH;
+                        break;
+                     case HOURS:
+                        this.offsetField = Calendar.HOUR_OF_DAY;
+                        break;
+                     case MILLISECONDS:
+                        this.offsetField = Calendar.MILLISECOND;
+                        break;
+                     case MINUTES:
+                        this.offsetField = Calendar.MINUTE;
+                        break;
+                     case MONTHS:
+                        this.offsetField = Calendar.MONTH;
+                        break;
+                     case SECONDS:
+                        this.offsetField = Calendar.SECOND;
+                        break;
+                     case YEARS:
+                        this.offsetField = Calendar.YEAR;
+                        break;
+                  }
+                  break;
+            }
+            break;
+
+         case INT:
+            this.sdf = null;
+            this.minInt = variable.getMin();
+            this.diffInt = variable.getMax() - variable.getMin();
+            break;
+
+         case LIST:
+            this.sdf = null;
+            this.listValues = variable.getListValue();
+            break;
+
+         case STRING:
+            this.sdf = null;
+            this.stringLength = variable.getStringLength();
+            switch (variable.getStringKind()) {
+               case ALPHABETIC:
+                  this.chars = CHARS_ALPHABETIC;
+                  break;
+               case ALPHANUMERIC:
+                  this.chars = CHARS_ALPHANUMERIC;
+                  break;
+               case NUMERIC:
+                  this.chars = CHARS_NUMERIC;
+                  break;
+               case CUSTOM:
+                  this.chars = variable.getStringChars();
+                  break;
+            }
+            this.charsLength = chars.length();
+            break;
+
+         default:
+            this.sdf = null;
+            break;
+      }
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   String resolve(Random r) {
+
+      switch (variable.getKind()) {
+         case DATE:
+            switch (variable.getDateTimeKind()) {
+               case STANDARD:
+                  return sdf.get().format(new Date());
+
+               case RANGE:
+                  return sdf.get().format(new Date(nextLong(r, diffDate) + minDate));
+
+               case OFFSET:
+                  Calendar c = new GregorianCalendar();
+                  c.add(offsetField, offset);
+                  return sdf.get().format(c.getTime());
+            }
+            break;
+
+         case INT:
+            return String.valueOf(r.nextInt(diffInt) + minInt);
+
+         case LIST:
+            return listValues.get(r.nextInt(listValues.size()));
+
+         case STRING:
+            char[] text = new char[stringLength];
+            for (int i = 0; i < stringLength; i++) {
+               text[i] = chars.charAt(r.nextInt(charsLength));
+            }
+            return new String(text);
+      }
+
+      // Impossible
+      return null;
+   }
+
+   String getName() {
+      return variable.getName();
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   private long nextLong(Random rng, long n) {
+      // error checking and 2^x checking removed for simplicity.
+      long bits, val;
+      do {
+         bits = (rng.nextLong() << 1) >>> 1;
+         val = bits % n;
+      } while (bits - val + (n - 1) < 0L);
+      return val;
+   }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2015 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.variable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A text with "${name}" placeholders, parsed once into literal and placeholder segments
+ *
+ * Rendering a message is a single pass over the segments. Each variable is resolved at most once per rendering, so all the
+ * occurences of the same variable get the same value. Placeholders that do not correspond to a known variable are left as is.
+ * Instances are immutable and can be rendered concurrently
+ *
+ * @author Denis Forveille
+ *
+ */
+public final class VariableTemplate {
+
+   private static final String      PREFIX = "${";
+   private static final char        SUFFIX = '}';
+
+   private final String             text;
+
+   // literals[i] is the text before placeholder i, the last literal is the text after the last placeholder
+   private final String[]           literals;
+   private final String[]           placeholders;
+
+   // >= 0: index in resolvers. < 0: -(index in dataFileVariableNames) - 1
+   private final int[]              slots;
+
+   private final VariableResolver[] resolvers;
+   private final String[]           dataFileVariableNames;
+
+   // ------------
+   // Constructors
+   // ------------
+
+   private VariableTemplate(String text,
+                            String[] literals,
+                            String[] placeholders,
+                            int[] slots,
+                            VariableResolver[] resolvers,
+                            String[] dataFileVariableNames) {
+      this.text = text;
+      this.literals = literals;
+      this.placeholders = placeholders;
+      this.slots = slots;
+      this.resolvers = resolvers;
+      this.dataFileVariableNames = dataFileVariableNames;
+   }
+
+   // Data file variables take precedence over variables with the same name
+   static VariableTemplate compile(String text,
+                                   Collection<VariableResolver> variables,
+                                   Collection<String> dataFileVariableNames) {
+      if ((text == null) || (text.isEmpty())) {
+         return new VariableTemplate(text,
+                                     new String[] { text },
+                                     new String[0],
+                                     new int[0],
+                                     new VariableResolver[0],
+                                     new String[0]);
+      }
+
+      Map<String, Integer> dataFileIndexes = new HashMap<>();
+      List<String> dataFileNames = new ArrayList<>();
+      for (String name : dataFileVariableNames) {
+         if (!dataFileIndexes.containsKey(name)) {
+            dataFileIndexes.put(name, -dataFileNames.size() - 1);
+            dataFileNames.add(name);
+         }
+      }
+
+      Map<String, VariableResolver> variablesByName = new HashMap<>();
+      for (VariableResolver v : variables) {
+         variablesByName.put(v.getName(), v);
+      }
+
+      List<String> literals = new ArrayList<>();
+      List<String> placeholders = new ArrayList<>();
+      List<Integer> slots = new ArrayList<>();
+      Map<String, Integer> resolverIndexes = new HashMap<>();
+      List<VariableResolver> resolvers = new ArrayList<>();
+
+      int literalStart = 0;
+      int pos = 0;
+      int start;
+      while ((start = text.indexOf(PREFIX, pos)) >= 0) {
+         int end = text.indexOf(SUFFIX, start + PREFIX.length());
+         if (end < 0) {
+            break;
+         }
+         String name = text.substring(start + PREFIX.length(), end);
+
+         Integer slot = dataFileIndexes.get(name);
+         if (slot == null) {
+            slot = resolverIndexes.get(name);
+            if (slot == null) {
+               VariableResolver v = variablesByName.get(name);
+               if (v == null) {
+                  // Unknown variable, keep it in the literal
+                  pos = start + PREFIX.length();
+                  continue;
+               }
+               slot = resolvers.size();
+               resolverIndexes.put(name, slot);
+               resolvers.add(v);
+            }
+         }
+
+         literals.add(text.substring(literalStart, start));
+         placeholders.add(text.substring(start, end + 1));
+         slots.add(slot);
+
+         literalStart = end + 1;
+         pos = literalStart;
+      }
+      literals.add(text.substring(literalStart));
+
+      int[] s = new int[slots.size()];
+      for (int i = 0; i < s.length; i++) {
+         s[i] = slots.get(i);
+      }
+
+      return new VariableTemplate(text,
+                                  literals.toArray(new String[literals.size()]),
+                                  placeholders.toArray(new String[placeholders.size()]),
+                                  s,
+                                  resolvers.toArray(new VariableResolver[resolvers.size()]),
+                                  dataFileNames.toArray(new String[dataFileNames.size()]));
+   }
+
+   // ------------------
+   // Business Interface
+   // ------------------
+
+   public String render() {
+      return render(null);
+   }
+
+   // Data file variables that are not present in dataFileVariables are left as is
+   public String render(Map<String, String> dataFileVariables) {
+      if (slots.length == 0) {
+         return text;
+      }
+
+      Random r = ThreadLocalRandom.current();
+      String[] values = new String[resolvers.length];
+
+      StringBuilder sb = new StringBuilder(text.length() + (slots.length * 16));
+      for (int i = 0; i < slots.length; i++) {
+         sb.append(literals[i]);
+
+         int slot = slots[i];
+         String value;
+         if (slot >= 0) {
+            value = values[slot];
+            if (value == null) {
+               value = resolvers[slot].resolve(r);
+               values[slot] = value;
+            }
+         } else {
+            value = dataFileVariables == null ? null : dataFileVariables.get(dataFileVariableNames[-slot - 1]);
+            if (value == null) {
+               value = placeholders[i];
+            }
+         }
+         sb.append(value);
+      }
+      sb.append(literals[slots.length]);
+
+      return sb.toString();
+   }
+
+}
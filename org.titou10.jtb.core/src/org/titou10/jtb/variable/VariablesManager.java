@@ -25,13 +25,12 @@ import java.io.UnsupportedEncodingException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
 
 import javax.annotation.PostConstruct;
@@ -75,18 +74,6 @@ public class VariablesManager {
    private static final String            ENC                    = "UTF-8";
    private static final String            EMPTY_VARIABLE_FILE    = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><variables></variables>";
 
-   private static final String            CHARS_1                = "abcdefghijklmnopqrstuvwxyz";
-   private static final String            CHARS_2                = CHARS_1.toUpperCase();
-   private static final String            CHARS_3                = "0123456789";
-
-   private static final String            CHARS_ALPHABETIC       = CHARS_1 + CHARS_2;
-   private static final String            CHARS_ALPHANUMERIC     = CHARS_ALPHABETIC + CHARS_3;
-   private static final String            CHARS_NUMERIC          = CHARS_3;
-
-   private static final int               CHARS_ALPHABETIC_LEN   = CHARS_ALPHABETIC.length();
-   private static final int               CHARS_ALPHANUMERIC_LEN = CHARS_ALPHANUMERIC.length();
-   private static final int               CHARS_NUMERIC_LEN      = CHARS_NUMERIC.length();
-
    private static final int               INT_MIN                = 0;
    private static final int               INT_MAX                = 9999;
 
@@ -187,19 +174,14 @@ public class VariablesManager {
    // Variables Helper
    // ---------------------------
 
+   // Replace the data file variables, leave the other variables untouched
    public String replaceDataFileVariables(Map<String, String> dataFileVariables, String originalText) {
       if (Utils.isEmpty(originalText)) {
          return originalText;
       }
 
-      String res = originalText;
-
-      for (Entry<String, String> e : dataFileVariables.entrySet()) {
-         String v = buildVariableReplaceName(e.getKey());
-         res = res.replaceAll(v, e.getValue());
-      }
-
-      return res;
+      VariableTemplate template = VariableTemplate.compile(originalText, Collections.emptyList(), dataFileVariables.keySet());
+      return template.render(dataFileVariables);
    }
 
    public String replaceTemplateVariables(String originalText) {
@@ -207,110 +189,20 @@ public class VariablesManager {
          return originalText;
       }
 
-      StringBuilder tag1 = new StringBuilder(64);
-      StringBuilder tag2 = new StringBuilder(64);
-      Random r = new Random(System.nanoTime());
-
-      String res = originalText;
+      return compileTemplate(originalText, Collections.emptyList()).render();
+   }
 
-      // For each possible variable
+   // Parse a text once to render it many times with different values for the variables
+   public VariableTemplate compileTemplate(String originalText, Collection<String> dataFileVariableNames) {
+      List<VariableResolver> resolvers = new ArrayList<>(variables.size());
       for (Variable v : variables) {
-         tag2.setLength(0);
-         tag2.append(buildVariableDisplayName(v));
-
-         if (res.contains(tag2)) {
-            tag1.setLength(0);
-            tag1.append(buildVariableReplaceName(v.getName()));
-            String val = resolveVariable(r, v);
-            res = res.replaceAll(tag1.toString(), val);
-         }
+         resolvers.add(new VariableResolver(v));
       }
-      return res;
+      return VariableTemplate.compile(originalText, resolvers, dataFileVariableNames);
    }
 
    public String resolveVariable(Random r, Variable variable) {
-
-      switch (variable.getKind()) {
-         case DATE:
-            SimpleDateFormat sdf = new SimpleDateFormat(variable.getDateTimePattern());
-            switch (variable.getDateTimeKind()) {
-               case STANDARD:
-                  return sdf.format(new Date());
-
-               case RANGE:
-                  long minDate = variable.getDateTimeMin().toGregorianCalendar().getTime().getTime();
-                  long maxDate = variable.getDateTimeMax().toGregorianCalendar().getTime().getTime();
-                  long diff = maxDate - minDate;
-                  long date = nextLong(r, diff) + minDate;
-
-                  return sdf.format(new Date(date));
-
-               case OFFSET:
-                  Calendar c = new GregorianCalendar();
-                  switch (variable.getDateTimeOffsetTU()) {
-                     case DAYS:
-                        c.add(Calendar.DAY_OF_MONTH, variable.getDateTimeOffset());
-                        break;
-                     case HOURS:
-                        c.add(Calendar.HOUR_OF_DAY, variable.getDateTimeOffset());
-                        break;
-                     case MILLISECONDS:
-                        c.add(Calendar.MILLISECOND, variable.getDateTimeOffset());
-                        break;
-                     case MINUTES:
-                        c.add(Calendar.MINUTE, variable.getDateTimeOffset());
-                        break;
-                     case MONTHS:
-                        c.add(Calendar.MONTH, variable.getDateTimeOffset());
-                        break;
-                     case SECONDS:
-                        c.add(Calendar.SECOND, variable.getDateTimeOffset());
-                        break;
-                     case YEARS:
-                        c.add(Calendar.YEAR, variable.getDateTimeOffset());
-                        break;
-                  }
-
-                  return sdf.format(c.getTime());
-
-            }
-
-         case INT:
-            int val = r.nextInt(variable.getMax() - variable.getMin()) + variable.getMin();
-            return String.valueOf(val);
-
-         case LIST:
-            int index = r.nextInt(variable.getListValue().size());
-            return variable.getListValue().get(index);
-
-         case STRING:
-            char[] text = new char[variable.getStringLength()];
-            switch (variable.getStringKind()) {
-               case ALPHABETIC:
-                  for (int i = 0; i < variable.getStringLength(); i++) {
-                     text[i] = CHARS_ALPHABETIC.charAt(r.nextInt(CHARS_ALPHABETIC_LEN));
-                  }
-               case ALPHANUMERIC:
-                  for (int i = 0; i < variable.getStringLength(); i++) {
-                     text[i] = CHARS_ALPHANUMERIC.charAt(r.nextInt(CHARS_ALPHANUMERIC_LEN));
-                  }
-                  break;
-               case NUMERIC:
-                  for (int i = 0; i < variable.getStringLength(); i++) {
-                     text[i] = CHARS_NUMERIC.charAt(r.nextInt(CHARS_NUMERIC_LEN));
-                  }
-                  break;
-               case CUSTOM:
-                  for (int i = 0; i < variable.getStringLength(); i++) {
-                     text[i] = variable.getStringChars().charAt(r.nextInt(variable.getStringChars().length()));
-                  }
-                  break;
-            }
-            return new String(text);
-      }
-
-      // Impossible
-      return null;
+      return new VariableResolver(variable).resolve(r);
    }
 
    // ----------------------
@@ -525,16 +417,6 @@ public class VariablesManager {
       }
    }
 
-   private long nextLong(Random rng, long n) {
-      // error checking and 2^x checking removed for simplicity.
-      long bits, val;
-      do {
-         bits = (rng.nextLong() << 1) >>> 1;
-         val = bits % n;
-      } while (bits - val + (n - 1) < 0L);
-      return val;
-   }
-
    // Parse Variables File into Variables Object
    private Variables parseVariablesFile(InputStream is) throws JAXBException {
       log.debug("Parsing Variable file '{}'", Constants.JTB_VARIABLE_CONFIG_FILE_NAME);
@@ -18,8 +18,10 @@ package org.titou10.jtb.qm.activemq;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +31,8 @@ import java.util.TreeSet;
 
 import javax.jms.Connection;
 import javax.jms.JMSException;
+import javax.management.Attribute;
+import javax.management.AttributeList;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
@@ -52,6 +56,9 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
+import org.titou10.jtb.jms.qm.PayloadSearch;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -88,6 +95,8 @@ public class ActiveMQQManager extends QManager {
    private static final QueryExp           JMX_BROKER_QUERY       = Query
             .isInstanceOf(Query.value("org.apache.activemq.broker.jmx.BrokerViewMBean"));
 
+   private static final String[]           QUEUE_SIZE_ATTRIBUTE   = { "QueueSize" };
+
    private static final String             SYSTEM_PREFIX          = "ActiveMQ.";
 
    private static final String             CR                     = "\n";
@@ -107,7 +116,7 @@ public class ActiveMQQManager extends QManager {
 
    private static final String             HELP_TEXT;
 
-   private final Map<Integer, SessionInfo> sessionsInfo           = new HashMap<>();
+   private final ManagementContexts<SessionInfo> sessionsInfo = new ManagementContexts<>();
 
    // ------------------------
    // Constructor
@@ -269,7 +278,7 @@ public class ActiveMQQManager extends QManager {
 
          // Store per connection related data
          SessionInfo sessionInfo = new SessionInfo(useJMX, jmxc, mbsc, versionAndMaster);
-         sessionsInfo.put(jmsConnection.hashCode(), sessionInfo);
+         sessionsInfo.put(jmsConnection, sessionInfo);
 
          return jmsConnection;
       } finally {
@@ -279,7 +288,7 @@ public class ActiveMQQManager extends QManager {
 
    @Override
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
-      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection.hashCode());
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
       return sessionInfo.isUseJMX() ? withJMX(jmsConnection, showSystemObjects) : withoutJMX(jmsConnection, showSystemObjects);
    }
 
@@ -330,7 +339,7 @@ public class ActiveMQQManager extends QManager {
    public DestinationData withJMX(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinationsWithJMX : {} - {}", jmsConnection, showSystemObjects);
 
-      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection.hashCode());
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
       MBeanServerConnection mbsc = sessionInfo.getMbsc();
       boolean legacy = sessionInfo.isUseLegacys();
 
@@ -424,23 +433,12 @@ public class ActiveMQQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      SessionInfo sessionInfo = sessionsInfo.get(hash);
-      JMXConnector jmxc = sessionInfo.getJmxc();
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
-      if (jmxc != null) {
-         try {
-            jmxc.close();
-         } catch (IOException e) {
-            log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
-         }
-      }
-      sessionsInfo.remove(hash);
+      sessionsInfo.close(jmsConnection);
    }
 
    @Override
@@ -451,7 +449,7 @@ public class ActiveMQQManager extends QManager {
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection.hashCode());
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
 
       if (!sessionInfo.isUseJMX()) {
          // No JMX. Count the nb of message by hand...
@@ -475,12 +473,110 @@ public class ActiveMQQManager extends QManager {
       return depth;
    }
 
+   @Override
+   public Map<String, Integer> getQueueDepths(Connection jmsConnection, Collection<String> queueNames) {
+
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
+
+      if (!sessionInfo.isUseJMX()) {
+         return super.getQueueDepths(jmsConnection, queueNames);
+      }
+
+      MBeanServerConnection mbsc = sessionInfo.getMbsc();
+      boolean legacy = sessionInfo.isUseLegacys();
+
+      // One query for the MBeans of all the queues, then read the size of the ones requested
+      Set<String> names = new HashSet<>(queueNames);
+      Map<String, Integer> depths = new HashMap<>(queueNames.size());
+      try {
+         ObjectName on = new ObjectName(legacy ? JMX_QUEUES_LEGACY : JMX_QUEUES);
+         Set<ObjectName> queuesSet = mbsc.queryNames(on, null);
+         for (ObjectName objectName : queuesSet) {
+            String dName = objectName.getKeyProperty(legacy ? "Destination" : "destinationName");
+            if ((dName == null) || (!names.contains(dName)) || (depths.containsKey(dName))) {
+               continue;
+            }
+            // The query also matches the consumers and producers MBeans of the queue
+            if (objectName.getKeyProperty("endpoint") != null) {
+               continue;
+            }
+            try {
+               AttributeList attributes = mbsc.getAttributes(objectName, QUEUE_SIZE_ATTRIBUTE);
+               if (!attributes.isEmpty()) {
+                  depths.put(dName, ((Long) ((Attribute) attributes.get(0)).getValue()).intValue());
+               }
+            } catch (InstanceNotFoundException e) {
+               log.debug("Queue '{}' disappeared while reading queue depths. Ignoring", dName);
+            }
+         }
+      } catch (Exception e) {
+         log.error("Exception when reading queue depths. Ignoring", e);
+      }
+      return depths;
+   }
+
+   @Override
+   public boolean supportsBulkQueueDepths() {
+      return true;
+   }
+
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      Integer depth = getQueueDepth(jmsConnection, queueName);
+      invokeQueueOperation(jmsConnection, queueName, "purge", new Object[] {}, new String[] {});
+      return depth == null ? -1 : depth;
+   }
+
+   @Override
+   public int removeMessages(Connection jmsConnection, String queueName, String selector) throws Exception {
+      Object nb = invokeQueueOperation(jmsConnection,
+                                       queueName,
+                                       "removeMatchingMessages",
+                                       new Object[] { selector },
+                                       new String[] { String.class.getName() });
+      return ((Number) nb).intValue();
+   }
+
+   @Override
+   public int moveMessages(Connection jmsConnection, String queueName, String selector, String targetQueueName) throws Exception {
+      Object nb = invokeQueueOperation(jmsConnection,
+                                       queueName,
+                                       "moveMatchingMessagesTo",
+                                       new Object[] { selector, targetQueueName },
+                                       new String[] { String.class.getName(), String.class.getName() });
+      return ((Number) nb).intValue();
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsRemoveMessages() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsMoveMessages() {
+      return true;
+   }
+
+   // ActiveMQ evaluates XPath expressions on the body of TextMessages in selectors
+   @Override
+   public String buildPayloadSearchSelector(PayloadSearch payloadSearch) {
+      if (payloadSearch.getKind() != PayloadSearch.Kind.XPATH) {
+         return null;
+      }
+      return "XPATH '" + payloadSearch.getExpression().replace("'", "''") + "'";
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection.hashCode());
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
 
       if (!sessionInfo.isUseJMX()) {
          // No JMX. No destination Info...
@@ -551,7 +647,7 @@ public class ActiveMQQManager extends QManager {
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection.hashCode());
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
 
       if (!sessionInfo.isUseJMX()) {
          // No JMX. No destination Info...
@@ -684,6 +780,32 @@ public class ActiveMQQManager extends QManager {
       HELP_TEXT = sb.toString();
    }
 
+   // Invoke an operation of the QueueViewMBean of a queue
+   private Object invokeQueueOperation(Connection jmsConnection,
+                                       String queueName,
+                                       String operationName,
+                                       Object[] params,
+                                       String[] signature) throws Exception {
+
+      SessionInfo sessionInfo = sessionsInfo.get(jmsConnection);
+      if (!sessionInfo.isUseJMX()) {
+         throw new UnsupportedOperationException("'" + operationName + "' requires a JMX connection");
+      }
+
+      MBeanServerConnection mbsc = sessionInfo.getMbsc();
+      boolean legacy = sessionInfo.isUseLegacys();
+
+      ObjectName on = new ObjectName(String.format(legacy ? JMX_QUEUE_LEGACY : JMX_QUEUE, queueName));
+      for (ObjectName objectName : mbsc.queryNames(on, null)) {
+         // The query also matches the consumers and producers MBeans of the queue
+         if (objectName.getKeyProperty("endpoint") == null) {
+            log.debug("Invoking '{}' on {}", operationName, objectName);
+            return mbsc.invoke(objectName, operationName, params, signature);
+         }
+      }
+      throw new InstanceNotFoundException("No MBean found for queue '" + queueName + "'");
+   }
+
    // Return:
    // null : slave
    // true : ActiveMQ < 5.0.8
@@ -740,11 +862,11 @@ public class ActiveMQQManager extends QManager {
     * @author Denis Forveille
     *
     */
-   private class SessionInfo {
-      private boolean               useJMX;
-      private JMXConnector          jmxc;
-      private MBeanServerConnection mbsc;
-      private Boolean               useLegacys;
+   private static final class SessionInfo implements ManagementContext {
+      private final boolean               useJMX;
+      private final JMXConnector          jmxc;
+      private final MBeanServerConnection mbsc;
+      private final Boolean               useLegacys;
 
       public SessionInfo(boolean useJMX, JMXConnector jmxc, MBeanServerConnection mbsc, Boolean versionAndMaster) {
          this.useJMX = useJMX;
@@ -753,6 +875,18 @@ public class ActiveMQQManager extends QManager {
          this.useLegacys = versionAndMaster;
       }
 
+      // The JMX connection is thread safe and shared by the concurrent management requests
+      @Override
+      public void close() {
+         if (jmxc != null) {
+            try {
+               jmxc.close();
+            } catch (IOException e) {
+               log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
+            }
+         }
+      }
+
       public boolean isUseJMX() {
          return useJMX;
       }
@@ -44,8 +44,11 @@ import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
+import org.titou10.jtb.jms.qm.AdminChannelFactory;
+import org.titou10.jtb.jms.qm.AdminChannelPool;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -75,8 +78,7 @@ public class ActiveMQArtemisQManager extends QManager {
 
    private Queue                              managementQueue      = ActiveMQJMSClient.createQueue("activemq.management");
 
-   private final Map<Integer, Session>        sessionJMSs          = new HashMap<>();
-   private final Map<Integer, QueueRequestor> requestorJMSs        = new HashMap<>();
+   private final ManagementContexts<AdminChannelPool<AdminChannel>> contexts = new ManagementContexts<>();
 
    public ActiveMQArtemisQManager() {
       log.debug("Apache Active MQ Artemis v1.x (legacy)");
@@ -179,15 +181,17 @@ public class ActiveMQArtemisQManager extends QManager {
          jmsConnection.setClientID(clientID);
          jmsConnection.start();
 
-         Session sessionJMS = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-         QueueRequestor requestorJMS = new QueueRequestor((QueueSession) sessionJMS, managementQueue);
+         // Management requests are sent concurrently on a small pool of sessions
+         AdminChannelCreator creator = new AdminChannelCreator(jmsConnection, managementQueue);
+         AdminChannelPool<AdminChannel> adminChannels = new AdminChannelPool<>(sessionDef.getName(),
+                                                                               AdminChannelPool.DEFAULT_SIZE,
+                                                                               creator,
+                                                                               creator.create());
 
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         sessionJMSs.put(hash, sessionJMS);
-         requestorJMSs.put(hash, requestorJMS);
+         contexts.put(jmsConnection, adminChannels);
 
          return jmsConnection;
       } finally {
@@ -200,13 +204,11 @@ public class ActiveMQArtemisQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       // Retrieve Queues
       SortedSet<QueueData> listQueueData = new TreeSet<>();
-      Object[] queueNames = sendAdminMessage(Object[].class, sessionJMS, requestorJMS, ResourceNames.JMS_SERVER, "queueNames");
+      Object[] queueNames = sendAdminMessage(Object[].class, adminChannels, ResourceNames.JMS_SERVER, "queueNames");
       log.debug("queueNames = {} {}", queueNames, queueNames.getClass());
       for (Object o : queueNames) {
          log.debug("q={}", o);
@@ -215,7 +217,7 @@ public class ActiveMQArtemisQManager extends QManager {
 
       // Retrieve Topics
       SortedSet<TopicData> listTopicData = new TreeSet<>();
-      Object[] topicNames = sendAdminMessage(Object[].class, sessionJMS, requestorJMS, ResourceNames.JMS_SERVER, "topicNames");
+      Object[] topicNames = sendAdminMessage(Object[].class, adminChannels, ResourceNames.JMS_SERVER, "topicNames");
       for (Object o : topicNames) {
          log.debug("t={}", o.toString());
          listTopicData.add(new TopicData((String) o));
@@ -229,27 +231,7 @@ public class ActiveMQArtemisQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
-
-      if (requestorJMS != null) {
-         try {
-            requestorJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occured while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
-         }
-         requestorJMSs.remove(hash);
-      }
-
-      if (sessionJMS != null) {
-         try {
-            sessionJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occured while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
-         }
-         sessionJMSs.remove(hash);
-      }
+      contexts.close(jmsConnection);
 
       try {
          jmsConnection.close();
@@ -260,35 +242,101 @@ public class ActiveMQArtemisQManager extends QManager {
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
-      Number n = samNull(Number.class, sessionJMS, requestorJMS, ResourceNames.JMS_QUEUE + queueName, "messageCount");
+      Number n = samNull(Number.class, adminChannels, ResourceNames.JMS_QUEUE + queueName, "messageCount");
       return n == null ? null : n.intValue();
    }
 
+   // JMSQueueControl takes JMS selectors. A null filter matches all the messages
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      return removeMessages(jmsConnection, queueName, null);
+   }
+
+   @Override
+   public int removeMessages(Connection jmsConnection, String queueName, String selector) throws Exception {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      Number n = sendAdminOperation(Number.class,
+                                    adminChannels,
+                                    ResourceNames.JMS_QUEUE + queueName,
+                                    "removeMessages",
+                                    selector);
+      return n == null ? -1 : n.intValue();
+   }
+
+   @Override
+   public int moveMessages(Connection jmsConnection, String queueName, String selector, String targetQueueName) throws Exception {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      Number n = sendAdminOperation(Number.class,
+                                    adminChannels,
+                                    ResourceNames.JMS_QUEUE + queueName,
+                                    "moveMessages",
+                                    selector,
+                                    targetQueueName);
+      return n == null ? -1 : n.intValue();
+   }
+
+   // The age of the first message is null when the queue is empty
+   @Override
+   public Long getOldestMessageAge(Connection jmsConnection, String queueName) {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      try {
+         Number n = sendAdminMessage(Number.class, adminChannels, ResourceNames.JMS_QUEUE + queueName, "firstMessageAge");
+         return n == null ? null : n.longValue();
+      } catch (Exception e) {
+         log.debug("Exception occurred when reading first message age of queue '{}'. Ignoring: {}", queueName, e.getMessage());
+         return null;
+      }
+   }
+
+   @Override
+   public boolean supportsOldestMessageAge() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsConcurrentManagement() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsRemoveMessages() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsMoveMessages() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       String jmsQueueName = ResourceNames.JMS_QUEUE + queueName;
 
       Map<String, Object> properties = new LinkedHashMap<>();
-      properties.put("Paused", samNull(Boolean.class, sessionJMS, requestorJMS, jmsQueueName, "paused"));
-      properties.put("Temporary", samNull(Boolean.class, sessionJMS, requestorJMS, jmsQueueName, "temporary"));
-      properties.put("Message Count", samNull(Long.class, sessionJMS, requestorJMS, jmsQueueName, "messageCount"));
-      properties.put("Scheduled Count", samNull(Long.class, sessionJMS, requestorJMS, jmsQueueName, "scheduledCount"));
-      properties.put("Consumer Count", samNull(Integer.class, sessionJMS, requestorJMS, jmsQueueName, "consumerCount"));
-      properties.put("Delivering Count", samNull(Integer.class, sessionJMS, requestorJMS, jmsQueueName, "deliveringCount"));
-      properties.put("Messages Added", samNull(Long.class, sessionJMS, requestorJMS, jmsQueueName, "messagesAdded"));
-      properties.put("Dead Letter Address", samNull(String.class, sessionJMS, requestorJMS, jmsQueueName, "deadLetterAddress"));
-      properties.put("Expiry Address", samNull(String.class, sessionJMS, requestorJMS, jmsQueueName, "expiryAddress"));
-
-      Long fmAge = samNull(Long.class, sessionJMS, requestorJMS, jmsQueueName, "firstMessageAge");
+      properties.put("Paused", samNull(Boolean.class, adminChannels, jmsQueueName, "paused"));
+      properties.put("Temporary", samNull(Boolean.class, adminChannels, jmsQueueName, "temporary"));
+      properties.put("Message Count", samNull(Long.class, adminChannels, jmsQueueName, "messageCount"));
+      properties.put("Scheduled Count", samNull(Long.class, adminChannels, jmsQueueName, "scheduledCount"));
+      properties.put("Consumer Count", samNull(Integer.class, adminChannels, jmsQueueName, "consumerCount"));
+      properties.put("Delivering Count", samNull(Integer.class, adminChannels, jmsQueueName, "deliveringCount"));
+      properties.put("Messages Added", samNull(Long.class, adminChannels, jmsQueueName, "messagesAdded"));
+      properties.put("Dead Letter Address", samNull(String.class, adminChannels, jmsQueueName, "deadLetterAddress"));
+      properties.put("Expiry Address", samNull(String.class, adminChannels, jmsQueueName, "expiryAddress"));
+
+      Long fmAge = samNull(Long.class, adminChannels, jmsQueueName, "firstMessageAge");
       properties.put("First Message Age",
                      fmAge == null ? NA
                               : Duration.ofMillis(fmAge).toString().replace("PT", " ").replace("H", "h ").replace("M", "m ")
@@ -300,26 +348,24 @@ public class ActiveMQArtemisQManager extends QManager {
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       String jmsTopicName = ResourceNames.JMS_TOPIC + topicName;
 
       Map<String, Object> properties = new LinkedHashMap<>();
-      properties.put("Temporary", samNull(Boolean.class, sessionJMS, requestorJMS, jmsTopicName, "temporary"));
-      properties.put("Message Count", samNull(Long.class, sessionJMS, requestorJMS, jmsTopicName, "messageCount"));
+      properties.put("Temporary", samNull(Boolean.class, adminChannels, jmsTopicName, "temporary"));
+      properties.put("Message Count", samNull(Long.class, adminChannels, jmsTopicName, "messageCount"));
       properties.put("Durable Message Count",
-                     samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "durableMessageCount"));
+                     samNull(Integer.class, adminChannels, jmsTopicName, "durableMessageCount"));
       properties.put("Non Durable Message Count",
-                     samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "nonDurableMessageCount"));
-      properties.put("Delivering Count", samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "deliveringCount"));
+                     samNull(Integer.class, adminChannels, jmsTopicName, "nonDurableMessageCount"));
+      properties.put("Delivering Count", samNull(Integer.class, adminChannels, jmsTopicName, "deliveringCount"));
       properties.put("Durable Subscription Count",
-                     samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "durableSubscriptionCount"));
+                     samNull(Integer.class, adminChannels, jmsTopicName, "durableSubscriptionCount"));
       properties.put("Non Durable Subscription Count",
-                     samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "nonDurableSubscriptionCount"));
-      properties.put("Subscription Count", samNull(Integer.class, sessionJMS, requestorJMS, jmsTopicName, "subscriptionCount"));
-      properties.put("Messages Added", samNull(Long.class, sessionJMS, requestorJMS, jmsTopicName, "messagesAdded"));
+                     samNull(Integer.class, adminChannels, jmsTopicName, "nonDurableSubscriptionCount"));
+      properties.put("Subscription Count", samNull(Integer.class, adminChannels, jmsTopicName, "subscriptionCount"));
+      properties.put("Messages Added", samNull(Long.class, adminChannels, jmsTopicName, "messagesAdded"));
 
       return properties;
    }
@@ -377,13 +423,14 @@ public class ActiveMQArtemisQManager extends QManager {
 
    @SuppressWarnings("unchecked")
    private <T> T sendAdminMessage(Class<T> clazz,
-                                  Session sessionJMS,
-                                  QueueRequestor requestorJMS,
+                                  AdminChannelPool<AdminChannel> adminChannels,
                                   String resourceName,
                                   String methodName) throws Exception {
-      Message m = sessionJMS.createMessage();
-      JMSManagementHelper.putAttribute(m, resourceName, methodName);
-      Message r = requestorJMS.request(m);
+      Message r = adminChannels.execute(c -> {
+         Message m = c.session.createMessage();
+         JMSManagementHelper.putAttribute(m, resourceName, methodName);
+         return c.requestor.request(m);
+      });
 
       if (JMSManagementHelper.hasOperationSucceeded(r)) {
          return (T) JMSManagementHelper.getResult(r);
@@ -393,15 +440,79 @@ public class ActiveMQArtemisQManager extends QManager {
       }
    }
 
-   private <T> T samNull(Class<T> clazz, Session sessionJMS, QueueRequestor requestorJMS, String resourceName, String methodName) {
+   @SuppressWarnings("unchecked")
+   private <T> T sendAdminOperation(Class<T> clazz,
+                                    AdminChannelPool<AdminChannel> adminChannels,
+                                    String resourceName,
+                                    String operationName,
+                                    Object... parameters) throws Exception {
+      Message r = adminChannels.execute(c -> {
+         Message m = c.session.createMessage();
+         JMSManagementHelper.putOperationInvocation(m, resourceName, operationName, parameters);
+         return c.requestor.request(m);
+      });
+
+      if (JMSManagementHelper.hasOperationSucceeded(r)) {
+         return (T) JMSManagementHelper.getResult(r);
+      } else {
+         Object resp = JMSManagementHelper.getResult(r);
+         throw new Exception(resp.toString());
+      }
+   }
+
+   private <T> T samNull(Class<T> clazz, AdminChannelPool<AdminChannel> adminChannels, String resourceName, String methodName) {
       try {
-         return sendAdminMessage(clazz, sessionJMS, requestorJMS, resourceName, methodName);
+         return sendAdminMessage(clazz, adminChannels, resourceName, methodName);
       } catch (Exception e) {
          log.warn("Exception occurred when processing an admin message: {}", e);
          return null;
       }
    }
 
+   // Session and QueueRequestor used to send management requests. Not thread safe
+   private static final class AdminChannel {
+      private final Session        session;
+      private final QueueRequestor requestor;
+
+      private AdminChannel(Connection jmsConnection, Queue managementQueue) throws JMSException {
+         this.session = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+         this.requestor = new QueueRequestor((QueueSession) session, managementQueue);
+      }
+
+      private void close() {
+         try {
+            requestor.close();
+         } catch (Exception e) {
+            log.warn("Exception occured while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
+         }
+         try {
+            session.close();
+         } catch (Exception e) {
+            log.warn("Exception occured while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
+   private static final class AdminChannelCreator implements AdminChannelFactory<AdminChannel> {
+      private final Connection jmsConnection;
+      private final Queue      managementQueue;
+
+      private AdminChannelCreator(Connection jmsConnection, Queue managementQueue) {
+         this.jmsConnection = jmsConnection;
+         this.managementQueue = managementQueue;
+      }
+
+      @Override
+      public AdminChannel create() throws JMSException {
+         return new AdminChannel(jmsConnection, managementQueue);
+      }
+
+      @Override
+      public void close(AdminChannel channel) {
+         channel.close();
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
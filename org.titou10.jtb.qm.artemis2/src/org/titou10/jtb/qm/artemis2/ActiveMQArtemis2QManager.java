@@ -17,14 +17,18 @@
 
 package org.titou10.jtb.qm.artemis2;
 
+import java.io.StringReader;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -36,6 +40,13 @@ import javax.jms.Queue;
 import javax.jms.QueueRequestor;
 import javax.jms.QueueSession;
 import javax.jms.Session;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
 
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
 import org.apache.activemq.artemis.api.core.management.ResourceNames;
@@ -45,10 +56,14 @@ import org.apache.activemq.artemis.api.jms.management.JMSManagementHelper;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnectorFactory;
 import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
 import org.apache.activemq.artemis.jms.client.ActiveMQSession;
+import org.apache.activemq.artemis.utils.SelectorTranslator;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
+import org.titou10.jtb.jms.qm.AdminChannelFactory;
+import org.titou10.jtb.jms.qm.AdminChannelPool;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -73,6 +88,8 @@ public class ActiveMQArtemis2QManager extends QManager {
    private static final String                V200_GET_ROUTING_MTD = "deliveryModesAsJSON";
    private static final String                V201_GET_ROUTING_MTD = "routingTypesAsJSON";
 
+   private static final String                LIST_QUEUES_OPTIONS  = "{\"field\":\"\",\"operation\":\"\",\"value\":\"\"}";
+
    private static final String                P_EXTRA_PROPERTIES   = "z_ExtraNettyProperties";
    private static final String                EXTRA_PROPERTIES_SEP = ";";
    private static final String                EXTRA_PROPERTIES_VAL = "=";
@@ -81,8 +98,7 @@ public class ActiveMQArtemis2QManager extends QManager {
 
    private List<QManagerProperty>             parameters           = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, Session>        sessionJMSs          = new HashMap<>();
-   private final Map<Integer, QueueRequestor> requestorJMSs        = new HashMap<>();
+   private final ManagementContexts<AdminChannelPool<AdminChannel>> contexts = new ManagementContexts<>();
 
    public ActiveMQArtemis2QManager() {
       log.debug("Apache Active MQ Artemis v2.x+");
@@ -184,18 +200,18 @@ public class ActiveMQArtemis2QManager extends QManager {
          jmsConnection.setClientID(clientID);
          jmsConnection.start();
 
-         // Admin Objects
+         // Admin Objects. Management requests are sent concurrently on a small pool of sessions
 
-         Session sessionJMS = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-         Queue managementQueue = ((ActiveMQSession) sessionJMS).createQueue("activemq.management");
-         QueueRequestor requestorJMS = new QueueRequestor((QueueSession) sessionJMS, managementQueue);
+         AdminChannelCreator creator = new AdminChannelCreator(jmsConnection);
+         AdminChannelPool<AdminChannel> adminChannels = new AdminChannelPool<>(sessionDef.getName(),
+                                                                               AdminChannelPool.DEFAULT_SIZE,
+                                                                               creator,
+                                                                               creator.create());
 
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         sessionJMSs.put(hash, sessionJMS);
-         requestorJMSs.put(hash, requestorJMS);
+         contexts.put(jmsConnection, adminChannels);
 
          return jmsConnection;
       } finally {
@@ -208,13 +224,11 @@ public class ActiveMQArtemis2QManager extends QManager {
 
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       // Determine server version
       // in v2.0.0, deliveryModesAsJSON is used. In v2.0.1+, getRoutingTypesAsJSON is used
-      String version = sendAdminMessage(String.class, sessionJMS, requestorJMS, ResourceNames.BROKER, "version");
+      String version = sendAdminMessage(String.class, adminChannels, ResourceNames.BROKER, "version");
       log.info("Apache Active MQ Artemis Server is version '{}'", version);
       String getRoutingTypeMtd = version.equals(V200) ? V200_GET_ROUTING_MTD : V201_GET_ROUTING_MTD;
 
@@ -224,21 +238,19 @@ public class ActiveMQArtemis2QManager extends QManager {
 
       SortedSet<QueueData> listQueueData = new TreeSet<>();
       SortedSet<TopicData> listTopicData = new TreeSet<>();
-      Object[] addressNames = sendAdminMessage(Object[].class, sessionJMS, requestorJMS, ResourceNames.BROKER, "addressNames");
+      Object[] addressNames = sendAdminMessage(Object[].class, adminChannels, ResourceNames.BROKER, "addressNames");
       for (Object o : addressNames) {
          log.debug("addressName: {}", o);
 
          String addressName = (String) o;
 
          String deliveryMode = sendAdminMessage(String.class,
-                                                sessionJMS,
-                                                requestorJMS,
+                                                adminChannels,
                                                 ResourceNames.ADDRESS + addressName,
                                                 getRoutingTypeMtd);
 
          Object[] queues = sendAdminMessage(Object[].class,
-                                            sessionJMS,
-                                            requestorJMS,
+                                            adminChannels,
                                             ResourceNames.ADDRESS + addressName,
                                             "queueNames");
 
@@ -299,8 +311,7 @@ public class ActiveMQArtemis2QManager extends QManager {
          SortedSet<QueueData> listQueueDataTemp = new TreeSet<>();
          for (QueueData queueData : listQueueData) {
             Boolean temporary = sendAdminMessage(Boolean.class,
-                                                 sessionJMS,
-                                                 requestorJMS,
+                                                 adminChannels,
                                                  ResourceNames.QUEUE + queueData.getName(),
                                                  "temporary");
             if (temporary) {
@@ -319,52 +330,159 @@ public class ActiveMQArtemis2QManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      contexts.close(jmsConnection);
 
-      if (requestorJMS != null) {
-         try {
-            requestorJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occurred while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
+      try {
+         jmsConnection.close();
+      } catch (Exception e) {
+         log.warn("Exception occurred while closing jmsConnection. Ignore it. Msg={}", e.getMessage());
+      }
+   }
+
+   @Override
+   public Integer getQueueDepth(Connection jmsConnection, String queueName) {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      // Number n = samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messageCount");
+      Number n = samNull(Long.class, adminChannels, ResourceNames.ADDRESS + queueName, "messageCount");
+      return n == null ? null : n.intValue();
+   }
+
+   @Override
+   public Map<String, Integer> getQueueDepths(Connection jmsConnection, Collection<String> queueNames) {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      // One management request that lists all the queues with their message count
+      String json;
+      try {
+         json = adminChannels.execute(c -> {
+            Message m = c.session.createMessage();
+            JMSManagementHelper.putOperationInvocation(m,
+                                                       ResourceNames.BROKER,
+                                                       "listQueues",
+                                                       LIST_QUEUES_OPTIONS,
+                                                       1,
+                                                       Integer.MAX_VALUE);
+            Message r = c.requestor.request(m);
+            if (!JMSManagementHelper.hasOperationSucceeded(r)) {
+               log.warn("listQueues failed: {}. Reading queue depths one by one", JMSManagementHelper.getResult(r));
+               return null;
+            }
+            return (String) JMSManagementHelper.getResult(r);
+         });
+         if (json == null) {
+            return super.getQueueDepths(jmsConnection, queueNames);
          }
-         requestorJMSs.remove(hash);
+      } catch (Exception e) {
+         log.warn("Exception occurred when reading queue depths. Reading them one by one. Msg={}", e.getMessage());
+         return super.getQueueDepths(jmsConnection, queueNames);
       }
 
-      if (sessionJMS != null) {
-         try {
-            sessionJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occurred while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
+      Set<String> names = new HashSet<>(queueNames);
+      Map<String, Integer> depths = new HashMap<>(queueNames.size());
+      try (JsonReader reader = Json.createReader(new StringReader(json))) {
+         JsonArray data = reader.readObject().getJsonArray("data");
+         for (JsonValue v : data) {
+            JsonObject queue = (JsonObject) v;
+            String queueName = queue.getString("name");
+            if (names.contains(queueName)) {
+               // Depending on the version, values are sent as strings or numbers
+               JsonValue count = queue.get("messageCount");
+               if (count instanceof JsonNumber) {
+                  depths.put(queueName, ((JsonNumber) count).intValue());
+               } else if (count instanceof JsonString) {
+                  depths.put(queueName, Integer.valueOf(((JsonString) count).getString()));
+               }
+            }
          }
-         sessionJMSs.remove(hash);
+      } catch (RuntimeException e) {
+         log.error("Exception when parsing the result of listQueues. Ignoring", e);
       }
+      return depths;
+   }
+
+   @Override
+   public boolean supportsBulkQueueDepths() {
+      return true;
+   }
+
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      Number n = sendAdminOperation(Number.class, adminChannels, ResourceNames.QUEUE + queueName, "removeAllMessages");
+      return n == null ? -1 : n.intValue();
+   }
+
+   // QueueControl takes core filters: JMS selectors are translated first (JMSMessageID -> AMQUserID etc.)
+   @Override
+   public int removeMessages(Connection jmsConnection, String queueName, String selector) throws Exception {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      Number n = sendAdminOperation(Number.class,
+                                    adminChannels,
+                                    ResourceNames.QUEUE + queueName,
+                                    "removeMessages",
+                                    SelectorTranslator.convertToActiveMQFilterString(selector));
+      return n == null ? -1 : n.intValue();
+   }
+
+   @Override
+   public int moveMessages(Connection jmsConnection, String queueName, String selector, String targetQueueName) throws Exception {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
+
+      Number n = sendAdminOperation(Number.class,
+                                    adminChannels,
+                                    ResourceNames.QUEUE + queueName,
+                                    "moveMessages",
+                                    SelectorTranslator.convertToActiveMQFilterString(selector),
+                                    targetQueueName);
+      return n == null ? -1 : n.intValue();
+   }
+
+   // The age of the first message is null when the queue is empty
+   @Override
+   public Long getOldestMessageAge(Connection jmsConnection, String queueName) {
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       try {
-         jmsConnection.close();
+         Number n = sendAdminMessage(Number.class, adminChannels, ResourceNames.QUEUE + queueName, "firstMessageAge");
+         return n == null ? null : n.longValue();
       } catch (Exception e) {
-         log.warn("Exception occurred while closing jmsConnection. Ignore it. Msg={}", e.getMessage());
+         log.debug("Exception occurred when reading first message age of queue '{}'. Ignoring: {}", queueName, e.getMessage());
+         return null;
       }
    }
 
    @Override
-   public Integer getQueueDepth(Connection jmsConnection, String queueName) {
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+   public boolean supportsOldestMessageAge() {
+      return true;
+   }
 
-      // Number n = samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messageCount");
-      Number n = samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + queueName, "messageCount");
-      return n == null ? null : n.intValue();
+   @Override
+   public boolean supportsConcurrentManagement() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsRemoveMessages() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsMoveMessages() {
+      return true;
    }
 
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       // Source: org.apache.activemq.artemis.api.core.management.QueueControl
 
@@ -372,42 +490,42 @@ public class ActiveMQArtemis2QManager extends QManager {
       try {
 
          properties.put("Consumer Count",
-                        samNull(Integer.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "consumerCount"));
+                        samNull(Integer.class, adminChannels, ResourceNames.QUEUE + queueName, "consumerCount"));
          properties.put("Dead Letter Address",
-                        samNull(String.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "deadLetterAddress"));
+                        samNull(String.class, adminChannels, ResourceNames.QUEUE + queueName, "deadLetterAddress"));
          properties.put("Delivering Count",
-                        samNull(Integer.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "deliveringCount"));
+                        samNull(Integer.class, adminChannels, ResourceNames.QUEUE + queueName, "deliveringCount"));
          properties.put("Expiry Address",
-                        samNull(String.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "ExpiryAddress"));
-         properties.put("Filter", samNull(String.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "filter"));
+                        samNull(String.class, adminChannels, ResourceNames.QUEUE + queueName, "ExpiryAddress"));
+         properties.put("Filter", samNull(String.class, adminChannels, ResourceNames.QUEUE + queueName, "filter"));
          properties.put("Max Consumers",
-                        samNull(Integer.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "maxConsumers"));
+                        samNull(Integer.class, adminChannels, ResourceNames.QUEUE + queueName, "maxConsumers"));
          properties.put("Message Count",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messageCount"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messageCount"));
          properties.put("Message Acknowledged",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messagesAcknowledged"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messagesAcknowledged"));
          properties.put("Message Added",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messagesAdded"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messagesAdded"));
          properties.put("Message Expired",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messagesExpired"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messagesExpired"));
          properties.put("Message Killed",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "messagesKilled"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "messagesKilled"));
          properties.put("Scheduled Count",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "scheduledCount"));
-         properties.put("Durable", samNull(Boolean.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "durable"));
-         properties.put("Paused", samNull(Boolean.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "paused"));
+                        samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "scheduledCount"));
+         properties.put("Durable", samNull(Boolean.class, adminChannels, ResourceNames.QUEUE + queueName, "durable"));
+         properties.put("Paused", samNull(Boolean.class, adminChannels, ResourceNames.QUEUE + queueName, "paused"));
          properties.put("Purge on no Consumers",
-                        samNull(Boolean.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "purgeOnNoConsumers"));
+                        samNull(Boolean.class, adminChannels, ResourceNames.QUEUE + queueName, "purgeOnNoConsumers"));
          properties.put("Temporary",
-                        samNull(Boolean.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "temporary"));
+                        samNull(Boolean.class, adminChannels, ResourceNames.QUEUE + queueName, "temporary"));
 
-         Long fmAge = samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "firstMessageAge");
+         Long fmAge = samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "firstMessageAge");
          properties.put("First Message Age",
                         fmAge == null ? NA
                                  : Duration.ofMillis(fmAge.longValue()).toString().replace("PT", " ").replace("H", "h ")
                                           .replace("M", "m ").replace("S", "s"));
 
-         Long ts = samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.QUEUE + queueName, "firstMessageTimestamp");
+         Long ts = samNull(Long.class, adminChannels, ResourceNames.QUEUE + queueName, "firstMessageTimestamp");
          properties.put("First Message Timestamp", ts == null ? NA : SDF.format(new Date(ts.longValue())));
 
       } catch (Exception e) {
@@ -419,9 +537,7 @@ public class ActiveMQArtemis2QManager extends QManager {
 
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       // Source: org.apache.activemq.artemis.api.core.management.AddressControl
 
@@ -429,17 +545,17 @@ public class ActiveMQArtemis2QManager extends QManager {
       try {
 
          properties.put("AddressSize",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "addressSize"));
+                        samNull(Long.class, adminChannels, ResourceNames.ADDRESS + topicName, "addressSize"));
          properties.put("Message Count",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "messageCount"));
+                        samNull(Long.class, adminChannels, ResourceNames.ADDRESS + topicName, "messageCount"));
          properties.put("Nb of bytes per page",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "numberOfBytesPerPage"));
+                        samNull(Long.class, adminChannels, ResourceNames.ADDRESS + topicName, "numberOfBytesPerPage"));
          properties.put("Nb of messages",
-                        samNull(Long.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "numberOfMessages"));
+                        samNull(Long.class, adminChannels, ResourceNames.ADDRESS + topicName, "numberOfMessages"));
          properties.put("Nb of pages",
-                        samNull(Integer.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "numberOfPages"));
+                        samNull(Integer.class, adminChannels, ResourceNames.ADDRESS + topicName, "numberOfPages"));
 
-         properties.put("Paging?", samNull(Boolean.class, sessionJMS, requestorJMS, ResourceNames.ADDRESS + topicName, "paging"));
+         properties.put("Paging?", samNull(Boolean.class, adminChannels, ResourceNames.ADDRESS + topicName, "paging"));
 
       } catch (Exception e) {
          log.error("Exception occurred in getTopicInformation()", e);
@@ -501,25 +617,89 @@ public class ActiveMQArtemis2QManager extends QManager {
 
    @SuppressWarnings("unchecked")
    private <T> T sendAdminMessage(Class<T> clazz,
-                                  Session sessionJMS,
-                                  QueueRequestor requestorJMS,
+                                  AdminChannelPool<AdminChannel> adminChannels,
                                   String resourceName,
                                   String methodName) throws Exception {
-      Message m = sessionJMS.createMessage();
-      JMSManagementHelper.putAttribute(m, resourceName, methodName);
-      Message r = requestorJMS.request(m);
-      return (T) JMSManagementHelper.getResult(r);
+      return adminChannels.execute(c -> {
+         Message m = c.session.createMessage();
+         JMSManagementHelper.putAttribute(m, resourceName, methodName);
+         Message r = c.requestor.request(m);
+         return (T) JMSManagementHelper.getResult(r);
+      });
    }
 
-   private <T> T samNull(Class<T> clazz, Session sessionJMS, QueueRequestor requestorJMS, String resourceName, String methodName) {
+   @SuppressWarnings("unchecked")
+   private <T> T sendAdminOperation(Class<T> clazz,
+                                    AdminChannelPool<AdminChannel> adminChannels,
+                                    String resourceName,
+                                    String operationName,
+                                    Object... parameters) throws Exception {
+      Message r = adminChannels.execute(c -> {
+         Message m = c.session.createMessage();
+         JMSManagementHelper.putOperationInvocation(m, resourceName, operationName, parameters);
+         return c.requestor.request(m);
+      });
+
+      if (JMSManagementHelper.hasOperationSucceeded(r)) {
+         return (T) JMSManagementHelper.getResult(r);
+      } else {
+         Object resp = JMSManagementHelper.getResult(r);
+         throw new Exception(resp.toString());
+      }
+   }
+
+   private <T> T samNull(Class<T> clazz, AdminChannelPool<AdminChannel> adminChannels, String resourceName, String methodName) {
       try {
-         return sendAdminMessage(clazz, sessionJMS, requestorJMS, resourceName, methodName);
+         return sendAdminMessage(clazz, adminChannels, resourceName, methodName);
       } catch (Exception e) {
          log.warn("Exception occurred when processing an admin message: {}", e);
          return null;
       }
    }
 
+   // Session and QueueRequestor used to send management requests. Not thread safe
+   private static final class AdminChannel {
+      private final Session        session;
+      private final QueueRequestor requestor;
+
+      private AdminChannel(Connection jmsConnection) throws JMSException {
+         this.session = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+         Queue managementQueue = ((ActiveMQSession) session).createQueue("activemq.management");
+         this.requestor = new QueueRequestor((QueueSession) session, managementQueue);
+      }
+
+      private void close() {
+         try {
+            requestor.close();
+         } catch (Exception e) {
+            log.warn("Exception occurred while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
+         }
+         try {
+            session.close();
+         } catch (Exception e) {
+            log.warn("Exception occurred while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
+   private static final class AdminChannelCreator implements AdminChannelFactory<AdminChannel> {
+      private final Connection jmsConnection;
+
+      private AdminChannelCreator(Connection jmsConnection) {
+         this.jmsConnection = jmsConnection;
+      }
+
+      @Override
+      public AdminChannel create() throws JMSException {
+         return new AdminChannel(jmsConnection);
+      }
+
+      @Override
+      public void close(AdminChannel channel) {
+         channel.close();
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
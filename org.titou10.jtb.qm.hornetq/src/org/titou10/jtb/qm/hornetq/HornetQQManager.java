@@ -44,8 +44,11 @@ import org.hornetq.jms.client.HornetQDestination;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
+import org.titou10.jtb.jms.qm.AdminChannelFactory;
+import org.titou10.jtb.jms.qm.AdminChannelPool;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -73,8 +76,7 @@ public class HornetQQManager extends QManager {
 
    private List<QManagerProperty>             parameters      = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, Session>        sessionJMSs     = new HashMap<>();
-   private final Map<Integer, QueueRequestor> requestorJMSs   = new HashMap<>();
+   private final ManagementContexts<AdminChannelPool<AdminChannel>> contexts = new ManagementContexts<>();
 
    private Boolean                            useCoreMode;
 
@@ -148,18 +150,20 @@ public class HornetQQManager extends QManager {
 
          Connection jmsConnection = cfJMS.createConnection(sessionDef.getActiveUserid(), sessionDef.getActivePassword());
          jmsConnection.setClientID(clientID);
-         Session sessionJMS = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
 
+         // Management requests are sent concurrently on a small pool of sessions
          Queue managementQueue = HornetQJMSClient.createQueue("hornetq.management");
-         QueueRequestor requestorJMS = new QueueRequestor((QueueSession) sessionJMS, managementQueue);
+         AdminChannelCreator creator = new AdminChannelCreator(jmsConnection, managementQueue);
+         AdminChannelPool<AdminChannel> adminChannels = new AdminChannelPool<>(sessionDef.getName(),
+                                                                               AdminChannelPool.DEFAULT_SIZE,
+                                                                               creator,
+                                                                               creator.create());
          jmsConnection.start();
 
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         sessionJMSs.put(hash, sessionJMS);
-         requestorJMSs.put(hash, requestorJMS);
+         contexts.put(jmsConnection, adminChannels);
 
          return jmsConnection;
       } finally {
@@ -171,19 +175,13 @@ public class HornetQQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       SortedSet<QueueData> listQueueData = new TreeSet<>();
       SortedSet<TopicData> listTopicData = new TreeSet<>();
 
-      Message m = sessionJMS.createMessage();
-      Message r;
       if (useCoreMode) {
-         JMSManagementHelper.putAttribute(m, ResourceNames.CORE_SERVER, "queueNames");
-         r = requestorJMS.request(m);
-         Object q = JMSManagementHelper.getResult(r);
+         Object q = sendAdminMessage(adminChannels, ResourceNames.CORE_SERVER, "queueNames");
          if (q instanceof Object[]) {
             log.debug("queueNames = {}", q);
             for (Object o : (Object[]) q) {
@@ -205,9 +203,7 @@ public class HornetQQManager extends QManager {
             log.warn("queueNames failed");
          }
       } else {
-         JMSManagementHelper.putAttribute(m, ResourceNames.JMS_SERVER, "queueNames");
-         r = requestorJMS.request(m);
-         Object q = JMSManagementHelper.getResult(r);
+         Object q = sendAdminMessage(adminChannels, ResourceNames.JMS_SERVER, "queueNames");
          if (q instanceof Object[]) {
             log.debug("queueNames = {}", q);
             for (Object o : (Object[]) q) {
@@ -224,10 +220,7 @@ public class HornetQQManager extends QManager {
 
       // Topics exist only in JMS Mode
       if (!useCoreMode) {
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, ResourceNames.JMS_SERVER, "topicNames");
-         r = requestorJMS.request(m);
-         Object t = JMSManagementHelper.getResult(r);
+         Object t = sendAdminMessage(adminChannels, ResourceNames.JMS_SERVER, "topicNames");
          if (t instanceof Object[]) {
             log.debug("topicNames = {}", t);
             for (Object o : (Object[]) t) {
@@ -247,27 +240,7 @@ public class HornetQQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
-
-      if (requestorJMS != null) {
-         try {
-            requestorJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occured while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
-         }
-         requestorJMSs.remove(hash);
-      }
-
-      if (sessionJMS != null) {
-         try {
-            sessionJMS.close();
-         } catch (Exception e) {
-            log.warn("Exception occured while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
-         }
-         sessionJMSs.remove(hash);
-      }
+      contexts.close(jmsConnection);
 
       try {
          jmsConnection.close();
@@ -279,15 +252,10 @@ public class HornetQQManager extends QManager {
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       try {
-         Message m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, Q_PREFIX + queueName, "messageCount");
-         Message r = requestorJMS.request(m);
-         Integer count = (Integer) JMSManagementHelper.getResult(r);
+         Integer count = (Integer) sendAdminMessage(adminChannels, Q_PREFIX + queueName, "messageCount");
          return count;
       } catch (Exception e) {
          log.error("exception occurred in getQueueDepth()", e);
@@ -295,66 +263,37 @@ public class HornetQQManager extends QManager {
       }
    }
 
+   @Override
+   public boolean supportsConcurrentManagement() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       String jmsQueueName = Q_PREFIX + queueName;
 
-      Message m;
-      Message r;
-
       Map<String, Object> properties = new LinkedHashMap<>();
       try {
-         m = sessionJMS.createMessage();
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "paused");
-         r = requestorJMS.request(m);
-         properties.put("Paused", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "temporary");
-         r = requestorJMS.request(m);
-         properties.put("Temporary", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "messageCount");
-         r = requestorJMS.request(m);
-         properties.put("Message Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "scheduledCount");
-         r = requestorJMS.request(m);
-         properties.put("Scheduled Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "consumerCount");
-         r = requestorJMS.request(m);
-         properties.put("Consumer Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "deliveringCount");
-         r = requestorJMS.request(m);
-         properties.put("Delivering Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "messagesAdded");
-         r = requestorJMS.request(m);
-         properties.put("Messages Added", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "deadLetterAddress");
-         r = requestorJMS.request(m);
-         properties.put("Dead Letter Address", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsQueueName, "expiryAddress");
-         r = requestorJMS.request(m);
-         properties.put("Expiry Address", JMSManagementHelper.getResult(r));
+         properties.put("Paused", sendAdminMessage(adminChannels, jmsQueueName, "paused"));
+
+         properties.put("Temporary", sendAdminMessage(adminChannels, jmsQueueName, "temporary"));
+
+         properties.put("Message Count", sendAdminMessage(adminChannels, jmsQueueName, "messageCount"));
+
+         properties.put("Scheduled Count", sendAdminMessage(adminChannels, jmsQueueName, "scheduledCount"));
+
+         properties.put("Consumer Count", sendAdminMessage(adminChannels, jmsQueueName, "consumerCount"));
+
+         properties.put("Delivering Count", sendAdminMessage(adminChannels, jmsQueueName, "deliveringCount"));
+
+         properties.put("Messages Added", sendAdminMessage(adminChannels, jmsQueueName, "messagesAdded"));
+
+         properties.put("Dead Letter Address", sendAdminMessage(adminChannels, jmsQueueName, "deadLetterAddress"));
+
+         properties.put("Expiry Address", sendAdminMessage(adminChannels, jmsQueueName, "expiryAddress"));
 
       } catch (Exception e) {
          log.error("Exception occurred in getQueueInformation()", e);
@@ -367,63 +306,30 @@ public class HornetQQManager extends QManager {
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      QueueRequestor requestorJMS = requestorJMSs.get(hash);
-      Session sessionJMS = sessionJMSs.get(hash);
+      AdminChannelPool<AdminChannel> adminChannels = contexts.get(jmsConnection);
 
       String jmsTopicName = ResourceNames.JMS_TOPIC + topicName;
 
-      Message m;
-      Message r;
-
       Map<String, Object> properties = new LinkedHashMap<>();
       try {
-         m = sessionJMS.createMessage();
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "temporary");
-         r = requestorJMS.request(m);
-         properties.put("Temporary", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "messageCount");
-         r = requestorJMS.request(m);
-         properties.put("Message Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "durableMessageCount");
-         r = requestorJMS.request(m);
-         properties.put("Durable Message Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "nonDurableMessageCount");
-         r = requestorJMS.request(m);
-         properties.put("Non Durable Message Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "deliveringCount");
-         r = requestorJMS.request(m);
-         properties.put("Delivering Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "durableSubscriptionCount");
-         r = requestorJMS.request(m);
-         properties.put("Durable Subscription Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "nonDurableSubscriptionCount");
-         r = requestorJMS.request(m);
-         properties.put("Non Durable Subscription Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "subscriptionCount");
-         r = requestorJMS.request(m);
-         properties.put("Subscription Count", JMSManagementHelper.getResult(r));
-
-         m = sessionJMS.createMessage();
-         JMSManagementHelper.putAttribute(m, jmsTopicName, "messagesAdded");
-         r = requestorJMS.request(m);
-         properties.put("Messages Added", JMSManagementHelper.getResult(r));
+         properties.put("Temporary", sendAdminMessage(adminChannels, jmsTopicName, "temporary"));
+
+         properties.put("Message Count", sendAdminMessage(adminChannels, jmsTopicName, "messageCount"));
+
+         properties.put("Durable Message Count", sendAdminMessage(adminChannels, jmsTopicName, "durableMessageCount"));
+
+         properties.put("Non Durable Message Count", sendAdminMessage(adminChannels, jmsTopicName, "nonDurableMessageCount"));
+
+         properties.put("Delivering Count", sendAdminMessage(adminChannels, jmsTopicName, "deliveringCount"));
+
+         properties.put("Durable Subscription Count", sendAdminMessage(adminChannels, jmsTopicName, "durableSubscriptionCount"));
+
+         properties.put("Non Durable Subscription Count",
+                        sendAdminMessage(adminChannels, jmsTopicName, "nonDurableSubscriptionCount"));
+
+         properties.put("Subscription Count", sendAdminMessage(adminChannels, jmsTopicName, "subscriptionCount"));
+
+         properties.put("Messages Added", sendAdminMessage(adminChannels, jmsTopicName, "messagesAdded"));
 
       } catch (Exception e) {
          log.error("Exception occurred in getQueueInformation()", e);
@@ -470,6 +376,66 @@ public class HornetQQManager extends QManager {
 
       HELP_TEXT = sb.toString();
    }
+
+   // ------------------------
+   // Helpers
+   // ------------------------
+
+   private Object sendAdminMessage(AdminChannelPool<AdminChannel> adminChannels,
+                                   String resourceName,
+                                   String attribute) throws Exception {
+      return adminChannels.execute(c -> {
+         Message m = c.session.createMessage();
+         JMSManagementHelper.putAttribute(m, resourceName, attribute);
+         Message r = c.requestor.request(m);
+         return JMSManagementHelper.getResult(r);
+      });
+   }
+
+   // Session and QueueRequestor used to send management requests. Not thread safe
+   private static final class AdminChannel {
+      private final Session        session;
+      private final QueueRequestor requestor;
+
+      private AdminChannel(Connection jmsConnection, Queue managementQueue) throws JMSException {
+         this.session = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+         this.requestor = new QueueRequestor((QueueSession) session, managementQueue);
+      }
+
+      private void close() {
+         try {
+            requestor.close();
+         } catch (Exception e) {
+            log.warn("Exception occured while closing requestorJMS. Ignore it. Msg={}", e.getMessage());
+         }
+         try {
+            session.close();
+         } catch (Exception e) {
+            log.warn("Exception occured while closing sessionJMS. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
+   private static final class AdminChannelCreator implements AdminChannelFactory<AdminChannel> {
+      private final Connection jmsConnection;
+      private final Queue      managementQueue;
+
+      private AdminChannelCreator(Connection jmsConnection, Queue managementQueue) {
+         this.jmsConnection = jmsConnection;
+         this.managementQueue = managementQueue;
+      }
+
+      @Override
+      public AdminChannel create() throws JMSException {
+         return new AdminChannel(jmsConnection, managementQueue);
+      }
+
+      @Override
+      public void close(AdminChannel channel) {
+         channel.close();
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
@@ -20,15 +20,19 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.jms.Connection;
 import javax.jms.JMSException;
@@ -36,8 +40,12 @@ import javax.jms.JMSException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
+import org.titou10.jtb.jms.qm.AdminChannelFactory;
+import org.titou10.jtb.jms.qm.AdminChannelPool;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -102,8 +110,7 @@ public class MQQManager extends QManager {
 
    private List<QManagerProperty>              parameters               = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, MQQueueManager>  queueManagers            = new HashMap<>();
-   private final Map<Integer, PCFMessageAgent> mqAgents                 = new HashMap<>();
+   private final ManagementContexts<MQContext> contexts                 = new ManagementContexts<>();
 
    // ------------------------
    // Constructor
@@ -390,8 +397,7 @@ public class MQQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         queueManagers.put(jmsConnection.hashCode(), queueManager);
-         mqAgents.put(jmsConnection.hashCode(), agent);
+         contexts.put(jmsConnection, new MQContext(sessionDef.getName(), queueManager, agent));
 
          return jmsConnection;
 
@@ -404,14 +410,13 @@ public class MQQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      PCFMessageAgent agent = mqAgents.get(hash);
+      MQContext mqContext = contexts.get(jmsConnection);
 
       List<String> excludedPrefixes = showSystemObjects ? SYSTEM_PREFIXES_1 : SYSTEM_PREFIXES_2;
 
       // Get list of Queues and Topics
-      SortedSet<QueueData> listQueueData = buildQueueList(agent, excludedPrefixes);
-      SortedSet<TopicData> listTopicData = buildTopicList(agent, excludedPrefixes);
+      SortedSet<QueueData> listQueueData = mqContext.agents.execute(a -> buildQueueList(a, excludedPrefixes));
+      SortedSet<TopicData> listTopicData = mqContext.agents.execute(a -> buildTopicList(a, excludedPrefixes));
 
       return new DestinationData(listQueueData, listTopicData);
    }
@@ -420,33 +425,19 @@ public class MQQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      MQQueueManager queueManager = queueManagers.get(hash);
-      PCFMessageAgent agent = mqAgents.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      try {
-         agent.disconnect();
-         queueManager.disconnect();
-         queueManager.close();
-      } catch (MQException e) {
-         throw new JMSException(e.getMessage());
-      }
-
-      mqAgents.remove(hash);
-      queueManagers.remove(hash);
+      contexts.close(jmsConnection);
    }
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MQQueueManager queueManager = queueManagers.get(hash);
+      MQQueueManager queueManager = contexts.get(jmsConnection).queueManager;
 
       MQQueue destQueue = null;
       Integer depth = null;
@@ -467,11 +458,120 @@ public class MQQManager extends QManager {
       return depth;
    }
 
+   @Override
+   public Map<String, Integer> getQueueDepths(Connection jmsConnection, Collection<String> queueNames) {
+
+      MQContext mqContext = contexts.get(jmsConnection);
+
+      // One PCF request for the status of all the local queues
+      PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_STATUS);
+      request.addParameter(CMQC.MQCA_Q_NAME, "*");
+      request.addParameter(CMQCFC.MQIACF_Q_STATUS_ATTRS, new int[] { CMQC.MQCA_Q_NAME, CMQC.MQIA_CURRENT_Q_DEPTH });
+
+      Set<String> names = new HashSet<>(queueNames);
+      Map<String, Integer> depths = new HashMap<>(queueNames.size());
+      try {
+         PCFMessage[] responses = mqContext.agents.execute(a -> a.send(request));
+         for (PCFMessage response : responses) {
+            String qName = response.getStringParameterValue(CMQC.MQCA_Q_NAME).trim();
+            if (names.contains(qName)) {
+               depths.put(qName, response.getIntParameterValue(CMQC.MQIA_CURRENT_Q_DEPTH));
+            }
+         }
+      } catch (PCFException e) {
+         log.warn("PCFException occurred when reading queue depths. Reading them one by one. Reason: {}", e.getReason());
+         return super.getQueueDepths(jmsConnection, queueNames);
+      } catch (Exception e) {
+         log.error("Exception when reading queue depths. Ignoring", e);
+         return depths;
+      }
+
+      // Queues that are not local (alias, remote...) have no status
+      for (String queueName : names) {
+         if (!depths.containsKey(queueName)) {
+            depths.put(queueName, null);
+         }
+      }
+
+      log.debug("Q Depths for {} queues read", depths.size());
+      return depths;
+   }
+
+   @Override
+   public boolean supportsBulkQueueDepths() {
+      return true;
+   }
+
+   // MQIACF_OLDEST_MSG_AGE is in seconds. It is -1 when the queue monitoring (MONQ) is not enabled and 0 when the queue is empty
+   // The queues without monitoring are not asked again for the life of the connection: their first message is browsed instead
+   @Override
+   public Long getOldestMessageAge(Connection jmsConnection, String queueName) {
+
+      MQContext mqContext = contexts.get(jmsConnection);
+      if (mqContext.queuesWithoutMonitoring.contains(queueName)) {
+         return null;
+      }
+
+      PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_Q_STATUS);
+      request.addParameter(CMQC.MQCA_Q_NAME, queueName);
+      request.addParameter(CMQCFC.MQIACF_Q_STATUS_ATTRS, new int[] { CMQC.MQIA_CURRENT_Q_DEPTH, CMQCFC.MQIACF_OLDEST_MSG_AGE });
+
+      try {
+         PCFMessage[] responses = mqContext.agents.execute(a -> a.send(request));
+         int depth = responses[0].getIntParameterValue(CMQC.MQIA_CURRENT_Q_DEPTH);
+         int age = responses[0].getIntParameterValue(CMQCFC.MQIACF_OLDEST_MSG_AGE);
+         if (age < 0) {
+            log.debug("Queue monitoring is not enabled for queue '{}'. The oldest message age is not available", queueName);
+            mqContext.queuesWithoutMonitoring.add(queueName);
+            return null;
+         }
+         if (depth == 0) {
+            return null;
+         }
+         return age * 1000L;
+      } catch (Exception e) {
+         log.debug("Exception occurred when reading oldest message age of queue '{}'. Ignoring: {}", queueName, e.getMessage());
+         return null;
+      }
+   }
+
+   @Override
+   public boolean supportsOldestMessageAge() {
+      return true;
+   }
+
+   // The management requests wait for the PCF agent of the connection
+   @Override
+   public boolean supportsConcurrentManagement() {
+      return true;
+   }
+
+   // MQCMD_CLEAR_Q fails with MQRCCF_Q_IN_USE if the queue is opened by an application or has uncommitted messages. The
+   // messages are then removed with JMS. There is no PCF command to remove or move a subset of the messages
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+
+      MQContext mqContext = contexts.get(jmsConnection);
+
+      Integer depth = getQueueDepth(jmsConnection, queueName);
+
+      PCFMessage request = new PCFMessage(CMQCFC.MQCMD_CLEAR_Q);
+      request.addParameter(CMQC.MQCA_Q_NAME, queueName);
+      mqContext.agents.execute(a -> a.send(request));
+
+      log.debug("Queue {} cleared", queueName);
+      return depth == null ? -1 : depth;
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MQQueueManager queueManager = queueManagers.get(hash);
+      MQQueueManager queueManager = contexts.get(jmsConnection).queueManager;
 
       SortedMap<String, Object> properties = new TreeMap<>();
       MQQueue destQueue = null;
@@ -788,20 +888,15 @@ public class MQQManager extends QManager {
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MQQueueManager queueManager = queueManagers.get(hash);
+      MQContext mqContext = contexts.get(jmsConnection);
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      // DF: could be done by
-      PCFMessageAgent agent = null;
       try {
-         agent = new PCFMessageAgent(queueManager);
-
          PCFMessage request = new PCFMessage(CMQCFC.MQCMD_INQUIRE_TOPIC);
          request.addParameter(CMQC.MQCA_TOPIC_NAME, topicName);
 
-         PCFMessage[] responses = agent.send(request);
+         PCFMessage[] responses = mqContext.agents.execute(a -> a.send(request));
          PCFMessage m = responses[0];
 
          try {
@@ -1063,17 +1158,8 @@ public class MQQManager extends QManager {
          } catch (MQException e) {
             log.warn("Exception when reading Wildcard Operation. Ignoring" + e.getMessage());
          }
-      } catch (MQException | IOException e) {
+      } catch (Exception e) {
          log.warn("Exception when getting PCF Agent. Ignoring" + e.getMessage());
-      } finally {
-         // Disconnect/Close
-         if (agent != null) {
-            try {
-               agent.disconnect();
-            } catch (MQException e) {
-               log.error("MQException occurred when disconnecting agent", e);
-            }
-         }
       }
 
       log.debug("Topic Information : {}", properties);
@@ -1197,6 +1283,79 @@ public class MQQManager extends QManager {
       return topics;
    }
 
+   // Management requests of one connection. MQQueueManager serializes the calls made on its connection, so a pool of PCF agents
+   // sharing it would not run the requests concurrently. The pool holds one agent: the PCF requests wait for each other, as do
+   // the queues opened with accessQueue(). Other connections to the queue manager can not be opened after connect() as the SSL
+   // parameters are only set in the system properties while connecting
+   private static final class MQContext implements ManagementContext {
+      private final MQQueueManager                  queueManager;
+      private final AdminChannelPool<PCFMessageAgent> agents;
+      private final Set<String>                     queuesWithoutMonitoring = ConcurrentHashMap.newKeySet();
+
+      private MQContext(String name, MQQueueManager queueManager, PCFMessageAgent agent) {
+         this.queueManager = queueManager;
+         this.agents = new AdminChannelPool<>(name, 1, new PCFMessageAgentCreator(queueManager), agent);
+      }
+
+      @Override
+      public void close() {
+         agents.close();
+         try {
+            queueManager.disconnect();
+            queueManager.close();
+         } catch (MQException e) {
+            log.warn("Exception occured while closing MQQueueManager. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
+   private static final class PCFMessageAgentCreator implements AdminChannelFactory<PCFMessageAgent> {
+      private final MQQueueManager queueManager;
+
+      private PCFMessageAgentCreator(MQQueueManager queueManager) {
+         this.queueManager = queueManager;
+      }
+
+      @Override
+      public PCFMessageAgent create() throws MQException {
+         return new PCFMessageAgent(queueManager);
+      }
+
+      @Override
+      public void close(PCFMessageAgent agent) {
+         try {
+            agent.disconnect();
+         } catch (MQException e) {
+            log.warn("Exception occured while disconnecting PCFMessageAgent. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+
+      // PCFExceptions are errors returned by the command server. Other MQExceptions break the agent only if the connection is lost
+      @Override
+      public boolean isBroken(Exception e) {
+         if (e instanceof PCFException) {
+            return false;
+         }
+         if (e instanceof MQException) {
+            switch (((MQException) e).getReason()) {
+               case CMQC.MQRC_CONNECTION_BROKEN:
+               case CMQC.MQRC_CONNECTION_QUIESCING:
+               case CMQC.MQRC_CONNECTION_STOPPING:
+               case CMQC.MQRC_HCONN_ERROR:
+               case CMQC.MQRC_HOBJ_ERROR:
+               case CMQC.MQRC_Q_MGR_NOT_AVAILABLE:
+               case CMQC.MQRC_Q_MGR_QUIESCING:
+               case CMQC.MQRC_Q_MGR_STOPPING:
+               case CMQC.MQRC_RECONNECT_FAILED:
+                  return true;
+               default:
+                  return false;
+            }
+         }
+         return e instanceof IOException;
+      }
+   }
+
    // ------------------------
    // MQ Types
    // ------------------------
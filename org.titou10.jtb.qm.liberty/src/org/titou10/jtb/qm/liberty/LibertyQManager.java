@@ -16,7 +16,6 @@
  */
 package org.titou10.jtb.qm.liberty;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -39,6 +38,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.JMXContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -81,8 +82,7 @@ public class LibertyQManager extends QManager {
 
    private List<QManagerProperty>                    parameters               = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, JMXConnector>          jmxcs                    = new HashMap<>();
-   private final Map<Integer, MBeanServerConnection> mbscs                    = new HashMap<>();
+   private final ManagementContexts<JMXContext>      contexts                 = new ManagementContexts<>();
 
    public LibertyQManager() {
       log.debug("Instantiate LibertyQManager");
@@ -181,9 +181,7 @@ public class LibertyQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         jmxcs.put(hash, jmxc);
-         mbscs.put(hash, mbsc);
+         contexts.put(jmsConnection, new JMXContext(jmxc, mbsc));
 
          return jmsConnection;
 
@@ -196,8 +194,7 @@ public class LibertyQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       // Discover Queues and Topics
 
@@ -235,32 +232,19 @@ public class LibertyQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      JMXConnector jmxc = jmxcs.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (jmxc != null) {
-         try {
-            jmxc.close();
-         } catch (IOException e) {
-            log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
-         }
-         jmxcs.remove(hash);
-         mbscs.remove(hash);
-      }
-
+      contexts.close(jmsConnection);
    }
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Integer depth = null;
       try {
@@ -279,8 +263,7 @@ public class LibertyQManager extends QManager {
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
@@ -312,8 +295,7 @@ public class LibertyQManager extends QManager {
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
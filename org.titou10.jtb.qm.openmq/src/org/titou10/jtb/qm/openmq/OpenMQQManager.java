@@ -16,7 +16,6 @@
  */
 package org.titou10.jtb.qm.openmq;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -37,6 +36,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.JMXContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -82,8 +83,7 @@ public class OpenMQQManager extends QManager {
 
    private List<QManagerProperty>                    parameters             = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, JMXConnector>          jmxcs                  = new HashMap<>();
-   private final Map<Integer, MBeanServerConnection> mbscs                  = new HashMap<>();
+   private final ManagementContexts<JMXContext>      contexts               = new ManagementContexts<>();
 
    public OpenMQQManager() {
       log.debug("Instantiate OpenMQ");
@@ -170,9 +170,7 @@ public class OpenMQQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         jmxcs.put(hash, jmxc);
-         mbscs.put(hash, mbsc);
+         contexts.put(jmsConnection, new JMXContext(jmxc, mbsc));
 
          return jmsConnection;
       } finally {
@@ -186,8 +184,7 @@ public class OpenMQQManager extends QManager {
 
       // Discover Queues and Topics
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       SortedSet<QueueData> listQueueData = new TreeSet<>();
       SortedSet<TopicData> listTopicData = new TreeSet<>();
@@ -215,31 +212,19 @@ public class OpenMQQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      JMXConnector jmxc = jmxcs.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (jmxc != null) {
-         try {
-            jmxc.close();
-         } catch (IOException e) {
-            log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
-         }
-         jmxcs.remove(hash);
-         mbscs.remove(hash);
-      }
+      contexts.close(jmsConnection);
    }
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Integer depth = null;
       try {
@@ -258,8 +243,7 @@ public class OpenMQQManager extends QManager {
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
@@ -325,8 +309,7 @@ public class OpenMQQManager extends QManager {
    @Override
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
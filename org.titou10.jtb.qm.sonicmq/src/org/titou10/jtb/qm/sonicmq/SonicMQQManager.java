@@ -17,7 +17,6 @@
 package org.titou10.jtb.qm.sonicmq;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -37,6 +36,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.TopicData;
@@ -77,8 +78,7 @@ public class SonicMQQManager extends QManager {
 
    private final List<QManagerProperty>           parameters              = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, JMSConnectorClient> jmxConnectors           = new HashMap<>();
-   private final Map<Integer, ObjectName>         brokerObjectNames       = new HashMap<>();
+   private final ManagementContexts<SonicMQContext> contexts = new ManagementContexts<>();
 
    public SonicMQQManager() {
       log.debug("Instantiate SonicMQQManager");
@@ -189,9 +189,7 @@ public class SonicMQQManager extends QManager {
       log.info("connected to {}", sessionDef.getName());
 
       // Store per connection related data
-      Integer hash = jmsConnection.hashCode();
-      jmxConnectors.put(hash, jmxConnector);
-      brokerObjectNames.put(hash, brokerObjectName);
+      contexts.put(jmsConnection, new SonicMQContext(jmxConnector, brokerObjectName));
 
       return jmsConnection;
    }
@@ -201,9 +199,9 @@ public class SonicMQQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      JMSConnectorClient jmxConnector = jmxConnectors.get(hash);
-      ObjectName brokerObjectName = brokerObjectNames.get(hash);
+      SonicMQContext sonicContext = contexts.get(jmsConnection);
+      JMSConnectorClient jmxConnector = sonicContext.jmxConnector;
+      ObjectName brokerObjectName = sonicContext.brokerObjectName;
 
       SortedSet<org.titou10.jtb.jms.qm.QueueData> listQueueData = new TreeSet<>();
       List<QueueData> qd = (List<QueueData>) jmxConnector
@@ -262,25 +260,13 @@ public class SonicMQQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      JMSConnectorClient jmxConnector = jmxConnectors.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (jmxConnector != null) {
-         try {
-            jmxConnector.disconnect();
-         } catch (Exception e) {
-            log.warn("Exception occured while disconnect JMX connector. Ignore it. Msg={}", e.getMessage());
-         }
-         jmxConnectors.remove(hash);
-      }
-
-      brokerObjectNames.remove(hash);
+      contexts.close(jmsConnection);
    }
 
    @Override
@@ -333,9 +319,9 @@ public class SonicMQQManager extends QManager {
    @SuppressWarnings("unchecked")
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      JMSConnectorClient jmxConnector = jmxConnectors.get(hash);
-      ObjectName brokerObjectName = brokerObjectNames.get(hash);
+      SonicMQContext sonicContext = contexts.get(jmsConnection);
+      JMSConnectorClient jmxConnector = sonicContext.jmxConnector;
+      ObjectName brokerObjectName = sonicContext.brokerObjectName;
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
@@ -405,9 +391,9 @@ public class SonicMQQManager extends QManager {
    private QueueData getQueueData(Connection jmsConnection, String queueName) throws InstanceNotFoundException, MBeanException,
                                                                               ReflectionException {
 
-      Integer hash = jmsConnection.hashCode();
-      JMSConnectorClient jmxConnector = jmxConnectors.get(hash);
-      ObjectName brokerObjectName = brokerObjectNames.get(hash);
+      SonicMQContext sonicContext = contexts.get(jmsConnection);
+      JMSConnectorClient jmxConnector = sonicContext.jmxConnector;
+      ObjectName brokerObjectName = sonicContext.brokerObjectName;
 
       Object[] params = { queueName };
       List<QueueData> qd = (List<QueueData>) jmxConnector
@@ -415,6 +401,26 @@ public class SonicMQQManager extends QManager {
       return qd.get(0);
    }
 
+   // The JMX connector is thread safe and shared by the concurrent management requests
+   private static final class SonicMQContext implements ManagementContext {
+      private final JMSConnectorClient jmxConnector;
+      private final ObjectName         brokerObjectName;
+
+      private SonicMQContext(JMSConnectorClient jmxConnector, ObjectName brokerObjectName) {
+         this.jmxConnector = jmxConnector;
+         this.brokerObjectName = brokerObjectName;
+      }
+
+      @Override
+      public void close() {
+         try {
+            jmxConnector.disconnect();
+         } catch (Exception e) {
+            log.warn("Exception occured while disconnect JMX connector. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
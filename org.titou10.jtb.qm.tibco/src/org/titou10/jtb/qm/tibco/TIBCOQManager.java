@@ -17,10 +17,13 @@
 package org.titou10.jtb.qm.tibco;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -30,8 +33,11 @@ import javax.jms.JMSException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
+import org.titou10.jtb.jms.qm.AdminChannelFactory;
+import org.titou10.jtb.jms.qm.AdminChannelPool;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -43,6 +49,9 @@ import com.tibco.tibjms.admin.QueueInfo;
 import com.tibco.tibjms.admin.StatData;
 import com.tibco.tibjms.admin.TibjmsAdmin;
 import com.tibco.tibjms.admin.TibjmsAdminException;
+import com.tibco.tibjms.admin.TibjmsAdminInvalidNameException;
+import com.tibco.tibjms.admin.TibjmsAdminNameExistsException;
+import com.tibco.tibjms.admin.TibjmsAdminSecurityException;
 import com.tibco.tibjms.admin.TopicInfo;
 
 /**
@@ -67,7 +76,7 @@ public class TIBCOQManager extends QManager {
    private static final String             SYSTEM_PREFIX         = "$sys.";
    private static final String             INVALID_SYSTEM_PREFIX = ">";
 
-   private final Map<Integer, TibjmsAdmin> queueManagers         = new HashMap<>();
+   private final ManagementContexts<AdminChannelPool<TibjmsAdmin>> queueManagers = new ManagementContexts<>();
 
    public TIBCOQManager() {
       log.debug("Instantiate TIBCOQManager");
@@ -214,10 +223,15 @@ public class TIBCOQManager extends QManager {
 
       log.debug("connectionURL: {}", connectionURL);
 
-      TibjmsAdmin tibcoAdmin = new TibjmsAdmin(connectionURL.toString(),
-                                               sessionDef.getActiveUserid(),
-                                               sessionDef.getActivePassword(),
-                                               sslParams);
+      // Admin requests are sent concurrently on a small pool of admin connections
+      TibjmsAdminCreator creator = new TibjmsAdminCreator(connectionURL.toString(),
+                                                          sessionDef.getActiveUserid(),
+                                                          sessionDef.getActivePassword(),
+                                                          sslParams);
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = new AdminChannelPool<>(sessionDef.getName(),
+                                                                         AdminChannelPool.DEFAULT_SIZE,
+                                                                         creator,
+                                                                         creator.create());
 
       // JMS Connection
 
@@ -229,7 +243,7 @@ public class TIBCOQManager extends QManager {
       log.info("connected to {}", sessionDef.getName());
 
       // Store per connection related data
-      queueManagers.put(jmsConnection.hashCode(), tibcoAdmin);
+      queueManagers.put(jmsConnection, tibcoAdmins);
 
       return jmsConnection;
    }
@@ -238,12 +252,11 @@ public class TIBCOQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      TibjmsAdmin tibcoAdmin = queueManagers.get(hash);
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
 
       // Lookup for Queues
       SortedSet<QueueData> listQueueData = new TreeSet<>();
-      QueueInfo[] queues = tibcoAdmin.getQueues();
+      QueueInfo[] queues = tibcoAdmins.execute(a -> a.getQueues());
       for (QueueInfo queueInfo : queues) {
          String queueName = queueInfo.getName();
          log.debug("Found Queue {}. Temporary? {}", queueName, queueInfo.isTemporary());
@@ -269,7 +282,7 @@ public class TIBCOQManager extends QManager {
 
       // Lookup for Topics
       SortedSet<TopicData> listTopicData = new TreeSet<>();
-      TopicInfo[] topics = tibcoAdmin.getTopics();
+      TopicInfo[] topics = tibcoAdmins.execute(a -> a.getTopics());
       for (TopicInfo topicInfo : topics) {
          String topicName = topicInfo.getName();
          log.debug("Found Topic {}. Temporary? {}", topicName, topicInfo.isTemporary());
@@ -300,23 +313,13 @@ public class TIBCOQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      TibjmsAdmin tibcoAdmin = queueManagers.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (tibcoAdmin != null) {
-         try {
-            tibcoAdmin.close();
-         } catch (TibjmsAdminException e) {
-            log.warn("Exception occured while closing TibjmsAdmin. Ignore it. Msg={}", e.getMessage());
-         }
-         queueManagers.remove(hash);
-      }
+      queueManagers.close(jmsConnection);
    }
 
    @Override
@@ -326,29 +329,75 @@ public class TIBCOQManager extends QManager {
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
-      Integer hash = jmsConnection.hashCode();
-      TibjmsAdmin tibcoAdmin = queueManagers.get(hash);
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
 
       try {
-         QueueInfo queueInfo = tibcoAdmin.getQueue(queueName);
+         QueueInfo queueInfo = tibcoAdmins.execute(a -> a.getQueue(queueName));
          Long depth = queueInfo.getOutboundStatistics().getTotalMessages();
 
          return depth.intValue();
-      } catch (TibjmsAdminException e) {
+      } catch (Exception e) {
          log.warn("Exception occured while reading Q depth for {}. Msg={}", queueName, e.getMessage());
          return null;
       }
    }
 
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
+
+      Integer depth = getQueueDepth(jmsConnection, queueName);
+      tibcoAdmins.execute(a -> {
+         a.purgeQueue(queueName);
+         return null;
+      });
+      return depth == null ? -1 : depth;
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
+   @Override
+   public Map<String, Integer> getQueueDepths(Connection jmsConnection, Collection<String> queueNames) {
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
+
+      // One admin call for the information on all the queues
+      Set<String> names = new HashSet<>(queueNames);
+      Map<String, Integer> depths = new HashMap<>(queueNames.size());
+      try {
+         QueueInfo[] queues = tibcoAdmins.execute(a -> a.getQueues());
+         for (QueueInfo queueInfo : queues) {
+            if (names.contains(queueInfo.getName())) {
+               Long depth = queueInfo.getOutboundStatistics().getTotalMessages();
+               depths.put(queueInfo.getName(), depth.intValue());
+            }
+         }
+      } catch (Exception e) {
+         log.warn("Exception occured while reading Q depths. Msg={}", e.getMessage());
+      }
+      return depths;
+   }
+
+   @Override
+   public boolean supportsBulkQueueDepths() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsConcurrentManagement() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      Integer hash = jmsConnection.hashCode();
-      TibjmsAdmin tibcoAdmin = queueManagers.get(hash);
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
 
       try {
-         QueueInfo queueInfo = tibcoAdmin.getQueue(queueName);
+         QueueInfo queueInfo = tibcoAdmins.execute(a -> a.getQueue(queueName));
          if (queueInfo == null) {
             return null;
          }
@@ -384,7 +433,7 @@ public class TIBCOQManager extends QManager {
          properties.put("Outbound Stats: Total Bytes", outStats.getTotalBytes());
          properties.put("Outbound Stats: Total Messages", outStats.getTotalMessages());
 
-      } catch (TibjmsAdminException e) {
+      } catch (Exception e) {
          log.error("An exception occured when reading information for queue {}. Msg={}", queueName, e);
       }
 
@@ -395,11 +444,10 @@ public class TIBCOQManager extends QManager {
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      Integer hash = jmsConnection.hashCode();
-      TibjmsAdmin tibcoAdmin = queueManagers.get(hash);
+      AdminChannelPool<TibjmsAdmin> tibcoAdmins = queueManagers.get(jmsConnection);
 
       try {
-         TopicInfo topicInfo = tibcoAdmin.getTopic(topicName);
+         TopicInfo topicInfo = tibcoAdmins.execute(a -> a.getTopic(topicName));
          if (topicInfo == null) {
             return null;
          }
@@ -434,7 +482,7 @@ public class TIBCOQManager extends QManager {
          properties.put("Outbound Stats: Total Bytes", outStats.getTotalBytes());
          properties.put("Outbound Stats: Total Messages", outStats.getTotalMessages());
 
-      } catch (TibjmsAdminException e) {
+      } catch (Exception e) {
          log.error("An exception occured when reading information for topic {}. Msg={}", topicName, e);
       }
 
@@ -475,6 +523,46 @@ public class TIBCOQManager extends QManager {
       HELP_TEXT = sb.toString();
    }
 
+   // ------------------------
+   // Helpers
+   // ------------------------
+
+   // Admin connections are not thread safe
+   private static final class TibjmsAdminCreator implements AdminChannelFactory<TibjmsAdmin> {
+      private final String              url;
+      private final String              userid;
+      private final String              password;
+      private final Map<String, String> sslParams;
+
+      private TibjmsAdminCreator(String url, String userid, String password, Map<String, String> sslParams) {
+         this.url = url;
+         this.userid = userid;
+         this.password = password;
+         this.sslParams = sslParams;
+      }
+
+      @Override
+      public TibjmsAdmin create() throws TibjmsAdminException {
+         return new TibjmsAdmin(url, userid, password, sslParams);
+      }
+
+      @Override
+      public void close(TibjmsAdmin tibcoAdmin) {
+         try {
+            tibcoAdmin.close();
+         } catch (TibjmsAdminException e) {
+            log.warn("Exception occured while closing TibjmsAdmin. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+
+      // The subclasses of TibjmsAdminException are errors returned by the server, the admin connection is still usable
+      @Override
+      public boolean isBroken(Exception e) {
+         return (e instanceof TibjmsAdminException) && !(e instanceof TibjmsAdminSecurityException)
+                && !(e instanceof TibjmsAdminInvalidNameException) && !(e instanceof TibjmsAdminNameExistsException);
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
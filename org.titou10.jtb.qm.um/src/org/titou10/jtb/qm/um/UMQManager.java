@@ -19,7 +19,6 @@ package org.titou10.jtb.qm.um;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +34,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -79,7 +80,7 @@ public class UMQManager extends QManager {
 
    private List<QManagerProperty>            parameters                 = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, nAdminSession> adminSessions              = new HashMap<>();
+   private final ManagementContexts<UMContext> contexts = new ManagementContexts<>();
 
    // ------------------------
    // Constructor
@@ -221,8 +222,7 @@ public class UMQManager extends QManager {
          jmsConnection.start();
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         adminSessions.put(hash, adminSession);
+         contexts.put(jmsConnection, new UMContext(adminSession));
 
          return jmsConnection;
 
@@ -235,8 +235,7 @@ public class UMQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      nAdminSession adminSession = adminSessions.get(hash);
+      nAdminSession adminSession = contexts.get(jmsConnection).adminSession;
 
       SortedSet<QueueData> listQueueData = new TreeSet<>();
       SortedSet<TopicData> listTopicData = new TreeSet<>();
@@ -268,29 +267,18 @@ public class UMQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      nAdminSession adminSession = adminSessions.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (adminSession != null) {
-         try {
-            adminSession.close();
-         } catch (Exception e) {
-            log.warn("Exception occured while closing nAdminSession. Ignore it. Msg={}", e.getMessage());
-         }
-         adminSessions.remove(hash);
-      }
+      contexts.close(jmsConnection);
    }
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
-      Integer hash = jmsConnection.hashCode();
-      nAdminSession adminSession = adminSessions.get(hash);
+      nAdminSession adminSession = contexts.get(jmsConnection).adminSession;
 
       try {
          nChannelAttributes x = new nChannelAttributes(queueName);
@@ -302,12 +290,32 @@ public class UMQManager extends QManager {
       }
    }
 
+   // The first event time is 0 when the queue is empty
+   @Override
+   public Long getOldestMessageAge(Connection jmsConnection, String queueName) {
+      nAdminSession adminSession = contexts.get(jmsConnection).adminSession;
+
+      try {
+         nChannelAttributes x = new nChannelAttributes(queueName);
+         nQueue queue = adminSession.findQueue(x);
+         long fet = queue.getDetails().getFirstEventTime();
+         return fet == 0 ? null : Math.max(0, System.currentTimeMillis() - fet);
+      } catch (Exception e) {
+         log.debug("Exception occurred when reading first event time of queue '{}'. Ignoring: {}", queueName, e.getMessage());
+         return null;
+      }
+   }
+
+   @Override
+   public boolean supportsOldestMessageAge() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      Integer hash = jmsConnection.hashCode();
-      nAdminSession adminSession = adminSessions.get(hash);
+      nAdminSession adminSession = contexts.get(jmsConnection).adminSession;
 
       try {
          nChannelAttributes x = new nChannelAttributes(queueName);
@@ -341,8 +349,7 @@ public class UMQManager extends QManager {
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
       Map<String, Object> properties = new LinkedHashMap<>();
 
-      Integer hash = jmsConnection.hashCode();
-      nAdminSession adminSession = adminSessions.get(hash);
+      nAdminSession adminSession = contexts.get(jmsConnection).adminSession;
 
       try {
          nChannelAttributes x = new nChannelAttributes(topicName);
@@ -450,6 +457,28 @@ public class UMQManager extends QManager {
       HELP_TEXT = sb.toString();
    }
 
+   // -------
+   // Helpers
+   // -------
+
+   // The admin session is thread safe and shared by the concurrent management requests
+   private static final class UMContext implements ManagementContext {
+      private final nAdminSession adminSession;
+
+      private UMContext(nAdminSession adminSession) {
+         this.adminSession = adminSession;
+      }
+
+      @Override
+      public void close() {
+         try {
+            adminSession.close();
+         } catch (Exception e) {
+            log.warn("Exception occured while closing nAdminSession. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
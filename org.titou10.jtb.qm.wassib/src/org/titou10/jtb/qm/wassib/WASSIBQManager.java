@@ -17,7 +17,6 @@
 package org.titou10.jtb.qm.wassib;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +33,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -76,8 +77,7 @@ public class WASSIBQManager extends QManager {
 
    private List<QManagerProperty>          parameters               = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, AdminClient> adminClients             = new HashMap<>();
-   private final Map<Integer, String>      busNames                 = new HashMap<>();
+   private final ManagementContexts<WASSIBContext> contexts = new ManagementContexts<>();
 
    public WASSIBQManager() {
       log.debug("Instantiate LibertyQManager");
@@ -180,9 +180,7 @@ public class WASSIBQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         adminClients.put(hash, adminClient);
-         busNames.put(hash, busName);
+         contexts.put(jmsConnection, new WASSIBContext(adminClient, busName));
 
          return jmsConnection;
 
@@ -196,9 +194,9 @@ public class WASSIBQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      AdminClient adminClient = adminClients.get(hash);
-      String busName = busNames.get(hash);
+      WASSIBContext sibContext = contexts.get(jmsConnection);
+      AdminClient adminClient = sibContext.adminClient;
+      String busName = sibContext.busName;
 
       // Discover Queue and Topics
 
@@ -244,18 +242,16 @@ public class WASSIBQManager extends QManager {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      Integer hash = jmsConnection.hashCode();
-      adminClients.remove(hash);
-      busNames.remove(hash);
+      contexts.close(jmsConnection);
    }
 
    @Override
    @SuppressWarnings("unchecked")
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      AdminClient adminClient = adminClients.get(hash);
-      String busName = busNames.get(hash);
+      WASSIBContext sibContext = contexts.get(jmsConnection);
+      AdminClient adminClient = sibContext.adminClient;
+      String busName = sibContext.busName;
 
       Integer depth = null;
       try {
@@ -275,9 +271,9 @@ public class WASSIBQManager extends QManager {
    @SuppressWarnings("unchecked")
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
 
-      Integer hash = jmsConnection.hashCode();
-      AdminClient adminClient = adminClients.get(hash);
-      String busName = busNames.get(hash);
+      WASSIBContext sibContext = contexts.get(jmsConnection);
+      AdminClient adminClient = sibContext.adminClient;
+      String busName = sibContext.busName;
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
@@ -302,9 +298,9 @@ public class WASSIBQManager extends QManager {
    @SuppressWarnings("unchecked")
    public Map<String, Object> getTopicInformation(Connection jmsConnection, String topicName) {
 
-      Integer hash = jmsConnection.hashCode();
-      AdminClient adminClient = adminClients.get(hash);
-      String busName = busNames.get(hash);
+      WASSIBContext sibContext = contexts.get(jmsConnection);
+      AdminClient adminClient = sibContext.adminClient;
+      String busName = sibContext.busName;
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
@@ -387,6 +383,27 @@ public class WASSIBQManager extends QManager {
       HELP_TEXT = sb.toString();
    }
 
+   // -------
+   // Helpers
+   // -------
+
+   // The AdminClient is thread safe and shared by the concurrent management requests
+   private static final class WASSIBContext implements ManagementContext {
+      private final AdminClient adminClient;
+      private final String      busName;
+
+      private WASSIBContext(AdminClient adminClient, String busName) {
+         this.adminClient = adminClient;
+         this.busName = busName;
+      }
+
+      // The AdminClient holds no resource to release
+      @Override
+      public void close() {
+         // NOP
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
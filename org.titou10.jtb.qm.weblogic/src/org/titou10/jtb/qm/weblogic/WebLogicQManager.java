@@ -17,7 +17,6 @@
 
 package org.titou10.jtb.qm.weblogic;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
@@ -26,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -34,6 +34,7 @@ import javax.management.Attribute;
 import javax.management.AttributeList;
 import javax.management.MBeanServerConnection;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
@@ -46,6 +47,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.JMXContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -109,15 +112,7 @@ public class WebLogicQManager extends QManager {
 
    private List<QManagerProperty>                       parameters                       = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, JMXConnector>             jmxcs                            = new HashMap<>();
-   private final Map<Integer, MBeanServerConnection>    mbscs                            = new HashMap<>();
-   private final Map<Integer, ObjectName>               serversRuntimeON                 = new HashMap<>();
-
-   // Keep JMX ObjectName corresponding to the destinationName because the ON must be fully qualified to work
-   // ie including Location=...
-   // ObjectName :
-   // com.bea:ServerRuntime=AdminServer,Name=SystemModule-0!Queue-2,Type=JMSDestinationRuntime,JMSServerRuntime=JMSServer-0
-   private final Map<Integer, Map<Integer, ObjectName>> destinationONPerConnection       = new HashMap<>();
+   private final ManagementContexts<WLSContext>         contexts                         = new ManagementContexts<>();
 
    // ------------------------
    // Constructor
@@ -250,11 +245,7 @@ public class WebLogicQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         jmxcs.put(hash, jmxc);
-         mbscs.put(hash, mbsc);
-         serversRuntimeON.put(hash, new ObjectName(String.format(ON_JMSRUNTIME, serverRuntimeName)));
-         destinationONPerConnection.put(hash, new HashMap<>());
+         contexts.put(jmsConnection, new WLSContext(jmxc, mbsc, new ObjectName(String.format(ON_JMSRUNTIME, serverRuntimeName))));
 
          return jmsConnection;
       } finally {
@@ -265,10 +256,9 @@ public class WebLogicQManager extends QManager {
    @Override
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
 
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
-      Map<Integer, ObjectName> destinationObjectNames = destinationONPerConnection.get(hash);
-      ObjectName serverRuntimeON = serversRuntimeON.get(hash);
+      WLSContext wlsContext = contexts.get(jmsConnection);
+      MBeanServerConnection mbsc = wlsContext.getMbsc();
+      ObjectName serverRuntimeON = wlsContext.serverRuntimeON;
 
       // Discover Queues and Topics in all the JMSServers attached to the Server
 
@@ -297,7 +287,7 @@ public class WebLogicQManager extends QManager {
                listTopicData.add(new TopicData(jmsDestinationName));
             }
 
-            destinationObjectNames.put(jmsDestinationName.hashCode(), onDestination);
+            wlsContext.destinationObjectNames.put(jmsDestinationName, onDestination);
          }
       }
 
@@ -308,37 +298,23 @@ public class WebLogicQManager extends QManager {
    public void close(Connection jmsConnection) throws JMSException {
       log.debug("close connection {}", jmsConnection);
 
-      Integer hash = jmsConnection.hashCode();
-      JMXConnector jmxc = jmxcs.get(hash);
-
       try {
          jmsConnection.close();
       } catch (Exception e) {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      if (jmxc != null) {
-         try {
-            jmxc.close();
-         } catch (IOException e) {
-            log.warn("Exception occured while closing JMXConnector. Ignore it. Msg={}", e.getMessage());
-         }
-         jmxcs.remove(hash);
-         mbscs.remove(hash);
-         destinationONPerConnection.remove(hash);
-         serversRuntimeON.remove(hash);
-      }
+      contexts.close(jmsConnection);
    }
 
    @Override
    public Integer getQueueDepth(Connection jmsConnection, String queueName) {
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
-      Map<Integer, ObjectName> destinationObjectNames = destinationONPerConnection.get(hash);
+      WLSContext wlsContext = contexts.get(jmsConnection);
 
       Integer depth = null;
       try {
-         Long mcc = (Long) mbsc.getAttribute(destinationObjectNames.get(queueName.hashCode()), "MessagesCurrentCount");
+         ObjectName on = wlsContext.destinationObjectNames.get(queueName);
+         Long mcc = (Long) wlsContext.getMbsc().getAttribute(on, "MessagesCurrentCount");
          return mcc.intValue();
       } catch (Exception e) {
          log.error("Exception when reading queue depth. Ignoring", e);
@@ -346,6 +322,52 @@ public class WebLogicQManager extends QManager {
       return depth;
    }
 
+   // An empty selector matches all the messages
+   @Override
+   public int purgeQueue(Connection jmsConnection, String queueName) throws Exception {
+      return removeMessages(jmsConnection, queueName, "");
+   }
+
+   @Override
+   public int removeMessages(Connection jmsConnection, String queueName, String selector) throws Exception {
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
+
+      Integer nb = (Integer) mbsc.invoke(getDestinationObjectName(jmsConnection, queueName),
+                                         "deleteMessages",
+                                         new Object[] { selector == null ? "" : selector },
+                                         new String[] { String.class.getName() });
+      return nb == null ? -1 : nb;
+   }
+
+   // The target destination is designated by the "DestinationInfo" attribute of its runtime MBean
+   @Override
+   public int moveMessages(Connection jmsConnection, String queueName, String selector, String targetQueueName) throws Exception {
+      MBeanServerConnection mbsc = contexts.get(jmsConnection).getMbsc();
+
+      CompositeData target = (CompositeData) mbsc.getAttribute(getDestinationObjectName(jmsConnection, targetQueueName),
+                                                               "DestinationInfo");
+      Integer nb = (Integer) mbsc.invoke(getDestinationObjectName(jmsConnection, queueName),
+                                         "moveMessages",
+                                         new Object[] { selector == null ? "" : selector, target },
+                                         new String[] { String.class.getName(), CompositeData.class.getName() });
+      return nb == null ? -1 : nb;
+   }
+
+   @Override
+   public boolean supportsPurgeQueue() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsRemoveMessages() {
+      return true;
+   }
+
+   @Override
+   public boolean supportsMoveMessages() {
+      return true;
+   }
+
    @Override
    public Map<String, Object> getQueueInformation(Connection jmsConnection, String queueName) {
       return getDestinationInformation(jmsConnection, queueName);
@@ -404,15 +426,13 @@ public class WebLogicQManager extends QManager {
    // ---------
 
    private Map<String, Object> getDestinationInformation(Connection jmsConnection, String destinationName) {
-      Integer hash = jmsConnection.hashCode();
-      MBeanServerConnection mbsc = mbscs.get(hash);
-      Map<Integer, ObjectName> destinationObjectNames = destinationONPerConnection.get(hash);
+      WLSContext wlsContext = contexts.get(jmsConnection);
 
       Map<String, Object> properties = new LinkedHashMap<>();
 
       try {
-         AttributeList attributes = mbsc.getAttributes(destinationObjectNames.get(destinationName.hashCode()),
-                                                       WLS_DESTINATION_ATTRIBUTES_NAMES);
+         AttributeList attributes = wlsContext.getMbsc().getAttributes(wlsContext.destinationObjectNames.get(destinationName),
+                                                                       WLS_DESTINATION_ATTRIBUTES_NAMES);
          for (Object object : attributes) {
             Attribute a = (Attribute) object;
             properties.put(a.getName(), a.getValue());
@@ -424,6 +444,14 @@ public class WebLogicQManager extends QManager {
       return properties;
    }
 
+   private ObjectName getDestinationObjectName(Connection jmsConnection, String destinationName) {
+      ObjectName on = contexts.get(jmsConnection).destinationObjectNames.get(destinationName);
+      if (on == null) {
+         throw new IllegalArgumentException("No runtime MBean known for destination '" + destinationName + "'");
+      }
+      return on;
+   }
+
    private String buildJMSDestinationName(String jmsServerName, String destinationName) {
       if (destinationName == null) {
          return null;
@@ -431,6 +459,21 @@ public class WebLogicQManager extends QManager {
       return jmsServerName + "/" + destinationName;
    }
 
+   private static final class WLSContext extends JMXContext {
+      private final ObjectName              serverRuntimeON;
+
+      // Keep JMX ObjectName corresponding to the destinationName because the ON must be fully qualified to work
+      // ie including Location=...
+      // ObjectName :
+      // com.bea:ServerRuntime=AdminServer,Name=SystemModule-0!Queue-2,Type=JMSDestinationRuntime,JMSServerRuntime=JMSServer-0
+      private final Map<String, ObjectName> destinationObjectNames = new ConcurrentHashMap<>();
+
+      private WLSContext(JMXConnector jmxc, MBeanServerConnection mbsc, ObjectName serverRuntimeON) {
+         super(jmxc, mbsc);
+         this.serverRuntimeON = serverRuntimeON;
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
@@ -17,7 +17,6 @@
 package org.titou10.jtb.qm.websphere;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
@@ -43,6 +42,8 @@ import org.slf4j.LoggerFactory;
 import org.titou10.jtb.config.gen.SessionDef;
 import org.titou10.jtb.jms.qm.DestinationData;
 import org.titou10.jtb.jms.qm.JMSPropertyKind;
+import org.titou10.jtb.jms.qm.ManagementContext;
+import org.titou10.jtb.jms.qm.ManagementContexts;
 import org.titou10.jtb.jms.qm.QManager;
 import org.titou10.jtb.jms.qm.QManagerProperty;
 import org.titou10.jtb.jms.qm.QueueData;
@@ -72,7 +73,7 @@ public class WASQManager extends QManager {
 
    private List<QManagerProperty>          parameters         = new ArrayList<QManagerProperty>();
 
-   private final Map<Integer, Context>     jndiContexts       = new HashMap<>();
+   private final ManagementContexts<WASContext> contexts = new ManagementContexts<>();
 
    public WASQManager() {
       log.debug("Instantiate WASQManager");
@@ -149,8 +150,7 @@ public class WASQManager extends QManager {
          log.info("connected to {}", sessionDef.getName());
 
          // Store per connection related data
-         Integer hash = jmsConnection.hashCode();
-         jndiContexts.put(hash, ctx);
+         contexts.put(jmsConnection, new WASContext(ctx));
 
          return jmsConnection;
       } finally {
@@ -162,14 +162,16 @@ public class WASQManager extends QManager {
    public DestinationData discoverDestinations(Connection jmsConnection, boolean showSystemObjects) throws Exception {
       log.debug("discoverDestinations : {} - {}", jmsConnection, showSystemObjects);
 
-      Integer hash = jmsConnection.hashCode();
-      Context ctx = jndiContexts.get(hash);
+      WASContext wasContext = contexts.get(jmsConnection);
 
       // Build Queues/Topics lists
       SortedSet<QueueData> listQueueData = new TreeSet<>();
       SortedSet<TopicData> listTopicData = new TreeSet<>();
 
-      listContext(null, ctx, new HashSet<String>(), listQueueData, listTopicData);
+      // A JNDI Context is not thread safe
+      synchronized (wasContext) {
+         listContext(null, wasContext.ctx, new HashSet<String>(), listQueueData, listTopicData);
+      }
 
       return new DestinationData(listQueueData, listTopicData);
    }
@@ -184,8 +186,7 @@ public class WASQManager extends QManager {
          log.warn("Exception occured while closing connection. Ignore it. Msg={}", e.getMessage());
       }
 
-      Integer hash = jmsConnection.hashCode();
-      jndiContexts.remove(hash);
+      contexts.close(jmsConnection);
    }
 
    @Override
@@ -280,6 +281,23 @@ public class WASQManager extends QManager {
       }
    }
 
+   private static final class WASContext implements ManagementContext {
+      private final Context ctx;
+
+      private WASContext(Context ctx) {
+         this.ctx = ctx;
+      }
+
+      @Override
+      public void close() {
+         try {
+            ctx.close();
+         } catch (NamingException e) {
+            log.warn("Exception occured while closing JNDI Context. Ignore it. Msg={}", e.getMessage());
+         }
+      }
+   }
+
    // ------------------------
    // Standard Getters/Setters
    // ------------------------
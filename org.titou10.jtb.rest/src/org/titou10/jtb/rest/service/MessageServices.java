@@ -29,14 +29,19 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Providers;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.titou10.jtb.connector.ExternalConnectorManager;
+import org.titou10.jtb.connector.MessageStream;
 import org.titou10.jtb.connector.ex.EmptyMessageException;
 import org.titou10.jtb.connector.ex.ExecutionException;
+import org.titou10.jtb.connector.ex.InvalidCursorException;
 import org.titou10.jtb.connector.ex.UnknownDestinationException;
 import org.titou10.jtb.connector.ex.UnknownQueueException;
 import org.titou10.jtb.connector.ex.UnknownSessionException;
@@ -45,6 +50,8 @@ import org.titou10.jtb.connector.transport.MessageInput;
 import org.titou10.jtb.connector.transport.MessageOutput;
 import org.titou10.jtb.rest.util.Constants;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * 
  * Exposes JMSToolBox features related to Messages, as REST services
@@ -95,6 +102,40 @@ public class MessageServices {
       }
    }
 
+   // -----------------------------------------------------------------------
+   // Browse Messages from a Session:Queue, streamed as they are read
+   // GET /rest/message/<sessionName>/<destinationName>/stream?&limit=n&cursor=c
+   // defaults: limit=200 (0 = no limit). cursor: "cursor" returned by the previous call
+   // The cursor assumes that the queue is browsed by decreasing priority then increasing timestamp. No cursor is returned when the
+   // messages read are not in that order, and messages posted later with an older timestamp are not returned by the next call
+   // -----------------------------------------------------------------------
+
+   @GET
+   @Path("/{" + Constants.P_SESSION_NAME + "}/{" + Constants.P_DESTINATION_NAME + "}/stream")
+   @Produces(MediaType.APPLICATION_JSON)
+   public Response browseMessagesStream(@PathParam(Constants.P_SESSION_NAME) String sessionName,
+                                        @PathParam(Constants.P_DESTINATION_NAME) String destinationName,
+                                        @DefaultValue("200") @QueryParam(Constants.P_LIMIT) int limit,
+                                        @QueryParam(Constants.P_CURSOR) String cursor,
+                                        @Context Providers providers) {
+      log.debug("browseMessagesStream. sessionName={} destinationName={} limit={} cursor={}",
+                sessionName,
+                destinationName,
+                limit,
+                cursor);
+
+      try {
+
+         MessageStream messageStream = eConfigManager.browseMessagesStream(sessionName, destinationName, limit, cursor);
+         return Response.ok(new MessageStreamOutput(messageStream, getObjectMapper(providers))).build();
+
+      } catch (ExecutionException e) {
+         return Response.serverError().build();
+      } catch (UnknownSessionException | UnknownDestinationException | UnknownQueueException | InvalidCursorException e) {
+         return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+      }
+   }
+
    // -----------------------------------------------------------------------
    // Post/Publish a message to Session:Destination
    // POST /rest/message/<sessionName>/<destinationName>
@@ -183,18 +224,51 @@ public class MessageServices {
    }
 
    // -----------------------------------------------------------------------
-   // Remove all message from a Session:Destination
-   // DELETE /rest/message/<sessionName>/<destinationName>
+   // Remove messages from a Session:Destination, streamed as they are read
+   // PUT /rest/message/<sessionName>/<destinationName>/stream?limit=n
+   // defaults: limit=1 (0 = no limit)
+   // Each page of messages is committed once written to the response
+   // -----------------------------------------------------------------------
+
+   @PUT
+   @Path("/{" + Constants.P_SESSION_NAME + "}/{" + Constants.P_DESTINATION_NAME + "}/stream")
+   @Produces(MediaType.APPLICATION_JSON)
+   public Response removeMessagesStream(@PathParam(Constants.P_SESSION_NAME) String sessionName,
+                                        @PathParam(Constants.P_DESTINATION_NAME) String destinationName,
+                                        @DefaultValue("1") @QueryParam(Constants.P_LIMIT) int limit,
+                                        @Context Providers providers) {
+      log.debug("removeMessagesStream. sessionName={} destinationName={} limit={}", sessionName, destinationName, limit);
+
+      try {
+
+         MessageStream messageStream = eConfigManager.removeMessagesStream(sessionName, destinationName, limit);
+         return Response.ok(new MessageStreamOutput(messageStream, getObjectMapper(providers))).build();
+
+      } catch (ExecutionException e) {
+         return Response.serverError().build();
+      } catch (UnknownSessionException | UnknownDestinationException | UnknownQueueException e) {
+         return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+      }
+   }
+
+   // -----------------------------------------------------------------------
+   // Remove all message from a Session:Destination, or the ones matching a selector
+   // DELETE /rest/message/<sessionName>/<destinationName>?selector=s
    // -----------------------------------------------------------------------
 
    @DELETE
    @Path("/{" + Constants.P_SESSION_NAME + "}/{" + Constants.P_QUEUE_NAME + "}")
    public Response emptyDestination(@PathParam(Constants.P_SESSION_NAME) String sessionName,
-                                    @PathParam(Constants.P_QUEUE_NAME) String queueName) {
-      log.debug("emptyDestination. sessionName={} queueName={} ", sessionName, queueName);
+                                    @PathParam(Constants.P_QUEUE_NAME) String queueName,
+                                    @QueryParam(Constants.P_SELECTOR) String selector) {
+      log.debug("emptyDestination. sessionName={} queueName={} selector={}", sessionName, queueName, selector);
 
       try {
-         eConfigManager.emptyQueue(sessionName, queueName);
+         if ((selector == null) || (selector.trim().isEmpty())) {
+            eConfigManager.emptyQueue(sessionName, queueName);
+         } else {
+            eConfigManager.removeMessages(sessionName, queueName, selector);
+         }
          log.debug("emptyDestination OK");
          return Response.ok().build();
       } catch (ExecutionException e) {
@@ -204,4 +278,45 @@ public class MessageServices {
       }
    }
 
+   // -----------------------------------------------------------------------
+   // Move all messages from a Session:Queue to another queue, or the ones matching a selector
+   // PUT /rest/message/<sessionName>/<queueName>/move/<targetQueueName>?selector=s
+   // Returns the number of messages moved, -1 if unknown
+   // -----------------------------------------------------------------------
+
+   @PUT
+   @Path("/{" + Constants.P_SESSION_NAME + "}/{" + Constants.P_QUEUE_NAME + "}/move/{" + Constants.P_TARGET_QUEUE_NAME + "}")
+   @Produces(MediaType.APPLICATION_JSON)
+   public Response moveMessages(@PathParam(Constants.P_SESSION_NAME) String sessionName,
+                                @PathParam(Constants.P_QUEUE_NAME) String queueName,
+                                @PathParam(Constants.P_TARGET_QUEUE_NAME) String targetQueueName,
+                                @QueryParam(Constants.P_SELECTOR) String selector) {
+      log.debug("moveMessages. sessionName={} queueName={} targetQueueName={} selector={}",
+                sessionName,
+                queueName,
+                targetQueueName,
+                selector);
+
+      try {
+         int nb = eConfigManager.moveMessages(sessionName, queueName, selector, targetQueueName);
+         log.debug("moveMessages OK. nb={}", nb);
+         return Response.ok(nb).build();
+      } catch (ExecutionException e) {
+         return Response.serverError().build();
+      } catch (UnknownSessionException | UnknownDestinationException | UnknownQueueException e) {
+         return Response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
+      }
+   }
+
+   // -------
+   // Helpers
+   // -------
+
+   // The ObjectMapper configured by JacksonConfig
+   private ObjectMapper getObjectMapper(Providers providers) {
+      ContextResolver<ObjectMapper> resolver = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE);
+      ObjectMapper objectMapper = resolver == null ? null : resolver.getContext(MessageOutput.class);
+      return objectMapper == null ? new ObjectMapper() : objectMapper;
+   }
+
 }
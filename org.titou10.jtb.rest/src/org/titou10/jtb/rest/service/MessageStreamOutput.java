@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015-2016 Denis Forveille titou10.titou10@gmail.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.titou10.jtb.rest.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.titou10.jtb.connector.MessageStream;
+import org.titou10.jtb.connector.ex.ExecutionException;
+import org.titou10.jtb.connector.transport.MessageOutput;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * 
+ * Writes the messages of a MessageStream to the response as they are read, with a Jackson JsonGenerator
+ * 
+ * The response has no length and is sent with a chunked transfer encoding, one chunk per page of messages:
+ * { "messages" : [ ... ], "count" : n, "cursor" : "..." }. "cursor" is only present when the limit has been reached
+ * and the messages have been read in the order assumed by the cursor
+ * 
+ * @author Denis Forveille
+ *
+ */
+final class MessageStreamOutput implements StreamingOutput {
+
+   private static final Logger log = LoggerFactory.getLogger(MessageStreamOutput.class);
+
+   private final MessageStream messageStream;
+   private final ObjectMapper  objectMapper;
+
+   MessageStreamOutput(MessageStream messageStream, ObjectMapper objectMapper) {
+      this.messageStream = messageStream;
+      this.objectMapper = objectMapper;
+   }
+
+   @Override
+   public void write(OutputStream output) throws IOException {
+      // Flush once per page, not once per message
+      ObjectWriter writer = objectMapper.writerFor(MessageOutput.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+      JsonGenerator g = objectMapper.getFactory().createGenerator(output);
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+         g.useDefaultPrettyPrinter();
+      }
+
+      g.writeStartObject();
+      g.writeArrayFieldStart("messages");
+
+      int nb;
+      try {
+         nb = messageStream.write(messages -> {
+            for (MessageOutput messageOutput : messages) {
+               writer.writeValue(g, messageOutput);
+            }
+            g.flush();
+         });
+      } catch (ExecutionException e) {
+         // The status has already been sent: the response is truncated
+         log.error("Exception when streaming messages", e);
+         throw new IOException(e);
+      }
+
+      g.writeEndArray();
+      g.writeNumberField("count", nb);
+      if (messageStream.getNextCursor() != null) {
+         g.writeStringField("cursor", messageStream.getNextCursor());
+      }
+      g.writeEndObject();
+      g.close();
+   }
+}
@@ -49,6 +49,9 @@ public final class Constants {
    public static final String  P_SCRIPT_NAME                 = "scriptName";
    public static final String  P_MODE                        = "mode";
    public static final String  P_LIMIT                       = "limit";
+   public static final String  P_CURSOR                      = "cursor";
+   public static final String  P_SELECTOR                    = "selector";
+   public static final String  P_TARGET_QUEUE_NAME           = "targetQueueName";
 
    private Constants() {
       // NOP